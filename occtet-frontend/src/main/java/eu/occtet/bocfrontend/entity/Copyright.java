@@ -27,7 +27,11 @@ import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Set;
 
@@ -46,6 +50,10 @@ public class Copyright implements HasOrganization {
     @Column(name = "COPYRIGHT_TEXT", columnDefinition = "TEXT")
     private String copyrightText;
 
+    // kept in sync with the import services, which look copyrights up by this hash
+    @Column(name = "TEXT_HASH", length = 64)
+    private String textHash;
+
     @Column(name= "CURATED")
     private Boolean curated;
 
@@ -81,6 +89,8 @@ public class Copyright implements HasOrganization {
 
     public void setCopyrightText(String copyrightText) {this.copyrightText = copyrightText;}
 
+    public String getTextHash() {return textHash;}
+
     public Boolean isCurated() {
         return curated;
     }
@@ -128,5 +138,20 @@ public class Copyright implements HasOrganization {
     public void setOrganization(Organization organization) {
         this.organization = organization;
     }
+
+    @PrePersist
+    @PreUpdate
+    protected void updateTextHash() {
+        if (copyrightText == null) {
+            textHash = null;
+            return;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(copyrightText.getBytes(StandardCharsets.UTF_8));
+            textHash = HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
 
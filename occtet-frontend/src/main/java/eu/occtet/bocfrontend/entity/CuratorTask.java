@@ -56,6 +56,10 @@ public class CuratorTask {
     @Column(name = "PROGRESS")
     private Integer progress=0;
 
+    // number of packages a chunked import has committed, written by the import service
+    @Column(name = "IMPORT_CHECKPOINT")
+    private @Nullable Integer importCheckpoint;
+
     public CuratorTask() {
         status = TaskStatus.CREATING;
         progress = 0;
@@ -100,6 +104,14 @@ public class CuratorTask {
         this.progress = progress;
     }
 
+    public @Nullable Integer getImportCheckpoint() {
+        return importCheckpoint;
+    }
+
+    public void setImportCheckpoint(@Nullable Integer importCheckpoint) {
+        this.importCheckpoint = importCheckpoint;
+    }
+
     @Nullable
     public LocalDateTime getStartDate() {
         return startDate;
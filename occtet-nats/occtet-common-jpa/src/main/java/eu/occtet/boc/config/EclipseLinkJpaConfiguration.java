@@ -59,6 +59,9 @@ public class EclipseLinkJpaConfiguration extends JpaBaseConfiguration {
         map.put("eclipselink.ddl-generation","none");
         map.put("eclipselink.jdbc.allow-native-sql-queries","true");
         map.put("eclipselink.target-database","postgresql");
+        // bulk saves (files, copyrights) go out as JDBC batches instead of one statement per row
+        map.putIfAbsent("eclipselink.jdbc.batch-writing","JDBC");
+        map.putIfAbsent("eclipselink.jdbc.batch-writing.size","1000");
         return map;
     }
 
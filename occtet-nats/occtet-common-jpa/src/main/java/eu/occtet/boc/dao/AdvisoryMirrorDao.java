@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Reads and writes the local advisory mirror, the MIRRORED_ADVISORY and MIRRORED_ADVISORY_RANGE tables, through
+ * JDBC. An import writes hundreds of thousands of rows and matching reads the ranges of many packages at once,
+ * neither is worth tracking as entities.
+ */
+@Component
+public class AdvisoryMirrorDao {
+
+    private static final Logger log = LoggerFactory.getLogger(AdvisoryMirrorDao.class);
+
+    // stays below the bind parameter limits of the databases
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    private static final String INSERT_ADVISORY_SQL = "insert into MIRRORED_ADVISORY (ADVISORY_ID, SUMMARY, ALIASES, " +
+            "SEVERITY, REFERENCE_URLS, MODIFIED) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RANGE_SQL = "insert into MIRRORED_ADVISORY_RANGE (ADVISORY_ID, RANGE_INDEX, " +
+            "ECOSYSTEM, PACKAGE_NAME, INTRODUCED, FIXED, LAST_AFFECTED) values (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * An advisory of the mirror, aliases and references are comma separated.
+     */
+    public record AdvisoryRow(String advisoryId, String summary, String aliases, String severity, String references,
+                              LocalDateTime modified) {}
+
+    /**
+     * A range of affected versions of one package.
+     */
+    public record RangeRow(String advisoryId, int rangeIndex, String ecosystem, String packageName, String introduced,
+                           String fixed, String lastAffected) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AdvisoryMirrorDao(@Autowired DataSource dataSource) {
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return the modification time of the stored advisories by their id
+     */
+    public Map<String, LocalDateTime> findModified(Collection<String> advisoryIds) {
+        Map<String, LocalDateTime> modified = new HashMap<>();
+        for (List<String> chunk : chunks(advisoryIds)) {
+            jdbcTemplate.query("select ADVISORY_ID, MODIFIED from MIRRORED_ADVISORY where ADVISORY_ID in (:ids)",
+                    new MapSqlParameterSource("ids", chunk), rs -> {
+                        Timestamp timestamp = rs.getTimestamp(2);
+                        modified.put(rs.getString(1), timestamp == null ? null : timestamp.toLocalDateTime());
+                    });
+        }
+        return modified;
+    }
+
+    /**
+     * Removes the advisories with the given ids and their ranges, then inserts the given advisories and ranges in
+     * JDBC batches, all in one transaction so matching never sees a batch half written. Advisories that were
+     * withdrawn or have no supported range are given as rows without ranges, which keeps their modification time.
+     */
+    @Transactional
+    public void replace(Collection<String> advisoryIds, List<AdvisoryRow> advisories, List<RangeRow> ranges) {
+        for (List<String> chunk : chunks(advisoryIds)) {
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", chunk);
+            jdbcTemplate.update("delete from MIRRORED_ADVISORY_RANGE where ADVISORY_ID in (:ids)", ids);
+            jdbcTemplate.update("delete from MIRRORED_ADVISORY where ADVISORY_ID in (:ids)", ids);
+        }
+        if (!advisories.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_ADVISORY_SQL, advisories, advisories.size(), (ps, row) -> {
+                ps.setString(1, row.advisoryId());
+                ps.setString(2, row.summary());
+                ps.setString(3, row.aliases());
+                ps.setString(4, row.severity());
+                ps.setString(5, row.references());
+                ps.setTimestamp(6, row.modified() == null ? null : Timestamp.valueOf(row.modified()));
+            });
+        }
+        if (!ranges.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_RANGE_SQL, ranges, ranges.size(), (ps, row) -> {
+                ps.setString(1, row.advisoryId());
+                ps.setInt(2, row.rangeIndex());
+                ps.setString(3, row.ecosystem());
+                ps.setString(4, row.packageName());
+                ps.setString(5, row.introduced());
+                ps.setString(6, row.fixed());
+                ps.setString(7, row.lastAffected());
+            });
+        }
+        log.debug("replaced {} advisories with {} advisories and {} ranges", advisoryIds.size(), advisories.size(), ranges.size());
+    }
+
+    /**
+     * @return the ranges of all given packages of one ecosystem, package names as stored by the import
+     */
+    public List<RangeRow> findRanges(String ecosystem, Collection<String> packageNames) {
+        List<RangeRow> ranges = new ArrayList<>();
+        for (List<String> chunk : chunks(packageNames)) {
+            ranges.addAll(jdbcTemplate.query("select ADVISORY_ID, RANGE_INDEX, ECOSYSTEM, PACKAGE_NAME, INTRODUCED, " +
+                            "FIXED, LAST_AFFECTED from MIRRORED_ADVISORY_RANGE where ECOSYSTEM = :ecosystem and PACKAGE_NAME in (:names)",
+                    new MapSqlParameterSource("ecosystem", ecosystem).addValue("names", chunk),
+                    (rs, rowNum) -> new RangeRow(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                            rs.getString(5), rs.getString(6), rs.getString(7))));
+        }
+        return ranges;
+    }
+
+    public List<AdvisoryRow> findAdvisories(Collection<String> advisoryIds) {
+        List<AdvisoryRow> advisories = new ArrayList<>();
+        for (List<String> chunk : chunks(advisoryIds)) {
+            advisories.addAll(jdbcTemplate.query("select ADVISORY_ID, SUMMARY, ALIASES, SEVERITY, REFERENCE_URLS, MODIFIED " +
+                            "from MIRRORED_ADVISORY where ADVISORY_ID in (:ids)", new MapSqlParameterSource("ids", chunk),
+                    (rs, rowNum) -> {
+                        Timestamp modified = rs.getTimestamp(6);
+                        return new AdvisoryRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                                rs.getString(5), modified == null ? null : modified.toLocalDateTime());
+                    }));
+        }
+        return advisories;
+    }
+
+    private static List<List<String>> chunks(Collection<String> values) {
+        List<String> list = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += QUERY_CHUNK_SIZE) {
+            chunks.add(list.subList(i, Math.min(i + QUERY_CHUNK_SIZE, list.size())));
+        }
+        return chunks;
+    }
+}
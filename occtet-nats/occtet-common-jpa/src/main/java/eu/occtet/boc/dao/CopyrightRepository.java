@@ -21,18 +21,73 @@ package eu.occtet.boc.dao;
 
 import eu.occtet.boc.entity.Copyright;
 import eu.occtet.boc.entity.File;
+import eu.occtet.boc.entity.Organization;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 public interface CopyrightRepository extends JpaRepository<Copyright, Long> {
 
-    List<Copyright> findByCopyrightText(String copyrightText);
+    // hashes per IN query, kept below the bind parameter limits of the databases
+    int HASH_LOOKUP_BATCH_SIZE = 1000;
 
-    List<Copyright> findByFilesIn(List<File> files);
+    List<Copyright> findByTextHash(String textHash);
+
+    List<Copyright> findByTextHashIn(Collection<String> textHashes);
 
-    List<Copyright> findByCopyrightTextIn(Collection<String> copyrightTexts);
+    List<Copyright> findByFilesIn(List<File> files);
 
     List<Copyright> findByGarbageTrue();
+
+    /**
+     * Exact text lookup, resolved through the indexed text hash.
+     */
+    default List<Copyright> findByCopyrightText(String copyrightText) {
+        List<Copyright> result = new ArrayList<>();
+        for (Copyright copyright : findByTextHash(Copyright.hashOf(copyrightText))) {
+            if (Objects.equals(copyrightText, copyright.getCopyrightText())) result.add(copyright);
+        }
+        return result;
+    }
+
+    /**
+     * Exact text lookup for many texts, one query per {@value #HASH_LOOKUP_BATCH_SIZE} texts.
+     */
+    default List<Copyright> findByCopyrightTextIn(Collection<String> copyrightTexts) {
+        Set<String> texts = new HashSet<>(copyrightTexts);
+        List<String> hashes = texts.stream().map(Copyright::hashOf).filter(Objects::nonNull).distinct().toList();
+        List<Copyright> result = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i += HASH_LOOKUP_BATCH_SIZE) {
+            for (Copyright copyright : findByTextHashIn(hashes.subList(i, Math.min(hashes.size(), i + HASH_LOOKUP_BATCH_SIZE)))) {
+                if (texts.contains(copyright.getCopyrightText())) result.add(copyright);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves all texts to copyrights, creating the missing ones with one batched insert. Texts that exist several
+     * times resolve to the first copyright found.
+     *
+     * @return the copyright of every given text, by text
+     */
+    default Map<String, Copyright> findOrCreateAll(Collection<String> copyrightTexts, Organization organization) {
+        Map<String, Copyright> byText = new HashMap<>();
+        for (Copyright copyright : findByCopyrightTextIn(copyrightTexts)) {
+            byText.putIfAbsent(copyright.getCopyrightText(), copyright);
+        }
+
+        List<Copyright> created = new ArrayList<>();
+        for (String text : copyrightTexts) {
+            if (text != null && !byText.containsKey(text)) {
+                Copyright copyright = new Copyright(text, new HashSet<>(), organization);
+                created.add(copyright);
+                byText.put(text, copyright);
+            }
+        }
+        if (!created.isEmpty()) {
+            saveAll(created);
+        }
+        return byText;
+    }
 }
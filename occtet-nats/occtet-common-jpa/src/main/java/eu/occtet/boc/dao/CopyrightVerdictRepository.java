@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import eu.occtet.boc.entity.CopyrightVerdict;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.*;
+
+public interface CopyrightVerdictRepository extends JpaRepository<CopyrightVerdict, Long> {
+
+    // hashes per IN query, kept below the bind parameter limits of the databases
+    int HASH_LOOKUP_BATCH_SIZE = 1000;
+
+    Optional<CopyrightVerdict> findByTextHash(String textHash);
+
+    List<CopyrightVerdict> findByTextHashIn(Collection<String> textHashes);
+
+    /**
+     * Statements judged as garbage by the given model under the given system prompt version.
+     */
+    @Query("select v.copyrightText from CopyrightVerdict v where v.garbage = true " +
+            "and v.model = :model and v.promptVersion = :promptVersion")
+    List<String> findGarbageCopyrightTexts(@Param("model") String model, @Param("promptVersion") String promptVersion);
+
+    /**
+     * The verdict recorded last, its model and prompt version are taken as current until a change notification
+     * names them.
+     */
+    Optional<CopyrightVerdict> findFirstByOrderByIdDesc();
+
+    /**
+     * Verdicts of many statements, one query per {@value #HASH_LOOKUP_BATCH_SIZE} statements.
+     *
+     * @return the verdicts by the hash of the normalized statement
+     */
+    default Map<String, CopyrightVerdict> findByCopyrightTexts(Collection<String> copyrightTexts) {
+        List<String> hashes = copyrightTexts.stream().map(CopyrightVerdict::hashOf).filter(Objects::nonNull).distinct().toList();
+        Map<String, CopyrightVerdict> result = new HashMap<>();
+        for (int i = 0; i < hashes.size(); i += HASH_LOOKUP_BATCH_SIZE) {
+            for (CopyrightVerdict verdict : findByTextHashIn(hashes.subList(i, Math.min(hashes.size(), i + HASH_LOOKUP_BATCH_SIZE)))) {
+                result.put(verdict.getTextHash(), verdict);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts File rows through JDBC batches, for directory trees with far more files than are worth tracking as
+ * entities. Ids are taken from the sequence the File entity uses, in blocks of its allocation size, so they never
+ * collide with ids EclipseLink hands out.
+ */
+@Component
+public class FileBulkDao {
+
+    private static final Logger log = LoggerFactory.getLogger(FileBulkDao.class);
+
+    private static final String INSERT_SQL = "insert into FILE (ID, PARENT_ID, PROJECT_ID, FILENAME, PHYSICAL_PATH, " +
+            "PROJECT_PATH, ARTIFACT_PATH, IS_DIRECTORY, REVIEWED, CREATED_DATE, LAST_MODIFIED_DATE) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * A File row to insert.
+     */
+    public record FileRow(long id, Long parentId, long projectId, String fileName, String physicalPath,
+                          String projectPath, String artifactPath, boolean directory) {}
+
+    private JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    @Autowired
+    public FileBulkDao(@Autowired DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        sequenceIdAllocator = new SequenceIdAllocator(jdbcTemplate);
+    }
+
+    /**
+     * Reserves ids for File rows, rounded up to whole sequence blocks. On PostgreSQL all blocks are fetched with
+     * one query.
+     */
+    public List<Long> allocateIds(int count) {
+        return sequenceIdAllocator.allocateIds(count);
+    }
+
+    /**
+     * Inserts the rows in one JDBC batch. Parents have to be inserted before, or in the same call before their
+     * children.
+     */
+    public void insert(List<FileRow> rows) {
+        if (rows.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.id());
+            if (row.parentId() == null) ps.setNull(2, Types.BIGINT);
+            else ps.setLong(2, row.parentId());
+            ps.setLong(3, row.projectId());
+            ps.setString(4, row.fileName());
+            ps.setString(5, row.physicalPath());
+            ps.setString(6, row.projectPath());
+            ps.setString(7, row.artifactPath());
+            ps.setBoolean(8, row.directory());
+            ps.setBoolean(9, false);
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+        log.debug("inserted {} file rows", rows.size());
+    }
+}
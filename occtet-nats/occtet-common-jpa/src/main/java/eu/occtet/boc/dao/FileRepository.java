@@ -36,6 +36,7 @@ public interface FileRepository extends JpaRepository<File, Long> {
 
     List<File> findAllByProject(Project project);
     List<File> findByInventoryItemsContaining(InventoryItem inventoryItem);
+    List<File> findAllByParentIn(Collection<File> parents);
 
     @Query("select f.physicalPath from File f where f.project = :project")
     Collection<String> findAllPathsByProject(@Param("project") Project project);
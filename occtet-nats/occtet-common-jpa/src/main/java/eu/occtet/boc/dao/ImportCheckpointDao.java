@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Reads and writes the import checkpoint of a curator task. The task table belongs to the frontend, only the
+ * IMPORT_CHECKPOINT column is touched here. A checkpoint is the index of the first package that still has to be
+ * imported. Work tasks started by the frontend carry the id of their curator task as task id, tasks with any other
+ * id have no row to keep a checkpoint in and always import from scratch.
+ */
+@Component
+public class ImportCheckpointDao {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportCheckpointDao.class);
+
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    public ImportCheckpointDao(@Autowired DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return the checkpoint of the task, or null if the task has none or cannot be read
+     */
+    public Integer findCheckpoint(String taskId) {
+        Long id = curatorTaskId(taskId);
+        if (id == null) return null;
+        try {
+            List<Integer> result = jdbcTemplate.queryForList(
+                    "select IMPORT_CHECKPOINT from CURATOR_TASK where ID = ?", Integer.class, id);
+            return result.isEmpty() ? null : result.getFirst();
+        } catch (DataAccessException e) {
+            log.warn("Could not read import checkpoint of task {}: {}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void saveCheckpoint(String taskId, int nextPackageIndex) {
+        update(taskId, nextPackageIndex);
+    }
+
+    public void clearCheckpoint(String taskId) {
+        update(taskId, null);
+    }
+
+    private void update(String taskId, Integer checkpoint) {
+        Long id = curatorTaskId(taskId);
+        if (id == null) return;
+        try {
+            jdbcTemplate.update("update CURATOR_TASK set IMPORT_CHECKPOINT = ? where ID = ?", checkpoint, id);
+        } catch (DataAccessException e) {
+            // losing a checkpoint only means a restarted import begins from scratch
+            log.warn("Could not write import checkpoint of task {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the id of the curator task, or null if the task id is not one
+     */
+    private static Long curatorTaskId(String taskId) {
+        if (taskId == null || taskId.isBlank()) return null;
+        try {
+            return Long.valueOf(taskId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -20,7 +20,7 @@
 package eu.occtet.boc.dao;
 
 
-import org.apache.commons.lang3.tuple.Pair;
+import eu.occtet.boc.entity.InformationFile;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
@@ -39,15 +39,25 @@ public class InformationFileDao {
         jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
-    public List<Pair<Long,Float>> findInformationFileContentSimilarity(String text, int limit) {
+    /**
+     * Information files with a context most similar to the given text, in one query.
+     * The trigram distance operator orders by the same measure as similarity() but lets the trigram GiST index
+     * on FILE_CONTEXT deliver the nearest rows, so the table is not scanned.
+     */
+    public List<InformationFile> findInformationFilesByContextSimilarity(String text, int limit) {
 
-        String sql = "select *, similarity(file_context,?) as rank " +
-                "from INFORMATION_FILE order by rank desc limit ?;";
+        String sql = "select id, file_name, file_context, fileinformation_content, file_path, similarity(file_context,?) as rank " +
+                "from INFORMATION_FILE order by file_context <-> ? limit ?;";
 
-        List<Map<String, Object>> result= jdbcTemplate.queryForList(sql, text, limit);
+        List<Map<String, Object>> result= jdbcTemplate.queryForList(sql, text, text, limit);
         return result.stream()
-                .filter(m-> m.get("rank")!=null && (Float)m.get("rank")>0)
-                .map(map-> Pair.of((Long)map.get("id"),(Float)map.get("rank")))
+                .filter(m-> m.get("rank")!=null && ((Number)m.get("rank")).floatValue()>0)
+                .map(map-> {
+                    InformationFile file = new InformationFile((String) map.get("file_name"), (String) map.get("file_context"),
+                            (String) map.get("fileinformation_content"), (String) map.get("file_path"));
+                    file.setId(((Number) map.get("id")).longValue());
+                    return file;
+                })
                 .collect(Collectors.toList());
     }
 
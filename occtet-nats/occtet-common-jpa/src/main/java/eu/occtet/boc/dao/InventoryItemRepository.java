@@ -26,20 +26,31 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface InventoryItemRepository extends JpaRepository<InventoryItem, Long> {
 
     List<InventoryItem> findByProjectAndInventoryName(Project project, String inventoryName);
 
+    List<InventoryItem> findByProjectAndInventoryNameIn(Project project, Collection<String> inventoryNames);
+
     List<InventoryItem> findByProjectAndSoftwareComponentAndInventoryName(Project project, SoftwareComponent sc, String inventoryName);
 
     List<InventoryItem> findBySpdxIdAndProject(String spdxID, Project project);
 
+    List<InventoryItem> findByProjectAndSpdxIdIn(Project project, Collection<String> spdxIds);
+
     List<InventoryItem> findAllByProject(Project project);
     List<InventoryItem> findAllByProjectAndCurated(Project project, boolean curated);
 
     @Query("select distinct i from InventoryItem i join i.project p join i.softwareComponent sc where p.id = :projectId and sc.purl = :purl")
     List<InventoryItem> findByProjectIdAndSoftwareComponentPurl(@Param("projectId") Long projectId,
                                                                 @Param("purl") String purl);
+
+    @Query("select distinct sc.id from InventoryItem i join i.softwareComponent sc where i.project.id = :projectId")
+    List<Long> findSoftwareComponentIdsByProjectId(@Param("projectId") Long projectId);
+
+    @Query("select distinct i.project.id from InventoryItem i where i.softwareComponent is not null")
+    List<Long> findProjectIdsWithSoftwareComponents();
 }
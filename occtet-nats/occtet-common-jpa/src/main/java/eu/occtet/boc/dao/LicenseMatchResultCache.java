@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import eu.occtet.boc.entity.LicenseMatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * License comparison results by license id and normalized text, kept in the LICENSE_MATCH_RESULT table with the
+ * most recently used entries in memory. Concurrent requests for the same text wait for the first comparison
+ * instead of running their own.
+ */
+@Component
+public class LicenseMatchResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseMatchResultCache.class);
+
+    private final LicenseMatchResultRepository licenseMatchResultRepository;
+
+    private final Map<String, LicenseMatchResult> recentResults;
+
+    private final Map<String, CompletableFuture<LicenseMatchResult>> runningComparisons = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LicenseMatchResultCache(LicenseMatchResultRepository licenseMatchResultRepository,
+                                   @Value("${licensematcher.result-cache.size:10000}") int maxEntries) {
+        this.licenseMatchResultRepository = licenseMatchResultRepository;
+        this.recentResults = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LicenseMatchResult> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * @return the stored result for the license and normalized text, if the text has been compared before
+     */
+    public Optional<LicenseMatchResult> find(String licenseId, String normalizedText) {
+        String textHash = LicenseMatchResult.hashOf(normalizedText);
+        return Optional.ofNullable(lookup(licenseId, textHash));
+    }
+
+    /**
+     * Returns the stored result for the license and normalized text, or runs the comparison and stores its result.
+     * The comparison may return null if the text could not be compared, which is not stored.
+     */
+    public LicenseMatchResult findOrCompare(String licenseId, String normalizedText,
+                                            Supplier<LicenseMatchResult> comparison) {
+        String textHash = LicenseMatchResult.hashOf(normalizedText);
+        LicenseMatchResult known = lookup(licenseId, textHash);
+        if (known != null) return known;
+
+        String key = keyOf(licenseId, textHash);
+        CompletableFuture<LicenseMatchResult> own = new CompletableFuture<>();
+        CompletableFuture<LicenseMatchResult> running = runningComparisons.putIfAbsent(key, own);
+        if (running != null) {
+            log.debug("waiting for running comparison of {} with text {}", licenseId, textHash);
+            return running.join();
+        }
+        try {
+            LicenseMatchResult result = comparison.get();
+            if (result != null) {
+                result.setLicenseId(licenseId);
+                result.setTextHash(textHash);
+                result = save(result);
+            }
+            own.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            runningComparisons.remove(key, own);
+        }
+    }
+
+    /**
+     * Attaches the verdict of the AI license matcher to the result of the license and normalized text.
+     */
+    public void saveAiVerdict(String licenseId, String normalizedText, String aiVerdict) {
+        String textHash = LicenseMatchResult.hashOf(normalizedText);
+        LicenseMatchResult result = licenseMatchResultRepository.findByLicenseIdAndTextHash(licenseId, textHash)
+                .orElseGet(() -> new LicenseMatchResult(licenseId, textHash, true, null, null));
+        result.setAiVerdict(aiVerdict);
+        save(result);
+    }
+
+    private LicenseMatchResult lookup(String licenseId, String textHash) {
+        String key = keyOf(licenseId, textHash);
+        LicenseMatchResult known = recentResults.get(key);
+        // the AI verdict is written by another service, results still waiting for one are read again
+        if (known != null && (!known.isDifferenceFound() || known.getAiVerdict() != null)) return known;
+
+        Optional<LicenseMatchResult> stored = licenseMatchResultRepository.findByLicenseIdAndTextHash(licenseId, textHash);
+        stored.ifPresent(result -> recentResults.put(key, result));
+        return stored.orElse(null);
+    }
+
+    private LicenseMatchResult save(LicenseMatchResult result) {
+        String key = keyOf(result.getLicenseId(), result.getTextHash());
+        try {
+            result = licenseMatchResultRepository.save(result);
+        } catch (DataAccessException | TransactionException e) {
+            // another instance stored the same text in the meantime
+            log.debug("could not store result of {} with text {}: {}", result.getLicenseId(), result.getTextHash(), e.getMessage());
+            Optional<LicenseMatchResult> stored = licenseMatchResultRepository.findByLicenseIdAndTextHash(
+                    result.getLicenseId(), result.getTextHash());
+            if (stored.isEmpty()) return result;
+            result = stored.get();
+        }
+        recentResults.put(key, result);
+        return result;
+    }
+
+    private static String keyOf(String licenseId, String textHash) {
+        return licenseId + ":" + textHash;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import eu.occtet.boc.entity.OrtIssue;
+import eu.occtet.boc.entity.OrtViolation;
+
+import java.util.*;
+
+/**
+ * Purl-keyed view of the ORT issues and violations of one project.
+ * Built once per import so that assigning findings to inventory items is a map lookup
+ * instead of a scan over all findings of the project for every package.
+ * Every lookup returns all findings of the purl. Inventory items that share a purl assign them in turn, so the item
+ * processed last keeps them, as when the findings were reloaded for every package.
+ */
+public class OrtFindingIndex {
+
+    private final Map<String, List<OrtIssue>> issuesByPurl = new HashMap<>();
+    private final Map<String, List<OrtViolation>> violationsByPurl = new HashMap<>();
+
+    public OrtFindingIndex(Collection<OrtIssue> ortIssues, Collection<OrtViolation> ortViolations) {
+        for (OrtIssue issue : ortIssues) {
+            if (issue.getPurl() != null) {
+                issuesByPurl.computeIfAbsent(issue.getPurl(), k -> new ArrayList<>()).add(issue);
+            }
+        }
+        for (OrtViolation violation : ortViolations) {
+            if (violation.getPurl() != null) {
+                violationsByPurl.computeIfAbsent(violation.getPurl(), k -> new ArrayList<>()).add(violation);
+            }
+        }
+    }
+
+    /**
+     * @return the issues for the given purl, never null
+     */
+    public List<OrtIssue> findIssues(String purl) {
+        if (purl == null) return Collections.emptyList();
+        return issuesByPurl.getOrDefault(purl, Collections.emptyList());
+    }
+
+    /**
+     * @return the violations for the given purl, never null
+     */
+    public List<OrtViolation> findViolations(String purl) {
+        if (purl == null) return Collections.emptyList();
+        return violationsByPurl.getOrDefault(purl, Collections.emptyList());
+    }
+}
@@ -20,9 +20,12 @@
 package eu.occtet.boc.dao;
 
 import eu.occtet.boc.entity.spdxV2.RelationshipEntity;
+import eu.occtet.boc.entity.spdxV2.SpdxDocumentRoot;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RelationshipRepository extends JpaRepository<RelationshipEntity, Long> {
+
+    void deleteBySpdxDocument(SpdxDocumentRoot spdxDocument);
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hands out ids of the default sequence for rows inserted through JDBC. Ids are reserved in blocks of the
+ * allocation size EclipseLink uses, so they never collide with ids EclipseLink hands out.
+ */
+class SequenceIdAllocator {
+
+    // allocation size of the default sequence, every sequence value reserves the ids (value - 49) to value
+    static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    SequenceIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves ids, rounded up to whole sequence blocks. On PostgreSQL all blocks are fetched with one query.
+     */
+    List<Long> allocateIds(int count) {
+        int blocks = (count + SEQUENCE_ALLOCATION_SIZE - 1) / SEQUENCE_ALLOCATION_SIZE;
+        List<Long> values;
+        if (isPostgres()) {
+            values = jdbcTemplate.queryForList("select nextval('seq_gen_sequence') from generate_series(1, ?)",
+                    Long.class, blocks);
+        } else {
+            // other databases return the same value for every row of one statement
+            values = new ArrayList<>(blocks);
+            for (int i = 0; i < blocks; i++) {
+                values.add(jdbcTemplate.queryForObject("select next value for SEQ_GEN_SEQUENCE", Long.class));
+            }
+        }
+        List<Long> ids = new ArrayList<>(blocks * SEQUENCE_ALLOCATION_SIZE);
+        for (long value : values) {
+            for (long id = value - SEQUENCE_ALLOCATION_SIZE + 1; id <= value; id++) ids.add(id);
+        }
+        return ids;
+    }
+
+    boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            postgres = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+        }
+        return postgres;
+    }
+}
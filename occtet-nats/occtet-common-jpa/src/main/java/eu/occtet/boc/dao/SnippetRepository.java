@@ -20,9 +20,12 @@
 package eu.occtet.boc.dao;
 
 import eu.occtet.boc.entity.spdxV2.Snippet;
+import eu.occtet.boc.entity.spdxV2.SpdxDocumentRoot;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SnippetRepository extends JpaRepository<Snippet, Long> {
+
+    void deleteBySpdxDocument(SpdxDocumentRoot spdxDocument);
 }
@@ -25,11 +25,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SoftwareComponentRepository extends JpaRepository<SoftwareComponent, Long> {
 
     List<SoftwareComponent> findByNameAndVersion(String softwareName, String version);
+    List<SoftwareComponent> findByNameIn(Collection<String> softwareNames);
     @Query("SELECT s FROM SoftwareComponent s, Project p WHERE p.organization = s.organization AND p = :project")
     List<SoftwareComponent> findComponentsByProject(@Param("project") Project project);
 
@@ -19,10 +19,13 @@
 
 package eu.occtet.boc.dao;
 
+import eu.occtet.boc.entity.spdxV2.SpdxDocumentRoot;
 import eu.occtet.boc.entity.spdxV2.SpdxFileEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SpdxFileRepository extends JpaRepository<SpdxFileEntity, Long> {
+
+    void deleteBySpdxDocument(SpdxDocumentRoot spdxDocument);
 }
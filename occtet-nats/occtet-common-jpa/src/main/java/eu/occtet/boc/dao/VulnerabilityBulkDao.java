@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.dao;
+
+import eu.occtet.boc.converter.ListStringConverter;
+import eu.occtet.boc.entity.Vulnerability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts Vulnerability rows that may be inserted by another consumer at the same time. A row whose organization
+ * already has a vulnerability with the same id is skipped instead of failing the whole batch, the caller reads the
+ * rows back afterwards.
+ */
+@Component
+public class VulnerabilityBulkDao {
+
+    private static final Logger log = LoggerFactory.getLogger(VulnerabilityBulkDao.class);
+
+    private static final String COLUMNS = "ID, VULNERABILITY_ID, SUMMARY, ALIASES, SEVERITY, EXPLOITABILITY, RISK_SCORE, " +
+            "FIXED_PACKAGES, SOURCE_URL, REFRENCE_URLS, MANUALLY_CREATED, CREATED_AT, ORGANIZATION_ID";
+
+    private static final String POSTGRES_INSERT_SQL = "insert into VULNERABILITY (" + COLUMNS + ") " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) on conflict (ORGANIZATION_ID, VULNERABILITY_ID) do nothing";
+
+    private static final String MERGE_SQL = "merge into VULNERABILITY t using (values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)) " +
+            "s (" + COLUMNS + ") on t.ORGANIZATION_ID = s.ORGANIZATION_ID and t.VULNERABILITY_ID = s.VULNERABILITY_ID " +
+            "when not matched then insert (" + COLUMNS + ") values (" +
+            Arrays.stream(COLUMNS.split(", ")).map(column -> "s." + column).reduce((a, b) -> a + ", " + b).orElseThrow() + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    @Autowired
+    public VulnerabilityBulkDao(DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        sequenceIdAllocator = new SequenceIdAllocator(jdbcTemplate);
+    }
+
+    /**
+     * Inserts the vulnerabilities in one JDBC batch, skipping those their organization already has. The ids of the
+     * given entities are not set, they are read back by vulnerability id.
+     *
+     * @return the number of inserted rows
+     */
+    public int insertMissing(List<Vulnerability> vulnerabilities) {
+        if (vulnerabilities.isEmpty()) return 0;
+        List<Long> ids = sequenceIdAllocator.allocateIds(vulnerabilities.size());
+        List<Map.Entry<Long, Vulnerability>> rows = new ArrayList<>(vulnerabilities.size());
+        for (int i = 0; i < vulnerabilities.size(); i++) rows.add(Map.entry(ids.get(i), vulnerabilities.get(i)));
+        String sql = sequenceIdAllocator.isPostgres() ? POSTGRES_INSERT_SQL : MERGE_SQL;
+        int[][] counts = jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> bind(ps, row.getKey(), row.getValue()));
+        int inserted = Arrays.stream(counts).flatMapToInt(Arrays::stream).map(count -> Math.max(count, 0)).sum();
+        log.debug("inserted {} of {} vulnerabilities", inserted, vulnerabilities.size());
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement ps, long id, Vulnerability vulnerability) throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, vulnerability.getVulnerabilityId());
+        ps.setString(3, vulnerability.getSummary());
+        ps.setString(4, ListStringConverter.toStringOrNull(vulnerability.getAliases()));
+        ps.setString(5, vulnerability.getSeverity());
+        setDouble(ps, 6, vulnerability.getExploitability());
+        setDouble(ps, 7, vulnerability.getRiskScore());
+        ps.setString(8, ListStringConverter.toStringOrNull(vulnerability.getFixedPackages()));
+        ps.setString(9, vulnerability.getSourceUrl());
+        ps.setString(10, ListStringConverter.toStringOrNull(vulnerability.getReferences()));
+        ps.setBoolean(11, Boolean.TRUE.equals(vulnerability.isManuallyCreated()));
+        ps.setTimestamp(12, Timestamp.valueOf(vulnerability.getCreatedAt() == null ? LocalDateTime.now() : vulnerability.getCreatedAt()));
+        ps.setLong(13, vulnerability.getOrganization().getId());
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) ps.setNull(index, Types.DOUBLE);
+        else ps.setDouble(index, value);
+    }
+}
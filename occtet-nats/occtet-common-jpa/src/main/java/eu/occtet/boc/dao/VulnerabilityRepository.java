@@ -23,9 +23,13 @@ import eu.occtet.boc.entity.Vulnerability;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface VulnerabilityRepository extends JpaRepository<Vulnerability, Long> {
     Optional<Vulnerability> findByVulnerabilityId(String vulnerabilityId);
+
+    List<Vulnerability> findByVulnerabilityIdIn(Collection<String> vulnerabilityIds);
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * Advisories known for a package URL, as returned by the vulnerability database. The advisories are kept as the
+ * JSON the database returned, so a package that is part of many projects is looked up only once until the entry
+ * expires. Entries are shared by all organizations, they hold public data only.
+ */
+@Entity
+@Table(name = "ADVISORY_CACHE_ENTRY", uniqueConstraints = {
+        @UniqueConstraint(name = "IDX_ADVISORY_CACHE_ENTRY_UNQ", columnNames = {"PURL"})})
+public class AdvisoryCacheEntry {
+
+    @Id
+    @Column(name = "ID", nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "PURL", length = 2048, nullable = false)
+    private String purl;
+
+    // comma separated ids of the advisories affecting the package
+    @Column(name = "ADVISORY_IDS", columnDefinition = "TEXT")
+    private String advisoryIds;
+
+    @Column(name = "ADVISORIES", columnDefinition = "TEXT")
+    private String advisories;
+
+    @Column(name = "FETCHED_AT", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    public AdvisoryCacheEntry() {
+    }
+
+    public AdvisoryCacheEntry(String purl) {
+        this.purl = purl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getPurl() {
+        return purl;
+    }
+
+    public void setPurl(String purl) {
+        this.purl = purl;
+    }
+
+    public String getAdvisoryIds() {
+        return advisoryIds;
+    }
+
+    public void setAdvisoryIds(String advisoryIds) {
+        this.advisoryIds = advisoryIds;
+    }
+
+    public String getAdvisories() {
+        return advisories;
+    }
+
+    public void setAdvisories(String advisories) {
+        this.advisories = advisories;
+    }
+
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(LocalDateTime fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
@@ -23,7 +23,11 @@ package eu.occtet.boc.entity;
 import jakarta.persistence.*;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Set;
 
@@ -41,6 +45,9 @@ public class Copyright implements HasOrganization {
     @Column(name = "COPYRIGHT_TEXT",columnDefinition = "TEXT")
     private String copyrightText;
 
+    @Column(name = "TEXT_HASH", length = 64)
+    private String textHash;
+
     @Column(name= "CURATED")
     private Boolean curated;
 
@@ -106,6 +113,10 @@ public class Copyright implements HasOrganization {
         this.copyrightText = copyrightString;
     }
 
+    public String getTextHash() {
+        return textHash;
+    }
+
     public boolean isCurated() {
         return curated;
     }
@@ -163,4 +174,24 @@ public class Copyright implements HasOrganization {
     public void setOrganization(Organization organization) {
         this.organization = organization;
     }
+
+    /**
+     * Hex encoded SHA-256 of the exact copyright text, lookups by text go through the indexed hash instead of
+     * comparing the TEXT column.
+     */
+    public static String hashOf(String copyrightText) {
+        if (copyrightText == null) return null;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(copyrightText.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void updateTextHash() {
+        this.textHash = hashOf(copyrightText);
+    }
 }
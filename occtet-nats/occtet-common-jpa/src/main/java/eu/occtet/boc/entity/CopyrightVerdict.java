@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import jakarta.persistence.*;
+
+import java.util.Locale;
+
+
+/**
+ * Verdict of the AI copyright filter on a copyright statement, keyed by the hash of the normalized statement.
+ * Statements that recur across components and projects are judged by the model only once per model and prompt
+ * version.
+ */
+@Entity
+@Table(name = "COPYRIGHT_VERDICT", uniqueConstraints = {
+        @UniqueConstraint(name = "IDX_COPYRIGHT_VERDICT_UNQ", columnNames = {"TEXT_HASH"})})
+public class CopyrightVerdict {
+
+    @Id
+    @Column(name = "ID", nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "TEXT_HASH", length = 64, nullable = false)
+    private String textHash;
+
+    // the statement as it was first judged
+    @Column(name = "COPYRIGHT_TEXT", columnDefinition = "TEXT")
+    private String copyrightText;
+
+    @Column(name = "GARBAGE")
+    private Boolean garbage;
+
+    @Column(name = "MODEL")
+    private String model;
+
+    @Column(name = "PROMPT_VERSION", length = 64)
+    private String promptVersion;
+
+    public CopyrightVerdict() {
+    }
+
+    public CopyrightVerdict(String copyrightText, Boolean garbage, String model, String promptVersion) {
+        this.copyrightText = copyrightText;
+        this.textHash = hashOf(copyrightText);
+        this.garbage = garbage;
+        this.model = model;
+        this.promptVersion = promptVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTextHash() {
+        return textHash;
+    }
+
+    public void setTextHash(String textHash) {
+        this.textHash = textHash;
+    }
+
+    public String getCopyrightText() {
+        return copyrightText;
+    }
+
+    public void setCopyrightText(String copyrightText) {
+        this.copyrightText = copyrightText;
+    }
+
+    public Boolean getGarbage() {
+        return garbage;
+    }
+
+    public void setGarbage(Boolean garbage) {
+        this.garbage = garbage;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getPromptVersion() {
+        return promptVersion;
+    }
+
+    public void setPromptVersion(String promptVersion) {
+        this.promptVersion = promptVersion;
+    }
+
+    /**
+     * Lower case, (c) for the copyright sign and single spaces, so that statements differing only in these points
+     * share a verdict.
+     */
+    public static String normalize(String copyrightText) {
+        if (copyrightText == null) return null;
+        StringBuilder b = new StringBuilder(copyrightText.length());
+        boolean space = false;
+        for (int i = 0; i < copyrightText.length(); i++) {
+            char c = copyrightText.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = b.length() > 0;
+                continue;
+            }
+            if (space) {
+                b.append(' ');
+                space = false;
+            }
+            if (c == '©') b.append("(c)");
+            else b.append(c);
+        }
+        return b.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the hash of the normalized statement
+     */
+    public static String hashOf(String copyrightText) {
+        return Copyright.hashOf(normalize(copyrightText));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import jakarta.persistence.*;
+
+
+/**
+ * One embedded chunk of an {@link InformationFile} in the vector store. The content hash is the hash of the file
+ * content the chunk was split from, so a file is split and embedded again only when its content changes.
+ */
+@Entity
+@Table(name = "INFORMATION_FILE_CHUNK", uniqueConstraints = {
+        @UniqueConstraint(name = "IDX_INFORMATION_FILE_CHUNK_UNQ", columnNames = {"DOCUMENT_ID"})},
+        indexes = {@Index(name = "IDX_INFORMATION_FILE_CHUNK_FILE", columnList = "INFORMATION_FILE_ID")})
+public class InformationFileChunk {
+
+    @Id
+    @Column(name = "ID", nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "INFORMATION_FILE_ID", nullable = false)
+    private Long informationFileId;
+
+    @Column(name = "CONTENT_HASH", length = 64, nullable = false)
+    private String contentHash;
+
+    // id of the document in the vector store
+    @Column(name = "DOCUMENT_ID", nullable = false)
+    private String documentId;
+
+    @Column(name = "CHUNK_INDEX")
+    private Integer chunkIndex;
+
+    public InformationFileChunk() {
+    }
+
+    public InformationFileChunk(Long informationFileId, String contentHash, String documentId, Integer chunkIndex) {
+        this.informationFileId = informationFileId;
+        this.contentHash = contentHash;
+        this.documentId = documentId;
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getInformationFileId() {
+        return informationFileId;
+    }
+
+    public void setInformationFileId(Long informationFileId) {
+        this.informationFileId = informationFileId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+}
@@ -48,6 +48,10 @@ public class InventoryItem implements HasOrganization {
     @Column(name= "SPDX_ID", columnDefinition = "TEXT")
     private String spdxId;
 
+    // hash of the package as last imported, an incremental import skips packages whose hash did not change
+    @Column(name= "IMPORT_FINGERPRINT", length = 64)
+    private String importFingerprint;
+
     @Column(name= "LINKING", columnDefinition = "TEXT")
     private String linking;
 
@@ -216,6 +220,14 @@ public class InventoryItem implements HasOrganization {
         this.spdxId = spdxId;
     }
 
+    public String getImportFingerprint() {
+        return importFingerprint;
+    }
+
+    public void setImportFingerprint(String importFingerprint) {
+        this.importFingerprint = importFingerprint;
+    }
+
     public Integer getPriority() {
         return priority;
     }
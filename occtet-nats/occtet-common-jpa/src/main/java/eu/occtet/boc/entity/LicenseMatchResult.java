@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import jakarta.persistence.*;
+
+
+/**
+ * Outcome of comparing a license text against the template of a listed license, keyed by the license id and the
+ * hash of the normalized text. Identical texts found in many components are compared, and sent to the AI license
+ * matcher, only once.
+ */
+@Entity
+@Table(name = "LICENSE_MATCH_RESULT", uniqueConstraints = {
+        @UniqueConstraint(name = "IDX_LICENSE_MATCH_RESULT_UNQ", columnNames = {"LICENSE_ID", "TEXT_HASH"})})
+public class LicenseMatchResult {
+
+    @Id
+    @Column(name = "ID", nullable = false)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "LICENSE_ID", nullable = false)
+    private String licenseId;
+
+    @Column(name = "TEXT_HASH", length = 64, nullable = false)
+    private String textHash;
+
+    @Column(name = "DIFFERENCE_FOUND")
+    private Boolean differenceFound;
+
+    @Column(name = "DIFFERENCE_MESSAGE", columnDefinition = "TEXT")
+    private String differenceMessage;
+
+    @Column(name = "DIFFERENCE_LINES", columnDefinition = "TEXT")
+    private String differenceLines;
+
+    @Column(name = "AI_VERDICT", columnDefinition = "TEXT")
+    private String aiVerdict;
+
+    public LicenseMatchResult() {
+    }
+
+    public LicenseMatchResult(String licenseId, String textHash, Boolean differenceFound, String differenceMessage,
+                              String differenceLines) {
+        this.licenseId = licenseId;
+        this.textHash = textHash;
+        this.differenceFound = differenceFound;
+        this.differenceMessage = differenceMessage;
+        this.differenceLines = differenceLines;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getLicenseId() {
+        return licenseId;
+    }
+
+    public void setLicenseId(String licenseId) {
+        this.licenseId = licenseId;
+    }
+
+    public String getTextHash() {
+        return textHash;
+    }
+
+    public void setTextHash(String textHash) {
+        this.textHash = textHash;
+    }
+
+    public Boolean getDifferenceFound() {
+        return differenceFound;
+    }
+
+    public void setDifferenceFound(Boolean differenceFound) {
+        this.differenceFound = differenceFound;
+    }
+
+    public String getDifferenceMessage() {
+        return differenceMessage;
+    }
+
+    public void setDifferenceMessage(String differenceMessage) {
+        this.differenceMessage = differenceMessage;
+    }
+
+    public String getDifferenceLines() {
+        return differenceLines;
+    }
+
+    public void setDifferenceLines(String differenceLines) {
+        this.differenceLines = differenceLines;
+    }
+
+    public String getAiVerdict() {
+        return aiVerdict;
+    }
+
+    public void setAiVerdict(String aiVerdict) {
+        this.aiVerdict = aiVerdict;
+    }
+
+    public boolean isDifferenceFound() {
+        return Boolean.TRUE.equals(differenceFound);
+    }
+
+    /**
+     * @return the hash a normalized license text is stored under
+     */
+    public static String hashOf(String normalizedText) {
+        return Copyright.hashOf(normalizedText);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * An advisory imported from an OSV dump into the local vulnerability mirror, keyed by its OSV id. The affected
+ * versions are kept as {@link MirroredAdvisoryRange} rows. Rows are written by the mirror import through JDBC.
+ */
+@Entity
+@Table(name = "MIRRORED_ADVISORY")
+public class MirroredAdvisory {
+
+    @Id
+    @Column(name = "ADVISORY_ID", nullable = false)
+    private String advisoryId;
+
+    @Column(name = "SUMMARY", columnDefinition = "TEXT")
+    private String summary;
+
+    // comma separated
+    @Column(name = "ALIASES", columnDefinition = "TEXT")
+    private String aliases;
+
+    @Column(name = "SEVERITY")
+    private String severity;
+
+    // comma separated urls
+    @Column(name = "REFERENCE_URLS", columnDefinition = "TEXT")
+    private String references;
+
+    @Column(name = "MODIFIED")
+    private LocalDateTime modified;
+
+    public MirroredAdvisory() {
+    }
+
+    public String getAdvisoryId() {
+        return advisoryId;
+    }
+
+    public void setAdvisoryId(String advisoryId) {
+        this.advisoryId = advisoryId;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public String getAliases() {
+        return aliases;
+    }
+
+    public void setAliases(String aliases) {
+        this.aliases = aliases;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public String getReferences() {
+        return references;
+    }
+
+    public void setReferences(String references) {
+        this.references = references;
+    }
+
+    public LocalDateTime getModified() {
+        return modified;
+    }
+
+    public void setModified(LocalDateTime modified) {
+        this.modified = modified;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+
+/**
+ * One range of versions of a package affected by a {@link MirroredAdvisory}. A version is affected if it is not
+ * lower than the introduced version, lower than the fixed version and not higher than the last affected version,
+ * missing bounds do not limit the range. Package names are stored normalized, see the mirror import.
+ */
+@Entity
+@Table(name = "MIRRORED_ADVISORY_RANGE",
+        indexes = {@Index(name = "IDX_MIRRORED_ADVISORY_RANGE_PACKAGE", columnList = "ECOSYSTEM, PACKAGE_NAME")})
+@IdClass(MirroredAdvisoryRange.Key.class)
+public class MirroredAdvisoryRange {
+
+    @Id
+    @Column(name = "ADVISORY_ID", nullable = false)
+    private String advisoryId;
+
+    @Id
+    @Column(name = "RANGE_INDEX", nullable = false)
+    private Integer rangeIndex;
+
+    @Column(name = "ECOSYSTEM", nullable = false)
+    private String ecosystem;
+
+    @Column(name = "PACKAGE_NAME", length = 1024, nullable = false)
+    private String packageName;
+
+    @Column(name = "INTRODUCED")
+    private String introduced;
+
+    @Column(name = "FIXED")
+    private String fixed;
+
+    @Column(name = "LAST_AFFECTED")
+    private String lastAffected;
+
+    public MirroredAdvisoryRange() {
+    }
+
+    public String getAdvisoryId() {
+        return advisoryId;
+    }
+
+    public void setAdvisoryId(String advisoryId) {
+        this.advisoryId = advisoryId;
+    }
+
+    public Integer getRangeIndex() {
+        return rangeIndex;
+    }
+
+    public void setRangeIndex(Integer rangeIndex) {
+        this.rangeIndex = rangeIndex;
+    }
+
+    public String getEcosystem() {
+        return ecosystem;
+    }
+
+    public void setEcosystem(String ecosystem) {
+        this.ecosystem = ecosystem;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public String getIntroduced() {
+        return introduced;
+    }
+
+    public void setIntroduced(String introduced) {
+        this.introduced = introduced;
+    }
+
+    public String getFixed() {
+        return fixed;
+    }
+
+    public void setFixed(String fixed) {
+        this.fixed = fixed;
+    }
+
+    public String getLastAffected() {
+        return lastAffected;
+    }
+
+    public void setLastAffected(String lastAffected) {
+        this.lastAffected = lastAffected;
+    }
+
+    public static class Key implements Serializable {
+
+        private String advisoryId;
+        private Integer rangeIndex;
+
+        public Key() {
+        }
+
+        public Key(String advisoryId, Integer rangeIndex) {
+            this.advisoryId = advisoryId;
+            this.rangeIndex = rangeIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(advisoryId, key.advisoryId) && Objects.equals(rangeIndex, key.rangeIndex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(advisoryId, rangeIndex);
+        }
+    }
+}
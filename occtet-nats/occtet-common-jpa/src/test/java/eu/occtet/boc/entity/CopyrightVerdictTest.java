@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.entity;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CopyrightVerdictTest {
+
+    @Test
+    public void testNormalize() {
+        Assertions.assertEquals("copyright (c) microsoft corporation",
+                CopyrightVerdict.normalize("  Copyright ©\tMicrosoft\n Corporation "));
+        Assertions.assertEquals(CopyrightVerdict.hashOf("Copyright (c) Microsoft Corporation"),
+                CopyrightVerdict.hashOf("COPYRIGHT (C)  Microsoft Corporation"));
+        Assertions.assertNotEquals(CopyrightVerdict.hashOf("Copyright (c) Microsoft Corporation"),
+                CopyrightVerdict.hashOf("Copyright (c) 2020 Microsoft Corporation"));
+        Assertions.assertNull(CopyrightVerdict.normalize(null));
+    }
+}
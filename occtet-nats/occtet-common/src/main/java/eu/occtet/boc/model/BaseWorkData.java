@@ -44,7 +44,9 @@ import eu.occtet.boc.service.IWorkDataProcessor;
         @JsonSubTypes.Type(value = ORTProcessWorkData.class, name = "ort_issue_task"),
         @JsonSubTypes.Type(value = SampleWorkData.class, name = "sample"),
         @JsonSubTypes.Type(value = VulnerabilityServiceWorkData.class, name = "vulnerability_task"),
+        @JsonSubTypes.Type(value = VulnerabilityRescanWorkData.class, name = "vulnerability_rescan_task"),
         @JsonSubTypes.Type(value = DownloadServiceWorkData.class, name = "download_task"),
+        @JsonSubTypes.Type(value = DownloadPlanWorkData.class, name = "download_plan_task"),
         @JsonSubTypes.Type(value = SpdxExportWorkData.class, name = "export_task"),
         @JsonSubTypes.Type(value = CycloneDxWorkData.class, name = "cyclonedx_import_task"),
         @JsonSubTypes.Type(value = CycloneDxExportWorkData.class, name = "cyclonedx_export_task")
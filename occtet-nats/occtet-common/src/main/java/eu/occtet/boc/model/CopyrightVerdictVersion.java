@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The model and system prompt version the AI copyright filter records its verdicts under. It is sent as the
+ * payload of {@link eu.occtet.boc.util.SystemSubjects#GARBAGE_COPYRIGHTS_CHANGED}, so services reading the verdicts
+ * only use the current ones.
+ */
+public record CopyrightVerdictVersion(String model, String promptVersion) {
+
+    public byte[] toBytes() {
+        return (model + "\n" + promptVersion).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the version in the payload, null if the payload carries none
+     */
+    public static CopyrightVerdictVersion fromBytes(byte[] payload) {
+        if (payload == null || payload.length == 0) return null;
+        String[] parts = new String(payload, StandardCharsets.UTF_8).split("\n", 2);
+        return parts.length == 2 ? new CopyrightVerdictVersion(parts[0], parts[1]) : null;
+    }
+}
@@ -20,9 +20,12 @@
 package eu.occtet.boc.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.occtet.boc.service.IWorkDataProcessor;
 
+import java.nio.file.Path;
+
 public class CycloneDxWorkData extends BaseWorkData{
     @JsonCreator
     public CycloneDxWorkData(@JsonProperty("jsonSpdx")String jsonSpdx,
@@ -54,6 +57,10 @@ public class CycloneDxWorkData extends BaseWorkData{
 
     private byte[] jsonBytes;
 
+    // spooled copy of the uploaded document, preferred over jsonBytes when set
+    @JsonIgnore
+    private Path jsonFile;
+
     public String getJsonSpdx() {
         return jsonSpdx;
     }
@@ -94,6 +101,12 @@ public class CycloneDxWorkData extends BaseWorkData{
 
     public void setJsonBytes(byte[] jsonBytes) {this.jsonBytes = jsonBytes;}
 
+    @JsonIgnore
+    public Path getJsonFile() {return jsonFile;}
+
+    @JsonIgnore
+    public void setJsonFile(Path jsonFile) {this.jsonFile = jsonFile;}
+
     public boolean isWithTestLibraries() {
         return withTestLibraries;
     }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import eu.occtet.boc.service.IWorkDataProcessor;
+
+import java.util.List;
+
+/**
+ * All inventory items of one import to be downloaded by the DownloadService as one task. The service downloads each
+ * distinct component once and reports the progress of the whole import.
+ */
+public class DownloadPlanWorkData extends BaseWorkData {
+
+    private Long projectId;
+    private List<Long> inventoryItemIds;
+    private List<Long> mainInventoryItemIds;
+
+    @JsonCreator
+    public DownloadPlanWorkData(@JsonProperty("projectId") Long projectId,
+                                @JsonProperty("inventoryItemIds") List<Long> inventoryItemIds,
+                                @JsonProperty("mainInventoryItemIds") List<Long> mainInventoryItemIds) {
+        this.projectId = projectId;
+        this.inventoryItemIds = inventoryItemIds;
+        this.mainInventoryItemIds = mainInventoryItemIds;
+    }
+
+    public Long getProjectId() {return projectId;}
+    public void setProjectId(Long projectId) {this.projectId = projectId;}
+    public List<Long> getInventoryItemIds() {return inventoryItemIds;}
+    public void setInventoryItemIds(List<Long> inventoryItemIds) {this.inventoryItemIds = inventoryItemIds;}
+    public List<Long> getMainInventoryItemIds() {return mainInventoryItemIds;}
+    public void setMainInventoryItemIds(List<Long> mainInventoryItemIds) {this.mainInventoryItemIds = mainInventoryItemIds;}
+
+    @Override
+    public boolean process(IWorkDataProcessor processor) {return processor.process(this);}
+}
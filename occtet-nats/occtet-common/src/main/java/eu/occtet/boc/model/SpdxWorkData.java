@@ -21,9 +21,12 @@ package eu.occtet.boc.model;
 
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.occtet.boc.service.IWorkDataProcessor;
 
+import java.nio.file.Path;
+
 public class SpdxWorkData extends BaseWorkData{
 
     @JsonCreator
@@ -53,6 +56,10 @@ public class SpdxWorkData extends BaseWorkData{
 
     private byte[] jsonBytes;
 
+    // spooled copy of the uploaded document, preferred over jsonBytes when set
+    @JsonIgnore
+    private Path jsonFile;
+
     public String getJsonSpdx() {
         return jsonSpdx;
     }
@@ -93,6 +100,12 @@ public class SpdxWorkData extends BaseWorkData{
 
     public void setJsonBytes(byte[] jsonBytes) {this.jsonBytes = jsonBytes;}
 
+    @JsonIgnore
+    public Path getJsonFile() {return jsonFile;}
+
+    @JsonIgnore
+    public void setJsonFile(Path jsonFile) {this.jsonFile = jsonFile;}
+
     @Override
     public boolean process(IWorkDataProcessor processor) {
         return processor.process(this);
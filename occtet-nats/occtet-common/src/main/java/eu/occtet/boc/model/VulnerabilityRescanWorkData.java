@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import eu.occtet.boc.service.IWorkDataProcessor;
+
+/**
+ * Asks the vulnerability service to match all software components of a project again, for example after the local
+ * advisory mirror has been updated.
+ */
+public class VulnerabilityRescanWorkData extends BaseWorkData {
+
+    private Long projectId;
+
+    @JsonCreator
+    public VulnerabilityRescanWorkData(@JsonProperty("projectId") Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public Long getProjectId() {return projectId;}
+    public void setProjectId(Long projectId) {this.projectId = projectId;}
+
+    @Override
+    public boolean process(IWorkDataProcessor processor) {return processor.process(this);}
+}
@@ -23,15 +23,33 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import eu.occtet.boc.service.IWorkDataProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
 
 
+/**
+ * Asks for the vulnerabilities of one software component, or of a batch of components which are then looked up
+ * together.
+ */
 public class VulnerabilityServiceWorkData extends BaseWorkData{
 
     private Long softwareComponentId;
 
+    private List<Long> softwareComponentIds;
+
+    public VulnerabilityServiceWorkData(Long softwareComponentId) {
+        this(softwareComponentId, null);
+    }
+
+    public VulnerabilityServiceWorkData(List<Long> softwareComponentIds) {
+        this(null, softwareComponentIds);
+    }
+
     @JsonCreator
-    public VulnerabilityServiceWorkData(@JsonProperty("softwareComponentId") Long softwareComponentId) {
+    public VulnerabilityServiceWorkData(@JsonProperty("softwareComponentId") Long softwareComponentId,
+                                        @JsonProperty("softwareComponentIds") List<Long> softwareComponentIds) {
         this.softwareComponentId = softwareComponentId;
+        this.softwareComponentIds = softwareComponentIds;
     }
 
     public Long getSoftwareComponentId() {
@@ -42,6 +60,24 @@ public class VulnerabilityServiceWorkData extends BaseWorkData{
         this.softwareComponentId = softwareComponentId;
     }
 
+    public List<Long> getSoftwareComponentIds() {
+        return softwareComponentIds;
+    }
+
+    public void setSoftwareComponentIds(List<Long> softwareComponentIds) {
+        this.softwareComponentIds = softwareComponentIds;
+    }
+
+    /**
+     * @return the ids of all components to look up, the single component followed by the batch
+     */
+    public List<Long> allSoftwareComponentIds() {
+        List<Long> ids = new ArrayList<>();
+        if (softwareComponentId != null) ids.add(softwareComponentId);
+        if (softwareComponentIds != null) ids.addAll(softwareComponentIds);
+        return ids;
+    }
+
     @Override
     public boolean process(IWorkDataProcessor processor) {
         return processor.process(this);
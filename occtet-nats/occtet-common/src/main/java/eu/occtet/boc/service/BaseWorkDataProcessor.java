@@ -62,6 +62,11 @@ public abstract class BaseWorkDataProcessor implements IWorkDataProcessor {
         return false;
     }
 
+    @Override
+    public boolean process(VulnerabilityRescanWorkData workData) {
+        return false;
+    }
+
     @Override
     public boolean process(AIStatusQueryWorkData workData) {
         return false;
@@ -80,6 +85,9 @@ public abstract class BaseWorkDataProcessor implements IWorkDataProcessor {
     @Override
     public boolean process(DownloadServiceWorkData workData){return false;}
 
+    @Override
+    public boolean process(DownloadPlanWorkData workData){return false;}
+
     @Override
     public boolean process(SpdxExportWorkData workData){return false;}
 
@@ -30,10 +30,12 @@ public interface IWorkDataProcessor {
     boolean process(SampleWorkData workData);
     boolean process(AIStatusQueryWorkData workData);
     boolean process(VulnerabilityServiceWorkData workData);
+    boolean process(VulnerabilityRescanWorkData workData);
     boolean process(SpdxWorkData workData);
     boolean process(AICopyrightFilterWorkData workData);
     boolean process(ORTStartRunWorkData workData);
     boolean process(DownloadServiceWorkData workData);
+    boolean process(DownloadPlanWorkData workData);
     boolean process(SpdxExportWorkData workData);
     boolean process(ORTProcessWorkData workData);
     boolean process(CycloneDxWorkData workData);
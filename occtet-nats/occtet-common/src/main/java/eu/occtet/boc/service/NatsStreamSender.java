@@ -19,31 +19,65 @@
 
 package eu.occtet.boc.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.occtet.boc.model.WorkTask;
 import io.nats.client.Connection;
+import io.nats.client.JetStream;
 import io.nats.client.JetStreamApiException;
+import io.nats.client.api.PublishAck;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for sending NATS messaging.
+ * Messages can be sent synchronously or pipelined with the async methods, which keep at most
+ * maxPendingAcks unacknowledged messages in flight. Call flush() after the last async message.
  */
 
 public class NatsStreamSender {
 
     private static final Logger log = LoggerFactory.getLogger(NatsStreamSender.class);
 
+    public static final int DEFAULT_MAX_PENDING_ACKS = 256;
+
+    private static final long ACK_TIMEOUT_SECONDS = 30;
+
+    // ObjectWriter is immutable and thread-safe, so all senders share one
+    private static final ObjectWriter WORK_TASK_WRITER = new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .writerFor(WorkTask.class);
+
 
     private Connection natsConnection;
 
 
     private String subjectName;
 
+    private final int maxPendingAcks;
+
+    private final Deque<CompletableFuture<PublishAck>> pendingAcks = new ArrayDeque<>();
+
+    private JetStream jetStream;
+
 
     public NatsStreamSender(Connection natsConnection, String subjectName) {
+        this(natsConnection, subjectName, DEFAULT_MAX_PENDING_ACKS);
+    }
+
+    public NatsStreamSender(Connection natsConnection, String subjectName, int maxPendingAcks) {
         this.natsConnection = natsConnection;
         this.subjectName = subjectName;
+        this.maxPendingAcks = Math.max(1, maxPendingAcks);
     }
 
     /**
@@ -56,5 +90,86 @@ public class NatsStreamSender {
         natsConnection.jetStream().publish(subjectName,message);
     }
 
+    /**
+     * Publishes a work message without waiting for its ack. If maxPendingAcks messages are already
+     * unacknowledged, waits for the oldest one first.
+     * @param message
+     * @throws IOException if publishing failed or an earlier message was not acknowledged
+     */
+    public synchronized void sendWorkMessageToStreamAsync(byte[] message) throws IOException {
+        while (pendingAcks.size() >= maxPendingAcks) {
+            awaitAck(pendingAcks.removeFirst());
+        }
+        pendingAcks.addLast(jetStream().publishAsync(subjectName, message));
+    }
+
+    /**
+     * Serializes the work task with the shared writer and publishes it via sendWorkMessageToStreamAsync
+     * @param workTask
+     * @throws IOException
+     */
+    public void sendWorkTaskToStreamAsync(WorkTask workTask) throws IOException {
+        byte[] message = WORK_TASK_WRITER.writeValueAsBytes(workTask);
+        log.debug("sending work task {} to subject {}", workTask.taskId(), subjectName);
+        sendWorkMessageToStreamAsync(message);
+    }
+
+    /**
+     * Waits until all messages sent via the async methods are acknowledged.
+     * @throws IOException if at least one message was not acknowledged
+     */
+    public synchronized void flush() throws IOException {
+        int failed = 0;
+        IOException lastError = null;
+        while (!pendingAcks.isEmpty()) {
+            try {
+                awaitAck(pendingAcks.removeFirst());
+            } catch (IOException e) {
+                failed++;
+                lastError = e;
+            }
+        }
+        if (lastError != null) {
+            throw new IOException(failed + " message(s) to " + subjectName + " were not acknowledged", lastError);
+        }
+    }
+
+    /**
+     * Flushes all given senders, also if one of them fails.
+     * @param senders
+     * @throws IOException the first error if any sender could not be flushed
+     */
+    public static void flushAll(NatsStreamSender... senders) throws IOException {
+        IOException firstError = null;
+        for (NatsStreamSender sender : senders) {
+            try {
+                sender.flush();
+            } catch (IOException e) {
+                if (firstError == null) firstError = e;
+            }
+        }
+        if (firstError != null) throw firstError;
+    }
+
+    public synchronized int getPendingAckCount() {
+        return pendingAcks.size();
+    }
+
+    private JetStream jetStream() throws IOException {
+        if (jetStream == null) jetStream = natsConnection.jetStream();
+        return jetStream;
+    }
+
+    private void awaitAck(CompletableFuture<PublishAck> ack) throws IOException {
+        try {
+            ack.get(ACK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for ack on " + subjectName, e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("message to {} was not acknowledged: {}", subjectName, e.getMessage());
+            throw new IOException("message to " + subjectName + " was not acknowledged", e);
+        }
+    }
 
 }
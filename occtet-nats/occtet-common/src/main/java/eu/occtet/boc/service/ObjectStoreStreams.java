@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.service;
+
+import io.nats.client.JetStreamApiException;
+import io.nats.client.ObjectStore;
+import io.nats.client.api.ObjectInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Moves object store payloads through streams instead of byte arrays.
+ * Downloads are spooled to a temporary file, uploads are written through a pipe while the object store reads
+ * from the other end, so large SBOMs never exist as one contiguous array on the heap.
+ */
+public final class ObjectStoreStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(ObjectStoreStreams.class);
+
+    private static final int PIPE_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Produces the content of an upload.
+     */
+    @FunctionalInterface
+    public interface StreamWriter {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    private ObjectStoreStreams() {
+    }
+
+    /**
+     * Copies the named object into a temporary file.
+     *
+     * @return the spooled object, to be closed by the caller to remove the file
+     */
+    public static SpooledObject download(ObjectStore objectStore, String objectName)
+            throws IOException, JetStreamApiException, InterruptedException, NoSuchAlgorithmException {
+        Path path = Files.createTempFile("occtet-object-", ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            objectStore.get(objectName, out);
+        } catch (Exception e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        log.debug("spooled object {} with {} bytes to {}", objectName, Files.size(path), path);
+        return new SpooledObject(objectName, path);
+    }
+
+    /**
+     * Stores the content produced by the writer under the given name. The writer runs on its own thread and feeds
+     * a pipe the object store reads from, so the content is never fully buffered.
+     *
+     * @throws IOException if the writer or the upload fails
+     */
+    public static ObjectInfo upload(ObjectStore objectStore, String objectName, StreamWriter writer)
+            throws IOException, JetStreamApiException, NoSuchAlgorithmException {
+        PipedInputStream input = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream pipe = new PipedOutputStream(input);
+
+        CompletableFuture<Void> producer = new CompletableFuture<>();
+        Thread.ofVirtual().name("object-upload-" + objectName).start(() -> {
+            try (OutputStream out = new BufferedOutputStream(pipe)) {
+                writer.writeTo(out);
+                producer.complete(null);
+            } catch (Throwable e) {
+                producer.completeExceptionally(e);
+            }
+        });
+
+        ObjectInfo objectInfo;
+        try (input) {
+            objectInfo = objectStore.put(objectName, input);
+        }
+        try {
+            producer.get();
+        } catch (ExecutionException e) {
+            // the pipe was closed early, the stored object is truncated
+            deleteQuietly(objectStore, objectName);
+            throw new IOException("Failed to write content of " + objectName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing content of " + objectName, e);
+        }
+        return objectInfo;
+    }
+
+    private static void deleteQuietly(ObjectStore objectStore, String objectName) {
+        try {
+            objectStore.delete(objectName);
+        } catch (IOException | JetStreamApiException e) {
+            log.warn("Could not delete incomplete object {}", objectName, e);
+        }
+    }
+}
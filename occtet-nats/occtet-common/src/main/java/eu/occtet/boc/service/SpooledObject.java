@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An object store payload spooled to a temporary file, so that it can be read any number of times
+ * without holding it on the heap. Closing deletes the file.
+ */
+public class SpooledObject implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpooledObject.class);
+
+    private final String objectName;
+    private final Path path;
+
+    SpooledObject(String objectName, Path path) {
+        this.objectName = objectName;
+        this.path = path;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * @return location of the spooled content, valid until {@link #close()}
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() throws IOException {
+        return Files.size(path);
+    }
+
+    /**
+     * @return a new buffered stream over the spooled content, to be closed by the caller
+     */
+    public InputStream getInputStream() throws IOException {
+        return new BufferedInputStream(Files.newInputStream(path));
+    }
+
+    /**
+     * @return a new channel over the spooled content, to be closed by the caller
+     */
+    public ReadableByteChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled object {} at {}", objectName, path, e);
+        }
+    }
+}
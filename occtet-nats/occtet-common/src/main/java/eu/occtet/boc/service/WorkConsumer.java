@@ -33,71 +33,194 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 
 public abstract class WorkConsumer implements InformativeService {
 
     private static final Logger log = LoggerFactory.getLogger(WorkConsumer.class);
 
+    // how long a fetch waits for messages before returning an empty batch
+    private static final long FETCH_EXPIRES_MILLIS = 30_000;
+    // failed messages are redelivered after this delay instead of immediately
+    private static final Duration NAK_DELAY = Duration.ofSeconds(30);
+    // in-flight messages are touched in this interval so that NATS does not redeliver them while still working
+    private static final long IN_PROGRESS_INTERVAL_SECONDS = 10;
+
     protected WorkerStatus workerStatus = WorkerStatus.INIT;
+    // progress of the last finished task, reported while no task is in flight
     protected int progressPercent=0;
     protected String statusDetails="";
 
     protected Connection natsConnection;
 
-    private boolean poisonPill=false;
+    private volatile boolean poisonPill=false;
+
+    private int maxConcurrentTasks = 1;
+    private int fetchBatchSize = 1;
+    private boolean useVirtualThreads = false;
+
+    private final Map<Message, WorkTaskProgress> tasksInFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<WorkTaskProgress> currentTask = new ThreadLocal<>();
+
+    /**
+     * Configures how many messages are handled in parallel. The default is one message at a time
+     * on the thread calling startHandlingMessages. Must be called before startHandlingMessages.
+     * @param maxConcurrentTasks maximum number of messages in flight, also used as maxAckPending of the consumer
+     * @param fetchBatchSize maximum number of messages pulled with a single fetch
+     * @param useVirtualThreads run the tasks on virtual threads (for I/O-bound services) instead of a fixed pool
+     */
+    public void setConcurrency(int maxConcurrentTasks, int fetchBatchSize, boolean useVirtualThreads) {
+        this.maxConcurrentTasks = Math.max(1, maxConcurrentTasks);
+        this.fetchBatchSize = Math.max(1, Math.min(fetchBatchSize, this.maxConcurrentTasks));
+        this.useVirtualThreads = useVirtualThreads;
+    }
 
     public void startHandlingMessages(Connection natsConnection, String myServiceName, String streamName, String workSubject) throws IOException, JetStreamApiException {
         this.natsConnection = natsConnection;
         JetStream js = natsConnection.jetStream();
         StreamContext streamContext = js.getStreamContext(streamName);
-        ConsumerConfiguration config = ConsumerConfiguration.builder()
+        ConsumerConfiguration.Builder configBuilder = ConsumerConfiguration.builder()
                 .durable(myServiceName+"-consumer")
                 .deliverGroup(myServiceName+"-group")
                 .ackPolicy(AckPolicy.Explicit)
-                .filterSubject(workSubject)
-                .build();
-        ConsumerContext consumerContext = streamContext.createOrUpdateConsumer(config);
+                .filterSubject(workSubject);
+        if (maxConcurrentTasks > 1) configBuilder.maxAckPending(maxConcurrentTasks);
+        ConsumerContext consumerContext = streamContext.createOrUpdateConsumer(configBuilder.build());
         workerStatus= WorkerStatus.IDLE;
 
-        log.debug("startHandlingMessages called, listening on stream {} for subject {}", streamName, workSubject);
+        log.debug("startHandlingMessages called, listening on stream {} for subject {} with up to {} concurrent tasks",
+                streamName, workSubject, maxConcurrentTasks);
 
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor();
+        heartbeat.scheduleAtFixedRate(this::touchTasksInFlight,
+                IN_PROGRESS_INTERVAL_SECONDS, IN_PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        try {
+            if (maxConcurrentTasks > 1) handleMessagesConcurrently(consumerContext);
+            else handleMessagesSerially(consumerContext);
+        } finally {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    private void handleMessagesSerially(ConsumerContext consumerContext) {
         while(natsConnection.getStatus() != Connection.Status.CLOSED) {
             try (FetchConsumer fetchConsumer = consumerContext.fetchMessages(1)) {
                 Message msg= fetchConsumer.nextMessage();
                 if (msg != null) {
-                    log.debug("received message on subject... {}", msg.getSubject());
-
-                    workerStatus=WorkerStatus.WORKING;
-                    handleMessage(msg);
-
-                    msg.ack();
+                    runTask(msg);
                 }
             } catch (Exception e) {
-                log.warn("error handling message: {}", e.getMessage());
-            }
-            finally {
-                workerStatus=WorkerStatus.IDLE;
+                log.warn("error fetching message: {}", e.getMessage());
             }
             // if someone wants us to stop, we stop
             if(poisonPill) return;
         }
     }
 
+    private void handleMessagesConcurrently(ConsumerContext consumerContext) {
+        ExecutorService executor = useVirtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(maxConcurrentTasks);
+        // one permit per task that may be in flight, so we never pull more than we can handle
+        Semaphore freeSlots = new Semaphore(maxConcurrentTasks);
+        try {
+            while (natsConnection.getStatus() != Connection.Status.CLOSED) {
+                try {
+                    freeSlots.acquire();
+                    int batchSize = Math.min(fetchBatchSize, freeSlots.availablePermits() + 1);
+                    freeSlots.release();
+                    FetchConsumeOptions options = FetchConsumeOptions.builder()
+                            .maxMessages(batchSize)
+                            .expiresIn(FETCH_EXPIRES_MILLIS)
+                            .build();
+                    try (FetchConsumer fetchConsumer = consumerContext.fetch(options)) {
+                        Message msg;
+                        while ((msg = fetchConsumer.nextMessage()) != null) {
+                            freeSlots.acquire();
+                            Message task = msg;
+                            executor.execute(() -> {
+                                try {
+                                    runTask(task);
+                                } finally {
+                                    freeSlots.release();
+                                }
+                            });
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.warn("error fetching messages: {}", e.getMessage());
+                }
+                // if someone wants us to stop, we stop
+                if (poisonPill) return;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Handles a single message and acknowledges it. Failed messages are nak'ed with a delay,
+     * so one failing task does not block the others.
+     * @param msg
+     */
+    void runTask(Message msg) {
+        log.debug("received message on subject... {}", msg.getSubject());
+        WorkTaskProgress progress = new WorkTaskProgress(msg.getSubject(), 0, WorkTaskStatus.IN_PROGRESS, "");
+        tasksInFlight.put(msg, progress);
+        currentTask.set(progress);
+        try {
+            handleMessage(msg);
+            msg.ack();
+        } catch (Exception e) {
+            log.warn("error handling message: {}", e.getMessage());
+            msg.nakWithDelay(NAK_DELAY);
+        } finally {
+            currentTask.remove();
+            tasksInFlight.remove(msg);
+            progressPercent = progress.getPercent();
+        }
+    }
+
+    private void touchTasksInFlight() {
+        for (Message msg : tasksInFlight.keySet()) {
+            try {
+                msg.inProgress();
+            } catch (Exception e) {
+                log.debug("could not mark message as in progress: {}", e.getMessage());
+            }
+        }
+    }
+
     public void terminate() {
         log.debug("shutting down WorkConsumer");
         poisonPill=true;
     }
 
     /**
-     * Implement this method to handle incoming messages
+     * Implement this method to handle incoming messages. May be called from several threads at once
+     * if the consumer is configured with setConcurrency.
      * @param msg
      */
     protected abstract void handleMessage(Message msg);
 
+    /**
+     * @return the progress of the task in flight, the average progress if several tasks are in flight
+     * or the progress of the last task if the consumer is idle
+     */
     @Override
     public int getProgressPercent() {
-        return progressPercent;
+        List<WorkTaskProgress> tasks = new ArrayList<>(tasksInFlight.values());
+        if (tasks.isEmpty()) return progressPercent;
+        return (int) tasks.stream().mapToInt(WorkTaskProgress::getPercent).average().orElse(0);
     }
 
     protected void notifyCompleted(String taskId, String taskName) {
@@ -105,11 +228,20 @@ public abstract class WorkConsumer implements InformativeService {
     }
 
     protected void notifyError(String taskId, String taskName, String details) {
-        notifyProgress(taskId, taskName, WorkTaskStatus.ERROR, progressPercent, details);
+        WorkTaskProgress task = currentTask.get();
+        notifyProgress(taskId, taskName, WorkTaskStatus.ERROR, task != null ? task.getPercent() : progressPercent, details);
     }
 
     protected void notifyProgress(String taskId, String taskName, WorkTaskStatus status, int progressPercent, String details) {
-        this.progressPercent = progressPercent;
+        WorkTaskProgress task = currentTask.get();
+        if (task != null) {
+            task.setName(taskName);
+            task.setPercent(progressPercent);
+            task.setStatus(status);
+            task.setDetails(details);
+        } else {
+            this.progressPercent = progressPercent;
+        }
         ProgressSystemMessage progressSystemMessage = new ProgressSystemMessage(taskId, taskName, status, progressPercent, details);
         String message = null;
         try {
@@ -126,6 +258,7 @@ public abstract class WorkConsumer implements InformativeService {
 
     @Override
     public WorkerStatus getWorkerStatus() {
+        if (!tasksInFlight.isEmpty()) return WorkerStatus.WORKING;
         return workerStatus;
     }
 
@@ -133,9 +266,17 @@ public abstract class WorkConsumer implements InformativeService {
         this.workerStatus = workerStatus;
     }
 
+    /**
+     * @return the details of all tasks in flight, or the details set via setStatusDetails if the consumer is idle
+     */
     @Override
     public String getStatusDetails() {
-        return statusDetails;
+        List<WorkTaskProgress> tasks = new ArrayList<>(tasksInFlight.values());
+        if (tasks.isEmpty()) return statusDetails;
+        if (tasks.size() == 1) return tasks.get(0).getDetails();
+        return tasks.size() + " tasks in progress: " + tasks.stream()
+                .map(t -> t.getName() + " " + t.getPercent() + "% " + t.getDetails())
+                .collect(Collectors.joining("; "));
     }
 
     public void setStatusDetails(String statusDetails) {
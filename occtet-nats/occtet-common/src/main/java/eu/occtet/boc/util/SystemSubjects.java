@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.util;
+
+/**
+ * Core NATS subjects for notifications between the services, outside of the work streams.
+ */
+public class SystemSubjects {
+
+    // published whenever copyrights are marked as garbage, services caching the garbage copyrights reload them,
+    // the payload is the CopyrightVerdictVersion of the verdicts
+    public static final String GARBAGE_COPYRIGHTS_CHANGED = "system.garbage-copyrights-changed";
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+package eu.occtet.boc.service;
+
+import eu.occtet.boc.model.ScannerSendWorkData;
+import eu.occtet.boc.model.WorkTask;
+import io.nats.client.Connection;
+import io.nats.client.JetStream;
+import io.nats.client.api.PublishAck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class NatsStreamSenderTest {
+
+    private Connection connection;
+    private JetStream jetStream;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        connection = mock(Connection.class);
+        jetStream = mock(JetStream.class);
+        when(connection.jetStream()).thenReturn(jetStream);
+    }
+
+    @Test
+    public void testAsyncMessagesAreBoundedByWindow() throws IOException {
+        CompletableFuture<PublishAck> first = new CompletableFuture<>();
+        CompletableFuture<PublishAck> second = new CompletableFuture<>();
+        when(jetStream.publishAsync(eq("work.test"), any(byte[].class)))
+                .thenReturn(first, second, CompletableFuture.completedFuture(mock(PublishAck.class)));
+        NatsStreamSender sender = new NatsStreamSender(connection, "work.test", 2);
+
+        sender.sendWorkMessageToStreamAsync(new byte[]{1});
+        sender.sendWorkMessageToStreamAsync(new byte[]{2});
+        assertEquals(2, sender.getPendingAckCount());
+
+        // the window is full, so the third message waits for the oldest ack
+        first.complete(mock(PublishAck.class));
+        sender.sendWorkMessageToStreamAsync(new byte[]{3});
+        assertEquals(2, sender.getPendingAckCount());
+
+        second.complete(mock(PublishAck.class));
+        sender.flush();
+        assertEquals(0, sender.getPendingAckCount());
+        verify(connection, times(1)).jetStream();
+    }
+
+    @Test
+    public void testFlushReportsMissingAcks() throws IOException {
+        when(jetStream.publishAsync(eq("work.test"), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("no responders")));
+        NatsStreamSender sender = new NatsStreamSender(connection, "work.test");
+
+        sender.sendWorkMessageToStreamAsync(new byte[]{1});
+
+        assertThrows(IOException.class, sender::flush);
+        assertEquals(0, sender.getPendingAckCount());
+    }
+
+    @Test
+    public void testWorkTaskIsSerializedWithType() throws IOException {
+        when(jetStream.publishAsync(eq("work.test"), any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(PublishAck.class)));
+        NatsStreamSender sender = new NatsStreamSender(connection, "work.test");
+
+        sender.sendWorkTaskToStreamAsync(new WorkTask("1", "name", "details", 0, new ScannerSendWorkData(42L)));
+        sender.flush();
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(jetStream).publishAsync(eq("work.test"), captor.capture());
+        String json = new String(captor.getValue(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"type\":\"scannerdata_send\""));
+        assertTrue(json.contains("\"inventoryItemId\":42"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.service;
+
+import io.nats.client.ObjectStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ObjectStoreStreamsTest {
+
+    private static final byte[] CONTENT = "{\"spdxVersion\": \"SPDX-2.3\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testDownloadSpoolsToFileAndDeletesOnClose() throws Exception {
+        ObjectStore objectStore = mock(ObjectStore.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(CONTENT);
+            return null;
+        }).when(objectStore).get(eq("sbom.json"), any(OutputStream.class));
+
+        Path path;
+        try (SpooledObject spooled = ObjectStoreStreams.download(objectStore, "sbom.json")) {
+            path = spooled.getPath();
+            assertEquals(CONTENT.length, spooled.getSize());
+            try (InputStream in = spooled.getInputStream()) {
+                assertArrayEquals(CONTENT, in.readAllBytes());
+            }
+        }
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void testUploadStreamsWriterContent() throws Exception {
+        ObjectStore objectStore = mock(ObjectStore.class);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        when(objectStore.put(eq("export.json"), any(InputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, InputStream.class).transferTo(received);
+            return null;
+        });
+
+        ObjectStoreStreams.upload(objectStore, "export.json", out -> out.write(CONTENT));
+
+        assertArrayEquals(CONTENT, received.toByteArray());
+    }
+
+    @Test
+    public void testUploadFailingWriterRemovesObject() throws Exception {
+        ObjectStore objectStore = mock(ObjectStore.class);
+        when(objectStore.put(eq("export.json"), any(InputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, InputStream.class).readAllBytes();
+            return null;
+        });
+
+        assertThrows(IOException.class, () -> ObjectStoreStreams.upload(objectStore, "export.json", out -> {
+            out.write(CONTENT);
+            throw new IllegalStateException("serialization failed");
+        }));
+        verify(objectStore).delete("export.json");
+    }
+}
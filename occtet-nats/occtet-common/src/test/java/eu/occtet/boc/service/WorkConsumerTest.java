@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+package eu.occtet.boc.service;
+
+import eu.occtet.boc.model.WorkTaskStatus;
+import eu.occtet.boc.model.WorkerStatus;
+import io.nats.client.Connection;
+import io.nats.client.Message;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class WorkConsumerTest {
+
+    @Test
+    public void testSuccessfulMessageIsAcked() {
+        WorkConsumer consumer = new TestWorkConsumer(msg -> { });
+        Message msg = mock(Message.class);
+
+        consumer.runTask(msg);
+
+        verify(msg).ack();
+        verify(msg, never()).nakWithDelay(any(Duration.class));
+        assertEquals(WorkerStatus.IDLE, consumer.getWorkerStatus());
+    }
+
+    @Test
+    public void testFailingMessageIsNaked() {
+        WorkConsumer consumer = new TestWorkConsumer(msg -> {
+            throw new RuntimeException("broken");
+        });
+        Message msg = mock(Message.class);
+
+        consumer.runTask(msg);
+
+        verify(msg, never()).ack();
+        verify(msg).nakWithDelay(any(Duration.class));
+    }
+
+    @Test
+    public void testStatusIsTrackedPerTask() {
+        TestWorkConsumer[] holder = new TestWorkConsumer[1];
+        int[] percentSeen = new int[1];
+        WorkerStatus[] statusSeen = new WorkerStatus[1];
+        String[] detailsSeen = new String[1];
+        holder[0] = new TestWorkConsumer(msg -> {
+            holder[0].notifyProgress("1", "task", WorkTaskStatus.IN_PROGRESS, 40, "converting");
+            percentSeen[0] = holder[0].getProgressPercent();
+            statusSeen[0] = holder[0].getWorkerStatus();
+            detailsSeen[0] = holder[0].getStatusDetails();
+            holder[0].notifyCompleted("1", "task");
+        });
+
+        holder[0].runTask(mock(Message.class));
+
+        assertEquals(40, percentSeen[0]);
+        assertEquals(WorkerStatus.WORKING, statusSeen[0]);
+        assertEquals("converting", detailsSeen[0]);
+        assertEquals(WorkerStatus.IDLE, holder[0].getWorkerStatus());
+        assertEquals(100, holder[0].getProgressPercent());
+    }
+
+    private static class TestWorkConsumer extends WorkConsumer {
+        private final Consumer<Message> handler;
+
+        TestWorkConsumer(Consumer<Message> handler) {
+            this.handler = handler;
+            this.natsConnection = mock(Connection.class);
+            this.workerStatus = WorkerStatus.IDLE;
+        }
+
+        @Override
+        protected void handleMessage(Message msg) {
+            handler.accept(msg);
+        }
+    }
+}
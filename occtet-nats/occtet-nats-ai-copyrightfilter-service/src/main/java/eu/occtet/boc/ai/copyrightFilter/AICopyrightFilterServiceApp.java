@@ -72,6 +72,15 @@ public class AICopyrightFilterServiceApp {
     @Value("${nats.work-subject}")
     private String workSubject;
 
+    @Value("${nats.max-concurrent-tasks:1}")
+    private int maxConcurrentTasks;
+
+    @Value("${nats.fetch-batch-size:1}")
+    private int fetchBatchSize;
+
+    @Value("${nats.virtual-threads:false}")
+    private boolean useVirtualThreads;
+
     private SystemHandler systemHandler;
 
     private Executor executor = new SimpleAsyncTaskScheduler();
@@ -95,6 +104,7 @@ public class AICopyrightFilterServiceApp {
         systemHandler.subscribeToSystemSubject();
         executor.execute(()->{
             try {
+                aiCopyrightFilterWorkConsumer.setConcurrency(maxConcurrentTasks, fetchBatchSize, useVirtualThreads);
                 aiCopyrightFilterWorkConsumer.startHandlingMessages(natsConnection, microserviceDescriptor.getName(), streamName, workSubject);
             } catch (Exception e) {
                 log.error("Could not start handling messages: ", e);
@@ -20,6 +20,7 @@
 package eu.occtet.boc.ai.copyrightFilter.retriever;
 
 
+import eu.occtet.boc.ai.copyrightFilter.service.InformationFileEmbeddingService;
 import eu.occtet.boc.ai.copyrightFilter.service.InformationFilesService;
 import eu.occtet.boc.entity.InformationFile;
 import org.apache.logging.log4j.LogManager;
@@ -31,10 +32,7 @@ import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 @Component
 public class CopyrightRetriever {
@@ -47,6 +45,9 @@ public class CopyrightRetriever {
     @Autowired
     private InformationFilesService informationFilesService;
 
+    @Autowired
+    private InformationFileEmbeddingService informationFileEmbeddingService;
+
     public CopyrightRetriever(){}
 
     /**
@@ -96,38 +97,16 @@ public class CopyrightRetriever {
     }
 
     /**
-     * loading copyright files into the vector store with a context helping for embedding and retrieval
-     * has to be changed, so the path to documents is not hardcoded
+     * loading copyright files into the vector store with a context helping for embedding and retrieval.
+     * Only files that are new or changed since they were last loaded are embedded.
      * @param context
-     * @throws IOException
      */
     public void loadVectorStore(String context)  {
-        List<Document> documentList = new ArrayList<>();
-
         List<InformationFile> files = informationFilesService.retrieveDataByContext(context);
         //if there are no files no upload needed
         if(!files.isEmpty()) {
             log.debug("Files from DB {} first filename {}", files.size(), files.getFirst().getFileName());
-
-            List<Document> documents = new ArrayList<>();
-            try {
-                for (InformationFile f : files) {
-                    Document d = new Document(f.getContent(), Map.of("fileName", f.getFileName()));
-                    d.getMetadata().put("filePath", f.getFileName());
-                    d.getMetadata().put("context", f.getContext());
-                    documents.add(d);
-                 }
-
-            } catch (Exception e) {
-                log.error("Error while reading the files : {}", e.getMessage());
-            }
-            log.debug("Files added to list {} metadata {}", documents.size(), documents.getFirst().getMetadata());
-
-            documentList = RagHelper.splitCustomized(documents);
-
-            log.debug("documentlist {} metadata {}", documentList.size(), documentList.getFirst().getMetadata());
-
-            vectorStore.add(documentList);
+            informationFileEmbeddingService.synchronize(files);
         }
         else{
             log.info("No files found to load into Vector-DB");
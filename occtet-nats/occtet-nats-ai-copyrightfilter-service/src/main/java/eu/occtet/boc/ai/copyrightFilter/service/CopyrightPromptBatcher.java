@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.copyrightFilter.service;
+
+import eu.occtet.boc.ai.copyrightFilter.factory.AdvisorFactory;
+import eu.occtet.boc.ai.copyrightFilter.factory.PromptFactory;
+import eu.occtet.boc.ai.copyrightFilter.postprocessing.PostProcessor;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Packs the questionable copyrights of concurrently handled inventory items into shared prompts.
+ * A prompt is sent once it holds the maximum number of copyrights or characters, or when no further copyrights
+ * arrived for the linger time. Copyrights of a single item that do not fit into one prompt are spread over several.
+ * At most max-concurrent-calls prompts are sent to the model at the same time, further prompts wait for a free slot
+ * and so do the work messages waiting for their answers.
+ */
+@Component
+public class CopyrightPromptBatcher {
+
+    private static final Logger log = LogManager.getLogger(CopyrightPromptBatcher.class);
+
+    // the separator the system prompt asks the model to use
+    static final String SEPARATOR = "|||";
+
+    @Autowired
+    private PromptFactory promptFactory;
+
+    @Autowired
+    private PostProcessor postProcessor;
+
+    @Autowired
+    private AdvisorFactory advisorFactory;
+
+    @Autowired
+    @Qualifier("chatClient")
+    private ChatClient chatClient;
+
+    private final int maxCopyrights;
+    private final int maxChars;
+    private final long lingerMillis;
+    private final Semaphore modelCalls;
+
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService lingerTimer = Executors.newSingleThreadScheduledExecutor();
+
+    private final Object lock = new Object();
+    private Batch openBatch;
+
+    public CopyrightPromptBatcher(@Value("${ai.copyright.batch.max-copyrights:50}") int maxCopyrights,
+                                  @Value("${ai.copyright.batch.max-chars:12000}") int maxChars,
+                                  @Value("${ai.copyright.batch.linger-millis:500}") long lingerMillis,
+                                  @Value("${ai.copyright.max-concurrent-calls:2}") int maxConcurrentCalls) {
+        this.maxCopyrights = Math.max(1, maxCopyrights);
+        this.maxChars = Math.max(1, maxChars);
+        this.lingerMillis = Math.max(0, lingerMillis);
+        this.modelCalls = new Semaphore(Math.max(1, maxConcurrentCalls));
+    }
+
+    /**
+     * Queues the copyrights for the next prompts.
+     * @return the answers of all prompts the copyrights went into, concatenated, or an empty string if a prompt failed
+     */
+    public CompletableFuture<String> submit(Collection<String> copyrights) {
+        List<CompletableFuture<String>> answers = new ArrayList<>();
+        synchronized (lock) {
+            for (String copyright : new LinkedHashSet<>(copyrights)) {
+                if (openBatch != null && !openBatch.fits(copyright)) {
+                    dispatch(openBatch);
+                }
+                if (openBatch == null) {
+                    openBatch = new Batch();
+                    Batch batch = openBatch;
+                    batch.lingerTask = lingerTimer.schedule(() -> dispatchIfOpen(batch), lingerMillis, TimeUnit.MILLISECONDS);
+                }
+                openBatch.add(copyright);
+                if (answers.isEmpty() || answers.getLast() != openBatch.answer) {
+                    answers.add(openBatch.answer);
+                }
+            }
+            if (openBatch != null && openBatch.isFull()) {
+                dispatch(openBatch);
+            }
+        }
+        return CompletableFuture.allOf(answers.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    StringBuilder b = new StringBuilder();
+                    for (CompletableFuture<String> answer : answers) {
+                        // an empty answer means the prompt failed, the copyrights of the item count as not checked
+                        if (answer.join().isEmpty()) return "";
+                        b.append(answer.join());
+                    }
+                    return b.toString();
+                });
+    }
+
+    /**
+     * Sends one prompt to the model.
+     * @return the answer without the thinking part, empty if the call failed
+     */
+    protected String askAI(String copyrights) {
+        Prompt question = promptFactory.createFalseCopyrightPrompt(copyrights);
+        String response = "";
+        try {
+            response = chatClient.prompt(question)
+                    .advisors(advisorFactory.createAdvisors())
+                    .call().content();
+        } catch (Exception e) {
+            log.error("Exception with calling ai {}", e.getMessage());
+        }
+        return response == null ? "" : postProcessor.deleteThinking(response);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lingerTimer.shutdownNow();
+        callExecutor.shutdown();
+    }
+
+    private void dispatchIfOpen(Batch batch) {
+        synchronized (lock) {
+            if (openBatch == batch) dispatch(batch);
+        }
+    }
+
+    // called while holding the lock
+    private void dispatch(Batch batch) {
+        openBatch = null;
+        if (batch.lingerTask != null) batch.lingerTask.cancel(false);
+        String prompt = batch.prompt();
+        log.debug("sending prompt with {} copyrights and {} characters", batch.copyrights.size(), prompt.length());
+        callExecutor.execute(() -> {
+            try {
+                modelCalls.acquire();
+                try {
+                    batch.answer.complete(askAI(prompt));
+                } finally {
+                    modelCalls.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.answer.complete("");
+            } catch (RuntimeException e) {
+                log.error("prompt with {} copyrights failed: {}", batch.copyrights.size(), e.getMessage());
+                batch.answer.complete("");
+            }
+        });
+    }
+
+    private class Batch {
+        private final Set<String> copyrights = new LinkedHashSet<>();
+        private final CompletableFuture<String> answer = new CompletableFuture<>();
+        private int chars;
+        private ScheduledFuture<?> lingerTask;
+
+        boolean fits(String copyright) {
+            if (copyrights.contains(copyright)) return true;
+            return copyrights.size() < maxCopyrights && chars + SEPARATOR.length() + copyright.length() <= maxChars;
+        }
+
+        void add(String copyright) {
+            if (copyrights.add(copyright)) {
+                chars += SEPARATOR.length() + copyright.length();
+            }
+        }
+
+        boolean isFull() {
+            return copyrights.size() >= maxCopyrights || chars >= maxChars;
+        }
+
+        String prompt() {
+            StringBuilder b = new StringBuilder(chars);
+            for (String copyright : copyrights) {
+                b.append(SEPARATOR).append(copyright);
+            }
+            return b.toString();
+        }
+    }
+}
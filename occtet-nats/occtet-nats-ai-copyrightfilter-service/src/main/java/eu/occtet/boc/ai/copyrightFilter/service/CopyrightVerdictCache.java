@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.copyrightFilter.service;
+
+import eu.occtet.boc.ai.copyrightFilter.config.ChatClientConfig;
+import eu.occtet.boc.dao.CopyrightVerdictRepository;
+import eu.occtet.boc.entity.Copyright;
+import eu.occtet.boc.entity.CopyrightVerdict;
+import eu.occtet.boc.model.CopyrightVerdictVersion;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Verdicts of the model on copyright statements, by normalized statement. Only verdicts of the configured model
+ * under the current system prompt are reused. With a similarity threshold above 0, statements without a verdict of
+ * their own take the verdict of the most similar judged statement in the vector store.
+ */
+@Component
+public class CopyrightVerdictCache {
+
+    private static final Logger log = LogManager.getLogger(CopyrightVerdictCache.class);
+
+    // raised when the way verdicts are read from an answer changes, 2: exact match of the kept entries
+    private static final int ANSWER_MATCHING_REVISION = 2;
+
+    // changes whenever the rule set of the copyright filter or the answer matching changes
+    public static final String PROMPT_VERSION = Copyright.hashOf(ChatClientConfig.SYSTEM_PROMPT).substring(0, 16)
+            + "-" + ANSWER_MATCHING_REVISION;
+
+    private static final String VERDICT_HASH = "verdictHash";
+
+    private static final FilterExpressionBuilder FILTER = new FilterExpressionBuilder();
+
+    @Autowired
+    private CopyrightVerdictRepository copyrightVerdictRepository;
+
+    @Autowired
+    private VectorStore vectorStore;
+
+    @Value("${spring.ai.ollama.chat.options.model:unknown}")
+    private String model;
+
+    @Value("${ai.copyright.verdict-cache.similarity-threshold:0}")
+    private double similarityThreshold;
+
+    /**
+     * @return whether the statement is garbage, by statement, for the statements with a current verdict
+     */
+    public Map<String, Boolean> findVerdicts(Collection<String> copyrightTexts) {
+        Map<String, CopyrightVerdict> byHash = copyrightVerdictRepository.findByCopyrightTexts(copyrightTexts);
+        Map<String, Boolean> verdicts = new HashMap<>();
+        for (String text : new LinkedHashSet<>(copyrightTexts)) {
+            CopyrightVerdict verdict = byHash.get(CopyrightVerdict.hashOf(text));
+            if (verdict != null && isCurrent(verdict)) {
+                verdicts.put(text, Boolean.TRUE.equals(verdict.getGarbage()));
+            } else if (similarityThreshold > 0) {
+                Boolean similar = findSimilarVerdict(text);
+                if (similar != null) verdicts.put(text, similar);
+            }
+        }
+        log.debug("found verdicts for {} of {} copyrights", verdicts.size(), copyrightTexts.size());
+        return verdicts;
+    }
+
+    /**
+     * Records the verdicts of the current model and prompt, replacing older ones.
+     */
+    public void saveVerdicts(Map<String, Boolean> garbageByText) {
+        if (garbageByText.isEmpty()) return;
+        Map<String, CopyrightVerdict> byHash = copyrightVerdictRepository.findByCopyrightTexts(garbageByText.keySet());
+        List<Document> documents = new ArrayList<>();
+        for (Map.Entry<String, Boolean> entry : garbageByText.entrySet()) {
+            String textHash = CopyrightVerdict.hashOf(entry.getKey());
+            CopyrightVerdict verdict = byHash.get(textHash);
+            if (verdict == null) {
+                verdict = new CopyrightVerdict(entry.getKey(), entry.getValue(), model, PROMPT_VERSION);
+            } else {
+                verdict.setGarbage(entry.getValue());
+                verdict.setModel(model);
+                verdict.setPromptVersion(PROMPT_VERSION);
+            }
+            try {
+                copyrightVerdictRepository.save(verdict);
+            } catch (DataAccessException | TransactionException e) {
+                // the same statement was judged for another item in the meantime
+                log.debug("could not store verdict for {}: {}", entry.getKey(), e.getMessage());
+            }
+            documents.add(new Document(UUID.nameUUIDFromBytes(textHash.getBytes(StandardCharsets.UTF_8)).toString(),
+                    CopyrightVerdict.normalize(entry.getKey()),
+                    Map.of(VERDICT_HASH, textHash, "garbage", entry.getValue(), "model", model, "promptVersion", PROMPT_VERSION)));
+        }
+        if (similarityThreshold > 0) {
+            try {
+                vectorStore.add(documents);
+            } catch (Exception e) {
+                log.warn("could not add {} verdicts to the vector store: {}", documents.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return the model and prompt version new verdicts are recorded under
+     */
+    public CopyrightVerdictVersion currentVersion() {
+        return new CopyrightVerdictVersion(model, PROMPT_VERSION);
+    }
+
+    private boolean isCurrent(CopyrightVerdict verdict) {
+        return Objects.equals(model, verdict.getModel()) && PROMPT_VERSION.equals(verdict.getPromptVersion());
+    }
+
+    private Boolean findSimilarVerdict(String text) {
+        try {
+            List<Document> similar = vectorStore.similaritySearch(SearchRequest.builder()
+                    .query(CopyrightVerdict.normalize(text))
+                    .topK(1)
+                    .similarityThreshold(similarityThreshold)
+                    .filterExpression(FILTER.and(FILTER.eq("promptVersion", PROMPT_VERSION), FILTER.eq("model", model)).build())
+                    .build());
+            if (similar == null || similar.isEmpty()) return null;
+            Object garbage = similar.getFirst().getMetadata().get("garbage");
+            log.debug("taking verdict of similar statement '{}' for '{}'", similar.getFirst().getText(), text);
+            return garbage == null ? null : Boolean.valueOf(garbage.toString());
+        } catch (Exception e) {
+            log.warn("similarity search for verdict failed: {}", e.getMessage());
+            return null;
+        }
+    }
+}
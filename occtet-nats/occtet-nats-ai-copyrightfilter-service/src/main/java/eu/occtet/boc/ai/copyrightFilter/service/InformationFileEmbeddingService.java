@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.copyrightFilter.service;
+
+import eu.occtet.boc.ai.copyrightFilter.retriever.RagHelper;
+import eu.occtet.boc.dao.InformationFileChunkRepository;
+import eu.occtet.boc.entity.Copyright;
+import eu.occtet.boc.entity.InformationFile;
+import eu.occtet.boc.entity.InformationFileChunk;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the vector store in line with the information files. Every file is hashed, and only files that are new or
+ * whose hash differs from the one of their stored chunks are split and embedded again. The chunks of the previous
+ * version are removed from the vector store once the new ones are added.
+ */
+@Service
+public class InformationFileEmbeddingService {
+
+    private static final Logger log = LogManager.getLogger(InformationFileEmbeddingService.class);
+
+    @Autowired
+    private VectorStore vectorStore;
+
+    @Autowired
+    private InformationFileChunkRepository informationFileChunkRepository;
+
+    // part of the content hash, so that switching the embedding model embeds all files again
+    @Value("${spring.ai.ollama.embedding.options.model:}")
+    private String embeddingModel;
+
+    @Value("${ai.copyright.embedding.batch-size:64}")
+    private int batchSize;
+
+    /**
+     * Embeds the given files if they are new or have changed since they were last embedded.
+     * @param files
+     * @return the number of files embedded
+     */
+    public synchronized int synchronize(List<InformationFile> files) {
+        List<Long> fileIds = files.stream().map(InformationFile::getId).filter(Objects::nonNull).toList();
+        Map<Long, List<InformationFileChunk>> chunksByFile = informationFileChunkRepository.findByInformationFileIdIn(fileIds)
+                .stream().collect(Collectors.groupingBy(InformationFileChunk::getInformationFileId));
+
+        List<Document> documents = new ArrayList<>();
+        List<InformationFileChunk> newChunks = new ArrayList<>();
+        List<InformationFileChunk> staleChunks = new ArrayList<>();
+        int changedFiles = 0;
+        for (InformationFile f : files) {
+            if (f.getId() == null || f.getContent() == null || f.getContent().isBlank()) continue;
+            String hash = contentHash(f);
+            List<InformationFileChunk> existing = chunksByFile.getOrDefault(f.getId(), List.of());
+            if (!existing.isEmpty() && existing.stream().allMatch(c -> hash.equals(c.getContentHash()))) continue;
+
+            List<Document> chunks = RagHelper.splitCustomized(List.of(toDocument(f)));
+            for (int i = 0; i < chunks.size(); i++) {
+                documents.add(chunks.get(i));
+                newChunks.add(new InformationFileChunk(f.getId(), hash, chunks.get(i).getId(), i));
+            }
+            staleChunks.addAll(existing);
+            changedFiles++;
+        }
+        if (documents.isEmpty() && staleChunks.isEmpty()) {
+            log.debug("all {} information files are embedded already", files.size());
+            return 0;
+        }
+
+        for (int i = 0; i < documents.size(); i += batchSize) {
+            vectorStore.add(documents.subList(i, Math.min(documents.size(), i + batchSize)));
+        }
+        if (!staleChunks.isEmpty()) {
+            vectorStore.delete(staleChunks.stream().map(InformationFileChunk::getDocumentId).toList());
+            informationFileChunkRepository.deleteAll(staleChunks);
+        }
+        informationFileChunkRepository.saveAll(newChunks);
+        log.info("embedded {} chunks of {} new or changed information files, removed {} outdated chunks",
+                documents.size(), changedFiles, staleChunks.size());
+        return changedFiles;
+    }
+
+    private Document toDocument(InformationFile f) {
+        Document d = new Document(f.getContent(), new HashMap<>(Map.of("fileName", f.getFileName())));
+        d.getMetadata().put("filePath", f.getFileName());
+        if (f.getContext() != null) d.getMetadata().put("context", f.getContext());
+        return d;
+    }
+
+    String contentHash(InformationFile f) {
+        return Copyright.hashOf(embeddingModel + '\n' + f.getFileName() + '\n' + f.getContext() + '\n' + f.getContent());
+    }
+}
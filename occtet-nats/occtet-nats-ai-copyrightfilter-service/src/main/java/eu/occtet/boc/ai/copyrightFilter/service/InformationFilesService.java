@@ -21,12 +21,9 @@ package eu.occtet.boc.ai.copyrightFilter.service;
 
 
 import eu.occtet.boc.dao.InformationFileDao;
-import eu.occtet.boc.dao.InformationFileRepository;
 import eu.occtet.boc.entity.InformationFile;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -35,35 +32,23 @@ import java.util.*;
 @Service
 public class InformationFilesService {
 
-    @Autowired
-    private InformationFileRepository informationFileRepository;
-
-
     @Autowired
     private InformationFileDao informationFileDao;
 
-    @Autowired
-    VectorStore vectorStore;
-
     private static final Logger log = LogManager.getLogger(InformationFilesService.class);
     private static final int LIMIT= 20;
 
 
     /**
-     * retrieve data from normal DB via similarity search for context
+     * retrieve data from normal DB via similarity search for context, in a single indexed query
      * @param context
      * @return
      */
     public List<InformationFile> retrieveDataByContext(String context){
 
-        List<Pair<Long, Float>> files= informationFileDao.findInformationFileContentSimilarity(context, LIMIT);
+        List<InformationFile> files= informationFileDao.findInformationFilesByContextSimilarity(context, LIMIT);
         log.debug("retrieved files from db {}", files.size());
-        return files.stream().map(
-                        pair ->{
-                            InformationFile infoF=informationFileRepository.findById(pair.getKey()).get();
-                            return infoF;
-                        }).toList();
-
+        return files;
     }
 
 }
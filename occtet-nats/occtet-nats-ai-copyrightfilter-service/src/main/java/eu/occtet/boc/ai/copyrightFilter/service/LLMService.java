@@ -21,8 +21,6 @@ package eu.occtet.boc.ai.copyrightFilter.service;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import eu.occtet.boc.ai.copyrightFilter.factory.AdvisorFactory;
-import eu.occtet.boc.ai.copyrightFilter.factory.PromptFactory;
 import eu.occtet.boc.ai.copyrightFilter.postprocessing.PostProcessor;
 import eu.occtet.boc.dao.CopyrightRepository;
 import eu.occtet.boc.entity.Copyright;
@@ -34,13 +32,12 @@ import eu.occtet.boc.model.WorkTask;
 import eu.occtet.boc.service.BaseWorkDataProcessor;
 import eu.occtet.boc.service.NatsStreamSender;
 import eu.occtet.boc.util.ExternalNotesConstants;
+import eu.occtet.boc.util.SystemSubjects;
 import io.nats.client.Connection;
 import io.nats.client.JetStreamApiException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.client.advisor.api.Advisor;
-import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -51,18 +48,13 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.regex.Pattern;
 
 @Component
 public class LLMService extends BaseWorkDataProcessor {
     private static final Logger log = LogManager.getLogger(LLMService.class);
 
-    @Autowired
-    private PromptFactory promptFactory;
-
     @Autowired
     private PostProcessor postProcessor;
 
@@ -73,7 +65,10 @@ public class LLMService extends BaseWorkDataProcessor {
     private CopyrightRepository copyrightRepository;
 
     @Autowired
-    private AdvisorFactory advisorFactory;
+    private CopyrightPromptBatcher copyrightPromptBatcher;
+
+    @Autowired
+    private CopyrightVerdictCache copyrightVerdictCache;
 
     @Autowired
     @Qualifier("chatClient")
@@ -130,21 +125,30 @@ public class LLMService extends BaseWorkDataProcessor {
             log.warn("InventoryItem with id {} not found", aiWorkData.getInventoryItemId());
             return false;
         }
-        List<Advisor> advisors = advisorFactory.createAdvisors();
-        String response = "";
-        List<Copyright> copyrightList= new ArrayList<>();
-        String copyrights = createString(aiWorkData.getQuestionableCopyrights(), copyrightList);
-        Prompt question = promptFactory.createFalseCopyrightPrompt(copyrights);
-
-        try {
-            response = chatClient.prompt(question)
-                    .advisors(advisors)
-                    .call().content();
-
-        } catch (Exception e) {
-            log.error("Exception with calling ai {}", e.getMessage());
+        List<Copyright> copyrightList = findCopyrights(aiWorkData.getQuestionableCopyrights());
+        // statements judged before are not asked again
+        Map<String, Boolean> garbageByText = new HashMap<>(copyrightVerdictCache.findVerdicts(aiWorkData.getQuestionableCopyrights()));
+        List<String> unjudged = aiWorkData.getQuestionableCopyrights().stream()
+                .filter(c -> !garbageByText.containsKey(c))
+                .distinct()
+                .toList();
+        String result = null;
+        if (!unjudged.isEmpty()) {
+            // the copyrights share prompts with those of other items, the answer is narrowed down to this item again
+            String batchAnswer = copyrightPromptBatcher.submit(unjudged).join();
+            if (batchAnswer.isEmpty()) {
+                result = "";
+            } else {
+                Set<String> kept = keptCopyrights(batchAnswer);
+                Map<String, Boolean> verdicts = new HashMap<>();
+                unjudged.forEach(c -> verdicts.put(c, !kept.contains(c.trim())));
+                copyrightVerdictCache.saveVerdicts(verdicts);
+                garbageByText.putAll(verdicts);
+            }
+        }
+        if (result == null) {
+            result = answerFor(copyrightList, garbageByText);
         }
-        String result = postProcessor.deleteThinking(response);
         log.debug("result of AI: {}", result);
         handleAIResult(optItem.get(), result, copyrightList);
         if(!result.isEmpty()) {
@@ -160,17 +164,52 @@ public class LLMService extends BaseWorkDataProcessor {
     }
 
     /**
-     * separate single copyrights with |||,so AI can better discern the single ones
+     * resolves the copyright entities of the given texts with one query
      * @param group
      * @return
      */
-    private String createString(List<String> group, List<Copyright> copyrightList){
-        StringBuilder b = new StringBuilder();
+    private List<Copyright> findCopyrights(List<String> group){
+        List<Copyright> copyrightList = new ArrayList<>();
+        Map<String, Copyright> byText = new HashMap<>();
+        copyrightRepository.findByCopyrightTextIn(group).forEach(c -> byText.putIfAbsent(c.getCopyrightText(), c));
         for(String c : group){
-            copyrightList.add(copyrightRepository.findByCopyrightText(c).getFirst());
-            b.append("|||").append(c);
+            Copyright copyright = byText.get(c);
+            if (copyright == null) {
+                log.warn("No copyright found for text {}, skipping it", c);
+                continue;
+            }
+            copyrightList.add(copyright);
+        }
+        return copyrightList;
+    }
+
+    /**
+     * the copyrights the model kept, an answer lists them separated with ||| like the prompt
+     * @param answer
+     * @return the trimmed entries of the answer
+     */
+    private static Set<String> keptCopyrights(String answer){
+        Set<String> kept = new HashSet<>();
+        for (String entry : answer.split(Pattern.quote(CopyrightPromptBatcher.SEPARATOR))) {
+            if (!entry.isBlank()) kept.add(entry.trim());
+        }
+        return kept;
+    }
+
+    /**
+     * the copyrights of one item the model kept, separated with ||| like the prompt
+     * @param copyrightList
+     * @param garbageByText
+     * @return
+     */
+    private String answerFor(List<Copyright> copyrightList, Map<String, Boolean> garbageByText){
+        StringBuilder b = new StringBuilder();
+        for (Copyright c : new LinkedHashSet<>(copyrightList)) {
+            if (Boolean.FALSE.equals(garbageByText.get(c.getCopyrightText()))) {
+                b.append(CopyrightPromptBatcher.SEPARATOR).append(c.getCopyrightText());
+            }
         }
-        return b.toString();
+        return b.isEmpty() ? CopyrightPromptBatcher.SEPARATOR : b.toString();
     }
 
 
@@ -191,8 +230,11 @@ public class LLMService extends BaseWorkDataProcessor {
                     ExternalNotesConstants.COPYRIGHT_FILTER_INFO_AI_RESPONSE_MESSAGE +
                     response + ExternalNotesConstants.SECTION_SEPARATOR);
         }
+        Set<String> kept = keptCopyrights(response);
+        boolean garbageChanged = false;
         for(Copyright c: copyrightList) {
-            if (!response.contains(c.getCopyrightText())) {
+            if (!kept.contains(c.getCopyrightText().trim())) {
+                garbageChanged |= !Boolean.TRUE.equals(c.getGarbage());
                 c.setGarbage(true);
             }
             c.setAiControlled(true);
@@ -200,6 +242,18 @@ public class LLMService extends BaseWorkDataProcessor {
         }
 
         inventoryItemRepository.save(item);
+        if (garbageChanged) notifyGarbageCopyrightsChanged();
+    }
+
+    /**
+     * tells the services caching the garbage copyrights to reload them, with the version of the current verdicts
+     */
+    private void notifyGarbageCopyrightsChanged(){
+        try {
+            natsConnection.publish(SystemSubjects.GARBAGE_COPYRIGHTS_CHANGED, copyrightVerdictCache.currentVersion().toBytes());
+        } catch (Exception e) {
+            log.warn("could not publish garbage copyright change: {}", e.getMessage());
+        }
     }
 
     /**
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.copyrightFilter.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CopyrightPromptBatcherTest {
+
+    private RecordingBatcher batcher;
+
+    /**
+     * answers every prompt with the copyrights it contains that start with "bad"
+     */
+    private static class RecordingBatcher extends CopyrightPromptBatcher {
+        final List<String> prompts = new CopyOnWriteArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        RecordingBatcher(int maxCopyrights, int maxChars, long lingerMillis, int maxConcurrentCalls) {
+            super(maxCopyrights, maxChars, lingerMillis, maxConcurrentCalls);
+        }
+
+        @Override
+        protected String askAI(String copyrights) {
+            prompts.add(copyrights);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            StringBuilder b = new StringBuilder();
+            for (String c : copyrights.split("\\|\\|\\|")) {
+                if (c.startsWith("bad")) b.append(SEPARATOR).append(c);
+            }
+            return b.isEmpty() ? SEPARATOR : b.toString();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) batcher.shutdown();
+    }
+
+    @Test
+    void copyrightsOfSeveralItemsShareOnePrompt() {
+        batcher = new RecordingBatcher(50, 10_000, 200, 2);
+
+        CompletableFuture<String> first = batcher.submit(List.of("bad 1", "(c) 2020 Bitsea GmbH"));
+        CompletableFuture<String> second = batcher.submit(List.of("bad 2", "(c) 2020 Bitsea GmbH"));
+
+        Assertions.assertEquals(first.join(), second.join());
+        Assertions.assertTrue(first.join().contains("bad 1"));
+        Assertions.assertTrue(first.join().contains("bad 2"));
+        Assertions.assertEquals(1, batcher.prompts.size());
+        // the copyright shared by both items is asked only once
+        Assertions.assertEquals("|||bad 1|||(c) 2020 Bitsea GmbH|||bad 2", batcher.prompts.getFirst());
+    }
+
+    @Test
+    void largeItemIsSpreadOverSeveralPrompts() throws Exception {
+        batcher = new RecordingBatcher(3, 10_000, 100, 1);
+
+        String answer = batcher.submit(List.of("bad 1", "ok 2", "ok 3", "bad 4", "ok 5", "ok 6", "bad 7"))
+                .get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("|||bad 1|||bad 4", answer.substring(0, "|||bad 1|||bad 4".length()));
+        Assertions.assertTrue(answer.contains("bad 7"));
+        Assertions.assertEquals(3, batcher.prompts.size());
+    }
+
+    @Test
+    void concurrentModelCallsAreLimited() {
+        batcher = new RecordingBatcher(1, 10_000, 0, 2);
+
+        List<CompletableFuture<String>> answers = List.of(
+                batcher.submit(List.of("bad 1")), batcher.submit(List.of("bad 2")),
+                batcher.submit(List.of("bad 3")), batcher.submit(List.of("bad 4")),
+                batcher.submit(List.of("bad 5")));
+        answers.forEach(CompletableFuture::join);
+
+        Assertions.assertEquals(5, batcher.prompts.size());
+        Assertions.assertTrue(batcher.maxRunning.get() <= 2);
+    }
+}
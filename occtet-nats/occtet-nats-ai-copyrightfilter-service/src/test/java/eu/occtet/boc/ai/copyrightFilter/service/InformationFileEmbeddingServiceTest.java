@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.copyrightFilter.service;
+
+import eu.occtet.boc.dao.InformationFileChunkRepository;
+import eu.occtet.boc.entity.InformationFile;
+import eu.occtet.boc.entity.InformationFileChunk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class InformationFileEmbeddingServiceTest {
+
+    private VectorStore vectorStore;
+    private InformationFileChunkRepository chunkRepository;
+    private InformationFileEmbeddingService service;
+
+    @BeforeEach
+    void setUp() {
+        vectorStore = mock(VectorStore.class);
+        chunkRepository = mock(InformationFileChunkRepository.class);
+        service = new InformationFileEmbeddingService();
+        ReflectionTestUtils.setField(service, "vectorStore", vectorStore);
+        ReflectionTestUtils.setField(service, "informationFileChunkRepository", chunkRepository);
+        ReflectionTestUtils.setField(service, "embeddingModel", "nomic-embed-text");
+        ReflectionTestUtils.setField(service, "batchSize", 64);
+    }
+
+    private InformationFile file(long id, String content) {
+        InformationFile f = new InformationFile("bad-copyrights.txt", "bad copyright examples", content, "bad-copyrights.txt");
+        f.setId(id);
+        return f;
+    }
+
+    @Test
+    void unchangedFileIsNotEmbeddedAgain() {
+        InformationFile f = file(1L, "Copyright (c) <year>");
+        when(chunkRepository.findByInformationFileIdIn(anyCollection()))
+                .thenReturn(List.of(new InformationFileChunk(1L, service.contentHash(f), "doc-1", 0)));
+
+        assertEquals(0, service.synchronize(List.of(f)));
+        verifyNoInteractions(vectorStore);
+    }
+
+    @Test
+    void changedFileReplacesItsChunks() {
+        InformationFile f = file(1L, "Copyright (c) <year> <owner>");
+        InformationFileChunk old = new InformationFileChunk(1L, "outdated", "doc-1", 0);
+        when(chunkRepository.findByInformationFileIdIn(anyCollection())).thenReturn(List.of(old));
+
+        assertEquals(1, service.synchronize(List.of(f)));
+        verify(vectorStore).add(argThat(docs -> !docs.isEmpty()));
+        verify(vectorStore).delete(List.of("doc-1"));
+        verify(chunkRepository).deleteAll(List.of(old));
+        verify(chunkRepository).saveAll(argThat(chunks -> chunks.iterator().hasNext()));
+    }
+}
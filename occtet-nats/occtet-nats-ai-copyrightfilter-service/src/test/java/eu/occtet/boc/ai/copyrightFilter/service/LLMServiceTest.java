@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.copyrightFilter.service;
+
+import eu.occtet.boc.dao.CopyrightRepository;
+import eu.occtet.boc.dao.InventoryItemRepository;
+import eu.occtet.boc.entity.Copyright;
+import eu.occtet.boc.entity.InventoryItem;
+import io.nats.client.Connection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class LLMServiceTest {
+
+    @Mock
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Mock
+    private CopyrightRepository copyrightRepository;
+
+    @Mock
+    private CopyrightVerdictCache copyrightVerdictCache;
+
+    @Mock
+    private Connection natsConnection;
+
+    @InjectMocks
+    private LLMService llmService;
+
+    @Test
+    void copyrightContainedInAKeptOneIsGarbage() {
+        Copyright kept = new Copyright("(c) 2020 Bitsea GmbH");
+        Copyright contained = new Copyright("(c) 2020 Bitsea");
+
+        llmService.handleAIResult(new InventoryItem(), "|||(c) 2020 Bitsea GmbH ", List.of(kept, contained));
+
+        Assertions.assertNotEquals(Boolean.TRUE, kept.getGarbage());
+        Assertions.assertTrue(contained.getGarbage());
+        Assertions.assertTrue(kept.getAiControlled());
+        Assertions.assertTrue(contained.getAiControlled());
+    }
+}
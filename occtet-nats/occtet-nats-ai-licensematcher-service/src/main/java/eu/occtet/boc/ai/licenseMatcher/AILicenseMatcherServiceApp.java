@@ -39,6 +39,7 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.util.ResourceUtils;
 
@@ -48,6 +49,7 @@ import java.util.concurrent.Executor;
 
 @SpringBootApplication(scanBasePackages = {"eu.occtet.boc"})
 @EnableAsync
+@EnableScheduling
 @EntityScan(basePackages = "eu.occtet.boc.entity")
 @EnableJpaRepositories(basePackages = "eu.occtet.boc.dao")
 @Profile({"!test"})
@@ -24,8 +24,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.ai.licenseMatcher.factory.PromptFactory;
 import eu.occtet.boc.ai.licenseMatcher.postprocessing.PostProcessor;
 import eu.occtet.boc.ai.licenseMatcher.tools.LicenseTool;
+import eu.occtet.boc.dao.LicenseMatchResultCache;
 import eu.occtet.boc.dao.SoftwareComponentRepository;
 import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.LicenseMatchResult;
 import eu.occtet.boc.model.AIAnswerWorkData;
 import eu.occtet.boc.model.AILicenseMatcherWorkData;
 import eu.occtet.boc.model.AIStatusQueryWorkData;
@@ -66,6 +68,8 @@ public class LLMService extends BaseWorkDataProcessor {
     private InventoryItemRepository inventoryItemRepository;
     @Autowired
     private SoftwareComponentRepository softwareComponentRepository;
+    @Autowired
+    private LicenseMatchResultCache licenseMatchResultCache;
 
 
     @Autowired
@@ -126,17 +130,29 @@ public class LLMService extends BaseWorkDataProcessor {
             log.warn("InventoryItem with id {} not found", aiWorkData.getInventoryItemId());
             return false;
         }
-        String response = "";
-        Prompt question = promptFactory.createLicenseMatcherPrompt( aiWorkData.getUrl(), aiWorkData.getLicenseText(), aiWorkData.getLicenseMatcherResult(), aiWorkData.getDifferenceLines());
-        try {
-            response = chatClient.prompt(question)
-                    .tools(licenseTool)
-                    .call().content();
+        // the same text may already have been judged for another component
+        Optional<String> knownVerdict = licenseMatchResultCache.find(aiWorkData.getLicenseId(), aiWorkData.getLicenseText())
+                .map(LicenseMatchResult::getAiVerdict);
+        String result;
+        if (knownVerdict.isPresent()) {
+            log.debug("reusing AI verdict for license {}", aiWorkData.getLicenseId());
+            result = knownVerdict.get();
+        } else {
+            String response = "";
+            Prompt question = promptFactory.createLicenseMatcherPrompt( aiWorkData.getUrl(), aiWorkData.getLicenseText(), aiWorkData.getLicenseMatcherResult(), aiWorkData.getDifferenceLines());
+            try {
+                response = chatClient.prompt(question)
+                        .tools(licenseTool)
+                        .call().content();
 
-        } catch (Exception e) {
-            log.error("Exception with calling ai {}", e.getMessage());
+            } catch (Exception e) {
+                log.error("Exception with calling ai {}", e.getMessage());
+            }
+            result = postProcessor.deleteThinking(response);
+            if (!result.isEmpty()) {
+                licenseMatchResultCache.saveAiVerdict(aiWorkData.getLicenseId(), aiWorkData.getLicenseText(), result);
+            }
         }
-        String result = postProcessor.deleteThinking(response);
         handleAIResult(optItem.get(), result);
         if(!result.isEmpty()) {
             try {
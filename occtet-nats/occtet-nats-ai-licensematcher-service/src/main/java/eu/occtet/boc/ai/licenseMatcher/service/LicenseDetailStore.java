@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.licenseMatcher.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.occtet.boc.model.SPDXLicenseDetails;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SPDX license details by license id, read from the license list bundled with the SPDX library so that no network
+ * access is needed. If a base URL is configured, licenses missing from the bundled list are fetched from there and
+ * the details held in memory are refreshed from there periodically.
+ */
+@Component
+public class LicenseDetailStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseDetailStore.class);
+
+    private static final String BUNDLED_LICENSE_LIST = "resources/stdlicenses/";
+
+    private final LicenseTemplateWebService licenseTemplateWebService = new LicenseTemplateWebService();
+
+    // lower case id -> id as written in the license list
+    private final Map<String, String> bundledIds = new HashMap<>();
+
+    private final Map<String, SPDXLicenseDetails> detailsById = new ConcurrentHashMap<>();
+
+    private String licenseListVersion;
+
+    @Value("${licensedetails.base-url:}")
+    private String baseUrl;
+
+    @PostConstruct
+    public void init() {
+        try (InputStream in = openBundled("licenses.json")) {
+            if (in == null) {
+                log.warn("no bundled license list found, license details are only available from {}", baseUrl);
+                return;
+            }
+            JsonNode licenseList = new ObjectMapper().readTree(in);
+            licenseListVersion = licenseList.path("licenseListVersion").asText(null);
+            for (JsonNode license : licenseList.path("licenses")) {
+                String licenseId = license.path("licenseId").asText();
+                bundledIds.put(licenseId.toLowerCase(Locale.ROOT), licenseId);
+            }
+            log.info("indexed {} licenses of bundled license list {}", bundledIds.size(), licenseListVersion);
+        } catch (IOException e) {
+            log.warn("could not read bundled license list: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param licenseIdOrUrl a license id or the URL of its details, e.g. .../json/details/MIT.json
+     * @return the details of the license, or null if the license is unknown
+     */
+    public SPDXLicenseDetails findDetails(String licenseIdOrUrl) {
+        String licenseId = licenseIdOf(licenseIdOrUrl);
+        if (licenseId == null) return null;
+        String bundledId = bundledIds.get(licenseId.toLowerCase(Locale.ROOT));
+        String key = bundledId != null ? bundledId : licenseId;
+        SPDXLicenseDetails details = detailsById.get(key);
+        if (details != null) return details;
+
+        details = bundledId != null ? readBundled(bundledId) : fetch(licenseId);
+        if (details != null) {
+            detailsById.put(key, details);
+        }
+        return details;
+    }
+
+    public String getLicenseListVersion() {
+        return licenseListVersion;
+    }
+
+    /**
+     * Replaces the details held in memory with the current ones from the base URL, if one is configured.
+     */
+    @Scheduled(initialDelayString = "${licensedetails.refresh-interval:PT24H}",
+            fixedDelayString = "${licensedetails.refresh-interval:PT24H}")
+    public void refresh() {
+        if (baseUrl == null || baseUrl.isBlank()) return;
+        int refreshed = 0;
+        for (String licenseId : List.copyOf(detailsById.keySet())) {
+            SPDXLicenseDetails details = fetch(licenseId);
+            if (details != null) {
+                detailsById.put(licenseId, details);
+                refreshed++;
+            }
+        }
+        log.debug("refreshed {} of {} license details from {}", refreshed, detailsById.size(), baseUrl);
+    }
+
+    /**
+     * @return the last path segment of the given id or URL without a .json or .html extension
+     */
+    static String licenseIdOf(String licenseIdOrUrl) {
+        if (licenseIdOrUrl == null || licenseIdOrUrl.isBlank()) return null;
+        String licenseId = licenseIdOrUrl.trim();
+        int slash = licenseId.lastIndexOf('/');
+        if (slash >= 0) licenseId = licenseId.substring(slash + 1);
+        if (licenseId.endsWith(".json") || licenseId.endsWith(".html")) {
+            licenseId = licenseId.substring(0, licenseId.length() - 5);
+        }
+        return licenseId.isEmpty() ? null : licenseId;
+    }
+
+    private SPDXLicenseDetails readBundled(String licenseId) {
+        try (InputStream in = openBundled(licenseId + ".json")) {
+            return in == null ? null : licenseTemplateWebService.readLicenseInfos(in);
+        } catch (IOException e) {
+            log.warn("could not read bundled details of {}: {}", licenseId, e.getMessage());
+            return null;
+        }
+    }
+
+    private SPDXLicenseDetails fetch(String licenseId) {
+        if (baseUrl == null || baseUrl.isBlank()) return null;
+        try {
+            return licenseTemplateWebService.fetchDataFromWeb(licenseId, baseUrl);
+        } catch (Exception e) {
+            log.warn("could not fetch details of {} from {}: {}", licenseId, baseUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    private static InputStream openBundled(String fileName) {
+        return LicenseDetailStore.class.getClassLoader().getResourceAsStream(BUNDLED_LICENSE_LIST + fileName);
+    }
+}
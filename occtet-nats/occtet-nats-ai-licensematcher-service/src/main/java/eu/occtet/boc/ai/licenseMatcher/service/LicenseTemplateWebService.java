@@ -41,25 +41,25 @@ import java.net.URL;
 public class LicenseTemplateWebService {
     private static final Logger log = LoggerFactory.getLogger(LicenseTemplateWebService.class);
 
+    // one client for all requests, creating a client per request sets up a new connection pool every time
+    private final WebClient webClient = WebClient.create();
+
     public LicenseTemplateWebService() {}
 
 
     public SPDXLicenseDetails fetchDataFromWeb(String licenseId, String baseUrl) {
         log.debug("prepare to fetch license info from web");
-        SPDXLicenseDetails details= null;
         String url= baseUrl+licenseId+".json";
         try {
             // download the license Text from the details Url
-            WebClient client = WebClient.create(url);
-            WebClient.RequestHeadersUriSpec<?> uriSpec = client.get();
-            Mono<SPDXLicenseDetails> response = uriSpec.retrieve().bodyToMono(SPDXLicenseDetails.class);
-            details = response.block();
-            log.debug("control upload, licenseId: {}", details.getLicenseId());
+            Mono<SPDXLicenseDetails> response = webClient.get().uri(url).retrieve().bodyToMono(SPDXLicenseDetails.class);
+            SPDXLicenseDetails details = response.block();
+            log.debug("control upload, licenseId: {}", details != null ? details.getLicenseId() : null);
 
             return details;
         }   catch (WebClientResponseException e){
             //Handling of 404 Not Found from GET https://spdx.org/licenses/<license>.json error.
-            log.error("License information not Found from GET {} for the license: {} ",url, details.getLicenseId());
+            log.error("License information not Found from GET {} for the license: {} ",url, licenseId);
             return null;
         }
 
@@ -20,30 +20,36 @@
 package eu.occtet.boc.ai.licenseMatcher.tools;
 
 import eu.occtet.boc.model.SPDXLicenseDetails;
-import eu.occtet.boc.ai.licenseMatcher.service.LicenseTemplateWebService;
+import eu.occtet.boc.ai.licenseMatcher.service.LicenseDetailStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * AI Tool to fetch license information from a given URL
- * here spdx URL to fetch spdx information for a license
+ * here spdx URL to fetch spdx information for a license, resolved by the license id at its end
  */
 @Component
 public class LicenseTool {
 
     private static final Logger log =LoggerFactory.getLogger(LicenseTool.class);
 
+    @Autowired
+    private LicenseDetailStore licenseDetailStore;
+
 
     @Tool(description = "Fetch SPDX license details. URL is REQUIRED.")
     public SPDXLicenseDetails getLicenseInformation(@ToolParam(description = "REQUIRED. Absolute URL to SPDX license details JSON. Must not be null.") String url){
         log.debug("using Licensetool with url {}", url);
         try {
-            LicenseTemplateWebService ltWebService = new LicenseTemplateWebService();
-
-            return ltWebService.readDefaultLicenseInfos(url);
+            SPDXLicenseDetails details = licenseDetailStore.findDetails(url);
+            if (details == null) {
+                log.warn("no license details found for url {}", url);
+            }
+            return details;
         }catch(Exception e){
             log.error("String url {} could not be called, {}", url , e.getMessage());
             return null;
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.ai.licenseMatcher.service;
+
+import eu.occtet.boc.model.SPDXLicenseDetails;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class LicenseDetailStoreTest {
+
+    private static LicenseDetailStore licenseDetailStore;
+
+    @BeforeAll
+    static void setUp() {
+        licenseDetailStore = new LicenseDetailStore();
+        licenseDetailStore.init();
+    }
+
+    @Test
+    void findsBundledDetailsByUrl() {
+        SPDXLicenseDetails details = licenseDetailStore.findDetails(
+                "https://raw.githubusercontent.com/spdx/license-list-data/main/json/details/0BSD.json");
+        Assertions.assertNotNull(details);
+        Assertions.assertEquals("0BSD", details.getLicenseId());
+        Assertions.assertNotNull(details.getStandardLicenseTemplate());
+        Assertions.assertNotNull(licenseDetailStore.getLicenseListVersion());
+    }
+
+    @Test
+    void findsBundledDetailsByIdIgnoringCase() {
+        SPDXLicenseDetails details = licenseDetailStore.findDetails("apache-2.0");
+        Assertions.assertNotNull(details);
+        Assertions.assertEquals("Apache-2.0", details.getLicenseId());
+        Assertions.assertSame(details, licenseDetailStore.findDetails("Apache-2.0"));
+    }
+
+    @Test
+    void unknownLicenseWithoutBaseUrlIsNotFound() {
+        Assertions.assertNull(licenseDetailStore.findDetails("Not-A-Listed-License"));
+        Assertions.assertNull(licenseDetailStore.findDetails(null));
+    }
+}
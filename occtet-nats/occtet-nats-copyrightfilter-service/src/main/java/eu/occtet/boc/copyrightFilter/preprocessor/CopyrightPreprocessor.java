@@ -22,8 +22,9 @@ package eu.occtet.boc.copyrightFilter.preprocessor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.dao.CopyrightRepository;
-import eu.occtet.boc.entity.Copyright;
+import eu.occtet.boc.dao.CopyrightVerdictRepository;
 import eu.occtet.boc.model.CopyrightModel;
+import eu.occtet.boc.model.CopyrightVerdictVersion;
 import eu.occtet.boc.model.CopyrightText;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,7 +34,9 @@ import org.springframework.stereotype.Component;
 import java.io.*;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Component
 public class CopyrightPreprocessor {
@@ -41,18 +44,37 @@ public class CopyrightPreprocessor {
     @Autowired
     private CopyrightRepository copyrightRepository;
 
+    @Autowired
+    private CopyrightVerdictRepository copyrightVerdictRepository;
+
 
     private static final Logger log = LogManager.getLogger(CopyrightPreprocessor.class);
 
 
     /**
-     * Reads the garbage copyrights from a json file into a list of strings
+     * Reads the garbage copyrights from the database into a list of strings,
+     * together with the statements the AI copyright filter has judged as garbage
+     * @param verdictVersion model and prompt version of the verdicts to use, null to use none
      * @return list of garbage copyrights
      */
-    public List<String> getGarbageCopyrights() {
+    public List<String> getGarbageCopyrights(CopyrightVerdictVersion verdictVersion) {
         log.debug("retrieving garbage copyrights from database");
-        List<Copyright> garbageCopyrights= copyrightRepository.findByGarbageTrue();
-        return garbageCopyrights.stream().map(Copyright::getCopyrightText).toList();
+        Set<String> garbageCopyrights = new LinkedHashSet<>();
+        copyrightRepository.findByGarbageTrue().forEach(c -> garbageCopyrights.add(c.getCopyrightText()));
+        if (verdictVersion != null) {
+            garbageCopyrights.addAll(copyrightVerdictRepository.findGarbageCopyrightTexts(
+                    verdictVersion.model(), verdictVersion.promptVersion()));
+        }
+        return new ArrayList<>(garbageCopyrights);
+    }
+
+    /**
+     * @return model and prompt version of the verdict recorded last, null if there is none
+     */
+    public CopyrightVerdictVersion findLatestVerdictVersion() {
+        return copyrightVerdictRepository.findFirstByOrderByIdDesc()
+                .map(verdict -> new CopyrightVerdictVersion(verdict.getModel(), verdict.getPromptVersion()))
+                .orElse(null);
     }
 
     /**
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.copyrightFilter.preprocessor;
+
+import eu.occtet.boc.entity.CopyrightVerdict;
+import eu.occtet.boc.model.CopyrightVerdictVersion;
+import eu.occtet.boc.util.SystemSubjects;
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Shared view of the garbage copyrights: the normalized texts of all known garbage copyrights in a hash set, plus
+ * a pattern for statements that carry nothing but placeholders, such as "Copyright (c) &lt;year&gt;".
+ * The texts are loaded once and reloaded after a change notification on
+ * {@link SystemSubjects#GARBAGE_COPYRIGHTS_CHANGED}, or after max-age for changes made without notification.
+ * Verdicts of the AI copyright filter are only used for the model and prompt version named by the last
+ * notification, before the first one for those of the verdict recorded last.
+ */
+@Component
+public class GarbageCopyrightIndex {
+
+    private static final Logger log = LogManager.getLogger(GarbageCopyrightIndex.class);
+
+    // applied to normalized statements: the copyright keyword or sign followed by nothing but years and placeholders
+    static final String PLACEHOLDER_PATTERN = "(copyright|\\(c\\))( \\(c\\))?" +
+            "( ?(\\d{4}( ?[-,] ?\\d{4})*|<[^>]*>|\\[[^\\]]*]|\\{[^}]*}|\\$\\{[^}]*}|yyyy|year|name of copyright owner))* ?\\.?";
+
+    @Autowired
+    private CopyrightPreprocessor copyrightPreprocessor;
+
+    @Autowired
+    private Connection natsConnection;
+
+    @Value("${copyrightfilter.garbage.extra-pattern:}")
+    private String extraPattern;
+
+    @Value("${copyrightfilter.garbage.max-age:PT10M}")
+    private Duration maxAge;
+
+    private record Snapshot(Set<String> normalizedTexts, Pattern pattern, Instant loadedAt) {}
+
+    private volatile Snapshot snapshot;
+
+    private volatile CopyrightVerdictVersion verdictVersion;
+
+    @PostConstruct
+    public void subscribe() {
+        Dispatcher dispatcher = natsConnection.createDispatcher(msg -> onGarbageCopyrightsChanged(msg.getData()));
+        dispatcher.subscribe(SystemSubjects.GARBAGE_COPYRIGHTS_CHANGED);
+    }
+
+    void onGarbageCopyrightsChanged(byte[] payload) {
+        log.debug("garbage copyrights changed, reloading on next use");
+        CopyrightVerdictVersion version = CopyrightVerdictVersion.fromBytes(payload);
+        if (version != null) verdictVersion = version;
+        invalidate();
+    }
+
+    /**
+     * @return true if the statement is a known garbage copyright or consists of placeholders only
+     */
+    public boolean isGarbage(String copyrightText) {
+        if (copyrightText == null) return false;
+        Snapshot current = current();
+        String normalized = CopyrightVerdict.normalize(copyrightText);
+        return current.normalizedTexts().contains(normalized) || current.pattern().matcher(normalized).matches();
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.loadedAt().plus(maxAge).isAfter(Instant.now())) return current;
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || !current.loadedAt().plus(maxAge).isAfter(Instant.now())) {
+                current = load();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() {
+        if (verdictVersion == null) verdictVersion = copyrightPreprocessor.findLatestVerdictVersion();
+        Set<String> normalizedTexts = new HashSet<>();
+        for (String text : copyrightPreprocessor.getGarbageCopyrights(verdictVersion)) {
+            if (text != null) normalizedTexts.add(CopyrightVerdict.normalize(text));
+        }
+        String source = extraPattern == null || extraPattern.isBlank()
+                ? PLACEHOLDER_PATTERN
+                : PLACEHOLDER_PATTERN + "|" + extraPattern;
+        log.debug("loaded {} garbage copyrights", normalizedTexts.size());
+        return new Snapshot(normalizedTexts, Pattern.compile(source), Instant.now());
+    }
+}
@@ -20,7 +20,7 @@
 package eu.occtet.boc.copyrightFilter.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import eu.occtet.boc.copyrightFilter.preprocessor.CopyrightPreprocessor;
+import eu.occtet.boc.copyrightFilter.preprocessor.GarbageCopyrightIndex;
 import eu.occtet.boc.entity.Copyright;
 import eu.occtet.boc.entity.InventoryItem;
 import eu.occtet.boc.entity.SoftwareComponent;
@@ -46,8 +46,10 @@ import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Component
@@ -59,7 +61,7 @@ public class CopyrightFilterService  extends BaseWorkDataProcessor {
     private CopyrightService copyrightService;
 
     @Autowired
-    private CopyrightPreprocessor copyrightPreprocessor;
+    private GarbageCopyrightIndex garbageCopyrightIndex;
 
     @Autowired
     private InventoryItemRepository inventoryItemRepository;
@@ -112,19 +114,21 @@ public class CopyrightFilterService  extends BaseWorkDataProcessor {
     }
 
 
+    /**
+     * Marks the copyrights of the component that match the garbage index and removes their texts from the list,
+     * in a single pass over the copyrights of the component.
+     */
     public List<String> filterFalsCopyrightsWithGarbageFile(List<String> copyrightTexts, SoftwareComponent item) {
         log.debug("filterFalsCopyrightsWithGarbageFile called with {} copyright texts", copyrightTexts.size());
-        List<String> garbageCopyrightTexts= copyrightPreprocessor.getGarbageCopyrights();
-        for(String garbage: garbageCopyrightTexts) {
-            if(copyrightTexts.contains(garbage)) {
-                for(Copyright c: item.getCopyrights()){
-                    if(c.getCopyrightText().equals(garbage)) {
-                        copyrightService.updateCopyrightAsGarbage(c);
-                    }
-                }
-                copyrightTexts.remove(garbage);
+        Set<String> garbageTexts = new HashSet<>();
+        for (Copyright c : item.getCopyrights()) {
+            if (!garbageCopyrightIndex.isGarbage(c.getCopyrightText())) continue;
+            garbageTexts.add(c.getCopyrightText());
+            if (!Boolean.TRUE.equals(c.getGarbage())) {
+                copyrightService.updateCopyrightAsGarbage(c);
             }
         }
+        copyrightTexts.removeIf(garbageTexts::contains);
         return copyrightTexts;
     }
 
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.copyrightFilter.preprocessor;
+
+import eu.occtet.boc.model.CopyrightVerdictVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class GarbageCopyrightIndexTest {
+
+    private static final CopyrightVerdictVersion LATEST = new CopyrightVerdictVersion("llama3", "0123456789abcdef");
+
+    private CopyrightPreprocessor copyrightPreprocessor;
+    private GarbageCopyrightIndex index;
+
+    @BeforeEach
+    void setUp() {
+        copyrightPreprocessor = mock(CopyrightPreprocessor.class);
+        when(copyrightPreprocessor.findLatestVerdictVersion()).thenReturn(LATEST);
+        when(copyrightPreprocessor.getGarbageCopyrights(any())).thenReturn(List.of("Copyright (C) bve[<author>]"));
+        index = new GarbageCopyrightIndex();
+        ReflectionTestUtils.setField(index, "copyrightPreprocessor", copyrightPreprocessor);
+        ReflectionTestUtils.setField(index, "extraPattern", "");
+        ReflectionTestUtils.setField(index, "maxAge", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void matchesKnownGarbageIgnoringCaseAndWhitespace() {
+        assertTrue(index.isGarbage("copyright  (c) BVE[<author>]"));
+        assertFalse(index.isGarbage("Copyright (c) 2020 Bitsea GmbH"));
+        assertFalse(index.isGarbage(null));
+    }
+
+    @Test
+    void matchesPlaceholderStatements() {
+        assertTrue(index.isGarbage("Copyright (c) <year> <name of copyright owner>"));
+        assertTrue(index.isGarbage("Copyright (C) 2019-2021"));
+        assertTrue(index.isGarbage("(c) [yyyy]"));
+        assertFalse(index.isGarbage("Copyright (c) 2019 The Apache Software Foundation"));
+    }
+
+    @Test
+    void loadsOnceUntilInvalidated() {
+        index.isGarbage("a");
+        index.isGarbage("b");
+        verify(copyrightPreprocessor, times(1)).getGarbageCopyrights(LATEST);
+        index.invalidate();
+        index.isGarbage("c");
+        verify(copyrightPreprocessor, times(2)).getGarbageCopyrights(LATEST);
+    }
+
+    @Test
+    void usesVerdictsOfTheVersionNamedByTheNotification() {
+        index.isGarbage("a");
+        CopyrightVerdictVersion current = new CopyrightVerdictVersion("llama3.1", "fedcba9876543210");
+        index.onGarbageCopyrightsChanged(current.toBytes());
+        index.isGarbage("b");
+        verify(copyrightPreprocessor).getGarbageCopyrights(current);
+        // a notification without a version keeps the known one
+        index.onGarbageCopyrightsChanged(new byte[0]);
+        index.isGarbage("c");
+        verify(copyrightPreprocessor, times(2)).getGarbageCopyrights(current);
+        verify(copyrightPreprocessor, times(1)).findLatestVerdictVersion();
+    }
+}
@@ -19,15 +19,16 @@
 
 package eu.occtet.boc.export.service;
 
+import eu.occtet.boc.service.ObjectStoreStreams;
 import io.nats.client.Connection;
 import io.nats.client.JetStreamApiException;
 import io.nats.client.ObjectStore;
+import io.nats.client.api.ObjectInfo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 
@@ -39,19 +40,21 @@ public class AnswerService {
     @Autowired
     private Connection natsConnection;
 
-    public void putIntoBucket(String fileName, byte[] data) {
+    /**
+     * Uploads the content produced by the writer without buffering it as a whole.
+     */
+    public void putIntoBucket(String fileName, ObjectStoreStreams.StreamWriter writer) {
         try {
 
             ObjectStore objectStore = natsConnection.objectStore("file-bucket");
 
-            try (ByteArrayInputStream input = new ByteArrayInputStream(data)) {
-                objectStore.put(fileName, input);
-                log.info("Successfully uploaded '{}' to object store bucket '{}'", fileName, "file-bucket");
-            }
+            ObjectInfo objectInfo = ObjectStoreStreams.upload(objectStore, fileName, writer);
+            log.info("Successfully uploaded '{}' ({} bytes) to object store bucket '{}'", fileName,
+                    objectInfo != null ? objectInfo.getSize() : -1, "file-bucket");
 
         } catch (IOException | JetStreamApiException | NoSuchAlgorithmException e) {
             log.error("Failed to put '{}' into object store: {}", fileName, e.getMessage(), e);
         }
     }
 
-}
\ No newline at end of file
+}
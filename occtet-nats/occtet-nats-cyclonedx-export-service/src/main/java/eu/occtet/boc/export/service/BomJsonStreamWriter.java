@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.export.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import org.cyclonedx.Version;
+import org.cyclonedx.generators.json.BomJsonGenerator;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.BomReference;
+import org.cyclonedx.util.mixin.MixInBomReference;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the JSON of a BOM to a stream with the serializers of {@link BomJsonGenerator}, instead of building the
+ * whole document as one string first.
+ */
+class BomJsonStreamWriter extends BomJsonGenerator {
+
+    BomJsonStreamWriter(Bom bom, Version version) {
+        super(bom, version);
+    }
+
+    /**
+     * Writes the same indented JSON as {@link #toJsonString()}, the stream is not closed.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        DefaultPrettyPrinter prettyPrinter = new DefaultPrettyPrinter();
+        prettyPrinter.indentArraysWith(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE);
+        mapper.addMixIn(BomReference.class, MixInBomReference.class);
+        mapper.writer(prettyPrinter).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, bom);
+    }
+}
@@ -27,8 +27,6 @@ import eu.occtet.boc.service.ProgressReportingService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.cyclonedx.Version;
-import org.cyclonedx.generators.BomGeneratorFactory;
-import org.cyclonedx.generators.json.BomJsonGenerator;
 import org.cyclonedx.model.Bom;
 import org.cyclonedx.model.Component;
 import org.cyclonedx.model.Metadata;
@@ -38,7 +36,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 
@@ -103,19 +100,12 @@ public class ExportService  extends ProgressReportingService  {
             notifyProgress(90,"handled components");
 
             try {
-                BomJsonGenerator generator = BomGeneratorFactory.createJson(Version.VERSION_16, bom);
-
-                // generate json
-                String jsonString = generator.toJsonString();
-
-                // convert to utf_8
-                byte[] bomBytes = jsonString.getBytes(StandardCharsets.UTF_8);
+                BomJsonStreamWriter generator = new BomJsonStreamWriter(bom, Version.VERSION_16);
                 String objectStoreKey = cycloneDxExportWorkData.getObjectStoreKey();
 
-                log.info("Serialized CycloneDX SBOM JSON. Sending {} bytes to Object Store with key: {}", bomBytes.length, objectStoreKey);
-
-                log.debug("objectkeyStore : {}", objectStoreKey);
-                answerService.putIntoBucket(objectStoreKey, bomBytes);
+                // the JSON is written straight into the upload, it never exists as a whole string or byte array
+                log.info("Streaming CycloneDX SBOM JSON to Object Store with key: {}", objectStoreKey);
+                answerService.putIntoBucket(objectStoreKey, generator::writeTo);
 
             } catch (Exception e) {
                 log.error("Failed to serialize or upload SBOM JSON to Object Store", e);
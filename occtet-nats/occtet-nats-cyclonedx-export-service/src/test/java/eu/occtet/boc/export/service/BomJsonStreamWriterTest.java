@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.export.service;
+
+import org.cyclonedx.Version;
+import org.cyclonedx.generators.BomGeneratorFactory;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.Dependency;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BomJsonStreamWriterTest {
+
+    @Test
+    void writeTo_ShouldMatchTheGeneratedJsonString() throws Exception {
+        Component component = new Component();
+        component.setType(Component.Type.LIBRARY);
+        component.setBomRef("pkg:maven/org.example/lib@1.0");
+        component.setName("lib");
+        component.setVersion("1.0");
+        Dependency dependency = new Dependency("pkg:maven/org.example/app@1.0");
+        dependency.addDependency(new Dependency("pkg:maven/org.example/lib@1.0"));
+        Bom bom = new Bom();
+        bom.setSerialNumber("urn:uuid:3e671687-395b-41f5-a30f-a58921a69b79");
+        bom.setComponents(List.of(component));
+        bom.setDependencies(List.of(dependency));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BomJsonStreamWriter(bom, Version.VERSION_16).writeTo(out);
+
+        assertEquals(BomGeneratorFactory.createJson(Version.VERSION_16, bom).toJsonString(),
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -19,6 +19,7 @@
 
 package eu.occtet.boc.cyclonedx.context;
 
+import eu.occtet.boc.dao.OrtFindingIndex;
 import eu.occtet.boc.entity.*;
 
 import eu.occtet.boc.entity.spdxV2.SpdxDocumentRoot;
@@ -45,6 +46,8 @@ public class CycloneDxImportContext {
     private Map<String, SoftwareComponentLicenseUsage> usageLicenseCache = new HashMap<>();
     private Map<String, InventoryItem> fileToInventoryItemMap = new HashMap<>();
     private Map<String, InventoryItem> inventoryCache = new HashMap<>();
+    // ORT issues/violations of the project by purl, loaded once per import
+    private OrtFindingIndex ortFindings;
 
     // Tracking Sets
     Map<String, InventoryItem> itemComponentRefCache = new HashMap<>();
@@ -132,4 +135,12 @@ public class CycloneDxImportContext {
     public void setItemComponentRefCache(Map<String, InventoryItem> itemComponentRefCache) {
         this.itemComponentRefCache = itemComponentRefCache;
     }
+
+    public OrtFindingIndex getOrtFindings() {
+        return ortFindings;
+    }
+
+    public void setOrtFindings(OrtFindingIndex ortFindings) {
+        this.ortFindings = ortFindings;
+    }
 }
@@ -23,6 +23,7 @@ package eu.occtet.boc.cyclonedx.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.model.DownloadPlanWorkData;
 import eu.occtet.boc.model.DownloadServiceWorkData;
 import eu.occtet.boc.model.ScannerSendWorkData;
 import eu.occtet.boc.model.VulnerabilityServiceWorkData;
@@ -41,7 +42,11 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -50,6 +55,9 @@ public class AnswerService {
 
     private static final Logger log = LogManager.getLogger(AnswerService.class);
 
+    // number of software components sent to the vulnerability service in one message
+    private static final int VULNERABILITY_BATCH_SIZE = 100;
+
     @Autowired
     private Connection natsConnection;
 
@@ -85,6 +93,9 @@ public class AnswerService {
 
     /**
      * Sends answer about entities to the NATS stream for further processing.
+     * All messages are published asynchronously and the acks are awaited at the end, so the
+     * fan-out does not wait for one round trip per message. The downloads of all items of a project are sent as
+     * one plan, the software components are sent to the vulnerability service in batches.
      * @param inventoryItems list of entities to be included in messages
      * @param toCopyrightAi weather to send to copyright microservice
      * @param toLicenseMatcher weather to send to copyright microservice
@@ -97,43 +108,49 @@ public class AnswerService {
                                   boolean toLicenseMatcher, Set<InventoryItem> mainInventoryItemIds
     ) throws JetStreamApiException, IOException {
             log.debug("prepare answer size {}", inventoryItems.size());
-        for (InventoryItem inventoryItem : inventoryItems) {
-            log.debug("SEND inventoryId {} inventoryName {}", inventoryItem.getId(), inventoryItem.getInventoryName());
-            ScannerSendWorkData sendWorkData = new ScannerSendWorkData(inventoryItem.getId());
-            LocalDateTime now = LocalDateTime.now();
-            long actualTimestamp = now.atZone(ZoneId.systemDefault()).toInstant().getEpochSecond();
-            log.debug("scannerWorkData: {}", sendWorkData.toString());
-            if (toCopyrightAi) {
-                WorkTask workTask = new WorkTask(UUID.randomUUID().toString(),"copyrightfilter", "send processed inventory item from spdx microservice to copyrightFilter", actualTimestamp, sendWorkData);
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-                String message = mapper.writeValueAsString(workTask);
-                log.debug("sending message to copyrightfilter service: {}", message);
-                natsStreamSenderCopyrightFilter().sendWorkMessageToStream(message.getBytes(Charset.defaultCharset()));
+        NatsStreamSender copyrightFilterSender = natsStreamSenderCopyrightFilter();
+        NatsStreamSender licenseMatcherSender = natsStreamSenderLicenseMatcher();
+        NatsStreamSender vulnerabilitySender = natsStreamSenderVulnerabilities();
+        NatsStreamSender downloadSender = natsStreamSenderDownloads();
+        LocalDateTime now = LocalDateTime.now();
+        long actualTimestamp = now.atZone(ZoneId.systemDefault()).toInstant().getEpochSecond();
+        Map<Long, DownloadPlanWorkData> downloadPlans = new LinkedHashMap<>();
+        Set<Long> softwareComponentIds = new LinkedHashSet<>();
+        try {
+            for (InventoryItem inventoryItem : inventoryItems) {
+                log.debug("SEND inventoryId {} inventoryName {}", inventoryItem.getId(), inventoryItem.getInventoryName());
+                ScannerSendWorkData sendWorkData = new ScannerSendWorkData(inventoryItem.getId());
+                log.debug("scannerWorkData: {}", sendWorkData.toString());
+                if (toCopyrightAi) {
+                    copyrightFilterSender.sendWorkTaskToStreamAsync(new WorkTask(UUID.randomUUID().toString(),"copyrightfilter", "send processed inventory item from spdx microservice to copyrightFilter", actualTimestamp, sendWorkData));
+                }
+                if (toLicenseMatcher) {
+                    licenseMatcherSender.sendWorkTaskToStreamAsync(new WorkTask(UUID.randomUUID().toString(), "licensematcher", "send processed inventory item from spdx microservice to licenseMatcher", actualTimestamp, sendWorkData));
+                }
+
+                softwareComponentIds.add(inventoryItem.getSoftwareComponent().getId());
+                // downloads are planned per project, so shared components are fetched once
+                DownloadPlanWorkData downloadPlan = downloadPlans.computeIfAbsent(inventoryItem.getProject().getId(),
+                        projectId -> new DownloadPlanWorkData(projectId, new ArrayList<>(), new ArrayList<>()));
+                downloadPlan.getInventoryItemIds().add(inventoryItem.getId());
+                if (mainInventoryItemIds.contains(inventoryItem)) downloadPlan.getMainInventoryItemIds().add(inventoryItem.getId());
             }
-            if (toLicenseMatcher) {
-                WorkTask workTask = new WorkTask(UUID.randomUUID().toString(), "licensematcher", "send processed inventory item from spdx microservice to licenseMatcher", actualTimestamp, sendWorkData);
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-                String message = mapper.writeValueAsString(workTask);
-                log.debug("sending message to licenseMatcher service: {}", message);
-                natsStreamSenderLicenseMatcher().sendWorkMessageToStream(message.getBytes(Charset.defaultCharset()));
+            // components are looked up in batches, the vulnerability service queries the database once per batch
+            List<Long> componentIds = new ArrayList<>(softwareComponentIds);
+            for (int i = 0; i < componentIds.size(); i += VULNERABILITY_BATCH_SIZE) {
+                VulnerabilityServiceWorkData vulnerabilityWorkData = new VulnerabilityServiceWorkData(
+                        new ArrayList<>(componentIds.subList(i, Math.min(i + VULNERABILITY_BATCH_SIZE, componentIds.size()))));
+                vulnerabilitySender.sendWorkTaskToStreamAsync(new WorkTask(UUID.randomUUID().toString(),"vulnerability", "send processed softwareComponent from spdx microservice to vulnerabilityService", actualTimestamp, vulnerabilityWorkData));
             }
-
-            VulnerabilityServiceWorkData vulnerabilityWorkData= new VulnerabilityServiceWorkData(inventoryItem.getSoftwareComponent().getId());
-            WorkTask workTask = new WorkTask(UUID.randomUUID().toString(),"vulnerability", "send processed softwareComponent from spdx microservice to vulnerabilityService", actualTimestamp, vulnerabilityWorkData);
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-            String message = mapper.writeValueAsString(workTask);
-            log.debug("sending message to vulnerability service: {}", message);
-            natsStreamSenderVulnerabilities().sendWorkMessageToStream(message.getBytes(Charset.defaultCharset()));
-            sendToDownload(
-                    inventoryItem.getProject().getId(),
-                    inventoryItem.getId(),
-                    mainInventoryItemIds.contains(inventoryItem)
-            );
-
+            for (DownloadPlanWorkData downloadPlan : downloadPlans.values()) {
+                downloadSender.sendWorkTaskToStreamAsync(new WorkTask(UUID.randomUUID().toString(), "download-service",
+                        "download all components of an import to the project location", actualTimestamp, downloadPlan));
+            }
+        } finally {
+            // the acks of the messages already published are awaited even if a later send failed
+            NatsStreamSender.flushAll(copyrightFilterSender, licenseMatcherSender, vulnerabilitySender, downloadSender);
         }
+        log.debug("sent answers for {} inventory items", inventoryItems.size());
 
         return true;
     }
@@ -148,11 +165,9 @@ public class AnswerService {
     public boolean sendToDownload(Long projectId, Long inventoryItemId, Boolean isMainPackage){
         try {
 
-            DownloadServiceWorkData payload = new DownloadServiceWorkData(projectId, inventoryItemId,
-                    isMainPackage);
             LocalDateTime now = LocalDateTime.now();
             long actualTimestamp = now.atZone(ZoneId.systemDefault()).toInstant().getEpochSecond();
-            WorkTask workTask = new WorkTask(UUID.randomUUID().toString(),"download-service", "information about a component to be downloaded to a specific location", actualTimestamp, payload);
+            WorkTask workTask = createDownloadTask(projectId, inventoryItemId, isMainPackage, actualTimestamp);
             ObjectMapper mapper = new ObjectMapper();
             mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
             String message = mapper.writeValueAsString(workTask);
@@ -165,4 +180,10 @@ public class AnswerService {
         }
 
     }
+
+    private WorkTask createDownloadTask(Long projectId, Long inventoryItemId, Boolean isMainPackage, long timestamp) {
+        DownloadServiceWorkData payload = new DownloadServiceWorkData(projectId, inventoryItemId,
+                isMainPackage);
+        return new WorkTask(UUID.randomUUID().toString(),"download-service", "information about a component to be downloaded to a specific location", timestamp, payload);
+    }
 }
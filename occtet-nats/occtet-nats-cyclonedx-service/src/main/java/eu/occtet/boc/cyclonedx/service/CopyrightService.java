@@ -24,7 +24,6 @@ import eu.occtet.boc.entity.Copyright;
 import eu.occtet.boc.dao.CopyrightRepository;
 import eu.occtet.boc.entity.File;
 import eu.occtet.boc.entity.Organization;
-import eu.occtet.boc.cyclonedx.factory.CopyrightFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,8 +34,6 @@ import java.util.*;
 public class CopyrightService {
 
 
-    @Autowired
-    private CopyrightFactory copyrightFactory;
     @Autowired
     private CopyrightRepository copyrightRepository;
 
@@ -44,44 +41,20 @@ public class CopyrightService {
     /**
      * Finds or creates a batch of {@link Copyright} entities based on the provided set of copyright texts.
      * If a {@link Copyright} entity corresponding to a text already exists in the repository, it is retrieved.
-     * Otherwise, a new transient entity is created, saved, and included in the result.
+     * Otherwise, a new entity is created, saved, and included in the result. Lookups go through the text hash
+     * index, all missing copyrights are inserted together.
      *
      * @param copyrightTexts the set of copyright text strings to look up or create in batch
      * @return a map where the keys are the copyright text strings and the values are the corresponding {@link Copyright} entities
      */
     @Transactional
     public Map<String, Copyright> findOrCreateBatch(Set<String> copyrightTexts, Organization organization, File file){
-        Map<String, Copyright> cache = new HashMap<>();
-        List<String> textList = new ArrayList<>(copyrightTexts);
-
-        int batchSize = 1000;
-        Set<Copyright> toSave = new HashSet<>();
-        for (int i = 0; i < textList.size(); i += batchSize) {
-            List<String> batch = textList.subList(i, Math.min(textList.size(), i + batchSize));
-            List<Copyright> found = copyrightRepository.findByCopyrightTextIn(batch);
-            found.forEach(c -> {
-                toSave.add(c);
-                cache.put(c.getCopyrightText(), c);
-            });
-        }
+        if (copyrightTexts.isEmpty()) return new HashMap<>();
+        Map<String, Copyright> cache = copyrightRepository.findOrCreateAll(copyrightTexts, organization);
         //add new connection to file
-        if(file!= null)
-            toSave.forEach(c-> c.getFiles().add(file));
-
-
-        for (String text : copyrightTexts) {
-            if (!cache.containsKey(text)) {
-                Copyright newCopyright =null;
-                if(file!= null)
-                    newCopyright = copyrightFactory.createTransient(text, Set.of(file), organization);
-                else newCopyright= copyrightFactory.createTransient(text, new HashSet<>(), organization);
-                toSave.add(newCopyright);
-                cache.put(text, newCopyright);
-            }
-        }
-
-        if (!toSave.isEmpty()) {
-            copyrightRepository.saveAll(toSave);
+        if(file!= null) {
+            cache.values().forEach(c -> c.getFiles().add(file));
+            copyrightRepository.saveAll(cache.values());
         }
         return cache;
     }
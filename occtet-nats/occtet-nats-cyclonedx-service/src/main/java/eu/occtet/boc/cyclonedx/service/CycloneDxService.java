@@ -37,6 +37,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -87,7 +90,7 @@ public class CycloneDxService extends ProgressReportingService {
             notifyProgress(1, "init");
             // setup for spdx library need to be called once before any spdx model objects are accessed
 
-            Bom bom = loadCycloneDxDocument(cycloneDxWorkData.getJsonBytes());
+            Bom bom = loadCycloneDxDocument(cycloneDxWorkData);
             Project project = loadProject(cycloneDxWorkData.getProjectId());
             if (project == null) {
                 return false;
@@ -120,11 +123,18 @@ public class CycloneDxService extends ProgressReportingService {
         }
     }
 
-    private Bom loadCycloneDxDocument(byte[] jsonBytes){
+    private Bom loadCycloneDxDocument(CycloneDxWorkData cycloneDxWorkData){
         try {
             ObjectMapper mapper = new ObjectMapper();
 
-            Bom bom = mapper.readValue(jsonBytes, Bom.class);
+            Bom bom;
+            if (cycloneDxWorkData.getJsonFile() != null) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(cycloneDxWorkData.getJsonFile()))) {
+                    bom = mapper.readValue(in, Bom.class);
+                }
+            } else {
+                bom = mapper.readValue(cycloneDxWorkData.getJsonBytes(), Bom.class);
+            }
 
             return bom;
         } catch (Exception e) {
@@ -23,6 +23,8 @@ package eu.occtet.boc.cyclonedx.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.model.*;
 import eu.occtet.boc.service.BaseWorkDataProcessor;
+import eu.occtet.boc.service.ObjectStoreStreams;
+import eu.occtet.boc.service.SpooledObject;
 import eu.occtet.boc.service.WorkConsumer;
 import io.nats.client.Connection;
 import io.nats.client.Message;
@@ -32,7 +34,6 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 
 @Service
@@ -67,20 +68,19 @@ public class CycloneDxWorkConsumer extends WorkConsumer {
                     log.debug("extract from CycloneDx json");
                     try{
                         ObjectStore objectStore = natsConnection.objectStore(cycloneDxWorkData.getBucketName());
-                        ByteArrayOutputStream out = new ByteArrayOutputStream();
-                        objectStore.get(cycloneDxWorkData.getJsonSpdx(), out);
-                        byte[] spdxBytes = out.toByteArray();
-                        //delete the object after we are done
-                        objectStore.delete(cycloneDxWorkData.getJsonSpdx());
-                        cycloneDxWorkData.setJsonBytes(spdxBytes);
-                        cycloneDxService.setOnProgress((p, d)->{
-                            log.debug("progress callback: {} {}", p, d);
-                            notifyProgress(workTask.taskId(), workTask.name(), WorkTaskStatus.IN_PROGRESS, p, d);
-                        });
-                        boolean res= cycloneDxService.process(cycloneDxWorkData);
-                        if(!res) notifyError(workTask.taskId(),workTask.name(), "error during processing");
-                        else notifyCompleted(workTask.taskId(),workTask.name());
-                        return res;
+                        try (SpooledObject spooled = ObjectStoreStreams.download(objectStore, cycloneDxWorkData.getJsonSpdx())) {
+                            //delete the object after we are done, the spooled copy is removed on close
+                            objectStore.delete(cycloneDxWorkData.getJsonSpdx());
+                            cycloneDxWorkData.setJsonFile(spooled.getPath());
+                            cycloneDxService.setOnProgress((p, d)->{
+                                log.debug("progress callback: {} {}", p, d);
+                                notifyProgress(workTask.taskId(), workTask.name(), WorkTaskStatus.IN_PROGRESS, p, d);
+                            });
+                            boolean res= cycloneDxService.process(cycloneDxWorkData);
+                            if(!res) notifyError(workTask.taskId(),workTask.name(), "error during processing");
+                            else notifyCompleted(workTask.taskId(),workTask.name());
+                            return res;
+                        }
 
 
                     } catch (Exception e) {
@@ -20,6 +20,7 @@
 package eu.occtet.boc.cyclonedx.service;
 
 
+import eu.occtet.boc.dao.OrtFindingIndex;
 import eu.occtet.boc.dao.OrtIssueRepository;
 import eu.occtet.boc.dao.OrtViolationRepository;
 import eu.occtet.boc.entity.*;
@@ -68,38 +69,43 @@ public class InventoryItemService {
 
 
     /**
-     * Sorts the given lists of OrtIssues and OrtViolations by the purl of the given InventoryItem's SoftwareComponent.
+     * Loads the ORT issues and violations of the given project once, indexed by purl.
+     * @param project
+     * @return index to be kept in the import context and passed to {@link #sortViolationsAndIssues}
+     */
+    public OrtFindingIndex loadOrtFindings(Project project){
+        List<OrtIssue> ortIssues = ortIssueRepository.findByProject(project);
+        List<OrtViolation> ortViolations = ortViolationRepository.findByProject(project);
+        log.debug("indexed {} issues and {} violations for project {}", ortIssues.size(), ortViolations.size(),
+                project.getProjectName());
+        return new OrtFindingIndex(ortIssues, ortViolations);
+    }
+
+    /**
+     * Assigns the OrtIssues and OrtViolations matching the purl of the given InventoryItem's SoftwareComponent.
      * putting this here, because it is needed multiple times
-     * @param ortIssues
-     * @param ortViolations
+     * @param ortFindings index of the findings of the project
      * @param inventoryItem
      */
-    public void sortViolationsAndIssues(List<OrtIssue> ortIssues, List<OrtViolation> ortViolations, InventoryItem inventoryItem){
+    public void sortViolationsAndIssues(OrtFindingIndex ortFindings, InventoryItem inventoryItem){
         log.debug("sorting violations and issues for inventory item {}", inventoryItem.getInventoryName());
 
         String purl = inventoryItem.getSoftwareComponent().getPurl();
         log.debug("sorting for purl {}", purl);
         if (purl != null) {
-            ortIssues.removeIf(issue -> {
-                if (purl.equals(issue.getPurl())) {
-                    issue.setInventoryItem(inventoryItem);
-                    ortIssueRepository.save(issue);
-                    log.debug("issue found for purl {}", purl);
-                    return true;
-                }
-                return false;
-            });
-
-            ortViolations.removeIf(vio -> {
-                if (purl.equals(vio.getPurl())) {
-                    vio.setInventoryItem(inventoryItem);
-                    ortViolationRepository.save(vio);
-                    log.debug("violation found for purl {}", purl);
-                    return true;
-                }
-                return false;
-            });
-
+            List<OrtIssue> issues = ortFindings.findIssues(purl);
+            if (!issues.isEmpty()) {
+                issues.forEach(issue -> issue.setInventoryItem(inventoryItem));
+                ortIssueRepository.saveAll(issues);
+                log.debug("{} issues found for purl {}", issues.size(), purl);
+            }
+
+            List<OrtViolation> violations = ortFindings.findViolations(purl);
+            if (!violations.isEmpty()) {
+                violations.forEach(vio -> vio.setInventoryItem(inventoryItem));
+                ortViolationRepository.saveAll(violations);
+                log.debug("{} violations found for purl {}", violations.size(), purl);
+            }
         }
     }
 }
@@ -56,10 +56,6 @@ public class ComponentHandler {
     @Autowired
     private CopyrightRepository copyrightRepository;
     @Autowired
-    private OrtIssueRepository ortIssueRepository;
-    @Autowired
-    private OrtViolationRepository ortViolationRepository;
-    @Autowired
     private ProjectRepository projectRepository;
     @Autowired
     private InventoryItemRepository inventoryItemRepository;
@@ -79,6 +75,9 @@ public class ComponentHandler {
             Metadata metadata=  bom.getMetadata();
             Component comp = metadata.getComponent();
             InventoryItem mainParent= null;
+            if (context.getOrtFindings() == null) {
+                context.setOrtFindings(inventoryItemService.loadOrtFindings(context.getProject()));
+            }
         try {
             log.debug("handling metadata component");
             if (metadata != null && comp != null) {
@@ -243,9 +242,6 @@ public class ComponentHandler {
     private InventoryItem parseSinglePackage(Component component, CycloneDxImportContext context,
                                             Set<Copyright> copyrightsToSave) {
 
-        List<OrtIssue> ortIssues = ortIssueRepository.findByProject(context.getProject());
-        List<OrtViolation> ortViolations = ortViolationRepository.findByProject(context.getProject());
-
         log.info("Looking at package: {}", component.getPurl());
 
         String packageName = component.getName();
@@ -288,7 +284,9 @@ public class ComponentHandler {
 
         inventoryItem.setSoftwareComponent(sc);
         List<File> files = new ArrayList<>();
-        inventoryItemService.sortViolationsAndIssues(ortIssues, ortViolations, inventoryItem);
+        if (context.getOrtFindings() != null) {
+            inventoryItemService.sortViolationsAndIssues(context.getOrtFindings(), inventoryItem);
+        }
 
         if ((component.getEvidence() != null && component.getEvidence().getOccurrences() != null)
                 || (component.getType() != null && "file".equals(component.getType().getTypeName()))) {
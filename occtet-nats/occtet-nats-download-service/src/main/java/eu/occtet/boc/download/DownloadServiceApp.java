@@ -68,6 +68,15 @@ public class DownloadServiceApp {
     @Value("${nats.stream-subject}")
     private String streamSubject;
 
+    @Value("${nats.max-concurrent-tasks:1}")
+    private int maxConcurrentTasks;
+
+    @Value("${nats.fetch-batch-size:1}")
+    private int fetchBatchSize;
+
+    @Value("${nats.virtual-threads:false}")
+    private boolean useVirtualThreads;
+
     private MicroserviceDescriptor microserviceDescriptor;
 
 
@@ -94,6 +103,7 @@ public class DownloadServiceApp {
         systemHandler.subscribeToSystemSubject();
         executor.execute(()->{
             try {
+                downloadWorkConsumer.setConcurrency(maxConcurrentTasks, fetchBatchSize, useVirtualThreads);
                 downloadWorkConsumer.startHandlingMessages(natsConnection,microserviceDescriptor.getName(), streamName, streamSubject);
             } catch (Exception e) {
                 log.error("Could not start handling messages: ", e);
@@ -22,9 +22,13 @@ package eu.occtet.boc.download.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestClientConfig {
 
@@ -38,13 +42,18 @@ public class RestClientConfig {
     private int gitHubReadTimeout;
 
     /**
-     * Generic Client for direct file downloads (HTTP/HTTPS).
-     * Configured with longer read timeouts for large files.
+     * Generic Client for direct file downloads (HTTP/HTTPS) and package registries.
+     * Configured with longer read timeouts for large files. It negotiates HTTP/2 where the server supports it, so
+     * parallel downloads from one registry or mirror share a pooled connection.
      */
     @Bean(name = "genericRestClient")
     public RestClient genericRestClient(RestClient.Builder builder) {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(genericConnectTimeout);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(genericConnectTimeout))
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
         factory.setReadTimeout(genericReadTimeout);
 
         return builder
@@ -19,6 +19,7 @@
 
 package eu.occtet.boc.download.factory;
 
+import eu.occtet.boc.dao.FileBulkDao;
 import eu.occtet.boc.entity.File;
 import eu.occtet.boc.entity.InventoryItem;
 import eu.occtet.boc.entity.Project;
@@ -32,29 +33,20 @@ import java.util.Objects;
 public class FileFactory {
     private static final Logger log = LoggerFactory.getLogger(FileFactory.class);
 
-    public File createWithoutInventoryItem(Project project,
+    public FileBulkDao.FileRow createRow(long id,
+                       Project project,
                        String fileName,
                        String physicalPath,
                        String projectPath,
                        String artifactPath,
                        boolean isDirectory,
-                       File parentEntity) {
+                       Long parentId) {
         Objects.requireNonNull(project, "Project cannot be null");
         Objects.requireNonNull(fileName, "File name cannot be null");
         Objects.requireNonNull(physicalPath, "Physical path cannot be null");
 
-        File file = new File();
-        file.setProject(project);
-        file.setFileName(fileName);
-
-        file.setPhysicalPath(physicalPath);
-        file.setProjectPath(projectPath);
-        file.setArtifactPath(artifactPath);
-
-        file.setIsDirectory(isDirectory);
-        file.setParent(parentEntity);
-
-        return file;
+        return new FileBulkDao.FileRow(id, parentId, project.getId(), fileName, physicalPath, projectPath,
+                artifactPath, isDirectory);
     }
 
     public File updateFileEntity(
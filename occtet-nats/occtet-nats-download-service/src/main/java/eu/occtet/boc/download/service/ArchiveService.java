@@ -24,17 +24,28 @@ import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 
-import java.io.*;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 /**
  * A service for handling archive files, including unpacking and processing of ZIP, JAR, and TAR.GZ files.
@@ -44,6 +55,10 @@ import java.util.zip.ZipInputStream;
  *     <li>ZIP and JAR archives (with .zip or .jar extensions)</li>
  *     <li>TAR.GZ archives (with .tar.gz extension)</li>
  * </ul><br>
+ * ZIP and JAR archives are read through their central directory: all entries are validated first, then extracted
+ * in parallel directly to the target. TAR.GZ archives can only be read sequentially; they are extracted into a
+ * sandbox next to the target, so the sandbox can be renamed into place instead of copied.
+ * Both report the extracted entries, so the caller does not need to walk the extracted tree again.
  */
 @Service
 public class ArchiveService {
@@ -54,42 +69,160 @@ public class ArchiveService {
     private final static String TAR_GZ_EXTENSION = ".tar.gz";
     private final static String JAR_EXTENSION = ".jar";
 
-    public void unpack(Path sourceArchive, Path finalTargetDir) throws IOException {
-        Path sandboxDir = Files.createTempDirectory("occtet_sandbox_");
-        log.debug("Sandboxing extraction for {} to {}", sourceArchive, sandboxDir);
+    @Value("${download.extract.threads:0}")
+    private int extractThreads;
 
+    /**
+     * An extracted file or directory.
+     *
+     * @param relativePath path relative to the target directory, separated by '/'
+     * @param size         size in bytes, 0 for directories
+     * @param directory    whether the entry is a directory
+     */
+    public record ExtractedEntry(String relativePath, long size, boolean directory) {}
+
+    /**
+     * Extracts the archive into the target directory. A single top-level directory wrapping all content is
+     * left out, its children are extracted into the target directly.
+     *
+     * @return the extracted entries, relative to the target directory
+     */
+    public List<ExtractedEntry> unpack(Path sourceArchive, Path finalTargetDir) throws IOException {
+        String filename = sourceArchive.getFileName().toString().toLowerCase();
+        if (filename.endsWith(ZIP_EXTENSION) || filename.endsWith(JAR_EXTENSION)) {
+            return unpackZip(sourceArchive, finalTargetDir);
+        } else if (filename.endsWith(TAR_GZ_EXTENSION)) {
+            return unpackTarGz(sourceArchive, finalTargetDir);
+        } else {
+            throw new IOException("Unsupported archive type: " + filename);
+        }
+    }
+
+    private List<ExtractedEntry> unpackZip(Path archive, Path finalTargetDir) throws IOException {
+        log.debug("Unpacking zip, Extracting {} to {}", archive, finalTargetDir);
+        long start = System.currentTimeMillis();
+        Path target = finalTargetDir.toAbsolutePath().normalize();
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            List<? extends ZipEntry> entries = zipFile.stream()
+                    .filter(e -> !shouldSkip(e.getName()))
+                    .toList();
+            String wrapper = findWrapper(entries.stream().map(ZipEntry::getName).toList());
+
+            // validate everything before the first byte is written
+            Map<ZipEntry, String> relativePaths = new LinkedHashMap<>();
+            for (ZipEntry entry : entries) {
+                String relativePath = stripWrapper(entry.getName(), wrapper);
+                if (relativePath == null) continue;
+                resolveInside(target, relativePath);
+                relativePaths.put(entry, relativePath);
+            }
+
+            Files.createDirectories(target);
+            List<ExtractedEntry> extracted = new ArrayList<>(relativePaths.size());
+            List<ZipEntry> files = new ArrayList<>();
+            for (Map.Entry<ZipEntry, String> e : relativePaths.entrySet()) {
+                Path out = resolveInside(target, e.getValue());
+                if (e.getKey().isDirectory()) {
+                    Files.createDirectories(out);
+                    extracted.add(new ExtractedEntry(e.getValue(), 0, true));
+                } else {
+                    Files.createDirectories(out.getParent());
+                    files.add(e.getKey());
+                }
+            }
+
+            int threads = extractThreads > 0 ? extractThreads : Runtime.getRuntime().availableProcessors();
+            try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())))) {
+                List<Future<ExtractedEntry>> futures = new ArrayList<>(files.size());
+                for (ZipEntry entry : files) {
+                    String relativePath = relativePaths.get(entry);
+                    futures.add(executor.submit(() -> {
+                        Path out = resolveInside(target, relativePath);
+                        try (InputStream in = zipFile.getInputStream(entry)) {
+                            long size = Files.copy(in, out, StandardCopyOption.REPLACE_EXISTING);
+                            return new ExtractedEntry(relativePath, size, false);
+                        }
+                    }));
+                }
+                for (Future<ExtractedEntry> future : futures) {
+                    extracted.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException("Failed to extract " + archive, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while extracting " + archive, e);
+            }
+            log.debug("Extracted {} entries of {} in {} ms", extracted.size(), archive.getFileName(),
+                    System.currentTimeMillis() - start);
+            return extracted;
+        }
+    }
+
+    private List<ExtractedEntry> unpackTarGz(Path archive, Path finalTargetDir) throws IOException {
+        log.debug("Unpacking tar, Extracting {} to {}", archive, finalTargetDir);
+        Path target = finalTargetDir.toAbsolutePath().normalize();
+        Files.createDirectories(target.getParent());
+        // next to the target, so that moving the content is a rename on the same file system
+        Path sandboxDir = Files.createTempDirectory(target.getParent(), ".occtet_sandbox_");
         try {
-            String filename = sourceArchive.getFileName().toString().toLowerCase();
-            if (filename.endsWith(ZIP_EXTENSION) || filename.endsWith(JAR_EXTENSION)) {
-                unpackZip(sourceArchive, sandboxDir);
-            } else if (filename.endsWith(TAR_GZ_EXTENSION)) {
-                unpackTarGz(sourceArchive, sandboxDir);
-            } else {
-                throw new IOException("Unsupported archive type: " + filename);
+            List<ExtractedEntry> extracted = new ArrayList<>();
+            try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(archive));
+                 GzipCompressorInputStream gzi = new GzipCompressorInputStream(inputStream);
+                 TarArchiveInputStream ti = new TarArchiveInputStream(gzi)) {
+                TarArchiveEntry tarArchiveEntry;
+                while ((tarArchiveEntry = ti.getNextEntry()) != null) {
+                    if (shouldSkip(tarArchiveEntry.getName())) continue;
+                    // links are not files of the component, the directory scan ignores them as well
+                    if (tarArchiveEntry.isSymbolicLink() || tarArchiveEntry.isLink()) continue;
+                    String name = normalizeEntryName(tarArchiveEntry.getName());
+                    if (name.isEmpty()) continue;
+                    Path outFile = resolveInside(sandboxDir, name);
+                    if (tarArchiveEntry.isDirectory()) {
+                        Files.createDirectories(outFile);
+                        extracted.add(new ExtractedEntry(name, 0, true));
+                    } else {
+                        Files.createDirectories(outFile.getParent());
+                        long size = Files.copy(ti, outFile, StandardCopyOption.REPLACE_EXISTING);
+                        extracted.add(new ExtractedEntry(name, size, false));
+                    }
+                }
+            }
+            String wrapper = findWrapper(extracted.stream()
+                    .map(e -> e.directory() ? e.relativePath() + "/" : e.relativePath()).toList());
+            moveToFinalDestination(wrapper == null ? sandboxDir : sandboxDir.resolve(wrapper), target);
+
+            List<ExtractedEntry> result = new ArrayList<>(extracted.size());
+            for (ExtractedEntry entry : extracted) {
+                String relativePath = stripWrapper(entry.relativePath(), wrapper);
+                if (relativePath != null) result.add(new ExtractedEntry(relativePath, entry.size(), entry.directory()));
             }
-            moveToFinalDestination(sandboxDir, finalTargetDir);
+            return result;
         } finally {
             FileSystemUtils.deleteRecursively(sandboxDir);
         }
     }
 
-    private void moveToFinalDestination(Path sandbox, Path target) throws IOException {
-        log.debug("Moving contents of {} to {}", sandbox, target);
-        if (Files.notExists(target)) Files.createDirectories(target);
-
-        List<Path> contents;
-
-        // Filter hidden files
-        try (Stream<Path> stream = Files.list(sandbox)) {
-            contents = stream.filter(p -> !p.getFileName().toString().startsWith(".")).toList();
+    private void moveToFinalDestination(Path source, Path target) throws IOException {
+        log.debug("Moving contents of {} to {}", source, target);
+        if (isEmptyOrMissing(target)) {
+            Files.deleteIfExists(target);
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (AtomicMoveNotSupportedException e) {
+                log.debug("Cannot rename {} to {}, moving file by file", source, target);
+                Files.createDirectories(target);
+            }
         }
-        if (contents.size() == 1 && Files.isDirectory(contents.getFirst())) {
-            Path wrapperDir = contents.getFirst();
-            log.debug("Moving children of {} to {}", wrapperDir, target);
-            moveChildren(wrapperDir, target);
-        } else {
-            log.debug("Moving children of {} to {}", sandbox, target);
-            moveChildren(sandbox, target);
+        moveChildren(source, target);
+    }
+
+    private boolean isEmptyOrMissing(Path dir) throws IOException {
+        if (Files.notExists(dir)) return true;
+        if (!Files.isDirectory(dir)) return false;
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.findAny().isEmpty();
         }
     }
 
@@ -106,55 +239,51 @@ public class ArchiveService {
         }
     }
 
-    @SuppressWarnings("DuplicatedCode")
-    private void unpackZip(Path archive, Path outputDir) throws IOException {
-        log.debug("Unpacking zip, Extracting {} to {}", archive, outputDir);
-        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(archive))){
-            ZipEntry zipEntry;
-            String canonicalDest = outputDir.toFile().getCanonicalPath();
-            while ((zipEntry = zis.getNextEntry()) != null) {
-                if (shouldSkip(zipEntry.getName())) continue;
-
-                File outFile = outputDir.resolve(zipEntry.getName()).toFile();
-                if (!outFile.getCanonicalPath().startsWith(canonicalDest + File.separator)) {
-                    throw new IOException("Entry is outside of the target dir: " + zipEntry.getName());
-                }
-                if (zipEntry.isDirectory()) {
-                    outFile.mkdirs();
-                } else {
-                    outFile.getParentFile().mkdirs();
-                    try (OutputStream out = new FileOutputStream(outFile)) {
-                        zis.transferTo(out);
-                    }
-                }
-            }
+    /**
+     * The single top-level directory all visible entries are in, e.g. "lodash-4.17.21" in a source archive.
+     * Hidden top-level entries do not count, they are dropped together with the wrapper.
+     *
+     * @return the wrapper, or null if the entries are not wrapped
+     */
+    private String findWrapper(List<String> entryNames) {
+        String wrapper = null;
+        boolean wrapperIsDirectory = false;
+        for (String entryName : entryNames) {
+            String name = normalizeEntryName(entryName);
+            if (name.isEmpty() || name.startsWith(".")) continue;
+            int slash = name.indexOf('/');
+            String top = slash < 0 ? name : name.substring(0, slash);
+            if (wrapper != null && !wrapper.equals(top)) return null;
+            wrapper = top;
+            wrapperIsDirectory |= slash >= 0 || entryName.endsWith("/");
         }
+        return wrapperIsDirectory ? wrapper : null;
     }
 
-    @SuppressWarnings("DuplicatedCode")
-    private void unpackTarGz(Path archive, Path outputDir) throws IOException {
-        log.debug("Unpacking tar, Extracting {} to {}", archive, outputDir);
-        try (InputStream inputStream = Files.newInputStream(archive);
-             GzipCompressorInputStream gzi = new GzipCompressorInputStream(inputStream);
-             TarArchiveInputStream ti = new TarArchiveInputStream(gzi)){
-            TarArchiveEntry tarArchiveEntry;
-            String canonicalDest = outputDir.toFile().getCanonicalPath();
-            while ((tarArchiveEntry = ti.getNextEntry()) != null){
-                if (shouldSkip(tarArchiveEntry.getName())) continue;
-                File outFile = outputDir.resolve(tarArchiveEntry.getName()).toFile();
-                if (!outFile.getCanonicalPath().startsWith(canonicalDest + File.separator)) {
-                    throw new IOException("Entry is outside of the target dir: " + tarArchiveEntry.getName());
-                }
-                if (tarArchiveEntry.isDirectory()) {
-                    outFile.mkdirs();
-                } else {
-                    outFile.getParentFile().mkdirs();
-                    try (OutputStream out = new FileOutputStream(outFile)) {
-                        ti.transferTo(out);
-                    }
-                }
-            }
+    /**
+     * @return the path below the wrapper, or null if the entry is the wrapper itself or not inside it
+     */
+    private String stripWrapper(String entryName, String wrapper) {
+        String name = normalizeEntryName(entryName);
+        if (wrapper == null) return name.isEmpty() ? null : name;
+        if (!name.startsWith(wrapper + "/")) return null;
+        String stripped = name.substring(wrapper.length() + 1);
+        return stripped.isEmpty() ? null : stripped;
+    }
+
+    private String normalizeEntryName(String entryName) {
+        String name = entryName.replace('\\', '/');
+        while (name.startsWith("./")) name = name.substring(2);
+        while (name.endsWith("/")) name = name.substring(0, name.length() - 1);
+        return name;
+    }
+
+    private Path resolveInside(Path dir, String relativePath) throws IOException {
+        Path out = dir.resolve(relativePath).normalize();
+        if (!out.startsWith(dir) || out.equals(dir)) {
+            throw new IOException("Entry is outside of the target dir: " + relativePath);
         }
+        return out;
     }
 
     private boolean shouldSkip(String name) {
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.service;
+
+import eu.occtet.boc.entity.SoftwareComponent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of extracted components, shared by all projects.
+ * <br>
+ * Extracted trees are stored once per archive checksum under {@code objects/<sha256>/tree}, and
+ * {@code keys/<sha256 of the key>} maps the PURL or URL of a component to the checksum of its archive.
+ * Trees are linked into the project folders with hard links, so a component that was seen before costs neither
+ * a download nor a copy. Where hard links are not possible, e.g. across file systems, files are copied.
+ * <br>
+ * The total size is bounded; the least recently used trees are evicted first. Evicting a tree does not affect
+ * project folders it was linked into.
+ */
+@Service
+public class ComponentCache {
+
+    private final Logger log = LogManager.getLogger(this.getClass());
+
+    static final String CACHE_FOLDER_NAME = ".component-cache";
+    private static final String OBJECTS_FOLDER_NAME = "objects";
+    private static final String KEYS_FOLDER_NAME = "keys";
+    private static final String TREE_FOLDER_NAME = "tree";
+    private static final String SIZE_FILE_NAME = "size";
+    private static final String STAGING_MARKER = ".tmp-";
+
+    @Value("${download.cache.enabled:true}")
+    private boolean enabled = true;
+
+    // empty for a folder next to the project folders, hard links need both on the same file system
+    @Value("${download.cache.dir:}")
+    private String cacheDir = "";
+
+    @Value("${download.cache.max-size:20GB}")
+    private DataSize maxSize = DataSize.ofGigabytes(20);
+
+    /**
+     * The cache key of a component: its PURL, or its download URL and version.
+     *
+     * @return the key, or null if the component has neither
+     */
+    public static String keyOf(SoftwareComponent component) {
+        if (component.getPurl() != null && !component.getPurl().isBlank()) return "purl:" + component.getPurl().trim();
+        if (component.getDetailsUrl() != null && !component.getDetailsUrl().isBlank())
+            return "url:" + component.getDetailsUrl().trim() + "@" + component.getVersion();
+        return null;
+    }
+
+    /**
+     * Finds the extracted tree of a component downloaded before.
+     *
+     * @param basePath the resolved system base path
+     * @param key      the key from {@link #keyOf(SoftwareComponent)}
+     * @return the tree, to be passed to {@link #materialize(Path, Path)}
+     */
+    public Optional<Path> lookup(Path basePath, String key) {
+        if (!enabled || key == null) return Optional.empty();
+        Path root = resolveRoot(basePath);
+        Path keyFile = root.resolve(KEYS_FOLDER_NAME).resolve(sha256(key));
+        try {
+            if (!Files.isRegularFile(keyFile)) return Optional.empty();
+            Path object = root.resolve(OBJECTS_FOLDER_NAME).resolve(Files.readString(keyFile).trim());
+            Path tree = object.resolve(TREE_FOLDER_NAME);
+            if (!Files.isDirectory(tree)) {
+                // the tree was evicted
+                Files.deleteIfExists(keyFile);
+                return Optional.empty();
+            }
+            Files.setLastModifiedTime(object, FileTime.from(Instant.now()));
+            log.debug("Cache hit for {} in {}", key, object);
+            return Optional.of(tree);
+        } catch (IOException e) {
+            log.warn("Could not read cache entry for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Links all files of a cached tree into the target directory, replacing files of the same name.
+     */
+    public void materialize(Path tree, Path targetDirectory) throws IOException {
+        long start = System.currentTimeMillis();
+        long bytes = linkTree(tree, targetDirectory);
+        log.debug("Materialized {} bytes from {} to {} in {} ms", bytes, tree, targetDirectory,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Adds a freshly extracted component to the cache. The files of the extracted directory are hard linked into
+     * the cache, so storing takes no additional space while the project folder exists. Failures are logged only,
+     * the extracted directory is not affected.
+     *
+     * @param basePath     the resolved system base path
+     * @param key          the key from {@link #keyOf(SoftwareComponent)}
+     * @param archive      the downloaded archive, its checksum addresses the tree
+     * @param extractedDir the directory the archive was extracted to
+     */
+    public void store(Path basePath, String key, Path archive, Path extractedDir) {
+        if (!enabled || key == null) return;
+        Path root = resolveRoot(basePath);
+        try {
+            String checksum = sha256(archive);
+            Path objects = Files.createDirectories(root.resolve(OBJECTS_FOLDER_NAME));
+            Path keys = Files.createDirectories(root.resolve(KEYS_FOLDER_NAME));
+            Path object = objects.resolve(checksum);
+            synchronized (this) {
+                if (!Files.isDirectory(object.resolve(TREE_FOLDER_NAME))) {
+                    // staged first, so a partially linked tree is never found by a lookup
+                    Path staging = objects.resolve(checksum + STAGING_MARKER + UUID.randomUUID());
+                    long size = linkTree(extractedDir, staging.resolve(TREE_FOLDER_NAME));
+                    Files.writeString(staging.resolve(SIZE_FILE_NAME), Long.toString(size));
+                    Files.move(staging, object, StandardCopyOption.ATOMIC_MOVE);
+                    log.debug("Cached {} bytes of {} as {}", size, key, checksum);
+                }
+                Files.setLastModifiedTime(object, FileTime.from(Instant.now()));
+                Path keyFile = keys.resolve(sha256(key));
+                Path tempKeyFile = keys.resolve(keyFile.getFileName() + STAGING_MARKER + UUID.randomUUID());
+                Files.writeString(tempKeyFile, checksum);
+                Files.move(tempKeyFile, keyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                evict(objects, object);
+            }
+        } catch (IOException e) {
+            log.warn("Could not cache {}: {}", key, e.getMessage());
+        }
+    }
+
+    Path resolveRoot(Path basePath) {
+        return cacheDir == null || cacheDir.isBlank() ? basePath.resolve(CACHE_FOLDER_NAME) : Paths.get(cacheDir);
+    }
+
+    /**
+     * Removes the least recently used trees until the cache fits its maximum size, and leftovers of interrupted
+     * stores.
+     */
+    private void evict(Path objects, Path keep) throws IOException {
+        record Entry(Path object, long size, FileTime lastUsed) {}
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> stream = Files.list(objects)) {
+            for (Path object : stream.toList()) {
+                if (object.getFileName().toString().contains(STAGING_MARKER)) {
+                    FileSystemUtils.deleteRecursively(object);
+                    continue;
+                }
+                Path sizeFile = object.resolve(SIZE_FILE_NAME);
+                long size = Files.isRegularFile(sizeFile) ? Long.parseLong(Files.readString(sizeFile).trim()) : 0;
+                entries.add(new Entry(object, size, Files.getLastModifiedTime(object)));
+                total += size;
+            }
+        }
+        if (total <= maxSize.toBytes()) return;
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (total <= maxSize.toBytes()) break;
+            if (entry.object().equals(keep)) continue;
+            FileSystemUtils.deleteRecursively(entry.object());
+            total -= entry.size();
+            log.debug("Evicted {} with {} bytes from the component cache", entry.object().getFileName(), entry.size());
+        }
+    }
+
+    /**
+     * Hard links every file below source to the same relative path below target.
+     *
+     * @return the number of bytes linked
+     */
+    private long linkTree(Path source, Path target) throws IOException {
+        long[] bytes = {0};
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!attrs.isRegularFile()) return FileVisitResult.CONTINUE;
+                Path destination = target.resolve(source.relativize(file).toString());
+                Files.deleteIfExists(destination);
+                try {
+                    Files.createLink(destination, file);
+                } catch (UnsupportedOperationException | IOException e) {
+                    Files.copy(file, destination, StandardCopyOption.REPLACE_EXISTING);
+                }
+                bytes[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return bytes[0];
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String sha256(String text) {
+        return HexFormat.of().formatHex(newDigest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -48,6 +48,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class DownloadManager extends BaseWorkDataProcessor {
@@ -62,26 +66,52 @@ public class DownloadManager extends BaseWorkDataProcessor {
     @Autowired private ArchiveService archiveService;
     @Autowired private FileService fileService;
     @Autowired private StoragePathResolver storagePathResolver;
+    @Autowired private ComponentCache componentCache;
 
     private static final String SAFE_FILENAME_REGEX = "[^a-zA-Z0-9.\\-_]";
 
+    private final Map<Long, ProjectLock> projectLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Serializes the file registration of one project. A ReentrantLock does not pin the carrier of a virtual
+     * thread while it waits, a monitor does. The lock is removed again once no download of the project uses it.
+     */
+    private static final class ProjectLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        // only changed inside compute of projectLocks
+        private int users;
+    }
+
+    /**
+     * A distinct component to download into a project, with the inventory items that reference it.
+     *
+     * @param project           the project the component is downloaded for
+     * @param baseResolvedPath  the resolved system base path
+     * @param softwareComponent the component
+     * @param mainPackage       whether the component is a main package of the project
+     * @param inventoryItemIds  the inventory items of the component, flagged for the auditor if the download fails
+     */
+    public record ComponentDownload(Project project, Path baseResolvedPath, SoftwareComponent softwareComponent,
+                                    boolean mainPackage, List<Long> inventoryItemIds) {}
+
+    /**
+     * Outcome of {@link #downloadComponent(ComponentDownload)}.
+     */
+    public enum DownloadOutcome {
+        COMPLETED,
+        // no strategy could download the component, worth a retry and flagged for the auditor in the end
+        ALL_STRATEGIES_FAILED,
+        // the component could not be extracted or registered
+        ERROR
+    }
+
     @Override
     @Transactional
     public boolean process(DownloadServiceWorkData data) {
         log.info("Starting download process");
 
-        Path downloadedPath = null;
-        Path projectBaseDir = null; // project root folder
-        Path finalComponentDir = null; // Component folder
-
         try{
-            AppConfiguration globalBasePath = appConfigurationRepository.findByConfigKey(AppConfigKey.GENERAL_BASE_PATH)
-                    .orElseThrow(() -> new RuntimeException("System base path is not set in the configuration"));
-            if (globalBasePath.getValue() == null || globalBasePath.getValue().isBlank())
-                throw new RuntimeException("System base path is not set in the configuration");
-
-            Path baseResolvedPath = storagePathResolver.resolveSystemPath(globalBasePath.getValue());
-            log.debug("UI path '{}' resolved to '{}' for current profile", globalBasePath.getValue(), baseResolvedPath);
+            Path baseResolvedPath = resolveBasePath();
 
             Project project = projectRepository.findById(data.getProjectId())
                     .orElseThrow(() -> new RuntimeException("Project with id " + data.getProjectId() + " not found"));
@@ -90,95 +120,135 @@ public class DownloadManager extends BaseWorkDataProcessor {
             SoftwareComponent softwareComponent = inventoryItem.getSoftwareComponent();
             if (softwareComponent == null) throw new RuntimeException("SoftwareComponent for InventoryItem with id " + data.getInventoryItemId() + " not found");
 
-            boolean isMainPkg = Boolean.TRUE.equals(data.getIsMainPackage());
+            ComponentDownload download = new ComponentDownload(project, baseResolvedPath, softwareComponent,
+                    Boolean.TRUE.equals(data.getIsMainPackage()), List.of(inventoryItem.getId()));
+            DownloadOutcome outcome = downloadComponent(download);
+            if (outcome == DownloadOutcome.ALL_STRATEGIES_FAILED) flagForAuditor(download);
+            return outcome == DownloadOutcome.COMPLETED;
+        } catch (Exception e) {
+            log.error("Process failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the system base path from the configuration for the current profile.
+     */
+    public Path resolveBasePath() {
+        AppConfiguration globalBasePath = appConfigurationRepository.findByConfigKey(AppConfigKey.GENERAL_BASE_PATH)
+                .orElseThrow(() -> new RuntimeException("System base path is not set in the configuration"));
+        if (globalBasePath.getValue() == null || globalBasePath.getValue().isBlank())
+            throw new RuntimeException("System base path is not set in the configuration");
+
+        Path baseResolvedPath = storagePathResolver.resolveSystemPath(globalBasePath.getValue());
+        log.debug("UI path '{}' resolved to '{}' for current profile", globalBasePath.getValue(), baseResolvedPath);
+        return baseResolvedPath;
+    }
+
+    /**
+     * Downloads and extracts one component into the project folder and creates its File entities.
+     */
+    public DownloadOutcome downloadComponent(ComponentDownload download) {
+        Path downloadedPath = null;
+        Path projectBaseDir = null; // project root folder
+        Path finalComponentDir = null; // Component folder
+        Project project = download.project();
+        SoftwareComponent softwareComponent = download.softwareComponent();
 
+        try{
             // calc base project path (e.g., /data/Project_101)
-            projectBaseDir = calculateTargetPath(baseResolvedPath, project.getProjectName(), project.getId());
+            projectBaseDir = calculateTargetPath(download.baseResolvedPath(), project.getProjectName(), project.getId());
 
             // Structure: [project] / [dependencies?] / [component_name] / [version]
             Path workingPath = projectBaseDir;
 
-            if (!isMainPkg) {
-                log.debug("Resolving dependencies folder for item {}", data.getInventoryItemId());
+            if (!download.mainPackage()) {
+                log.debug("Resolving dependencies folder for component {}", softwareComponent.getId());
                 workingPath = workingPath.resolve(FileConstants.DEPENDENCIES_FOLDER_NAME);
             }
             String canonicalName = resolveCanonicalDirectoryName(softwareComponent);
-            String safeSoftwareComponentName = sanitizeFilename(canonicalName, "unknown_component_" + data.getInventoryItemId());
+            String safeSoftwareComponentName = sanitizeFilename(canonicalName, "unknown_component_" + download.inventoryItemIds().getFirst());
 
             String safeComponentVersion = sanitizeFilename(softwareComponent.getVersion(), "unknown_version");
 
             finalComponentDir = workingPath.resolve(safeSoftwareComponentName).resolve(safeComponentVersion);
 
-            // Process download
-            // Attempt using downloadLocation
-            if (softwareComponent.getDetailsUrl() != null) {
+            String cacheKey = ComponentCache.keyOf(softwareComponent);
+            Optional<Path> cachedTree = componentCache.lookup(download.baseResolvedPath(), cacheKey);
+            if (cachedTree.isPresent()) {
                 try {
-                    URL durl = new URI(softwareComponent.getDetailsUrl()).toURL();
-                    log.debug("url: {}", durl);
-
-                    List<DownloadStrategy> candidates = downloadStrategyFactory.findForUrl(durl, softwareComponent.getVersion());
-
-                    for (DownloadStrategy strategy : candidates) {
-                        try {
-                            log.info("Attempting download via URL using {}", strategy.getClass().getSimpleName());
-                            downloadedPath = strategy.download(durl, softwareComponent.getVersion(), finalComponentDir);
-
-                            if (downloadedPath != null) {
-                                break;
-                            }
-                        } catch (Exception e) {
-                            log.warn("Strategy {} failed to download. Trying next strategy... Error: {}",
-                                    strategy.getClass().getSimpleName(), e.getMessage());
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Critical error resolving URL strategies: {}", e.getMessage());
+                    componentCache.materialize(cachedTree.get(), finalComponentDir);
+                    Path componentDir = finalComponentDir;
+                    String projectPath = projectBaseDir.toString();
+                    withProjectLock(project, () ->
+                            fileService.createEntitiesFromPath(project, componentDir, projectPath));
+                    log.info("Component {} taken from the component cache", cacheKey);
+                    return DownloadOutcome.COMPLETED;
+                } catch (IOException e) {
+                    log.warn("Could not take {} from the component cache, downloading it: {}", cacheKey, e.getMessage());
                 }
             }
-            // Attempt using PURL
-            if (softwareComponent.getPurl() != null && downloadedPath == null){
-                try {
-                    PackageURL purl = new PackageURL(softwareComponent.getPurl());
-                    List<DownloadStrategy> candidates = downloadStrategyFactory.findForPurl(purl);
-
-                    for (DownloadStrategy strategy : candidates) {
-                        try {
-                            log.info("Attempting download via PURL using {}", strategy.getClass().getSimpleName());
-                            downloadedPath = strategy.download(purl, finalComponentDir);
-                            if (downloadedPath != null) break;
-                        } catch (Exception e) {
-                            log.warn("Strategy {} failed. Error: {}", strategy.getClass().getSimpleName(), e.getMessage());
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to process PURL: {}", e.getMessage());
-                }
+
+            downloadedPath = downloadWithStrategies(softwareComponent, finalComponentDir);
+
+            if (downloadedPath == null){
+                log.error("All download strategies failed for items {}", download.inventoryItemIds());
+                return DownloadOutcome.ALL_STRATEGIES_FAILED;
+            }
+
+            List<ArchiveService.ExtractedEntry> extractedEntries = null;
+            if (Files.isRegularFile(downloadedPath)){
+                extractedEntries = archiveService.unpack(downloadedPath, finalComponentDir);
+                componentCache.store(download.baseResolvedPath(), cacheKey, downloadedPath, finalComponentDir);
             }
-            // Attempt using name/version
-            if (softwareComponent.getName() != null && downloadedPath == null){
+            // components of one project are registered one after the other, they share parent directories
+            List<ArchiveService.ExtractedEntry> entries = extractedEntries;
+            Path componentDir = finalComponentDir;
+            String projectPath = projectBaseDir.toString();
+            withProjectLock(project, () -> {
+                if (entries != null) {
+                    fileService.createEntitiesFromPath(
+                            project,
+                            componentDir,
+                            projectPath,
+                            entries
+                    );
+                } else {
+                    fileService.createEntitiesFromPath(
+                            project,
+                            componentDir,
+                            projectPath
+                    );
+                }
+            });
+
+            return DownloadOutcome.COMPLETED;
+        } catch (Exception e) {
+            log.error("Process failed: {}", e.getMessage());
+            return DownloadOutcome.ERROR;
+        } finally {
+            // strategies that check out a directory return the component folder itself, it must stay
+            if (downloadedPath != null && Files.isRegularFile(downloadedPath)) {
+                log.debug("Cleaning up, deleting the source archive: {}", downloadedPath.getFileName());
                 try {
-                    List<DownloadStrategy> candidates = downloadStrategyFactory.findForName(softwareComponent.getName(), softwareComponent.getVersion());
-
-                    for (DownloadStrategy strategy : candidates) {
-                        try {
-                            log.info("Attempting download via Name lookup using {}", strategy.getClass().getSimpleName());
-                            downloadedPath = strategy.download(softwareComponent.getName(),
-                                    softwareComponent.getVersion(), finalComponentDir);
-                            if (downloadedPath != null) break;
-                        } catch (Exception e) {
-                            log.warn("Strategy {} failed. Error: {}", strategy.getClass().getSimpleName(), e.getMessage());
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to process Name lookup: {}", e.getMessage());
+                    Files.deleteIfExists(downloadedPath);
+                } catch (IOException ioe) {
+                    log.warn("Failed to delete temporary file {} after failed download: {}", downloadedPath, ioe.getMessage());
                 }
             }
+        }
+    }
 
-            if (downloadedPath == null){
-                log.error("All download strategies failed for item {}", data.getInventoryItemId());
+    /**
+     * Adds a warning for the auditor to the inventory items of a component that could not be downloaded.
+     */
+    public void flagForAuditor(ComponentDownload download) {
+        SoftwareComponent softwareComponent = download.softwareComponent();
+        for (Long inventoryItemId : download.inventoryItemIds()) {
+            inventoryItemRepository.findById(inventoryItemId).ifPresent(inventoryItem -> {
                 String updatedNotes = inventoryItem.getExternalNotes();
                 updatedNotes += ExternalNotesConstants.SECTION_SEPARATOR +
-                        ExternalNotesConstants.WARNING_AUDITOR_ATTENTION_REQ + 
+                        ExternalNotesConstants.WARNING_AUDITOR_ATTENTION_REQ +
                         ExternalNotesConstants.DOWNLOAD_SERVICE_FAILURE_MSG +
                         "\nAffected download URL: " + softwareComponent.getDetailsUrl() +
                         ExternalNotesConstants.SECTION_SEPARATOR;
@@ -187,33 +257,96 @@ public class DownloadManager extends BaseWorkDataProcessor {
                 inventoryItemRepository.save(inventoryItem);
                 log.debug("InventoryItem '{}' audit notes updated with WARNING message: {}", inventoryItem.getId(),
                         updatedNotes);
-                return false;
-            }
+            });
+        }
+    }
 
-            if (Files.isRegularFile(downloadedPath)){
-                archiveService.unpack(downloadedPath, finalComponentDir);
-            }
+    /**
+     * Tries the strategies for the download URL, the PURL and the name of the component in this order.
+     *
+     * @return the downloaded file, or null if all strategies failed
+     */
+    private Path downloadWithStrategies(SoftwareComponent softwareComponent, Path finalComponentDir) {
+        Path downloadedPath = null;
+        // Attempt using downloadLocation
+        if (softwareComponent.getDetailsUrl() != null) {
+            try {
+                URL durl = new URI(softwareComponent.getDetailsUrl()).toURL();
+                log.debug("url: {}", durl);
 
-            fileService.createEntitiesFromPath(
-                    project,
-                    finalComponentDir,
-                    projectBaseDir.toString()
-            );
+                List<DownloadStrategy> candidates = downloadStrategyFactory.findForUrl(durl, softwareComponent.getVersion());
 
-            return true;
-        } catch (Exception e) {
-            log.error("Process failed: {}", e.getMessage());
-            return false;
-        } finally {
-            if (downloadedPath != null) {
-                log.debug("Cleaning up, deleting the source archive: {}", downloadedPath.getFileName());
-                try {
-                    Files.deleteIfExists(downloadedPath);
-                } catch (IOException ioe) {
-                    log.warn("Failed to delete temporary file {} after failed download: {}", downloadedPath, ioe.getMessage());
+                for (DownloadStrategy strategy : candidates) {
+                    try {
+                        log.info("Attempting download via URL using {}", strategy.getClass().getSimpleName());
+                        downloadedPath = strategy.download(durl, softwareComponent.getVersion(), finalComponentDir);
+
+                        if (downloadedPath != null) {
+                            break;
+                        }
+                    } catch (Exception e) {
+                        log.warn("Strategy {} failed to download. Trying next strategy... Error: {}",
+                                strategy.getClass().getSimpleName(), e.getMessage());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Critical error resolving URL strategies: {}", e.getMessage());
+            }
+        }
+        // Attempt using PURL
+        if (softwareComponent.getPurl() != null && downloadedPath == null){
+            try {
+                PackageURL purl = new PackageURL(softwareComponent.getPurl());
+                List<DownloadStrategy> candidates = downloadStrategyFactory.findForPurl(purl);
+
+                for (DownloadStrategy strategy : candidates) {
+                    try {
+                        log.info("Attempting download via PURL using {}", strategy.getClass().getSimpleName());
+                        downloadedPath = strategy.download(purl, finalComponentDir);
+                        if (downloadedPath != null) break;
+                    } catch (Exception e) {
+                        log.warn("Strategy {} failed. Error: {}", strategy.getClass().getSimpleName(), e.getMessage());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to process PURL: {}", e.getMessage());
+            }
+        }
+        // Attempt using name/version
+        if (softwareComponent.getName() != null && downloadedPath == null){
+            try {
+                List<DownloadStrategy> candidates = downloadStrategyFactory.findForName(softwareComponent.getName(), softwareComponent.getVersion());
+
+                for (DownloadStrategy strategy : candidates) {
+                    try {
+                        log.info("Attempting download via Name lookup using {}", strategy.getClass().getSimpleName());
+                        downloadedPath = strategy.download(softwareComponent.getName(),
+                                softwareComponent.getVersion(), finalComponentDir);
+                        if (downloadedPath != null) break;
+                    } catch (Exception e) {
+                        log.warn("Strategy {} failed. Error: {}", strategy.getClass().getSimpleName(), e.getMessage());
+                    }
                 }
+            } catch (Exception e) {
+                log.warn("Failed to process Name lookup: {}", e.getMessage());
             }
         }
+        return downloadedPath;
+    }
+
+    private void withProjectLock(Project project, Runnable registration) {
+        ProjectLock projectLock = projectLocks.compute(project.getId(), (id, existing) -> {
+            ProjectLock used = existing != null ? existing : new ProjectLock();
+            used.users++;
+            return used;
+        });
+        projectLock.lock.lock();
+        try {
+            registration.run();
+        } finally {
+            projectLock.lock.unlock();
+            projectLocks.computeIfPresent(project.getId(), (id, used) -> --used.users == 0 ? null : used);
+        }
     }
 
     private Path calculateTargetPath(Path baseResolvedPath, String projectName, Long projectId) {
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.service;
+
+import com.github.packageurl.PackageURL;
+import eu.occtet.boc.dao.InventoryItemRepository;
+import eu.occtet.boc.dao.ProjectRepository;
+import eu.occtet.boc.download.service.DownloadManager.ComponentDownload;
+import eu.occtet.boc.download.service.DownloadManager.DownloadOutcome;
+import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.Project;
+import eu.occtet.boc.entity.SoftwareComponent;
+import eu.occtet.boc.model.DownloadPlanWorkData;
+import eu.occtet.boc.util.OnProgress;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads all components of an import as one plan.
+ * <p>
+ * Inventory items that share a component (same PURL or URL and version) are downloaded once. The downloads are
+ * grouped by the host they are fetched from and run in parallel, with a limit of concurrent downloads per host and
+ * overall. A component no strategy could fetch is retried with backoff as long as the retry budget of its host
+ * lasts, so an unreachable host does not cause a storm of retries. The progress is reported for the whole plan.
+ */
+@Service
+public class DownloadPlanner {
+
+    private final Logger log = LogManager.getLogger(this.getClass());
+
+    @Autowired private DownloadManager downloadManager;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private InventoryItemRepository inventoryItemRepository;
+
+    @Value("${download.plan.max-concurrent:16}")
+    private int maxConcurrent = 16;
+    @Value("${download.plan.max-per-host:4}")
+    private int maxPerHost = 4;
+    @Value("${download.plan.max-attempts:3}")
+    private int maxAttempts = 3;
+    @Value("${download.plan.retry-budget:10}")
+    private int retryBudget = 10;
+    @Value("${download.plan.retry-backoff:PT2S}")
+    private Duration retryBackoff = Duration.ofSeconds(2);
+
+    /**
+     * A distinct component of the plan and the host it is fetched from.
+     */
+    record PlannedDownload(String key, String host, ComponentDownload download) {}
+
+    /**
+     * Limits of one host, shared by all downloads from it.
+     */
+    private record HostLimits(Semaphore slots, AtomicInteger retryBudget) {}
+
+    /**
+     * Downloads the components of all inventory items of the plan.
+     *
+     * @param data       the plan
+     * @param onProgress receives the progress of the whole plan
+     * @return true if the plan was executed, components that could not be downloaded are flagged for the auditor
+     */
+    public boolean process(DownloadPlanWorkData data, OnProgress onProgress) {
+        Path baseResolvedPath = downloadManager.resolveBasePath();
+        Project project = projectRepository.findById(data.getProjectId())
+                .orElseThrow(() -> new RuntimeException("Project with id " + data.getProjectId() + " not found"));
+        List<InventoryItem> inventoryItems = inventoryItemRepository.findAllById(data.getInventoryItemIds());
+        Set<Long> mainInventoryItemIds = data.getMainInventoryItemIds() == null
+                ? Set.of() : new HashSet<>(data.getMainInventoryItemIds());
+
+        List<PlannedDownload> plan = plan(project, baseResolvedPath, inventoryItems, mainInventoryItemIds);
+        log.info("Planned {} downloads for {} inventory items of project {} from {} hosts", plan.size(),
+                inventoryItems.size(), project.getId(), plan.stream().map(PlannedDownload::host).distinct().count());
+        execute(plan, onProgress);
+        return true;
+    }
+
+    /**
+     * Deduplicates the inventory items by their component. A component is a main package if any of its items is.
+     */
+    List<PlannedDownload> plan(Project project, Path baseResolvedPath, List<InventoryItem> inventoryItems,
+                               Set<Long> mainInventoryItemIds) {
+        Map<String, List<InventoryItem>> itemsByKey = new LinkedHashMap<>();
+        for (InventoryItem inventoryItem : inventoryItems) {
+            SoftwareComponent softwareComponent = inventoryItem.getSoftwareComponent();
+            if (softwareComponent == null) {
+                log.warn("InventoryItem {} has no SoftwareComponent, nothing to download", inventoryItem.getId());
+                continue;
+            }
+            String key = ComponentCache.keyOf(softwareComponent);
+            if (key == null) key = "component:" + softwareComponent.getId();
+            itemsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(inventoryItem);
+        }
+
+        List<PlannedDownload> plan = new ArrayList<>(itemsByKey.size());
+        for (Map.Entry<String, List<InventoryItem>> entry : itemsByKey.entrySet()) {
+            List<Long> inventoryItemIds = entry.getValue().stream().map(InventoryItem::getId).toList();
+            boolean mainPackage = inventoryItemIds.stream().anyMatch(mainInventoryItemIds::contains);
+            SoftwareComponent softwareComponent = entry.getValue().getFirst().getSoftwareComponent();
+            plan.add(new PlannedDownload(entry.getKey(), hostOf(softwareComponent),
+                    new ComponentDownload(project, baseResolvedPath, softwareComponent, mainPackage, inventoryItemIds)));
+        }
+        return plan;
+    }
+
+    /**
+     * The host the component is fetched from: the host of its URL, which the strategies try first, otherwise the
+     * registry of its PURL type.
+     */
+    static String hostOf(SoftwareComponent softwareComponent) {
+        String url = softwareComponent.getDetailsUrl();
+        if (url != null && !url.isBlank()) {
+            try {
+                String host = URI.create(url.trim().replaceFirst("^git\\+", "")).getHost();
+                if (host != null) return host.toLowerCase(Locale.ROOT);
+            } catch (IllegalArgumentException e) {
+                // fall through to the PURL
+            }
+        }
+        String purl = softwareComponent.getPurl();
+        if (purl != null && !purl.isBlank()) {
+            try {
+                return "pkg:" + new PackageURL(purl.trim()).getType();
+            } catch (Exception e) {
+                // unknown host
+            }
+        }
+        return "unknown";
+    }
+
+    private void execute(List<PlannedDownload> plan, OnProgress onProgress) {
+        Map<String, HostLimits> hosts = new ConcurrentHashMap<>();
+        Semaphore slots = new Semaphore(maxConcurrent);
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger reportedPercent = new AtomicInteger(-1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PlannedDownload plannedDownload : plan) {
+                HostLimits host = hosts.computeIfAbsent(plannedDownload.host(),
+                        h -> new HostLimits(new Semaphore(maxPerHost), new AtomicInteger(retryBudget)));
+                executor.execute(() -> {
+                    boolean completed = false;
+                    try {
+                        completed = download(plannedDownload, host, slots);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        log.error("Download of {} failed: {}", plannedDownload.key(), e.getMessage());
+                    }
+                    if (!completed) failed.incrementAndGet();
+                    int percent = plan.isEmpty() ? 100 : finished.incrementAndGet() * 100 / plan.size();
+                    // one message per percent, not one per component
+                    if (reportedPercent.getAndAccumulate(percent, Math::max) < percent) {
+                        onProgress.onProgress(percent, finished.get() + " of " + plan.size()
+                                + " components processed, " + failed.get() + " failed");
+                    }
+                });
+            }
+        }
+        log.info("Download plan finished: {} of {} components downloaded", plan.size() - failed.get(), plan.size());
+    }
+
+    /**
+     * Downloads one component within the limits of its host, retrying while the host has retries left.
+     */
+    private boolean download(PlannedDownload plannedDownload, HostLimits host, Semaphore slots) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            DownloadOutcome outcome;
+            host.slots().acquire();
+            try {
+                slots.acquire();
+                try {
+                    outcome = downloadManager.downloadComponent(plannedDownload.download());
+                } finally {
+                    slots.release();
+                }
+            } finally {
+                host.slots().release();
+            }
+            if (outcome == DownloadOutcome.COMPLETED) return true;
+            if (outcome == DownloadOutcome.ERROR) return false;
+
+            if (attempt >= maxAttempts || host.retryBudget().getAndDecrement() <= 0) {
+                log.warn("Giving up on {} from {} after {} attempts", plannedDownload.key(), plannedDownload.host(), attempt);
+                downloadManager.flagForAuditor(plannedDownload.download());
+                return false;
+            }
+            Duration backoff = retryBackoff.multipliedBy(1L << (attempt - 1));
+            log.info("Retrying {} from {} in {}", plannedDownload.key(), plannedDownload.host(), backoff);
+            Thread.sleep(backoff.toMillis());
+        }
+    }
+}
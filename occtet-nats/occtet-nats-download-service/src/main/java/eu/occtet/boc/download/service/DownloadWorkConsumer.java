@@ -21,8 +21,10 @@ package eu.occtet.boc.download.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.model.BaseWorkData;
+import eu.occtet.boc.model.DownloadPlanWorkData;
 import eu.occtet.boc.model.DownloadServiceWorkData;
 import eu.occtet.boc.model.WorkTask;
+import eu.occtet.boc.model.WorkTaskStatus;
 import eu.occtet.boc.service.BaseWorkDataProcessor;
 import eu.occtet.boc.service.WorkConsumer;
 import io.nats.client.Message;
@@ -40,6 +42,8 @@ public class DownloadWorkConsumer extends WorkConsumer {
 
     @Autowired
     private DownloadManager downloadManager;
+    @Autowired
+    private DownloadPlanner downloadPlanner;
 
     @Override
     protected void handleMessage(Message msg) {
@@ -63,6 +67,21 @@ public class DownloadWorkConsumer extends WorkConsumer {
                         return false;
                     }
                 }
+
+                @Override
+                public boolean process(DownloadPlanWorkData workData) {
+                    try {
+                        boolean res = downloadPlanner.process(workData, (p, d) ->
+                                notifyProgress(workTask.taskId(), workTask.name(), WorkTaskStatus.IN_PROGRESS, p, d));
+                        if (res) notifyCompleted(workTask.taskId(), workTask.name());
+                        else notifyError(workTask.taskId(), workTask.name(), "error during processing");
+                        return res;
+                    } catch (Exception e) {
+                        log.error("Could not process download plan of project {}", workData.getProjectId(), e);
+                        notifyError(workTask.taskId(), workTask.name(), "Internal System Error");
+                        return false;
+                    }
+                }
             });
 
             if (!result) {
@@ -19,11 +19,11 @@
 
 package eu.occtet.boc.download.service;
 
+import eu.occtet.boc.dao.FileBulkDao;
 import eu.occtet.boc.dao.FileRepository;
 import eu.occtet.boc.dao.ProjectRepository;
 import eu.occtet.boc.download.factory.FileFactory;
 import eu.occtet.boc.entity.File;
-import eu.occtet.boc.entity.InventoryItem;
 import eu.occtet.boc.entity.Project;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
@@ -33,27 +33,30 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 
 /**
  * Service responsible for scanning the file system and persisting the structure as {@link File} entities.
  * <p>
  * This service handles the mapping between physical files on disk and their database representation.
- * It employs a batch processing strategy to handle large directory trees efficiently without
- * exhausting memory.
+ * The tree is walked once with one stat per entry. New files are inserted as plain rows through JDBC batches with
+ * ids from a pre-fetched sequence block, so large directory trees neither pass through the persistence context
+ * nor exhaust memory. Only files pre-created by the SPDX service are updated as entities.
  */
 @Service
 public class FileService {
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
-    private final int BATCHSIZE = 500;
+    private final int BATCHSIZE = 1000;
 
     @Autowired
     private FileRepository fileRepository;
     @Autowired
+    private FileBulkDao fileBulkDao;
+    @Autowired
     private FileFactory fileFactory;
     @Autowired
     private ProjectRepository projectRepository;
@@ -61,6 +64,45 @@ public class FileService {
     @Value("${occtet.scanner.ignored-names:}")
     private List<String> ignoredNames = Collections.emptyList();
 
+    /**
+     * State of one scan: the files known before, the rows waiting for insertion and the ids to give them.
+     */
+    private class Scan {
+        final Project project;
+        final Path relativeAnchor; // anchor for calculating artifactPath
+        final Path projectRootAnchor; // anchor for calculating projectPath
+
+        final Map<String, Long> idsByPhysicalPath = new HashMap<>(); // files created or updated in FileService
+        final Map<String, File> filesInSpdxService = new HashMap<>(); // files that only have artifactPath
+        final Map<File, Long> updatedFiles = new LinkedHashMap<>(); // SPDX files with the id of their new parent
+
+        final List<FileBulkDao.FileRow> rows = new ArrayList<>();
+        final Deque<Long> ids = new ArrayDeque<>();
+        int inserted;
+
+        Scan(Project project, Path relativeAnchor, Path projectRootAnchor) {
+            this.project = project;
+            this.relativeAnchor = relativeAnchor;
+            this.projectRootAnchor = projectRootAnchor;
+        }
+
+        long nextId() {
+            if (ids.isEmpty()) ids.addAll(fileBulkDao.allocateIds(BATCHSIZE));
+            return ids.poll();
+        }
+
+        void add(FileBulkDao.FileRow row) {
+            rows.add(row);
+            if (rows.size() >= BATCHSIZE) flushRows();
+        }
+
+        void flushRows() {
+            fileBulkDao.insert(rows);
+            inserted += rows.size();
+            rows.clear();
+        }
+    }
+
     /**
      * Scans a directory located at the given path and creates corresponding File entities.
      * <p>
@@ -74,79 +116,77 @@ public class FileService {
     @Transactional
     public void createEntitiesFromPath(Project project, Path rootPath,
                                        String projectPath) {
+        createEntities(project, rootPath, projectPath, null);
+    }
+
+    /**
+     * Creates the File entities of a freshly extracted archive from the entries reported by the extraction,
+     * without walking the extracted tree again.
+     *
+     * @param project          the Project entity
+     * @param rootPath         the directory the archive was extracted to
+     * @param projectPath      the location of the downloaded project
+     * @param extractedEntries the extracted entries, relative to rootPath
+     */
+    @Transactional
+    public void createEntitiesFromPath(Project project, Path rootPath, String projectPath,
+                                       List<ArchiveService.ExtractedEntry> extractedEntries) {
+        createEntities(project, rootPath, projectPath, extractedEntries);
+    }
+
+    private void createEntities(Project project, Path rootPath, String projectPath,
+                                List<ArchiveService.ExtractedEntry> extractedEntries) {
         long start = System.currentTimeMillis();
         try {
+            Path projectRootPathObj = Paths.get(projectPath);
+            Path projectParentAnchor = projectRootPathObj.getParent();
+            if (projectParentAnchor == null) {
+                projectParentAnchor = projectRootPathObj;
+            }
+            Scan scan = new Scan(project, rootPath, projectParentAnchor);
 
             List<File> existingFiles = fileRepository.findAllByProject(project);
             log.debug("Loaded {} existing File entities for project {}", existingFiles.size(), project.getId());
 
-            Map<String, File> filesCreatedInSpdxService = new HashMap<>(); // uses artifact path as key
-            Map<String, File> filesCreatedOrUpdatedInFileService = new HashMap<>(); // uses physical path as key
-
             for (File file : existingFiles){
                 if (file.getArtifactPath() != null && file.getPhysicalPath() == null)
-                    filesCreatedInSpdxService.put(file.getArtifactPath(), file);
+                    scan.filesInSpdxService.put(file.getArtifactPath(), file);
                 else if (file.getPhysicalPath() != null)
-                    filesCreatedOrUpdatedInFileService.put(file.getPhysicalPath(), file);
+                    scan.idsByPhysicalPath.put(file.getPhysicalPath(), file.getId());
             }
 
-            List<File> batchBuffer = new ArrayList<>();
+            Path rootDirectory = rootPath.toAbsolutePath();
 
-            Path projectRootPathObj = Paths.get(projectPath);
-            Path projectParentAnchor = projectRootPathObj.getParent();
-            if (projectParentAnchor == null) {
-                projectParentAnchor = projectRootPathObj;
+            Long parentForRoot = ensureParentHierarchy(scan, rootDirectory.getParent(), projectPath);
+
+            String rootPhysicalPath = rootDirectory.toString();
+            Long rootId = scan.idsByPhysicalPath.get(rootPhysicalPath);
+            if (rootId == null) {
+                log.debug("physical path: {} creating root directory", rootPhysicalPath);
+                rootId = createRow(scan, rootDirectory, rootPhysicalPath,
+                        getRelativePath(projectParentAnchor, rootDirectory), // Relative to Project root
+                        getRelativePath(rootPath, rootDirectory), // Relative to scan anchor
+                        true, parentForRoot);
             }
 
-            java.io.File rootDirectory = rootPath.toFile();
-
-            File parentForRoot = ensureParentHierarchy(
-                    project,
-                    rootDirectory.getParentFile(),
-                    filesCreatedOrUpdatedInFileService,
-                    batchBuffer,
-                    projectPath);
-
-            String calculatedArtifactPath = getRelativePath(rootPath, rootDirectory); // Relative to scan anchor
-            String calculatedProjectPath = getRelativePath(projectParentAnchor, rootDirectory); // Relative to Project root
-            String rootPhysicalPath = rootDirectory.getAbsolutePath();
-
-            File rootEntity = filesCreatedOrUpdatedInFileService.get(rootPhysicalPath);
-            if (rootEntity == null) {
-                log.debug("physical path: {} creating root directory", rootDirectory.getAbsolutePath());
-                rootEntity = fileFactory.createWithoutInventoryItem(
-                        project,
-                        rootDirectory.getName(),
-                        rootPhysicalPath,
-                        calculatedProjectPath,
-                        calculatedArtifactPath,
-                        true,
-                        parentForRoot
-                );
-                project.addFile(rootEntity);
-                filesCreatedOrUpdatedInFileService.put(rootPhysicalPath, rootEntity);
-                addToBatch(rootEntity, batchBuffer, BATCHSIZE);
+            if (extractedEntries != null) {
+                scanEntries(scan, rootDirectory, rootId, extractedEntries);
+            } else {
+                scanDir(scan, rootDirectory, rootId);
             }
+            scan.flushRows();
 
-            scanDir(
-                    project,
-                    rootDirectory,
-                    rootEntity,
-                    batchBuffer,
-                    filesCreatedOrUpdatedInFileService,
-                    filesCreatedInSpdxService,
-                    BATCHSIZE,
-                    rootPath,
-                    projectParentAnchor
-            );
-
-            if (!batchBuffer.isEmpty()) {
-                fileRepository.saveAll(batchBuffer);
+            for (Map.Entry<File, Long> updated : scan.updatedFiles.entrySet()) {
+                Long parentId = updated.getValue();
+                updated.getKey().setParent(parentId == null ? null : fileRepository.getReferenceById(parentId));
+            }
+            if (!scan.updatedFiles.isEmpty()) {
+                fileRepository.saveAll(scan.updatedFiles.keySet());
                 fileRepository.flush();
-                log.debug("Saved {} File entities in batch", batchBuffer.size());
             }
             projectRepository.save(project);
-            log.info("Scan completed. Processed files in {} ms", System.currentTimeMillis() - start);
+            log.info("Scan completed. Inserted {} and updated {} files in {} ms", scan.inserted,
+                    scan.updatedFiles.size(), System.currentTimeMillis() - start);
 
         } catch (Exception e) {
             log.error("Could not scan directory {}", rootPath, e);
@@ -155,119 +195,158 @@ public class FileService {
     }
 
     /**
-     * Recursively scans a directory and creates/updates File entities.
+     * Walks a directory tree once and creates/updates File entities. Symbolic links and ignored names are
+     * skipped, ignored directories including their content.
      *
-     * @param project the Project entity
-     * @param directory the directory to scan
-     * @param parentEntity the parent File entity
-     * @param batchBuffer the batch buffer for saving entities
-     * @param filesInFileService files that already have physicalPath (created/updated in FileService)
-     * @param filesInSpdxService files that only have artifactPath (pre-created by SPDX service)
-     * @param batchSize the batch size for flushing
-     * @param relativeAnchor anchor for calculating artifactPath
-     * @param projectRootAnchor anchor for calculating projectPath
+     * @param scan the state of the scan
+     * @param rootDirectory the directory to scan
+     * @param rootId the id of the File entity of the root directory
      */
-    private void scanDir(Project project,
-                         java.io.File directory,
-                         File parentEntity,
-                         List<File> batchBuffer,
-                         Map<String, File> filesInFileService,
-                         Map<String, File> filesInSpdxService,
-                         int batchSize,
-                         Path relativeAnchor,
-                         Path projectRootAnchor) {
-
-        java.io.File[] files = directory.listFiles();
-        if (files == null) {
-            log.debug("No files found in directory {}", directory.getAbsolutePath());
-            return;
-        }
+    private void scanDir(Scan scan, Path rootDirectory, long rootId) throws IOException {
+        Deque<Long> parentIds = new ArrayDeque<>();
+        Files.walkFileTree(rootDirectory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(rootDirectory)) {
+                    parentIds.push(rootId);
+                    return FileVisitResult.CONTINUE;
+                }
+                if (shouldIgnore(dir)) {
+                    log.debug("Ignoring directory {}", dir);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                parentIds.push(registerEntry(scan, dir, true, parentIds.peek()));
+                return FileVisitResult.CONTINUE;
+            }
 
-        for (java.io.File file : files) {
-            if (shouldIgnore(file)) {
-                log.debug("Ignoring file {}", file.getAbsolutePath());
-                continue;
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isSymbolicLink() || shouldIgnore(file)) {
+                    log.debug("Ignoring file {}", file);
+                    return FileVisitResult.CONTINUE;
+                }
+                registerEntry(scan, file, attrs.isDirectory(), parentIds.peek());
+                return FileVisitResult.CONTINUE;
             }
 
-            String physicalPath = file.getAbsolutePath();
-            String artifactPath = getRelativePath(relativeAnchor, file);
-            String projectPath = getRelativePath(projectRootAnchor, file);
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                log.warn("Could not read {}: {}", file, exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
 
-            File fileEntity = filesInFileService.get(physicalPath);
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                parentIds.pop();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
 
-            // Scenario 1
-            if (fileEntity != null) {
-                log.trace("Reusing existing file entity: {}", physicalPath);
-                if (file.isDirectory()){
-                    scanDir(project, file, fileEntity, batchBuffer, filesInFileService, filesInSpdxService,
-                            batchSize, relativeAnchor, projectRootAnchor);
-                }
-                continue;
+    /**
+     * Creates/updates File entities for extracted entries. The entries are processed parents first; directories
+     * that are implied by the path of an entry but not listed themselves are added.
+     *
+     * @param scan the state of the scan
+     * @param rootDirectory the directory the entries are relative to
+     * @param rootId the id of the File entity of the root directory
+     * @param extractedEntries the entries reported by the extraction
+     */
+    private void scanEntries(Scan scan, Path rootDirectory, long rootId,
+                             List<ArchiveService.ExtractedEntry> extractedEntries) {
+
+        // sorted, so that every directory comes before its children
+        TreeMap<String, Boolean> entries = new TreeMap<>();
+        for (ArchiveService.ExtractedEntry entry : extractedEntries) {
+            entries.merge(entry.relativePath(), entry.directory(), Boolean::logicalOr);
+            for (int slash = entry.relativePath().indexOf('/'); slash > 0; slash = entry.relativePath().indexOf('/', slash + 1)) {
+                entries.put(entry.relativePath().substring(0, slash), true);
             }
+        }
 
-            // Scenario 2
-            fileEntity = filesInSpdxService.get(artifactPath);
-            if (fileEntity != null) {
-
-                log.trace("Found pre-created SPDX entity for artifact path: {} - updating with " +
-                                "physical path: {}",
-                        artifactPath, physicalPath);
-                fileEntity = fileFactory.updateFileEntity(
-                        fileEntity,
-                        project,
-                        file.getName(),
-                        physicalPath,
-                        projectPath,
-                        file.isDirectory(),
-                        parentEntity);
-
-                filesInSpdxService.remove(artifactPath);
-                filesInFileService.put(physicalPath, fileEntity);
-
-                addToBatch(fileEntity, batchBuffer, batchSize);
-
-                if (file.isDirectory()){
-                    scanDir(project, file, fileEntity, batchBuffer, filesInFileService, filesInSpdxService,
-                            batchSize, relativeAnchor, projectRootAnchor);
-                }
+        Map<String, Long> directoryIds = new HashMap<>();
+        directoryIds.put("", rootId);
+        for (Map.Entry<String, Boolean> entry : entries.entrySet()) {
+            String relativePath = entry.getKey();
+            int slash = relativePath.lastIndexOf('/');
+            // null if the parent is ignored
+            Long parentId = directoryIds.get(slash < 0 ? "" : relativePath.substring(0, slash));
+            if (parentId == null) continue;
+
+            Path file = rootDirectory.resolve(relativePath);
+            if (shouldIgnore(file)) {
+                log.debug("Ignoring file {}", file);
                 continue;
             }
+            long id = registerEntry(scan, file, entry.getValue(), parentId);
+            if (entry.getValue()) directoryIds.put(relativePath, id);
+        }
+    }
 
-            // Scenario 3
-            log.trace("Creating new File entity: {}", physicalPath);
-            fileEntity = fileFactory.createWithoutInventoryItem(
-                    project,
-                    file.getName(),
+    /**
+     * Returns the id of the File entity of a path on disk: the one created before, the one pre-created by the
+     * SPDX service updated with the physical path, or a new one.
+     */
+    private long registerEntry(Scan scan, Path file, boolean isDirectory, Long parentId) {
+        String physicalPath = file.toString();
+        String artifactPath = getRelativePath(scan.relativeAnchor, file);
+        String projectPath = getRelativePath(scan.projectRootAnchor, file);
+
+        Long existingId = scan.idsByPhysicalPath.get(physicalPath);
+
+        // Scenario 1
+        if (existingId != null) {
+            log.trace("Reusing existing file entity: {}", physicalPath);
+            return existingId;
+        }
+
+        // Scenario 2
+        File fileEntity = scan.filesInSpdxService.remove(artifactPath);
+        if (fileEntity != null) {
+
+            log.trace("Found pre-created SPDX entity for artifact path: {} - updating with " +
+                            "physical path: {}",
+                    artifactPath, physicalPath);
+            // the parent may be a row that is not inserted yet, it is set once all rows are inserted
+            fileFactory.updateFileEntity(
+                    fileEntity,
+                    scan.project,
+                    file.getFileName().toString(),
                     physicalPath,
                     projectPath,
-                    artifactPath,
-                    file.isDirectory(),
-                    parentEntity
-            );
-            project.addFile(fileEntity);
-            filesInFileService.put(physicalPath, fileEntity);
-            addToBatch(fileEntity, batchBuffer, batchSize);
-            if (file.isDirectory()){
-                scanDir(project, file, fileEntity, batchBuffer, filesInFileService, filesInSpdxService,
-                        batchSize, relativeAnchor, projectRootAnchor);
-            }
+                    isDirectory,
+                    null);
+            scan.updatedFiles.put(fileEntity, parentId);
+            scan.idsByPhysicalPath.put(physicalPath, fileEntity.getId());
+            return fileEntity.getId();
         }
+
+        // Scenario 3
+        log.trace("Creating new File entity: {}", physicalPath);
+        return createRow(scan, file, physicalPath, projectPath, artifactPath, isDirectory, parentId);
+    }
+
+    private long createRow(Scan scan, Path file, String physicalPath, String projectPath, String artifactPath,
+                           boolean isDirectory, Long parentId) {
+        long id = scan.nextId();
+        scan.add(fileFactory.createRow(id, scan.project, file.getFileName().toString(), physicalPath, projectPath,
+                artifactPath, isDirectory, parentId));
+        scan.idsByPhysicalPath.put(physicalPath, id);
+        return id;
     }
 
 
     /**
      * Ensures that all parent directories in the hierarchy exist as File entities.
      * Works recursively from the given directory up to the project root.
+     *
+     * @return the id of the File entity of the directory
      */
-    private File ensureParentHierarchy(Project project,
-                                       java.io.File directory,
-                                       Map<String, File> filesInFileService,
-                                       List<File> batchBuffer,
-                                       String projectPath) {
+    private Long ensureParentHierarchy(Scan scan, Path directory, String projectPath) {
         if (directory == null) {
             return null;
         }
-        String currentPhysicalPath = directory.getAbsolutePath();
+        String currentPhysicalPath = directory.toString();
         log.trace("Ensuring parent hierarchy for path: {}", currentPhysicalPath);
 
         if (!currentPhysicalPath.startsWith(projectPath)) {
@@ -279,65 +358,33 @@ public class FileService {
             return null;
         }
 
-        File existingFile = filesInFileService.get(currentPhysicalPath);
-        if (existingFile != null) {
+        Long existingId = scan.idsByPhysicalPath.get(currentPhysicalPath);
+        if (existingId != null) {
             log.trace("Parent directory already exists: {}", currentPhysicalPath);
-            return existingFile;
+            return existingId;
         }
 
         Path projectRootPathObj = Paths.get(projectPath);
-        Path projectParentAnchor = projectRootPathObj.getParent();
-        if (projectParentAnchor == null) projectParentAnchor = projectRootPathObj;
 
         String artifactPath = getRelativePath(projectRootPathObj, directory);
-        String relativeProjectPath = getRelativePath(projectParentAnchor, directory);
+        String relativeProjectPath = getRelativePath(scan.projectRootAnchor, directory);
 
-        File parentFile = ensureParentHierarchy(
-                project,
-                directory.getParentFile(),
-                filesInFileService,
-                batchBuffer,
-                projectPath);
+        Long parentId = ensureParentHierarchy(scan, directory.getParent(), projectPath);
 
         log.debug("Creating parent directory entity: {} (artifactPath: {})",
-                directory.getName(), artifactPath);
-        File newEntity = fileFactory.createWithoutInventoryItem(
-                project,
-                directory.getName(),
-                currentPhysicalPath,
-                relativeProjectPath,
-                artifactPath,
-                true,
-                parentFile
-        );
-        project.addFile(newEntity);
-        filesInFileService.put(currentPhysicalPath, newEntity);
-        addToBatch(newEntity, batchBuffer, 500);
-
-        return newEntity;
-    }
-
-
-
-    private void addToBatch(File entity, List<File> batch, int batchSize) {
-        batch.add(entity);
-
-        if (batch.size() >= batchSize) {
-            fileRepository.saveAll(batch);
-            fileRepository.flush();
-            batch.clear();
-        }
+                directory.getFileName(), artifactPath);
+        return createRow(scan, directory, currentPhysicalPath, relativeProjectPath, artifactPath, true, parentId);
     }
 
-    private boolean shouldIgnore(java.io.File file) {
-        return Files.isSymbolicLink(file.toPath()) || ignoredNames.contains(file.getName());
+    private boolean shouldIgnore(Path file) {
+        return ignoredNames.contains(file.getFileName().toString());
     }
 
-    private String getRelativePath(Path anchor, java.io.File file) {
+    private String getRelativePath(Path anchor, Path file) {
         try {
-            return FilenameUtils.separatorsToUnix(anchor.relativize(file.toPath()).toString());
+            return FilenameUtils.separatorsToUnix(anchor.relativize(file).toString());
         } catch (IllegalArgumentException e) {
-            return file.getName();
+            return file.getFileName().toString();
         }
     }
-}
\ No newline at end of file
+}
@@ -43,7 +43,7 @@ import java.nio.file.Path;
  * </ul>
  */
 @Component
-@Order(2)
+@Order(5)
 public class DirectHttpStrategy implements DownloadStrategy {
 
     private final Logger log = LogManager.getLogger(this.getClass());
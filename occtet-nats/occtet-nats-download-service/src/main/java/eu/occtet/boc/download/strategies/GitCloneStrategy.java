@@ -19,5 +19,240 @@
 
 package eu.occtet.boc.download.strategies;
 
-public class GitCloneStrategy {
+import com.github.packageurl.PackageURL;
+import eu.occtet.boc.download.utils.DownloadUtils;
+import eu.occtet.boc.download.utils.VersionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Strategy for fetching a single revision of a git repository with the git command line client.
+ * <p>
+ * Only the commit of the requested version is fetched ({@code --depth 1}), without history or other branches. The
+ * version is resolved against the tags and branches of the remote like {@link GitHubApiStrategy} does. The result
+ * is a checked-out directory without the {@code .git} folder, so it needs no unpacking.
+ * <p>
+ * This strategy handles:
+ * <ul>
+ * <li>URLs ending with '.git' and repository root URLs ({@code /owner/repo}) of the well known git hosts</li>
+ * <li>PURLs with a 'vcs_url' qualifier and 'github', 'gitlab' and 'bitbucket' PURLs</li>
+ * </ul>
+ * A mirror base URL can be configured, requests for {@code https://host/path} then go to
+ * {@code <mirror>/host/path}.
+ * <p>
+ * The repository URL usually comes from an imported SBOM, so only http(s) remotes are accepted and git is run with
+ * every other transport disabled. This keeps values like {@code --upload-pack=...}, {@code file:} or {@code ext::}
+ * from turning into git options or local commands.
+ */
+@Component
+@Order(4)
+public class GitCloneStrategy implements DownloadStrategy {
+
+    private final Logger log = LogManager.getLogger(this.getClass());
+    private final DownloadUtils downloadUtils;
+    private final VersionUtils versionUtils;
+    private final String mirrorUrl;
+    private final Duration timeout;
+
+    private static final String GIT_SUFFIX = ".git";
+    private static final String VCS_URL_QUALIFIER = "vcs_url";
+    private static final Set<String> GIT_HOSTS = Set.of("github.com", "gitlab.com", "bitbucket.org");
+    private static final Pattern COMMIT_HASH = Pattern.compile("[0-9a-f]{40}");
+    // archive and release links on the git hosts have a longer path and are left to the direct download
+    private static final Pattern REPOSITORY_ROOT = Pattern.compile("/[^/]+/[^/]+/?");
+    private static final String TAGS_PREFIX = "refs/tags/";
+    private static final String HEADS_PREFIX = "refs/heads/";
+    private static final String HEAD = "HEAD";
+    private static final Set<String> REMOTE_SCHEMES = Set.of("http", "https");
+    // git may only talk http(s), whatever the remote or a redirect asks for
+    private static final List<String> GIT_TRANSPORT_OPTIONS = List.of(
+            "-c", "protocol.allow=never", "-c", "protocol.https.allow=always", "-c", "protocol.http.allow=always");
+
+    public GitCloneStrategy(DownloadUtils downloadUtils, VersionUtils versionUtils,
+                            @Value("${download.git.mirror-url:}") String mirrorUrl,
+                            @Value("${download.git.timeout:PT10M}") Duration timeout) {
+        this.downloadUtils = downloadUtils;
+        this.versionUtils = versionUtils;
+        this.mirrorUrl = mirrorUrl.endsWith("/") ? mirrorUrl.substring(0, mirrorUrl.length() - 1) : mirrorUrl;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public boolean canHandle(URL durl, String version) {
+        if (durl == null) return false;
+        String protocol = durl.getProtocol().toLowerCase();
+        boolean canHandle = (protocol.equals("http") || protocol.equals("https"))
+                && (durl.getPath().endsWith(GIT_SUFFIX) || (GIT_HOSTS.contains(durl.getHost().toLowerCase())
+                && REPOSITORY_ROOT.matcher(durl.getPath()).matches()));
+        log.info("Checking if {} can handle URL: {}. Result: {}", this.getClass().getSimpleName(), durl, canHandle);
+        return canHandle;
+    }
+
+    @Override
+    public boolean canHandle(PackageURL purl) {
+        if (purl == null) return false;
+        String vcsUrl = purl.getQualifiers() == null ? null : purl.getQualifiers().get(VCS_URL_QUALIFIER);
+        boolean canHandle = (vcsUrl != null && isHttpRemote(downloadUtils.normalizeUrl(vcsUrl)))
+                || (GIT_HOSTS.stream().anyMatch(host -> host.startsWith(purl.getType().toLowerCase() + "."))
+                && purl.getNamespace() != null);
+        log.debug("Checking if {} can handle PURL: {}. Result: {}", this.getClass().getSimpleName(), purl, canHandle);
+        return canHandle;
+    }
+
+    @Override
+    public Path download(URL durl, String version, Path targetDirectory) throws IOException {
+        log.info("Executing {}.download for URL: {} @ {}", this.getClass().getSimpleName(), durl, version);
+        return fetch(durl.toString(), version, targetDirectory);
+    }
+
+    @Override
+    public Path download(PackageURL purl, Path targetDirectory) throws IOException {
+        log.info("Executing {}.download for PURL: {}", this.getClass().getSimpleName(), purl);
+        String vcsUrl = purl.getQualifiers() == null ? null : purl.getQualifiers().get(VCS_URL_QUALIFIER);
+        if (vcsUrl != null) {
+            // the revision may be appended to the vcs_url, e.g. git+https://host/repo.git@v1.0
+            String revision = purl.getVersion();
+            int at = vcsUrl.lastIndexOf('@');
+            if (at > vcsUrl.indexOf("://") + 3 && vcsUrl.indexOf('/', at) < 0) {
+                revision = vcsUrl.substring(at + 1);
+                vcsUrl = vcsUrl.substring(0, at);
+            }
+            return fetch(vcsUrl, revision, targetDirectory);
+        }
+        String host = GIT_HOSTS.stream().filter(h -> h.startsWith(purl.getType().toLowerCase() + "."))
+                .findFirst().orElseThrow();
+        return fetch("https://" + host + "/" + purl.getNamespace() + "/" + purl.getName() + GIT_SUFFIX,
+                purl.getVersion(), targetDirectory);
+    }
+
+    private Path fetch(String repositoryUrl, String version, Path targetDirectory) throws IOException {
+        String remote = remoteUrl(repositoryUrl);
+        if (Files.isDirectory(targetDirectory)) {
+            try (var entries = Files.list(targetDirectory)) {
+                if (entries.findAny().isPresent())
+                    throw new IOException("Target directory is not empty: " + targetDirectory);
+            }
+        }
+        String ref = resolveRef(remote, version);
+        log.debug("Fetching {} of {} into {}", ref, remote, targetDirectory);
+
+        Files.createDirectories(targetDirectory);
+        try {
+            git(targetDirectory, "init", "-q");
+            git(targetDirectory, "fetch", "-q", "--depth", "1", "--no-tags", "--", remote, ref);
+            git(targetDirectory, "checkout", "-q", "--detach", "FETCH_HEAD");
+            FileUtils.deleteDirectory(targetDirectory.resolve(GIT_SUFFIX).toFile());
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(targetDirectory.toFile());
+            throw e;
+        }
+        log.info("Fetched {} of {}", ref, remote);
+        return targetDirectory;
+    }
+
+    /**
+     * Applies the mirror to the normalized repository URL.
+     *
+     * @throws IOException if the repository or the mirror is not an http(s) URL
+     */
+    String remoteUrl(String repositoryUrl) throws IOException {
+        String url = downloadUtils.normalizeUrl(repositoryUrl);
+        if (!isHttpRemote(url)) throw new IOException("Unsupported git remote, only http(s) is allowed: " + url);
+        if (mirrorUrl.isBlank()) return url;
+        String mirrored = mirrorUrl + "/" + url.substring(url.indexOf("://") + 3);
+        if (!isHttpRemote(mirrored)) throw new IOException("Unsupported git mirror, only http(s) is allowed: " + mirrorUrl);
+        return mirrored;
+    }
+
+    private static boolean isHttpRemote(String url) {
+        if (url == null) return false;
+        try {
+            URI uri = new URI(url);
+            return uri.getScheme() != null && REMOTE_SCHEMES.contains(uri.getScheme().toLowerCase())
+                    && uri.getHost() != null;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the version to a tag or branch of the remote. Commit hashes are fetched as they are, and without a
+     * version the default branch is fetched.
+     */
+    private String resolveRef(String remote, String version) throws IOException {
+        if (version == null || version.isBlank()) return HEAD;
+        if (COMMIT_HASH.matcher(version).matches()) return version;
+
+        List<String> tags = new ArrayList<>();
+        List<String> branches = new ArrayList<>();
+        for (String line : git(null, "ls-remote", "--tags", "--heads", "--", remote).split("\n")) {
+            int tab = line.indexOf('\t');
+            if (tab < 0) continue;
+            String ref = line.substring(tab + 1);
+            if (ref.endsWith("^{}")) continue;
+            if (ref.startsWith(TAGS_PREFIX)) tags.add(ref);
+            else if (ref.startsWith(HEADS_PREFIX)) branches.add(ref);
+        }
+        for (List<String> refs : List.of(tags, branches)) {
+            for (String ref : refs) {
+                String name = ref.substring(ref.indexOf('/', 5) + 1);
+                if (versionUtils.isMatch(name, version)) {
+                    log.info("Resolved version '{}' to git ref '{}'", version, ref);
+                    return ref;
+                }
+            }
+        }
+        throw new IOException("Could not find git tag or branch for version: " + version);
+    }
+
+    private String git(Path workingDirectory, String... args) throws IOException {
+        List<String> command = new ArrayList<>(args.length + GIT_TRANSPORT_OPTIONS.size() + 1);
+        command.add("git");
+        command.addAll(GIT_TRANSPORT_OPTIONS);
+        command.addAll(List.of(args));
+        // the output goes to a file, so a hanging process cannot block the reader past the timeout
+        Path output = Files.createTempFile("occtet_git_", ".log");
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(output.toFile());
+        if (workingDirectory != null) builder.directory(workingDirectory.toFile());
+        // never wait for credentials of a private repository
+        builder.environment().put("GIT_TERMINAL_PROMPT", "0");
+
+        Process process = null;
+        try {
+            process = builder.start();
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("git " + args[0] + " timed out after " + timeout);
+            }
+            String text = Files.readString(output, StandardCharsets.UTF_8);
+            if (process.exitValue() != 0) {
+                throw new IOException("git " + args[0] + " failed with exit code " + process.exitValue() + ": " + text.trim());
+            }
+            return text;
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git " + args[0], e);
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
 }
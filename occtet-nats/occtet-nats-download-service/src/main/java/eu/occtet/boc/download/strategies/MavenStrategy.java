@@ -19,5 +19,102 @@
 
 package eu.occtet.boc.download.strategies;
 
-public class MavenStrategy {
+import com.github.packageurl.PackageURL;
+import eu.occtet.boc.download.utils.DownloadUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strategy for downloading artifacts from a repository with the Maven Central layout.
+ * <p>
+ * The sources jar of the artifact is preferred, the binary artifact is the fallback. The repository URL is
+ * configurable, so a local mirror (e.g. a Nexus proxy of Maven Central) can serve all requests.
+ * @see <a href="https://maven.apache.org/repository/layout.html">Maven Repository Layout</a>
+ */
+@Component
+@Order(2)
+public class MavenStrategy implements DownloadStrategy {
+
+    private final Logger log = LogManager.getLogger(this.getClass());
+    private final DownloadUtils downloadUtils;
+    private final String repositoryUrl;
+
+    private static final String PURL_TYPE_MAVEN = "maven";
+    private static final String CLASSIFIER_QUALIFIER = "classifier";
+    private static final String TYPE_QUALIFIER = "type";
+    private static final String SOURCES_CLASSIFIER = "sources";
+    private static final String DEFAULT_TYPE = "jar";
+
+    public MavenStrategy(DownloadUtils downloadUtils,
+                         @Value("${download.maven.repository-url:https://repo1.maven.org/maven2}") String repositoryUrl) {
+        this.downloadUtils = downloadUtils;
+        this.repositoryUrl = stripTrailingSlash(repositoryUrl);
+    }
+
+    /**
+     * Determines if the provided PackageURL represents a Maven artifact with group, name and version.
+     *
+     * @param purl The PackageURL to check.
+     * @return {@code true} if the PURL type is 'maven' and the coordinates are complete, otherwise {@code false}.
+     */
+    @Override
+    public boolean canHandle(PackageURL purl) {
+        if (purl == null) return false;
+        boolean canHandle = PURL_TYPE_MAVEN.equalsIgnoreCase(purl.getType()) && purl.getNamespace() != null
+                && purl.getVersion() != null;
+        log.debug("Checking if {} can handle PURL: {}. Result: {}", this.getClass().getSimpleName(), purl, canHandle);
+        return canHandle;
+    }
+
+    @Override
+    public Path download(PackageURL purl, Path targetDirectory) throws IOException {
+        log.info("Executing {}.download for PURL: {}", this.getClass().getSimpleName(), purl);
+        IOException lastError = null;
+        for (String url : artifactUrls(purl)) {
+            try {
+                return downloadUtils.downloadFile(url, "." + DEFAULT_TYPE);
+            } catch (IOException e) {
+                log.debug("Artifact {} not available: {}", url, e.getMessage());
+                lastError = e;
+            }
+        }
+        throw new IOException("Could not download Maven artifact " + purl, lastError);
+    }
+
+    /**
+     * Builds the candidate URLs of the artifact, the sources jar first.
+     */
+    List<String> artifactUrls(PackageURL purl) {
+        String groupPath = purl.getNamespace().replace('.', '/');
+        String name = purl.getName();
+        String version = purl.getVersion();
+        String base = repositoryUrl + "/" + groupPath + "/" + name + "/" + version + "/" + name + "-" + version;
+
+        String classifier = null;
+        String type = DEFAULT_TYPE;
+        if (purl.getQualifiers() != null) {
+            classifier = purl.getQualifiers().get(CLASSIFIER_QUALIFIER);
+            type = purl.getQualifiers().getOrDefault(TYPE_QUALIFIER, DEFAULT_TYPE);
+        }
+
+        List<String> urls = new ArrayList<>();
+        urls.add(base + "-" + SOURCES_CLASSIFIER + "." + DEFAULT_TYPE);
+        // only archives can be unpacked, a pom or aar is not worth downloading
+        if (DEFAULT_TYPE.equals(type) && !SOURCES_CLASSIFIER.equals(classifier)) {
+            urls.add(base + (classifier == null ? "" : "-" + classifier) + "." + DEFAULT_TYPE);
+        }
+        return urls;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
 }
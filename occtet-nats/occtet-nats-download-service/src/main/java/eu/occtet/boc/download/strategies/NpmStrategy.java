@@ -19,5 +19,66 @@
 
 package eu.occtet.boc.download.strategies;
 
-public class NpmStrategy {
+import com.github.packageurl.PackageURL;
+import eu.occtet.boc.download.utils.DownloadUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Strategy for downloading package tarballs from an npm registry.
+ * <p>
+ * The tarball URL is derived from the registry layout ({@code <registry>/<name>/-/<name>-<version>.tgz}), which
+ * saves the metadata request per package. The registry URL is configurable, so a local mirror (e.g. Verdaccio or a
+ * Nexus npm proxy) can serve all requests.
+ */
+@Component
+@Order(3)
+public class NpmStrategy implements DownloadStrategy {
+
+    private final Logger log = LogManager.getLogger(this.getClass());
+    private final DownloadUtils downloadUtils;
+    private final String registryUrl;
+
+    private static final String PURL_TYPE_NPM = "npm";
+    private static final String TARBALL_EXTENSION = ".tar.gz";
+
+    public NpmStrategy(DownloadUtils downloadUtils,
+                       @Value("${download.npm.registry-url:https://registry.npmjs.org}") String registryUrl) {
+        this.downloadUtils = downloadUtils;
+        this.registryUrl = registryUrl.endsWith("/") ? registryUrl.substring(0, registryUrl.length() - 1) : registryUrl;
+    }
+
+    /**
+     * Determines if the provided PackageURL represents an npm package with a version.
+     *
+     * @param purl The PackageURL to check.
+     * @return {@code true} if the PURL type is 'npm' and it has a version, otherwise {@code false}.
+     */
+    @Override
+    public boolean canHandle(PackageURL purl) {
+        if (purl == null) return false;
+        boolean canHandle = PURL_TYPE_NPM.equalsIgnoreCase(purl.getType()) && purl.getVersion() != null;
+        log.debug("Checking if {} can handle PURL: {}. Result: {}", this.getClass().getSimpleName(), purl, canHandle);
+        return canHandle;
+    }
+
+    @Override
+    public Path download(PackageURL purl, Path targetDirectory) throws IOException {
+        log.info("Executing {}.download for PURL: {}", this.getClass().getSimpleName(), purl);
+        return downloadUtils.downloadFile(tarballUrl(purl), TARBALL_EXTENSION);
+    }
+
+    /**
+     * Builds the tarball URL, scoped packages keep their scope in the path but not in the file name.
+     */
+    String tarballUrl(PackageURL purl) {
+        String packageName = purl.getNamespace() == null ? purl.getName() : purl.getNamespace() + "/" + purl.getName();
+        return registryUrl + "/" + packageName + "/-/" + purl.getName() + "-" + purl.getVersion() + ".tgz";
+    }
 }
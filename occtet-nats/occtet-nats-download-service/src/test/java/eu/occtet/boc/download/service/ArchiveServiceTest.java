@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.service;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ArchiveService archiveService = new ArchiveService();
+
+    private Path zip(String name, Map<String, String> entries) throws IOException {
+        Path archive = tempDir.resolve(name);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(e.getKey()));
+                out.write(e.getValue().getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    private Path tarGz(String name, Map<String, String> entries) throws IOException {
+        Path archive = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(archive);
+             TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(out))) {
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                byte[] content = e.getValue().getBytes(StandardCharsets.UTF_8);
+                TarArchiveEntry entry = new TarArchiveEntry(e.getKey());
+                entry.setSize(content.length);
+                tar.putArchiveEntry(entry);
+                tar.write(content);
+                tar.closeArchiveEntry();
+            }
+        }
+        return archive;
+    }
+
+    @Test
+    void zipWrapperIsStrippedAndEntriesAreReported() throws IOException {
+        Path archive = zip("lib.zip", Map.of(
+                "lib-1.0/README.md", "readme",
+                "lib-1.0/src/Main.java", "class Main {}"));
+        Path target = tempDir.resolve("project").resolve("lib").resolve("1.0");
+
+        List<ArchiveService.ExtractedEntry> entries = archiveService.unpack(archive, target);
+
+        assertEquals("class Main {}", Files.readString(target.resolve("src/Main.java")));
+        assertEquals("readme", Files.readString(target.resolve("README.md")));
+        assertTrue(entries.contains(new ArchiveService.ExtractedEntry("src/Main.java", 13, false)));
+        assertTrue(entries.contains(new ArchiveService.ExtractedEntry("README.md", 6, false)));
+    }
+
+    @Test
+    void tarGzWithoutWrapperIsMovedIntoTarget() throws IOException {
+        Path archive = tarGz("lib.tar.gz", Map.of(
+                "package.json", "{}",
+                "lib/index.js", "module.exports = 1"));
+        Path target = tempDir.resolve("project").resolve("lib").resolve("1.0");
+
+        List<ArchiveService.ExtractedEntry> entries = archiveService.unpack(archive, target);
+
+        assertEquals("{}", Files.readString(target.resolve("package.json")));
+        assertEquals("module.exports = 1", Files.readString(target.resolve("lib/index.js")));
+        assertEquals(2, entries.size());
+        try (var siblings = Files.list(target.getParent())) {
+            assertEquals(List.of(target), siblings.toList());
+        }
+    }
+
+    @Test
+    void entryOutsideOfTargetIsRejectedBeforeExtraction() throws IOException {
+        Path archive = zip("evil.zip", Map.of(
+                "a.txt", "a",
+                "../evil.txt", "evil"));
+        Path target = tempDir.resolve("target");
+
+        assertThrows(IOException.class, () -> archiveService.unpack(archive, target));
+        assertFalse(Files.exists(target.resolve("a.txt")));
+        assertFalse(Files.exists(tempDir.resolve("evil.txt")));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path extract(String name, String content) throws Exception {
+        Path dir = Files.createDirectories(tempDir.resolve("project").resolve(name).resolve("src"));
+        Files.writeString(dir.resolve("index.js"), content);
+        return dir.getParent();
+    }
+
+    private Path archive(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name + ".tgz"), content);
+    }
+
+    @Test
+    void storedComponentIsLinkedIntoOtherProjects() throws Exception {
+        ComponentCache cache = new ComponentCache();
+        Path extracted = extract("lodash", "module.exports = {}");
+        cache.store(tempDir, "purl:pkg:npm/lodash@4.17.21", archive("lodash", "archive"), extracted);
+
+        Optional<Path> tree = cache.lookup(tempDir, "purl:pkg:npm/lodash@4.17.21");
+        assertTrue(tree.isPresent());
+
+        Path otherProject = tempDir.resolve("other").resolve("lodash");
+        cache.materialize(tree.get(), otherProject);
+
+        Path linked = otherProject.resolve("src").resolve("index.js");
+        assertEquals("module.exports = {}", Files.readString(linked));
+        assertTrue(Files.isSameFile(linked, extracted.resolve("src").resolve("index.js")));
+        assertTrue(cache.lookup(tempDir, "purl:pkg:npm/lodash@4.17.22").isEmpty());
+    }
+
+    @Test
+    void leastRecentlyUsedTreeIsEvicted() throws Exception {
+        ComponentCache cache = new ComponentCache();
+        ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(25));
+
+        cache.store(tempDir, "purl:a", archive("a", "a"), extract("a", "0123456789abcdef"));
+        Thread.sleep(20);
+        cache.store(tempDir, "purl:b", archive("b", "b"), extract("b", "0123456789abcdef"));
+
+        assertTrue(cache.lookup(tempDir, "purl:a").isEmpty());
+        assertTrue(cache.lookup(tempDir, "purl:b").isPresent());
+    }
+}
@@ -44,6 +44,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.net.URL;
@@ -51,7 +52,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -68,6 +73,7 @@ class DownloadManagerTest {
     @Mock private ArchiveService archiveService;
     @Mock private FileService fileService;
     @Mock private StoragePathResolver storagePathResolver;
+    @Mock private ComponentCache componentCache;
 
     @Mock private DownloadStrategy strategyA;
     @Mock private DownloadStrategy strategyB;
@@ -136,7 +142,7 @@ class DownloadManagerTest {
         assertTrue(usedPath.toString().contains("clean-lib-name"));
         assertFalse(usedPath.toString().contains("User-Defined-Name"));
 
-        verify(fileService).createEntitiesFromPath(eq(project), any(Path.class), anyString());
+        verify(fileService).createEntitiesFromPath(eq(project), any(Path.class), anyString(), anyList());
 
         assertFalse(Files.exists(dummyDownload));
     }
@@ -200,4 +206,56 @@ class DownloadManagerTest {
         assertFalse(result);
         verifyNoInteractions(downloadStrategyFactory);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testProcess_CachedComponent_SkipsDownload() throws Exception {
+        Path cachedTree = Files.createDirectories(tempDir.resolve("cached"));
+        when(componentCache.lookup(eq(tempDir), eq(ComponentCache.keyOf(softwareComponent))))
+                .thenReturn(Optional.of(cachedTree));
+
+        boolean result = downloadManager.process(workData);
+
+        assertTrue(result);
+        verify(componentCache).materialize(eq(cachedTree), any(Path.class));
+        verify(fileService).createEntitiesFromPath(eq(project), any(Path.class), anyString());
+        verifyNoInteractions(downloadStrategyFactory, archiveService);
+    }
+
+    @Test
+    void testProcess_DownloadedComponent_IsStoredInCache() throws Exception {
+        Path dummyDownload = Files.createFile(tempDir.resolve("stored.zip"));
+        when(downloadStrategyFactory.findForUrl(any(URL.class), anyString())).thenReturn(List.of(strategyA));
+        when(strategyA.download(any(URL.class), eq("1.0.0"), any(Path.class))).thenReturn(dummyDownload);
+
+        assertTrue(downloadManager.process(workData));
+
+        verify(componentCache).store(eq(tempDir), eq("purl:pkg:maven/org.test/clean-lib-name@1.0.0"), eq(dummyDownload), any(Path.class));
+    }
+
+    @Test
+    void testDownloadComponent_RegistersFilesOfOneProjectOneAfterTheOther() throws Exception {
+        Path cachedTree = Files.createDirectories(tempDir.resolve("cached"));
+        when(componentCache.lookup(any(Path.class), any())).thenReturn(Optional.of(cachedTree));
+        AtomicInteger registering = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (registering.incrementAndGet() > 1) overlaps.incrementAndGet();
+            Thread.sleep(5);
+            registering.decrementAndGet();
+            return null;
+        }).when(fileService).createEntitiesFromPath(eq(project), any(Path.class), anyString());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                DownloadManager.ComponentDownload download = new DownloadManager.ComponentDownload(project, tempDir,
+                        softwareComponent, false, List.of(inventoryItem.getId()));
+                executor.execute(() -> downloadManager.downloadComponent(download));
+            }
+        }
+
+        verify(fileService, times(16)).createEntitiesFromPath(eq(project), any(Path.class), anyString());
+        assertEquals(0, overlaps.get());
+        // the lock of the project is dropped once no download uses it
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(downloadManager, "projectLocks")).isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.service;
+
+import eu.occtet.boc.dao.InventoryItemRepository;
+import eu.occtet.boc.dao.ProjectRepository;
+import eu.occtet.boc.download.service.DownloadManager.ComponentDownload;
+import eu.occtet.boc.download.service.DownloadManager.DownloadOutcome;
+import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.Project;
+import eu.occtet.boc.entity.SoftwareComponent;
+import eu.occtet.boc.model.DownloadPlanWorkData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DownloadPlannerTest {
+
+    @Mock private DownloadManager downloadManager;
+    @Mock private ProjectRepository projectRepository;
+    @Mock private InventoryItemRepository inventoryItemRepository;
+
+    @InjectMocks
+    private DownloadPlanner downloadPlanner;
+
+    @TempDir
+    Path tempDir;
+
+    private Project project;
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(downloadPlanner, "retryBackoff", Duration.ZERO);
+        project = new Project();
+        project.setId(101L);
+        project.setProjectName("TestProject");
+    }
+
+    @Test
+    void testPlan_DeduplicatesSharedComponentsAndGroupsByHost() {
+        SoftwareComponent shared = component(1L, "pkg:maven/org.test/lib@1.0.0", "https://repo1.maven.org/lib.jar");
+        SoftwareComponent other = component(2L, "pkg:npm/left-pad@1.3.0", null);
+
+        List<DownloadPlanner.PlannedDownload> plan = downloadPlanner.plan(project, tempDir,
+                List.of(item(500L, shared), item(501L, shared), item(502L, other)), Set.of(501L));
+
+        assertEquals(2, plan.size());
+        DownloadPlanner.PlannedDownload first = plan.getFirst();
+        assertEquals(List.of(500L, 501L), first.download().inventoryItemIds());
+        assertTrue(first.download().mainPackage());
+        assertEquals("repo1.maven.org", first.host());
+        assertFalse(plan.get(1).download().mainPackage());
+        assertEquals("pkg:npm", plan.get(1).host());
+    }
+
+    @Test
+    void testProcess_RetriesWithinHostBudgetAndReportsAggregatedProgress() {
+        ReflectionTestUtils.setField(downloadPlanner, "retryBudget", 1);
+        SoftwareComponent flaky = component(1L, "pkg:npm/flaky@1.0.0", null);
+        SoftwareComponent missing = component(2L, "pkg:npm/missing@1.0.0", null);
+        List<InventoryItem> items = List.of(item(500L, flaky), item(501L, missing));
+
+        when(downloadManager.resolveBasePath()).thenReturn(tempDir);
+        when(projectRepository.findById(101L)).thenReturn(Optional.of(project));
+        when(inventoryItemRepository.findAllById(List.of(500L, 501L))).thenReturn(items);
+        when(downloadManager.downloadComponent(any(ComponentDownload.class))).thenAnswer(invocation -> {
+            ComponentDownload download = invocation.getArgument(0);
+            return download.softwareComponent() == flaky ? DownloadOutcome.COMPLETED : DownloadOutcome.ALL_STRATEGIES_FAILED;
+        });
+        List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+
+        boolean result = downloadPlanner.process(new DownloadPlanWorkData(101L, List.of(500L, 501L), List.of()),
+                (percent, details) -> progress.add(percent));
+
+        assertTrue(result);
+        // the missing component gets one retry, the budget of the host is used up afterwards
+        verify(downloadManager, times(3)).downloadComponent(any(ComponentDownload.class));
+        ArgumentCaptor<ComponentDownload> flagged = ArgumentCaptor.forClass(ComponentDownload.class);
+        verify(downloadManager).flagForAuditor(flagged.capture());
+        assertEquals(List.of(501L), flagged.getValue().inventoryItemIds());
+        assertTrue(progress.contains(100));
+        assertTrue(progress.size() <= 2);
+    }
+
+    private SoftwareComponent component(Long id, String purl, String url) {
+        SoftwareComponent softwareComponent = new SoftwareComponent();
+        softwareComponent.setId(id);
+        softwareComponent.setVersion("1.0.0");
+        softwareComponent.setPurl(purl);
+        softwareComponent.setDetailsUrl(url);
+        return softwareComponent;
+    }
+
+    private InventoryItem item(Long id, SoftwareComponent softwareComponent) {
+        InventoryItem inventoryItem = new InventoryItem();
+        inventoryItem.setId(id);
+        inventoryItem.setSoftwareComponent(softwareComponent);
+        return inventoryItem;
+    }
+}
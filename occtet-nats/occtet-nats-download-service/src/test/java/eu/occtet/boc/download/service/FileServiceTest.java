@@ -21,6 +21,7 @@ package eu.occtet.boc.download.service;
 
 
 import eu.occtet.boc.config.TestEclipseLinkJpaConfiguration;
+import eu.occtet.boc.dao.FileBulkDao;
 import eu.occtet.boc.dao.FileRepository;
 import eu.occtet.boc.dao.OrganizationRepository;
 import eu.occtet.boc.download.factory.FileFactory;
@@ -39,6 +40,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -49,7 +51,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@ContextConfiguration(classes = {FileService.class, FileFactory.class, FileRepository.class, TestEclipseLinkJpaConfiguration.class})
+@ContextConfiguration(classes = {FileService.class, FileFactory.class, FileRepository.class, FileBulkDao.class, TestEclipseLinkJpaConfiguration.class})
 @EnableJpaRepositories(basePackages = "eu.occtet.boc.dao")
 @EntityScan(basePackages = "eu.occtet.boc.entity")
 @EnableJpaAuditing
@@ -169,4 +171,72 @@ class FileServiceTest {
         assertNotNull(updatedFile.getPhysicalPath());
         assertEquals(projectRoot.resolve("LICENSE").toAbsolutePath().toString(), updatedFile.getPhysicalPath());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testScanFromExtractedEntries(@TempDir Path tempDir) throws IOException {
+        // Structure as reported by the extraction, the src directory has no entry of its own:
+        // tempDir/projectRoot
+        //    |-- src/Main.java
+        //    |-- node_modules/dep/index.js  <-- ignored
+        //    |-- README.md
+
+        Path projectRoot = Files.createDirectories(tempDir.resolve("projectRoot"));
+        String projectPathString = projectRoot.toAbsolutePath().toString();
+
+        ReflectionTestUtils.setField(fileService, "ignoredNames", List.of("node_modules"));
+        try {
+            fileService.createEntitiesFromPath(testProject, projectRoot, projectPathString, List.of(
+                    new ArchiveService.ExtractedEntry("src/Main.java", 10, false),
+                    new ArchiveService.ExtractedEntry("node_modules/dep/index.js", 10, false),
+                    new ArchiveService.ExtractedEntry("README.md", 5, false)));
+        } finally {
+            ReflectionTestUtils.setField(fileService, "ignoredNames", List.of());
+        }
+
+        List<File> files = fileRepository.findAll();
+        assertEquals(4, files.size());
+
+        File mainJava = files.stream().filter(f -> f.getFileName().equals("Main.java")).findFirst().orElseThrow();
+        assertEquals("src/Main.java", mainJava.getArtifactPath());
+        assertEquals("src", mainJava.getParent().getFileName());
+        assertTrue(mainJava.getParent().getIsDirectory());
+    }
+
+    @Test
+    void testScanLargeTreeInBatches(@TempDir Path tempDir) throws IOException {
+        // Structure, more files than fit into one insert batch:
+        // tempDir/projectRoot
+        //    |-- src/File0.txt .. File1499.txt
+        //    |-- node_modules/dep/index.js  <-- ignored
+        //    |-- link.txt -> src/File0.txt  <-- symbolic link, skipped
+
+        Path projectRoot = Files.createDirectories(tempDir.resolve("projectRoot"));
+        Path srcDir = Files.createDirectories(projectRoot.resolve("src"));
+        for (int i = 0; i < 1500; i++) {
+            Files.createFile(srcDir.resolve("File" + i + ".txt"));
+        }
+        Path ignoredDir = Files.createDirectories(projectRoot.resolve("node_modules").resolve("dep"));
+        Files.createFile(ignoredDir.resolve("index.js"));
+        Files.createSymbolicLink(projectRoot.resolve("link.txt"), srcDir.resolve("File0.txt"));
+
+        String projectPathString = projectRoot.toAbsolutePath().toString();
+
+        ReflectionTestUtils.setField(fileService, "ignoredNames", List.of("node_modules"));
+        try {
+            fileService.createEntitiesFromPath(testProject, projectRoot, projectPathString);
+        } finally {
+            ReflectionTestUtils.setField(fileService, "ignoredNames", List.of());
+        }
+
+        List<File> files = fileRepository.findAll();
+        // projectRoot, src and the text files
+        assertEquals(1502, files.size());
+        assertEquals(1502, files.stream().map(File::getId).distinct().count());
+
+        File lastFile = files.stream().filter(f -> f.getFileName().equals("File1499.txt")).findFirst().orElseThrow();
+        assertEquals("src/File1499.txt", lastFile.getArtifactPath());
+        assertEquals("src", lastFile.getParent().getFileName());
+        assertEquals(testProject.getId(), lastFile.getProject().getId());
+        assertTrue(files.stream().noneMatch(f -> f.getFileName().equals("link.txt")));
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.strategies;
+
+import com.github.packageurl.PackageURL;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import eu.occtet.boc.download.utils.DownloadUtils;
+import eu.occtet.boc.download.utils.VersionUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GitCloneStrategyTest {
+
+    private final DownloadUtils downloadUtils = new DownloadUtils(RestClient.create());
+
+    private GitCloneStrategy strategy(String mirrorUrl) {
+        return new GitCloneStrategy(downloadUtils, new VersionUtils(), mirrorUrl, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void canHandle_ShouldAcceptGitRepositories() throws Exception {
+        GitCloneStrategy strategy = strategy("");
+        assertTrue(strategy.canHandle(new URI("https://git.example.com/group/repo.git").toURL(), "1.0"));
+        assertTrue(strategy.canHandle(new URI("https://gitlab.com/group/repo").toURL(), "1.0"));
+        assertFalse(strategy.canHandle(new URI("https://example.com/file.zip").toURL(), "1.0"));
+        assertFalse(strategy.canHandle(new URI("https://gitlab.com/group/repo/-/archive/v1/repo-v1.tar.gz").toURL(), "1.0"));
+        assertFalse(strategy.canHandle(new URI("https://github.com/owner/repo/archive/refs/tags/v1.zip").toURL(), "1.0"));
+
+        assertTrue(strategy.canHandle(new PackageURL("pkg:gitlab/group/repo@1.0")));
+        assertTrue(strategy.canHandle(new PackageURL("pkg:generic/repo@1.0?vcs_url=git%2Bhttps://git.example.com/repo.git")));
+        assertFalse(strategy.canHandle(new PackageURL("pkg:maven/g/a@1.0")));
+    }
+
+    @Test
+    void canHandle_ShouldRejectNonHttpVcsUrls() throws Exception {
+        GitCloneStrategy strategy = strategy("");
+        for (String vcsUrl : List.of("--upload-pack=touch /tmp/pwned", "file:///etc", "ext::sh -c touch% /tmp/pwned",
+                "git+ext::sh -c touch% /tmp/pwned")) {
+            PackageURL purl = new PackageURL("generic", null, "lib", "1.0", new TreeMap<>(Map.of("vcs_url", vcsUrl)), null);
+            assertFalse(strategy.canHandle(purl), vcsUrl);
+        }
+    }
+
+    @Test
+    void download_RejectsNonHttpRemotes(@TempDir Path tempDir) throws Exception {
+        Path target = tempDir.resolve("lib");
+        for (String vcsUrl : List.of("--upload-pack=touch " + tempDir.resolve("pwned"), tempDir.toUri().toString(),
+                "ext::sh -c touch% " + tempDir.resolve("pwned"))) {
+            PackageURL purl = new PackageURL("generic", null, "lib", "1.0", new TreeMap<>(Map.of("vcs_url", vcsUrl)), null);
+            assertThrows(IOException.class, () -> strategy("").download(purl, target), vcsUrl);
+        }
+        assertThrows(IOException.class, () -> strategy("file:///srv/git").remoteUrl("https://github.com/owner/repo.git"));
+        assertFalse(Files.exists(tempDir.resolve("pwned")));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void remoteUrl_AppliesMirror() throws IOException {
+        assertEquals("https://github.com/owner/repo.git", strategy("").remoteUrl("git+https://github.com/owner/repo.git"));
+        assertEquals("http://mirror.local/git/github.com/owner/repo.git",
+                strategy("http://mirror.local/git/").remoteUrl("git+https://github.com/owner/repo.git"));
+    }
+
+    @Test
+    void download_FetchesOnlyTheRequestedTag(@TempDir Path tempDir) throws Exception {
+        assumeTrue(gitAvailable(), "git is not installed");
+        // fixture repository: v1.0.0 has the first content of the file, the branch moved on afterwards
+        Path repository = Files.createDirectories(tempDir.resolve("repository"));
+        git(repository, "init", "-q");
+        Files.writeString(repository.resolve("README.md"), "first");
+        git(repository, "add", ".");
+        git(repository, "commit", "-q", "-m", "first");
+        git(repository, "tag", "v1.0.0");
+        Files.writeString(repository.resolve("README.md"), "second");
+        git(repository, "commit", "-q", "-am", "second");
+
+        Path target = tempDir.resolve("lib").resolve("1.0.0");
+        HttpServer server = gitServer(tempDir, repository);
+        Path result;
+        try {
+            result = strategy("").download(vcsPurl(server, "1.0.0"), target);
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(target, result);
+        assertEquals("first", Files.readString(target.resolve("README.md")));
+        assertFalse(Files.exists(target.resolve(".git")));
+    }
+
+    @Test
+    void download_UnknownVersionFailsAndLeavesNoDirectory(@TempDir Path tempDir) throws Exception {
+        assumeTrue(gitAvailable(), "git is not installed");
+        Path repository = Files.createDirectories(tempDir.resolve("repository"));
+        git(repository, "init", "-q");
+        Files.writeString(repository.resolve("README.md"), "first");
+        git(repository, "add", ".");
+        git(repository, "commit", "-q", "-m", "first");
+
+        Path target = tempDir.resolve("lib").resolve("9.9.9");
+        HttpServer server = gitServer(tempDir, repository);
+        try {
+            assertThrows(IOException.class, () -> strategy("").download(vcsPurl(server, "9.9.9"), target));
+        } finally {
+            server.stop(0);
+        }
+        assertFalse(Files.exists(target));
+    }
+
+    private static PackageURL vcsPurl(HttpServer server, String version) throws Exception {
+        String vcsUrl = "git+http://127.0.0.1:" + server.getAddress().getPort() + "/repository.git";
+        return new PackageURL("generic", null, "lib", version, new TreeMap<>(Map.of("vcs_url", vcsUrl)), null);
+    }
+
+    /**
+     * Serves a bare copy of the repository over git's smart http protocol, by running git http-backend as CGI.
+     */
+    private static HttpServer gitServer(Path root, Path repository) throws Exception {
+        git(root, "clone", "-q", "--bare", repository.toString(), "repository.git");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                runHttpBackend(root, exchange);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static void runHttpBackend(Path root, HttpExchange exchange) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder("git", "http-backend").redirectError(ProcessBuilder.Redirect.DISCARD);
+        Map<String, String> environment = builder.environment();
+        environment.put("GIT_PROJECT_ROOT", root.toString());
+        environment.put("GIT_HTTP_EXPORT_ALL", "1");
+        environment.put("REQUEST_METHOD", exchange.getRequestMethod());
+        environment.put("PATH_INFO", exchange.getRequestURI().getPath());
+        environment.put("QUERY_STRING", Objects.toString(exchange.getRequestURI().getRawQuery(), ""));
+        Map.of("Content-Type", "CONTENT_TYPE", "Content-Encoding", "HTTP_CONTENT_ENCODING", "Git-Protocol", "GIT_PROTOCOL")
+                .forEach((header, variable) -> {
+                    String value = exchange.getRequestHeaders().getFirst(header);
+                    if (value != null) environment.put(variable, value);
+                });
+        Process process = builder.start();
+        try (OutputStream in = process.getOutputStream()) {
+            exchange.getRequestBody().transferTo(in);
+        }
+        byte[] output = process.getInputStream().readAllBytes();
+
+        // CGI output: header lines, an empty line, then the body
+        String text = new String(output, StandardCharsets.ISO_8859_1);
+        int end = text.indexOf("\r\n\r\n");
+        int status = 200;
+        for (String line : text.substring(0, end).split("\r\n")) {
+            int colon = line.indexOf(':');
+            String name = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Status")) status = Integer.parseInt(value.substring(0, 3));
+            else exchange.getResponseHeaders().add(name, value);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(output, end + 4, output.length - end - 4);
+        exchange.sendResponseHeaders(status, body.size() == 0 ? -1 : body.size());
+        body.writeTo(exchange.getResponseBody());
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void git(Path directory, String... args) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-c", "user.name=test", "-c", "user.email=test@example.com"));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).inheritIO().start();
+        assertEquals(0, process.waitFor());
+    }
+}
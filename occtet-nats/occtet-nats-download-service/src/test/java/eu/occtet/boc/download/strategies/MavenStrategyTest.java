@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.strategies;
+
+import com.github.packageurl.PackageURL;
+import com.sun.net.httpserver.HttpServer;
+import eu.occtet.boc.download.utils.DownloadUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MavenStrategyTest {
+
+    @Mock
+    private DownloadUtils downloadUtils;
+
+    private MavenStrategy strategy;
+
+    @BeforeEach
+    void setup() {
+        strategy = new MavenStrategy(downloadUtils, "http://mirror.local/maven2/");
+    }
+
+    @Test
+    void canHandle_Purl_ShouldAcceptVersionedMavenOnly() throws Exception {
+        assertTrue(strategy.canHandle(new PackageURL("pkg:maven/org.example/lib@1.0")));
+
+        assertFalse(strategy.canHandle(new PackageURL("pkg:maven/org.example/lib")));
+        assertFalse(strategy.canHandle(new PackageURL("pkg:npm/lib@1.0")));
+        assertFalse(strategy.canHandle((PackageURL) null));
+    }
+
+    @Test
+    void artifactUrls_PreferSourcesJarOnMirror() throws Exception {
+        assertEquals(List.of(
+                        "http://mirror.local/maven2/org/example/lib/1.0/lib-1.0-sources.jar",
+                        "http://mirror.local/maven2/org/example/lib/1.0/lib-1.0.jar"),
+                strategy.artifactUrls(new PackageURL("pkg:maven/org.example/lib@1.0")));
+        assertEquals(List.of("http://mirror.local/maven2/org/example/lib/1.0/lib-1.0-sources.jar"),
+                strategy.artifactUrls(new PackageURL("pkg:maven/org.example/lib@1.0?type=pom")));
+    }
+
+    @Test
+    void download_FallsBackToBinaryJar() throws Exception {
+        Path jar = Path.of("lib-1.0.jar");
+        when(downloadUtils.downloadFile(eq("http://mirror.local/maven2/org/example/lib/1.0/lib-1.0-sources.jar"), anyString()))
+                .thenThrow(new IOException("404"));
+        when(downloadUtils.downloadFile(eq("http://mirror.local/maven2/org/example/lib/1.0/lib-1.0.jar"), anyString()))
+                .thenReturn(jar);
+
+        assertEquals(jar, strategy.download(new PackageURL("pkg:maven/org.example/lib@1.0"), Path.of(".")));
+    }
+
+    @Test
+    void download_FromLocalFixtureRepository() throws Exception {
+        // a local repository serving the same sources jar for every artifact, fetched in parallel
+        byte[] content = new byte[256 * 1024];
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ExecutorService serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.createContext("/maven2/", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+        });
+        server.start();
+
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+        RestClient restClient = RestClient.builder().requestFactory(new JdkClientHttpRequestFactory(httpClient)).build();
+        MavenStrategy fixtureStrategy = new MavenStrategy(new DownloadUtils(restClient),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/maven2");
+
+        int artifacts = 64;
+        List<Path> downloaded = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < artifacts; i++) {
+                PackageURL purl = new PackageURL("pkg:maven/org.example/lib" + i + "@1.0");
+                futures.add(executor.submit(() -> fixtureStrategy.download(purl, Path.of("."))));
+            }
+            for (Future<Path> future : futures) downloaded.add(future.get());
+
+            assertEquals(artifacts, requests.get());
+            for (Path path : downloaded) assertEquals(content.length, Files.size(path));
+        } finally {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+            for (Path path : downloaded) Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.download.strategies;
+
+import com.github.packageurl.PackageURL;
+import eu.occtet.boc.download.utils.DownloadUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NpmStrategyTest {
+
+    @Mock
+    private DownloadUtils downloadUtils;
+
+    private NpmStrategy strategy;
+
+    @BeforeEach
+    void setup() {
+        strategy = new NpmStrategy(downloadUtils, "http://verdaccio.local:4873/");
+    }
+
+    @Test
+    void canHandle_Purl_ShouldAcceptVersionedNpmOnly() throws Exception {
+        assertTrue(strategy.canHandle(new PackageURL("pkg:npm/lodash@4.17.21")));
+        assertTrue(strategy.canHandle(new PackageURL("pkg:npm/%40angular/core@17.0.0")));
+
+        assertFalse(strategy.canHandle(new PackageURL("pkg:npm/lodash")));
+        assertFalse(strategy.canHandle(new PackageURL("pkg:maven/g/a@1.0")));
+    }
+
+    @Test
+    void tarballUrl_KeepsScopeInPathOnly() throws Exception {
+        assertEquals("http://verdaccio.local:4873/lodash/-/lodash-4.17.21.tgz",
+                strategy.tarballUrl(new PackageURL("pkg:npm/lodash@4.17.21")));
+        assertEquals("http://verdaccio.local:4873/@angular/core/-/core-17.0.0.tgz",
+                strategy.tarballUrl(new PackageURL("pkg:npm/%40angular/core@17.0.0")));
+    }
+
+    @Test
+    void download_Purl_DelegatesToUtils() throws Exception {
+        strategy.download(new PackageURL("pkg:npm/lodash@4.17.21"), Path.of("."));
+
+        verify(downloadUtils).downloadFile("http://verdaccio.local:4873/lodash/-/lodash-4.17.21.tgz", ".tar.gz");
+    }
+}
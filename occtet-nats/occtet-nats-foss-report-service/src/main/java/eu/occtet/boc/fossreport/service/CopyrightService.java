@@ -24,15 +24,15 @@ import eu.occtet.boc.dao.CopyrightRepository;
 import eu.occtet.boc.entity.Copyright;
 import eu.occtet.boc.entity.File;
 import eu.occtet.boc.entity.Organization;
-import eu.occtet.boc.fossreport.factory.CopyrightFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 @Service
 public class CopyrightService {
@@ -41,24 +41,31 @@ public class CopyrightService {
 
 
 
-    @Autowired
-    private CopyrightFactory copyrightFactory;
     @Autowired
     private CopyrightRepository copyrightRepository;
 
 
-    public Copyright findOrCreateCopyright(String copyrightString, File file, Organization organization) {
-        List<Copyright> copyright = copyrightRepository.findByCopyrightText(copyrightString);
-        if (!copyright.isEmpty() && copyright.getFirst() != null) {
-            if(copyright.getFirst().getFiles()==null){
-                copyright.getFirst().setFiles(new HashSet<>(List.of(file)));
-            }else if( !copyright.getFirst().getFiles().contains(file)) {
-                copyright.getFirst().getFiles().add(file);
+    /**
+     * Resolves the copyright texts of a report row through the text hash index, the missing ones are inserted
+     * together. Every copyright is linked to the given file.
+     *
+     * @return the copyrights in the order of the texts
+     */
+    public List<Copyright> findOrCreateCopyrights(List<String> copyrightTexts, File file, Organization organization) {
+        if (copyrightTexts.isEmpty()) return new ArrayList<>();
+        Map<String, Copyright> byText = copyrightRepository.findOrCreateAll(copyrightTexts, organization);
+        List<Copyright> copyrights = new ArrayList<>(copyrightTexts.size());
+        for (String copyrightText : copyrightTexts) {
+            Copyright copyright = byText.get(copyrightText);
+            if (copyright == null) continue;
+            if (copyright.getFiles() == null) {
+                copyright.setFiles(new HashSet<>(List.of(file)));
+            } else if (!copyright.getFiles().contains(file)) {
+                copyright.getFiles().add(file);
             }
-            return copyright.getFirst();
+            copyrights.add(copyright);
         }
-
-        return copyrightFactory.create(copyrightString, Set.of(file), organization);
+        return copyrights;
     }
 
 
@@ -259,17 +259,10 @@ public class FossReportService extends ProgressReportingService {
 
     private List<Copyright> prepareCopyrights(RowDto rowDto, File basePathFile, Organization organization) {
         log.debug("prepare copyrights with text: {}", rowDto.copyright());
-        List<Copyright> copyrights = new ArrayList<>();
         List<String> copyrightTexts = FossReportUtilities.getCopyrights(rowDto.copyright());
         log.debug("CopyrightTexts: {}", copyrightTexts);
-        if (!copyrightTexts.isEmpty()) {
-            copyrightTexts.forEach(copyrightText -> {
-                // For FlexeraReport use the basepath for copyrights, as we dont have a specific path for them.
-                Copyright copyright = copyrightService.findOrCreateCopyright(copyrightText, basePathFile, organization);
-                copyrights.add(copyright);
-            });
-        }
-        return copyrights;
+        // For FlexeraReport use the basepath for copyrights, as we dont have a specific path for them.
+        return copyrightService.findOrCreateCopyrights(copyrightTexts, basePathFile, organization);
     }
 
 
@@ -22,6 +22,7 @@ package eu.occtet.boc.licenseMatcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.licenseMatcher.service.LicenseMatcherService;
 import eu.occtet.boc.licenseMatcher.service.LicenseMatcherWorkConsumer;
+import eu.occtet.boc.licenseMatcher.tools.LicenseTemplateIndex;
 import eu.occtet.boc.model.MicroserviceDescriptor;
 import eu.occtet.boc.service.SystemHandler;
 import io.nats.client.Connection;
@@ -64,6 +65,8 @@ public class LicenseMatcherServiceApp {
     private MicroserviceDescriptor microserviceDescriptor;
 
     public static void main(String[] args) {
+        // the SPDX library reads where to take the license list from once, before the first license is loaded
+        System.setProperty(LicenseTemplateIndex.JAR_LICENSES_ONLY, "true");
         SpringApplication.run(LicenseMatcherServiceApp.class, args);
     }
 
@@ -76,6 +79,15 @@ public class LicenseMatcherServiceApp {
     @Value("${nats.work-subject}")
     private String workSubject;
 
+    @Value("${nats.max-concurrent-tasks:1}")
+    private int maxConcurrentTasks;
+
+    @Value("${nats.fetch-batch-size:1}")
+    private int fetchBatchSize;
+
+    @Value("${nats.virtual-threads:false}")
+    private boolean useVirtualThreads;
+
     private SystemHandler systemHandler;
 
     private static final Logger log = LoggerFactory.getLogger(LicenseMatcherServiceApp.class);
@@ -96,6 +108,7 @@ public class LicenseMatcherServiceApp {
         // start listening for work
         executor.execute(()->{
             try {
+                licenseMatcherWorkConsumer.setConcurrency(maxConcurrentTasks, fetchBatchSize, useVirtualThreads);
                 licenseMatcherWorkConsumer.startHandlingMessages(natsConnection,microserviceDescriptor.getName(), streamName, workSubject);
             } catch (Exception e) {
                 log.error("Could not start handling messages: ", e);
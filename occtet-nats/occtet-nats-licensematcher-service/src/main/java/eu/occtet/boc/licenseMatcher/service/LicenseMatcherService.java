@@ -21,10 +21,14 @@ package eu.occtet.boc.licenseMatcher.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.dao.InventoryItemRepository;
+import eu.occtet.boc.dao.LicenseMatchResultCache;
+import eu.occtet.boc.dao.SoftwareComponentRepository;
 import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.LicenseMatchResult;
 import eu.occtet.boc.entity.SoftwareComponentLicenseUsage;
 import eu.occtet.boc.licenseMatcher.factory.InventoryItemFactory;
 import eu.occtet.boc.licenseMatcher.tools.LicenseMatcher;
+import eu.occtet.boc.licenseMatcher.tools.LicenseTextNormalizer;
 import eu.occtet.boc.model.AILicenseMatcherWorkData;
 import eu.occtet.boc.model.ScannerSendWorkData;
 import eu.occtet.boc.model.WorkTask;
@@ -45,10 +49,7 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Component
@@ -59,19 +60,30 @@ public class LicenseMatcherService extends BaseWorkDataProcessor {
     @Autowired
     private LicenseMatcher licenseMatcher;
 
+    @Autowired
+    private LicenseTextNormalizer licenseTextNormalizer;
+
     @Autowired
     private InventoryItemFactory inventoryItemFactory;
 
     @Autowired
     private InventoryItemRepository inventoryItemRepository;
 
+    @Autowired
+    private SoftwareComponentRepository softwareComponentRepository;
+
+    @Autowired
+    private LicenseMatchResultCache licenseMatchResultCache;
+
     @Autowired
     private Connection natsConnection;
 
     @Value("${nats.send-subject}")
     private String sendSubject;
 
-    private final static String[] commentSignsRegex = {"\\_","\\-","\\#","\\%","\\=", "\\\\", "//", "\\+", "\\-", "\\*"};
+    // only the license id at the end is used, the AI license matcher resolves it from its local license list
+    @Value("${licensematcher.license-details-url:https://raw.githubusercontent.com/spdx/license-list-data/main/json/details/}")
+    private String licenseDetailsUrl;
 
 
 
@@ -103,51 +115,67 @@ public class LicenseMatcherService extends BaseWorkDataProcessor {
                 InventoryItem item = optItem.get();
                 log.debug("working on item {}, softwareComponent {}", item.getInventoryName(), item.getSoftwareComponent().getName());
                 log.debug("softwarecomponent has {} licenses", item.getSoftwareComponent().getUsageLicenses().size());
-                for (SoftwareComponentLicenseUsage license : item.getSoftwareComponent().getUsageLicenses()) {
-                    String licenseId = license.getTemplate().getLicenseType();
-                    String licenseText = license.getUsageText();
-                    if(licenseId.contains("LicenseRef-") || licenseId.contains("licenseref-")){
-                        licenseId= licenseId.replace("LicenseRef-","").replace("licenseref-","");
+                List<SoftwareComponentLicenseUsage> usageLicenses = item.getSoftwareComponent().getUsageLicenses();
+
+                // every text is normalized once, the same form goes to the template comparison and the AI prompt
+                List<String> normalizedTexts = new ArrayList<>(usageLicenses.size());
+                // texts of licenses without a listed id are identified against all templates in one batch
+                List<String> unlistedTexts = new ArrayList<>();
+                for (SoftwareComponentLicenseUsage license : usageLicenses) {
+                    String normalized = licenseTextNormalizer.normalize(license.getUsageText());
+                    normalizedTexts.add(normalized);
+                    if (!licenseMatcher.isListedLicense(licenseIdOf(license))) {
+                        unlistedTexts.add(normalized);
                     }
-                    licenseText= cleanupLicenseText(licenseText);
+                }
+                Map<String, List<String>> identified = unlistedTexts.isEmpty()
+                        ? new HashMap<>()
+                        : licenseMatcher.match(unlistedTexts);
+
+                for (int i = 0; i < usageLicenses.size(); i++) {
+                    SoftwareComponentLicenseUsage license = usageLicenses.get(i);
+                    String licenseId = licenseIdOf(license);
+                    String licenseText= normalizedTexts.get(i);
                     log.debug("checking inventory item: {}, licenseId: {}", item.getInventoryName(), licenseId);
                     //rule-based, comparing original license text with specific file license text with spdx library
-                    CompareTemplateOutputHandler.DifferenceDescription result = licenseMatcher.spdxCompareLicense(licenseId, licenseText);
-                    if (result != null && result.isDifferenceFound()) {
+                    //identical texts of other components were compared before, their result is reused
+                    LicenseMatchResult result = licenseMatchResultCache.findOrCompare(licenseId, licenseText,
+                            () -> compareLicense(licenseId, licenseText));
+                    if (result != null && result.isDifferenceFound() && result.getAiVerdict() != null) {
+                        log.debug("reusing AI verdict for licenseId: {}", licenseId);
+                        appendNote(item, ExternalNotesConstants.SECTION_SEPARATOR +
+                                ExternalNotesConstants.LICENSE_MATCHER_INFO_AI_RESPONSE_MESSAGE +
+                                result.getAiVerdict() + ExternalNotesConstants.SECTION_SEPARATOR);
+                        item.getSoftwareComponent().setLicenseAiControlled(true);
+                        softwareComponentRepository.save(item.getSoftwareComponent());
+                    } else if (result != null && result.isDifferenceFound()) {
                         log.debug("license texts are different for licenseId: {}", licenseId);
                         //baseURL for the licenseTool is given to the prompt as parameter, AI is using the tool with it
                         //the result of the spdx matcher is also given for further information
-                        String baseURL = "https://raw.githubusercontent.com/spdx/license-list-data/main/json/details/" + licenseId + ".json";
-                        String lineNumbers = result.getDifferences().stream()
-                                .map(d -> String.valueOf(d.getLine()))
-                                .collect(Collectors.joining(", "));
-                        sendAnswerToStream(new AILicenseMatcherWorkData(lineNumbers, baseURL, result.getDifferenceMessage(), licenseId, licenseText, inventoryItemId));
+                        String baseURL = licenseDetailsUrl + licenseId + ".json";
+                        sendAnswerToStream(new AILicenseMatcherWorkData(result.getDifferenceLines(), baseURL, result.getDifferenceMessage(), licenseId, licenseText, inventoryItemId));
 
+                    } else if (result == null && !identified.getOrDefault(licenseText, List.of()).isEmpty()) {
+                        String matchedIds = String.join(", ", identified.get(licenseText));
+                        log.debug("license text of {} matches listed license {}", licenseId, matchedIds);
+                        appendNote(item, ExternalNotesConstants.SECTION_SEPARATOR +
+                                ExternalNotesConstants.INFO +
+                                String.format(ExternalNotesConstants.LICENSE_TEXT_MATCHED, matchedIds) +
+                                ExternalNotesConstants.SECTION_SEPARATOR);
                     } else if (result == null) {
                         log.debug("result is null");
                         log.error("url not successfully for license: {}", licenseId);
-                        String message = ExternalNotesConstants.SECTION_SEPARATOR +
+                        appendNote(item, ExternalNotesConstants.SECTION_SEPARATOR +
                                 ExternalNotesConstants.WARNING_AUDITOR_ATTENTION_REQ +
                                 String.format(ExternalNotesConstants.LICENSE_URL_NOT_SUCCESSFUL, licenseId) +
-                                ExternalNotesConstants.SECTION_SEPARATOR;
-                        if (item.getExternalNotes() == null) {
-                            item.setExternalNotes(message);
-                        } else {
-                            item.setExternalNotes(item.getExternalNotes() + "\n" + message);
-                        }
+                                ExternalNotesConstants.SECTION_SEPARATOR);
                     } else {
                         log.debug("license text matched");
 
-                        String message = ExternalNotesConstants.SECTION_SEPARATOR +
+                        appendNote(item, ExternalNotesConstants.SECTION_SEPARATOR +
                                 ExternalNotesConstants.INFO +
                                 String.format(ExternalNotesConstants.LICENSE_TEXT_MATCHED, licenseId) +
-                                ExternalNotesConstants.SECTION_SEPARATOR;
-
-                        if (item.getExternalNotes() == null) {
-                            item.setExternalNotes(message);
-                        } else {
-                            item.setExternalNotes(item.getExternalNotes() + "\n" + message);
-                        }
+                                ExternalNotesConstants.SECTION_SEPARATOR);
                     }
                     inventoryItemFactory.update(item);
                     log.debug("updated");
@@ -161,39 +189,33 @@ public class LicenseMatcherService extends BaseWorkDataProcessor {
     }
 
     /**
-     * remove comment characters like /* # ...
-     *
-     * @param licenseText
-     * @return
+     * Compares the text with the template of the license.
+     * @return the outcome, or null if there is no template for the license
      */
-    private static String cleanupLicenseText(String licenseText) {
-        licenseText = licenseText
-                .replace("/*", "")
-                .replace("*/", "")
-                .replace("&lt;", "<")
-                .replace("&gt;", ">")
-                .replace("<br>", " ");
-        char[] array=  licenseText.toCharArray();
-        //make the threshold dependent on the length of text
-        int commentThreshold = array.length/ 80;
-        try {
-            for (String sign : commentSignsRegex) {
-                int count= 0;
-                Pattern pattern = Pattern.compile(sign);
-                Matcher matches = pattern.matcher(licenseText);
-                while (matches.find()) {
-                    count++;
-                }
-                if( count > commentThreshold) {
-                    licenseText = licenseText.replaceAll(pattern.pattern(), "");
-                }
-            }
-        } catch (Exception ex) {
-            log.error("comment match not found: {}", ex.getMessage());
+    private LicenseMatchResult compareLicense(String licenseId, String licenseText) {
+        CompareTemplateOutputHandler.DifferenceDescription result = licenseMatcher.spdxCompareLicense(licenseId, licenseText);
+        if (result == null) return null;
+        String lineNumbers = result.getDifferences().stream()
+                .map(d -> String.valueOf(d.getLine()))
+                .collect(Collectors.joining(", "));
+        return new LicenseMatchResult(licenseId, null, result.isDifferenceFound(), result.getDifferenceMessage(), lineNumbers);
+    }
+
+    private static void appendNote(InventoryItem item, String message) {
+        if (item.getExternalNotes() == null) {
+            item.setExternalNotes(message);
+        } else {
+            item.setExternalNotes(item.getExternalNotes() + "\n" + message);
         }
-        return licenseText;
     }
 
+    private static String licenseIdOf(SoftwareComponentLicenseUsage license) {
+        String licenseId = license.getTemplate().getLicenseType();
+        if(licenseId.contains("LicenseRef-") || licenseId.contains("licenseref-")){
+            licenseId= licenseId.replace("LicenseRef-","").replace("licenseref-","");
+        }
+        return licenseId;
+    }
 
     /**
      * Sends the AI-generated answer to the NATS stream for further processing.
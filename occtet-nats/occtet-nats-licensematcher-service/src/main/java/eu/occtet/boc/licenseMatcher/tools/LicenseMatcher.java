@@ -22,43 +22,54 @@ package eu.occtet.boc.licenseMatcher.tools;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.spdx.library.ListedLicenses;
-import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
 import org.spdx.utility.compare.CompareTemplateOutputHandler;
-import org.spdx.utility.compare.LicenseCompareHelper;
-import org.spdx.utility.compare.SpdxCompareException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class LicenseMatcher {
 
     private static final Logger log = LoggerFactory.getLogger(LicenseMatcher.class);
 
+    @Autowired
+    private LicenseTemplateIndex licenseTemplateIndex;
+
 
     /**
      * The spdxCompareLicense method compares the provided licenseText with
      * the SPDX standard license text associated with the given licenseId.
-     * It uses the SPDX library to retrieve the standard license text and compares it with the provided text.
+     * The template comes from the preloaded {@link LicenseTemplateIndex}, nothing is fetched per call.
      * returns difference message
-     * an InvalidSPDXAnalysisException occurs, if license text not matching
      * @param licenseId
      * @param licenseText
-     * @return
-     * @throws SpdxCompareException
+     * @return the differences, null if the license is not listed or the comparison failed
      */
     public CompareTemplateOutputHandler.DifferenceDescription spdxCompareLicense(String licenseId, String licenseText){
 
         CompareTemplateOutputHandler.DifferenceDescription result = null;
         try {
-            ListedLicense license = ListedLicenses.getListedLicenses().getListedLicenseById(licenseId);
-
-            result = LicenseCompareHelper.isTextStandardLicense(license, licenseText);
-
-
+            result = licenseTemplateIndex.compare(licenseId, licenseText);
         } catch (Exception e) {
             log.error("license match not working {}", e.getMessage());
         }
         return result;
     }
 
+    /**
+     * Identifies the listed licenses of texts whose license id is not known.
+     * @param licenseTexts
+     * @return the ids of the matching listed licenses by text
+     */
+    public Map<String, List<String>> match(Collection<String> licenseTexts) {
+        return licenseTemplateIndex.match(licenseTexts);
+    }
+
+    public boolean isListedLicense(String licenseId) {
+        return licenseTemplateIndex.contains(licenseId);
+    }
+
 }
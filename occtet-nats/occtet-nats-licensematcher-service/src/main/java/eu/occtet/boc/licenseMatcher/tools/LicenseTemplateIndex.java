@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.licenseMatcher.tools;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spdx.library.ListedLicenses;
+import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
+import org.spdx.utility.compare.CompareTemplateOutputHandler;
+import org.spdx.utility.compare.SpdxCompareException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory index of the SPDX listed licenses. The templates are read once at startup on a loader thread of the
+ * index, from the license list snapshot bundled with the SPDX library so no network access is needed
+ * (see {@link #JAR_LICENSES_ONLY}). A template is parsed on its first comparison and kept parsed. Every license is
+ * also indexed by word 3-gram shingles of its text, which narrows a text with unknown license down to a few
+ * candidates before the expensive template comparison runs.
+ */
+@Component
+public class LicenseTemplateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LicenseTemplateIndex.class);
+
+    // read by the SPDX library when the license list is first used, so it is set at application startup
+    public static final String JAR_LICENSES_ONLY = "org.spdx.useJARLicenseInfoOnly";
+    private static final int SHINGLE_SIZE = 3;
+
+    private final double minScore;
+    private final int maxCandidates;
+
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("license-template-loader").daemon(true).factory());
+
+    private volatile CompletableFuture<Snapshot> snapshot;
+
+    record IndexedLicense(String id, ParsedLicenseTemplate template, int shingleCount) {
+    }
+
+    /**
+     * The loaded licenses and the shingle to license postings, immutable once built.
+     */
+    private record Snapshot(String version, List<IndexedLicense> licenses, Map<String, IndexedLicense> byId,
+                            Map<Integer, int[]> postings) {
+    }
+
+    public LicenseTemplateIndex(@Value("${licensematcher.prefilter.min-score:0.5}") double minScore,
+                                @Value("${licensematcher.prefilter.max-candidates:5}") int maxCandidates) {
+        this.minScore = minScore;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        warmUp(null);
+    }
+
+    /**
+     * Starts loading the given licenses in the background, all listed licenses if ids is null.
+     * Lookups wait for the load to finish.
+     */
+    void warmUp(Collection<String> ids) {
+        snapshot = CompletableFuture.supplyAsync(() -> load(ids), loader);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * @return the license list version of the loaded templates
+     */
+    public String getLicenseListVersion() {
+        return snapshot().version();
+    }
+
+    public boolean contains(String licenseId) {
+        return licenseId != null && snapshot().byId().containsKey(licenseId.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Compares a text against the template of a listed license.
+     *
+     * @return the differences, or null if the license is not listed or the comparison failed
+     */
+    public CompareTemplateOutputHandler.DifferenceDescription compare(String licenseId, String licenseText) {
+        IndexedLicense license = licenseId == null ? null : snapshot().byId().get(licenseId.toLowerCase(Locale.ROOT));
+        if (license == null) {
+            log.debug("license {} is not in the license list", licenseId);
+            return null;
+        }
+        try {
+            return license.template().compare(licenseText);
+        } catch (SpdxCompareException e) {
+            log.error("comparing with license {} failed: {}", licenseId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Finds the listed licenses whose template matches each of the texts. Only the candidates sharing enough
+     * shingles with a text are compared against their template.
+     *
+     * @return the ids of the matching licenses by text, in the order of the texts, empty lists for no match
+     */
+    public Map<String, List<String>> match(Collection<String> texts) {
+        List<String> distinct = texts.stream().filter(Objects::nonNull).distinct().toList();
+        Snapshot current = snapshot();
+        List<List<String>> matches = distinct.parallelStream()
+                .map(text -> matchText(current, text))
+                .toList();
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            result.put(distinct.get(i), matches.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return up to max-candidates licenses ordered by the share of their shingles found in the text
+     */
+    List<IndexedLicense> candidates(String text) {
+        return candidates(snapshot(), text);
+    }
+
+    private List<String> matchText(Snapshot current, String text) {
+        List<String> ids = new ArrayList<>();
+        for (IndexedLicense candidate : candidates(current, text)) {
+            try {
+                if (!candidate.template().compare(text).isDifferenceFound()) {
+                    ids.add(candidate.id());
+                }
+            } catch (SpdxCompareException e) {
+                log.debug("comparing with license {} failed: {}", candidate.id(), e.getMessage());
+            }
+        }
+        return ids;
+    }
+
+    private List<IndexedLicense> candidates(Snapshot current, String text) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int shingle : shingles(text)) {
+            int[] postings = current.postings().get(shingle);
+            if (postings == null) continue;
+            for (int license : postings) {
+                hits.merge(license, 1, Integer::sum);
+            }
+        }
+        return hits.entrySet().stream()
+                .filter(e -> score(current, e) >= minScore)
+                .sorted(Comparator.comparingDouble((Map.Entry<Integer, Integer> e) -> score(current, e)).reversed())
+                .limit(maxCandidates)
+                .map(e -> current.licenses().get(e.getKey()))
+                .toList();
+    }
+
+    private static double score(Snapshot current, Map.Entry<Integer, Integer> hits) {
+        return (double) hits.getValue() / current.licenses().get(hits.getKey()).shingleCount();
+    }
+
+    private Snapshot load(Collection<String> ids) {
+        long start = System.currentTimeMillis();
+        ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+        Collection<String> licenseIds = ids != null ? ids : listedLicenses.getSpdxListedLicenseIds();
+
+        List<IndexedLicense> licenses = new ArrayList<>(licenseIds.size());
+        Map<String, IndexedLicense> byId = new HashMap<>();
+        Map<Integer, List<Integer>> postings = new HashMap<>();
+        for (String id : licenseIds) {
+            try {
+                ListedLicense license = listedLicenses.getListedLicenseById(id);
+                if (license == null) continue;
+                String text = license.getLicenseText();
+                String template = license.getStandardLicenseTemplate().orElse("");
+                if (template.isBlank()) template = text;
+
+                Set<Integer> shingles = shingles(text);
+                IndexedLicense indexed = new IndexedLicense(id, new ParsedLicenseTemplate(template), shingles.size());
+                int position = licenses.size();
+                licenses.add(indexed);
+                byId.put(id.toLowerCase(Locale.ROOT), indexed);
+                for (int shingle : shingles) {
+                    postings.computeIfAbsent(shingle, k -> new ArrayList<>()).add(position);
+                }
+            } catch (Exception e) {
+                log.warn("could not load license {}: {}", id, e.getMessage());
+            }
+        }
+
+        Map<Integer, int[]> frozen = new HashMap<>(postings.size());
+        postings.forEach((shingle, list) -> frozen.put(shingle, list.stream().mapToInt(Integer::intValue).toArray()));
+        String version = listedLicenses.getLicenseListVersion();
+        log.info("indexed {} licenses of license list {} in {} ms", licenses.size(), version,
+                System.currentTimeMillis() - start);
+        return new Snapshot(version, List.copyOf(licenses), Map.copyOf(byId), frozen);
+    }
+
+    private Snapshot snapshot() {
+        if (snapshot == null) {
+            warmUp();
+        }
+        return snapshot.join();
+    }
+
+    /**
+     * Hashes of all word 3-grams of the text, case and punctuation are ignored.
+     */
+    static Set<Integer> shingles(String text) {
+        Set<Integer> shingles = new HashSet<>();
+        List<String> words = LicenseTextNormalizer.words(text);
+        for (int i = 0; i + SHINGLE_SIZE <= words.size(); i++) {
+            shingles.add(String.join(" ", words.subList(i, i + SHINGLE_SIZE)).hashCode());
+        }
+        return shingles;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.licenseMatcher.tools;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalizes license texts taken from source files before they are compared with the SPDX templates and handed
+ * to the AI matcher. Removes comment delimiters and the HTML escapes scanners leave behind, and drops comment
+ * decoration characters which occur more often than once per 80 characters of text.
+ * <p>
+ * Works on the characters directly: one pass replaces the delimiters and escapes while counting the decoration
+ * characters, a second pass only runs if one of them has to be removed.
+ */
+@Component
+public class LicenseTextNormalizer {
+
+    // characters used to draw comment boxes and separators, see DECORATION_SLASHES for "//"
+    private static final String DECORATION_CHARS = "_-#%=\\+*";
+    private static final int DECORATION_SLASHES = DECORATION_CHARS.length();
+    private static final int CHARS_PER_DECORATION = 80;
+
+    /**
+     * @return the normalized text, null for null
+     */
+    public String normalize(String licenseText) {
+        if (licenseText == null) return null;
+
+        StringBuilder out = new StringBuilder(licenseText.length());
+        int[] counts = new int[DECORATION_CHARS.length() + 1];
+        boolean pendingSlash = false;
+        int length = licenseText.length();
+        int i = 0;
+        while (i < length) {
+            char c = licenseText.charAt(i);
+            char replacement;
+            int consumed;
+            if ((c == '/' && next(licenseText, i) == '*') || (c == '*' && next(licenseText, i) == '/')) {
+                i += 2;
+                continue;
+            } else if (c == '&' && licenseText.startsWith("&lt;", i)) {
+                replacement = '<';
+                consumed = 4;
+            } else if (c == '&' && licenseText.startsWith("&gt;", i)) {
+                replacement = '>';
+                consumed = 4;
+            } else if (c == '<' && licenseText.startsWith("<br>", i)) {
+                replacement = ' ';
+                consumed = 4;
+            } else {
+                replacement = c;
+                consumed = 1;
+            }
+            out.append(replacement);
+            i += consumed;
+
+            int decoration = DECORATION_CHARS.indexOf(replacement);
+            if (decoration >= 0) counts[decoration]++;
+            // "//" is counted like a non-overlapping regex match, "///" is one occurrence
+            if (replacement == '/') {
+                if (pendingSlash) {
+                    counts[DECORATION_SLASHES]++;
+                    pendingSlash = false;
+                } else {
+                    pendingSlash = true;
+                }
+            } else {
+                pendingSlash = false;
+            }
+        }
+
+        int threshold = out.length() / CHARS_PER_DECORATION;
+        boolean[] remove = new boolean[counts.length];
+        boolean any = false;
+        for (int d = 0; d < counts.length; d++) {
+            remove[d] = counts[d] > threshold;
+            any |= remove[d];
+        }
+        return any ? removeDecorations(out, remove) : out.toString();
+    }
+
+    /**
+     * Splits a text into lower case words, punctuation and whitespace separate words and are dropped.
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static String removeDecorations(CharSequence text, boolean[] remove) {
+        StringBuilder out = new StringBuilder(text.length());
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '/' && remove[DECORATION_SLASHES] && i + 1 < length && text.charAt(i + 1) == '/') {
+                i++;
+                continue;
+            }
+            int decoration = DECORATION_CHARS.indexOf(c);
+            if (decoration >= 0 && remove[decoration]) continue;
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static char next(String text, int i) {
+        return i + 1 < text.length() ? text.charAt(i + 1) : 0;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.licenseMatcher.tools;
+
+import org.spdx.licenseTemplate.ILicenseTemplateOutputHandler;
+import org.spdx.licenseTemplate.LicenseParserException;
+import org.spdx.licenseTemplate.LicenseTemplateRule;
+import org.spdx.licenseTemplate.LicenseTemplateRuleException;
+import org.spdx.licenseTemplate.LicenseTextHelper;
+import org.spdx.licenseTemplate.SpdxLicenseTemplateHelper;
+import org.spdx.utility.compare.CompareTemplateOutputHandler;
+import org.spdx.utility.compare.LicenseCompareHelper;
+import org.spdx.utility.compare.SpdxCompareException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The template of a listed license, parsed into its text and rule steps on first use. A comparison replays the
+ * steps against the text instead of parsing the template again, with the same result as
+ * {@link LicenseCompareHelper#isTextMatchingTemplate(String, String)}.
+ */
+final class ParsedLicenseTemplate {
+
+    /**
+     * One callback of the template parser.
+     */
+    private interface Step {
+        void replay(ILicenseTemplateOutputHandler handler) throws LicenseParserException;
+    }
+
+    private final String template;
+
+    private volatile List<Step> steps;
+
+    ParsedLicenseTemplate(String template) {
+        this.template = template;
+    }
+
+    /**
+     * @return the differences between the text and the template
+     */
+    CompareTemplateOutputHandler.DifferenceDescription compare(String text) throws SpdxCompareException {
+        CompareTemplateOutputHandler handler;
+        try {
+            handler = new CompareTemplateOutputHandler(
+                    LicenseTextHelper.removeLineSeparators(LicenseCompareHelper.removeCommentChars(text)));
+        } catch (IOException e) {
+            throw new SpdxCompareException("IO Error reading the compare text: " + e.getMessage(), e);
+        }
+        try {
+            for (Step step : steps()) step.replay(handler);
+        } catch (LicenseParserException e) {
+            throw new SpdxCompareException("Invalid template found during compare: " + e.getMessage(), e);
+        }
+        return handler.getDifferences();
+    }
+
+    private List<Step> steps() throws SpdxCompareException {
+        List<Step> parsed = steps;
+        if (parsed == null) {
+            parsed = parse();
+            steps = parsed;
+        }
+        return parsed;
+    }
+
+    // parsing twice on a race gives equal steps, so no lock is needed
+    private List<Step> parse() throws SpdxCompareException {
+        List<Step> parsed = new ArrayList<>();
+        try {
+            SpdxLicenseTemplateHelper.parseTemplate(LicenseCompareHelper.removeCommentChars(template),
+                    new ILicenseTemplateOutputHandler() {
+                        @Override
+                        public void text(String text) {
+                            parsed.add(handler -> handler.text(text));
+                        }
+
+                        @Override
+                        public void variableRule(LicenseTemplateRule rule) {
+                            parsed.add(handler -> handler.variableRule(rule));
+                        }
+
+                        @Override
+                        public void beginOptional(LicenseTemplateRule rule) {
+                            parsed.add(handler -> handler.beginOptional(rule));
+                        }
+
+                        @Override
+                        public void endOptional(LicenseTemplateRule rule) {
+                            parsed.add(handler -> handler.endOptional(rule));
+                        }
+
+                        @Override
+                        public void completeParsing() {
+                            parsed.add(ILicenseTemplateOutputHandler::completeParsing);
+                        }
+                    });
+        } catch (LicenseTemplateRuleException e) {
+            throw new SpdxCompareException("Invalid template rule found during compare: " + e.getMessage(), e);
+        } catch (LicenseParserException e) {
+            throw new SpdxCompareException("Invalid template found during compare: " + e.getMessage(), e);
+        }
+        return List.copyOf(parsed);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.licenseMatcher.service;
+
+import eu.occtet.boc.dao.LicenseMatchResultCache;
+import eu.occtet.boc.dao.LicenseMatchResultRepository;
+import eu.occtet.boc.entity.LicenseMatchResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class LicenseMatchResultCacheTest {
+
+    private static final String APACHE_HEADER = "licensed under the apache license, version 2.0";
+
+    @Test
+    void identicalTextIsComparedOnce() {
+        LicenseMatchResultRepository repository = Mockito.mock(LicenseMatchResultRepository.class);
+        Mockito.when(repository.findByLicenseIdAndTextHash(anyString(), anyString())).thenReturn(Optional.empty());
+        Mockito.when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        LicenseMatchResultCache cache = new LicenseMatchResultCache(repository, 100);
+
+        AtomicInteger comparisons = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            LicenseMatchResult result = cache.findOrCompare("Apache-2.0", APACHE_HEADER, () -> {
+                comparisons.incrementAndGet();
+                return new LicenseMatchResult(null, null, false, null, "");
+            });
+            Assertions.assertFalse(result.isDifferenceFound());
+            Assertions.assertEquals(LicenseMatchResult.hashOf(APACHE_HEADER), result.getTextHash());
+        }
+        Assertions.assertEquals(1, comparisons.get());
+        // later hits are answered from memory
+        Mockito.verify(repository, Mockito.times(1)).findByLicenseIdAndTextHash(anyString(), anyString());
+        Mockito.verify(repository, Mockito.times(1)).save(any());
+    }
+
+    @Test
+    void concurrentRequestsShareOneComparison() throws Exception {
+        LicenseMatchResultRepository repository = Mockito.mock(LicenseMatchResultRepository.class);
+        Mockito.when(repository.findByLicenseIdAndTextHash(anyString(), anyString())).thenReturn(Optional.empty());
+        Mockito.when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        LicenseMatchResultCache cache = new LicenseMatchResultCache(repository, 100);
+
+        AtomicInteger comparisons = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Callable<LicenseMatchResult> task = () -> cache.findOrCompare("MIT", APACHE_HEADER, () -> {
+                comparisons.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new LicenseMatchResult(null, null, true, "differs", "1");
+            });
+            Future<LicenseMatchResult> first = executor.submit(task);
+            Future<LicenseMatchResult> second = executor.submit(task);
+            Thread.sleep(200);
+            release.countDown();
+            Assertions.assertTrue(first.get(5, TimeUnit.SECONDS).isDifferenceFound());
+            Assertions.assertTrue(second.get(5, TimeUnit.SECONDS).isDifferenceFound());
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, comparisons.get());
+    }
+
+    @Test
+    void resultWaitingForVerdictIsReadAgain() {
+        LicenseMatchResultRepository repository = Mockito.mock(LicenseMatchResultRepository.class);
+        LicenseMatchResult stored = new LicenseMatchResult("MIT", LicenseMatchResult.hashOf(APACHE_HEADER), true, "differs", "1");
+        Mockito.when(repository.findByLicenseIdAndTextHash(anyString(), anyString())).thenReturn(Optional.of(stored));
+        LicenseMatchResultCache cache = new LicenseMatchResultCache(repository, 100);
+
+        Assertions.assertNull(cache.find("MIT", APACHE_HEADER).orElseThrow().getAiVerdict());
+        LicenseMatchResult judged = new LicenseMatchResult("MIT", stored.getTextHash(), true, "differs", "1");
+        judged.setAiVerdict("only the copyright holder differs");
+        Mockito.when(repository.findByLicenseIdAndTextHash(anyString(), anyString())).thenReturn(Optional.of(judged));
+
+        Assertions.assertEquals("only the copyright holder differs", cache.find("MIT", APACHE_HEADER).orElseThrow().getAiVerdict());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.licenseMatcher.tools;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.spdx.library.ListedLicenses;
+import org.spdx.utility.compare.LicenseCompareHelper;
+
+import java.util.List;
+import java.util.Map;
+
+public class LicenseTemplateIndexTest {
+
+    private static LicenseTemplateIndex index;
+    private static String mitText;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        System.setProperty(LicenseTemplateIndex.JAR_LICENSES_ONLY, "true");
+        index = new LicenseTemplateIndex(0.5, 5);
+        index.warmUp(List.of("MIT", "MIT-0", "ISC", "BSD-2-Clause", "BSD-3-Clause", "Apache-2.0"));
+        mitText = ListedLicenses.getListedLicenses().getListedLicenseById("MIT").getLicenseText();
+    }
+
+    @Test
+    void compareUsesPreloadedTemplate() {
+        Assertions.assertNotNull(index.getLicenseListVersion());
+        Assertions.assertFalse(index.compare("MIT", mitText).isDifferenceFound());
+        Assertions.assertFalse(index.compare("mit", mitText).isDifferenceFound(), "ids are matched case-insensitive");
+        Assertions.assertTrue(index.compare("ISC", mitText).isDifferenceFound());
+        Assertions.assertNull(index.compare("LicenseRef-unknown", mitText));
+    }
+
+    @Test
+    void prefilterOnlyKeepsSimilarLicenses() {
+        List<LicenseTemplateIndex.IndexedLicense> candidates = index.candidates(mitText);
+
+        Assertions.assertFalse(candidates.isEmpty());
+        Assertions.assertEquals("MIT", candidates.getFirst().id());
+        Assertions.assertTrue(candidates.stream().noneMatch(c -> c.id().equals("Apache-2.0")));
+    }
+
+    @Test
+    void matchIdentifiesTextsInOneCall() {
+        Map<String, List<String>> result = index.match(List.of(mitText, "some text which is no license at all"));
+
+        Assertions.assertEquals(List.of("MIT"), result.get(mitText));
+        Assertions.assertTrue(result.get("some text which is no license at all").isEmpty());
+    }
+
+    @Test
+    void parsedTemplateComparesLikeTheLibrary() throws Exception {
+        String template = ListedLicenses.getListedLicenses().getListedLicenseById("MIT")
+                .getStandardLicenseTemplate().orElseThrow();
+        String iscText = ListedLicenses.getListedLicenses().getListedLicenseById("ISC").getLicenseText();
+        ParsedLicenseTemplate parsed = new ParsedLicenseTemplate(template);
+
+        for (String text : List.of(mitText, mitText.replace("Permission", "Allowance"), iscText)) {
+            // the second comparison replays the cached steps
+            for (int i = 0; i < 2; i++) {
+                Assertions.assertEquals(LicenseCompareHelper.isTextMatchingTemplate(template, text).isDifferenceFound(),
+                        parsed.compare(text).isDifferenceFound());
+            }
+        }
+        Assertions.assertFalse(parsed.compare(mitText).isDifferenceFound());
+        Assertions.assertTrue(parsed.compare(iscText).isDifferenceFound());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.licenseMatcher.tools;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LicenseTextNormalizerTest {
+
+    private static final String MIT_BODY = "Permission is hereby granted, free of charge, to any person obtaining a copy " +
+            "of this software and associated documentation files (the \"Software\"), to deal in the Software without " +
+            "restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, " +
+            "sublicense, and/or sell copies of the Software.";
+
+    private final LicenseTextNormalizer normalizer = new LicenseTextNormalizer();
+
+    @Test
+    void removesCommentDelimitersAndEscapes() {
+        Assertions.assertEquals(" a <b> c ", normalizer.normalize("/* a &lt;b&gt;<br>c */"));
+        Assertions.assertNull(normalizer.normalize(null));
+    }
+
+    @Test
+    void dropsFrequentDecorationsOnly() {
+        String boxed = "#####################\n# " + MIT_BODY + " #\n#####################";
+        String normalized = normalizer.normalize(boxed);
+
+        Assertions.assertFalse(normalized.contains("#"));
+        Assertions.assertTrue(normalized.contains("free of charge"));
+        Assertions.assertTrue(normalized.contains("and/or"), "a single slash is no comment decoration");
+    }
+
+    @Test
+    void matchesPreviousCleanup() {
+        List<String> samples = List.of(
+                MIT_BODY,
+                "/*\n * " + MIT_BODY.replace(". ", ".\n * ") + "\n */",
+                "// " + MIT_BODY.replace(", ", ",\n// "),
+                "-----\n" + MIT_BODY + "\n-----\n=====\n++ x ++ y ++",
+                "&lt;copyright&gt; 2024 %%% " + MIT_BODY + "<br>\\\\\\ __ __ __",
+                "short * text - with _ marks");
+        for (String sample : samples) {
+            Assertions.assertEquals(legacyCleanup(sample), normalizer.normalize(sample), sample);
+        }
+    }
+
+    @Test
+    void splitsWords() {
+        Assertions.assertEquals(List.of("mit", "license", "2024"), LicenseTextNormalizer.words(" MIT-License (2024)"));
+    }
+
+    /**
+     * The replaced regex based implementation, kept as reference for the output.
+     */
+    private static String legacyCleanup(String licenseText) {
+        String[] commentSignsRegex = {"\\_", "\\-", "\\#", "\\%", "\\=", "\\\\", "//", "\\+", "\\-", "\\*"};
+        licenseText = licenseText
+                .replace("/*", "")
+                .replace("*/", "")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("<br>", " ");
+        int commentThreshold = licenseText.length() / 80;
+        for (String sign : commentSignsRegex) {
+            int count = 0;
+            Pattern pattern = Pattern.compile(sign);
+            Matcher matches = pattern.matcher(licenseText);
+            while (matches.find()) {
+                count++;
+            }
+            if (count > commentThreshold) {
+                licenseText = licenseText.replaceAll(pattern.pattern(), "");
+            }
+        }
+        return licenseText;
+    }
+}
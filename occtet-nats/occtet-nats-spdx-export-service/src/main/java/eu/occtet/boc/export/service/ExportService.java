@@ -44,7 +44,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -192,17 +191,10 @@ public class ExportService  extends ProgressReportingService  {
             notifyProgress(95, "added DESCRIBES relationships");
 
 
-            try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-                 java.io.BufferedOutputStream bufferedOut = new java.io.BufferedOutputStream(out)
-            ) {
-                jsonStore.serialize(bufferedOut, spdxDocument);
-                bufferedOut.flush();
-                String objectStoreKey = spdxExportWorkData.getObjectStoreKey();
-
-                log.info("Serialized SBOM JSON. Sending {} bytes to Object Store with key: {}", out.size(), objectStoreKey);
-
-                answerService.putIntoBucket(objectStoreKey, out.toByteArray());
-            }
+            String objectStoreKey = spdxExportWorkData.getObjectStoreKey();
+            log.info("Serializing SBOM JSON to Object Store with key: {}", objectStoreKey);
+            // serialized straight into the upload, the document is never held as one byte array
+            answerService.putIntoBucket(objectStoreKey, out -> jsonStore.serialize(out, spdxDocument));
             notifyProgress(100,"completed");
             return true;
         } catch (Exception e) {
@@ -52,11 +52,10 @@ public class AnswerServiceTest {
     @Test
     void putIntoBucket_ValidData_StoresSuccessfully() throws IOException, JetStreamApiException, NoSuchAlgorithmException {
         String testFileName = "test-sbom.json";
-        byte[] testData = "{}".getBytes();
 
         when(natsConnection.objectStore("file-bucket")).thenReturn(objectStore);
 
-        answerService.putIntoBucket(testFileName, testData);
+        answerService.putIntoBucket(testFileName, out -> out.write("{}".getBytes()));
 
         verify(natsConnection, times(1)).objectStore("file-bucket");
 
@@ -66,13 +65,12 @@ public class AnswerServiceTest {
     @Test
     void putIntoBucket_NatsThrowsException_HandlesGracefully() throws IOException, JetStreamApiException, NoSuchAlgorithmException {
         String testFileName = "test-sbom.json";
-        byte[] testData = "{}".getBytes();
 
         when(natsConnection.objectStore("file-bucket")).thenReturn(objectStore);
 
         when(objectStore.put(eq(testFileName), any(InputStream.class))).thenThrow(new IOException("NATS Connection Refused"));
 
-        answerService.putIntoBucket(testFileName, testData);
+        answerService.putIntoBucket(testFileName, out -> out.write("{}".getBytes()));
 
         verify(natsConnection, times(1)).objectStore("file-bucket");
         verify(objectStore, times(1)).put(eq(testFileName), any(InputStream.class));
@@ -32,6 +32,7 @@ import eu.occtet.boc.export.service.AnswerService;
 import eu.occtet.boc.export.service.ExportService;
 import eu.occtet.boc.export.service.MergeService;
 import eu.occtet.boc.model.SpdxExportWorkData;
+import eu.occtet.boc.service.ObjectStoreStreams;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +42,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -68,7 +70,7 @@ public class ExportServiceTest {
     private MergeService mergeService;
 
     @Test
-    void process_ValidExportData_GeneratesAndPushesSbom() {
+    void process_ValidExportData_GeneratesAndPushesSbom() throws Exception {
         ReflectionTestUtils.setField(exportService, "toolName", "TestTool-1.0");
 
         SpdxExportWorkData workData = new SpdxExportWorkData();
@@ -108,11 +110,14 @@ public class ExportServiceTest {
 
         assertTrue(result, "Export process should return true on success");
 
-        // capture the byte[] created in the service
-        ArgumentCaptor<byte[]> byteCaptor = ArgumentCaptor.forClass(byte[].class);
-        verify(answerService, times(1)).putIntoBucket(eq("sbom-export.json"), byteCaptor.capture());
+        // capture the writer handed to the upload and let it produce the payload
+        ArgumentCaptor<ObjectStoreStreams.StreamWriter> writerCaptor =
+                ArgumentCaptor.forClass(ObjectStoreStreams.StreamWriter.class);
+        verify(answerService, times(1)).putIntoBucket(eq("sbom-export.json"), writerCaptor.capture());
 
-        byte[] generatedPayload = byteCaptor.getValue();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writerCaptor.getValue().writeTo(out);
+        byte[] generatedPayload = out.toByteArray();
         assertTrue(generatedPayload.length > 0, "Generated JSON payload should not be empty");
 
         String jsonString = new String(generatedPayload);
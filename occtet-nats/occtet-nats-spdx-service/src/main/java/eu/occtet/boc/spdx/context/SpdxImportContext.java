@@ -19,9 +19,11 @@
 
 package eu.occtet.boc.spdx.context;
 
+import eu.occtet.boc.dao.OrtFindingIndex;
 import eu.occtet.boc.entity.*;
 
 import eu.occtet.boc.entity.spdxV2.SpdxDocumentRoot;
+import eu.occtet.boc.entity.spdxV2.SpdxFileEntity;
 import eu.occtet.boc.entity.spdxV2.SpdxPackageEntity;
 import lombok.Data;
 import org.spdx.library.model.v2.Relationship;
@@ -33,17 +35,30 @@ import java.util.*;
 @Data
 public class SpdxImportContext {
 
-    private final Project project;
-    private final SpdxDocument spdxDocument;
-    private final SpdxDocumentRoot spdxDocumentRoot;
+    private Project project;
+    // a streaming import swaps in the document and root of each chunk
+    private SpdxDocument spdxDocument;
+    private SpdxDocumentRoot spdxDocumentRoot;
 
     // Caches and State
     private Collection<ExtractedLicenseInfo> extractedLicenseInfos;
     private Map<String, SpdxPackageEntity> packageLookupMap = new HashMap<>();
+    // files of the document root by SPDXID, indexed on first use
+    private Map<String, SpdxFileEntity> fileLookupMap;
     private Map<String, SoftwareComponent> componentCache = new HashMap<>();
     private Map<String, License> licenseCache = new HashMap<>();
     private Map<String, InventoryItem> fileToInventoryItemMap = new HashMap<>();
     private Map<String, InventoryItem> inventoryCache = new HashMap<>();
+    // ORT issues/violations of the project by purl, loaded once per import
+    private OrtFindingIndex ortFindings;
+    // artifact path to File of the project, loaded on first use and extended with created files
+    private Map<String, File> fileIndex;
+    private List<File> pendingFiles = new ArrayList<>();
+    // packages of the previous import by SPDXID, only set for an incremental import
+    private Map<String, PreviousPackage> previousPackages;
+    // files unlinked from changed or removed packages, deleted at the end unless a package links them again
+    private Set<Long> detachedFileIds = new HashSet<>();
+    private Set<String> documentPackageIds = new HashSet<>();
 
     // Tracking Sets
     private List<InventoryItem> inventoryItems = new ArrayList<>();
@@ -52,6 +67,12 @@ public class SpdxImportContext {
     private Set<String> processedFileIds = new HashSet<>();
     private Map<String, List<Relationship>> packageRelationships = new HashMap<>();
 
+    /**
+     * What an incremental import needs to know about a package imported before.
+     */
+    public record PreviousPackage(Long inventoryItemId, String fingerprint) {
+    }
+
     public SpdxImportContext(Project project, SpdxDocument spdxDocument, SpdxDocumentRoot root) {
         this.project = project;
         this.spdxDocument = spdxDocument;
@@ -62,14 +83,26 @@ public class SpdxImportContext {
         return project;
     }
 
+    public void setProject(Project project) {
+        this.project = project;
+    }
+
     public SpdxDocument getSpdxDocument() {
         return spdxDocument;
     }
 
+    public void setSpdxDocument(SpdxDocument spdxDocument) {
+        this.spdxDocument = spdxDocument;
+    }
+
     public SpdxDocumentRoot getSpdxDocumentRoot() {
         return spdxDocumentRoot;
     }
 
+    public void setSpdxDocumentRoot(SpdxDocumentRoot spdxDocumentRoot) {
+        this.spdxDocumentRoot = spdxDocumentRoot;
+    }
+
     public Map<String, SpdxPackageEntity> getPackageLookupMap() {
         return packageLookupMap;
     }
@@ -78,6 +111,22 @@ public class SpdxImportContext {
         this.packageLookupMap = packageLookupMap;
     }
 
+    public Map<String, SpdxFileEntity> getFileLookupMap() {
+        if (fileLookupMap == null) {
+            fileLookupMap = new HashMap<>();
+            if (spdxDocumentRoot.getFiles() != null) {
+                spdxDocumentRoot.getFiles().stream()
+                        .filter(f -> f.getSpdxId() != null)
+                        .forEach(f -> fileLookupMap.putIfAbsent(f.getSpdxId(), f));
+            }
+        }
+        return fileLookupMap;
+    }
+
+    public void setFileLookupMap(Map<String, SpdxFileEntity> fileLookupMap) {
+        this.fileLookupMap = fileLookupMap;
+    }
+
     public Collection<ExtractedLicenseInfo> getExtractedLicenseInfos() {
         return extractedLicenseInfos;
     }
@@ -158,4 +207,56 @@ public class SpdxImportContext {
     public void setPackageRelationships(Map<String, List<Relationship>> packageRelationships) {
         this.packageRelationships = packageRelationships;
     }
+
+    public OrtFindingIndex getOrtFindings() {
+        return ortFindings;
+    }
+
+    public void setOrtFindings(OrtFindingIndex ortFindings) {
+        this.ortFindings = ortFindings;
+    }
+
+    public Map<String, File> getFileIndex() {
+        return fileIndex;
+    }
+
+    public void setFileIndex(Map<String, File> fileIndex) {
+        this.fileIndex = fileIndex;
+    }
+
+    public List<File> getPendingFiles() {
+        return pendingFiles;
+    }
+
+    public void setPendingFiles(List<File> pendingFiles) {
+        this.pendingFiles = pendingFiles;
+    }
+
+    public Map<String, PreviousPackage> getPreviousPackages() {
+        return previousPackages;
+    }
+
+    public void setPreviousPackages(Map<String, PreviousPackage> previousPackages) {
+        this.previousPackages = previousPackages;
+    }
+
+    public boolean isIncremental() {
+        return previousPackages != null;
+    }
+
+    public Set<Long> getDetachedFileIds() {
+        return detachedFileIds;
+    }
+
+    public void setDetachedFileIds(Set<Long> detachedFileIds) {
+        this.detachedFileIds = detachedFileIds;
+    }
+
+    public Set<String> getDocumentPackageIds() {
+        return documentPackageIds;
+    }
+
+    public void setDocumentPackageIds(Set<String> documentPackageIds) {
+        this.documentPackageIds = documentPackageIds;
+    }
 }
@@ -38,9 +38,11 @@ import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
 import org.spdx.library.model.v2.pointer.StartEndPointer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -167,7 +169,7 @@ public class SpdxConverter {
      * <b>Upsert Logic:</b> Checks the provided {@code spdxDocumentRoot} to see if it already contains
      * a package with the same SPDX ID.
      * <ul>
-     * <li>If found, the existing entity is updated. The child lists (ExternalRefs, Annotations, Checksums) are cleared and repopulated with the new data.</li>
+     * <li>If found, the existing entity is replaced by the newly converted one, together with its child lists (ExternalRefs, Annotations, Checksums).</li>
      * <li>If not found, a new {@link SpdxPackageEntity} is created and added to the document's package list.</li>
      * </ul>
      * </p>
@@ -183,25 +185,28 @@ public class SpdxConverter {
     public SpdxPackageEntity convertPackage(SpdxPackage spdxPackage,
                                             SpdxDocumentRoot spdxDocumentRoot,
                                             Map<String, SpdxPackageEntity> packageLookupMap) {
+        SpdxPackageEntity spdxPackageEntity = convertPackage(spdxPackage);
+        if (spdxPackageEntity == null) return new SpdxPackageEntity();
+        return addPackage(spdxPackageEntity, spdxDocumentRoot, packageLookupMap);
+    }
+
+    /**
+     * Converts an {@link SpdxPackage} model into a new {@link SpdxPackageEntity} which does not belong to a
+     * document yet. Only reads the model, so it is safe to run for several packages at once.
+     *
+     * @param spdxPackage The source SPDX package model to convert.
+     * @return The converted entity, or null if the package could not be read.
+     * @see #addPackage(SpdxPackageEntity, SpdxDocumentRoot, Map)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SpdxPackageEntity convertPackage(SpdxPackage spdxPackage) {
         log.info("converting package: {}", spdxPackage.getId());
         try {
-            if (spdxDocumentRoot.getPackages() == null) {
-                spdxDocumentRoot.setPackages(new ArrayList<>());
-            }
-
-            String spdxId = spdxPackage.getId();
-            SpdxPackageEntity spdxPackageEntity = packageLookupMap.get(spdxId);
-
-            boolean isNew = false;
-            if (spdxPackageEntity == null) {
-                spdxPackageEntity = new SpdxPackageEntity();
-                isNew = true;
-            }
+            SpdxPackageEntity spdxPackageEntity = new SpdxPackageEntity();
 
             // Set standard fields
-            spdxPackageEntity.setSpdxDocument(spdxDocumentRoot);
             spdxPackageEntity.setName(spdxPackage.getName().orElse(""));
-            spdxPackageEntity.setSpdxId(spdxId);
+            spdxPackageEntity.setSpdxId(spdxPackage.getId());
             spdxPackageEntity.setVersionInfo(spdxPackage.getVersionInfo().orElse(""));
             spdxPackageEntity.setCopyrightText(spdxPackage.getCopyrightText());
             spdxPackageEntity.setDownloadLocation(spdxPackage.getDownloadLocation().orElse(""));
@@ -214,10 +219,7 @@ public class SpdxConverter {
             spdxPackageEntity.setSupplier(spdxPackage.getSupplier().orElse(""));
 
             // Handle External Refs
-            if (spdxPackageEntity.getExternalRefs() == null) {
-                spdxPackageEntity.setExternalRefs(new ArrayList<>());
-            }
-            spdxPackageEntity.getExternalRefs().clear();
+            spdxPackageEntity.setExternalRefs(new ArrayList<>());
             for (ExternalRef externalRef : spdxPackage.getExternalRefs()) {
                 ExternalRefEntity externalRefEntity = new ExternalRefEntity();
                 externalRefEntity.setComment(externalRef.getComment().orElse(""));
@@ -229,10 +231,7 @@ public class SpdxConverter {
             }
 
             // Handle Annotations
-            if (spdxPackageEntity.getAnnotations() == null) {
-                spdxPackageEntity.setAnnotations(new ArrayList<>());
-            }
-            spdxPackageEntity.getAnnotations().clear();
+            spdxPackageEntity.setAnnotations(new ArrayList<>());
             for (Annotation annotation : spdxPackage.getAnnotations()) {
                 AnnotationEntity annotationEntity = new AnnotationEntity();
                 annotationEntity.setAnnotationDate(annotation.getAnnotationDate());
@@ -245,10 +244,7 @@ public class SpdxConverter {
             }
 
             // Handle Checksums
-            if (spdxPackageEntity.getChecksums() == null) {
-                spdxPackageEntity.setChecksums(new ArrayList<>());
-            }
-            spdxPackageEntity.getChecksums().clear();
+            spdxPackageEntity.setChecksums(new ArrayList<>());
             for (Checksum checksum : spdxPackage.getChecksums()) {
                 ChecksumEntity checksumEntity = new ChecksumEntity();
                 checksumEntity.setAlgorithm(checksum.getAlgorithm().toString());
@@ -272,18 +268,39 @@ public class SpdxConverter {
             spdxPackageEntity.setFileNames(fileNames);
             spdxPackageEntity.setFilesAnalyzed(spdxPackage.isFilesAnalyzed());
 
-            if (isNew) {
-                spdxDocumentRoot.getPackages().add(spdxPackageEntity);
-                packageLookupMap.put(spdxId, spdxPackageEntity);
-            }
-
-
             return spdxPackageEntity;
 
         } catch (InvalidSPDXAnalysisException e) {
             log.error("Failed to convert package {}: {}. Skipping...", spdxPackage.getId(), e.getMessage());
-            return new SpdxPackageEntity();
+            return null;
+        }
+    }
+
+    /**
+     * Adds a package converted by {@link #convertPackage(SpdxPackage)} to the document. A package converted
+     * before under the same SPDX ID in this import is replaced.
+     *
+     * @param spdxPackageEntity The converted package.
+     * @param spdxDocumentRoot  The parent {@link SpdxDocumentRoot} entity to which this package belongs.
+     * @param packageLookupMap  The packages of the document converted in this import, by SPDX ID.
+     * @return The package as part of the document.
+     */
+    public SpdxPackageEntity addPackage(SpdxPackageEntity spdxPackageEntity,
+                                        SpdxDocumentRoot spdxDocumentRoot,
+                                        Map<String, SpdxPackageEntity> packageLookupMap) {
+        if (spdxDocumentRoot.getPackages() == null) {
+            spdxDocumentRoot.setPackages(new ArrayList<>());
         }
+        spdxPackageEntity.setSpdxDocument(spdxDocumentRoot);
+
+        SpdxPackageEntity previous = packageLookupMap.put(spdxPackageEntity.getSpdxId(), spdxPackageEntity);
+        int index = previous == null ? -1 : spdxDocumentRoot.getPackages().indexOf(previous);
+        if (index >= 0) {
+            spdxDocumentRoot.getPackages().set(index, spdxPackageEntity);
+        } else {
+            spdxDocumentRoot.getPackages().add(spdxPackageEntity);
+        }
+        return spdxPackageEntity;
     }
 
     public Snippet convertSnippets(SpdxSnippet libSnippet, SpdxDocumentRoot spdxDocumentRoot) {
@@ -389,37 +406,38 @@ public class SpdxConverter {
      * @return The persisted {@link SpdxFileEntity} (either newly created or updated).
      */
     public SpdxFileEntity convertFile(SpdxFile spdxFile, SpdxDocumentRoot spdxDocumentRoot) {
-        try {
-
-            if (spdxDocumentRoot.getFiles() == null) {
-                spdxDocumentRoot.setFiles(new ArrayList<>());
-            }
+        SpdxFileEntity spdxFileEntity = convertFile(spdxFile);
+        if (spdxFileEntity == null) return new SpdxFileEntity();
+        Map<String, SpdxFileEntity> fileLookupMap = new HashMap<>();
+        if (spdxDocumentRoot.getFiles() != null) {
+            spdxDocumentRoot.getFiles().stream()
+                    .filter(f -> f.getSpdxId() != null)
+                    .forEach(f -> fileLookupMap.putIfAbsent(f.getSpdxId(), f));
+        }
+        return addFile(spdxFileEntity, spdxDocumentRoot, fileLookupMap);
+    }
 
+    /**
+     * Converts an {@link SpdxFile} model into a new {@link SpdxFileEntity} which does not belong to a document
+     * yet. Only reads the model, so it is safe to run for several files at once.
+     *
+     * @param spdxFile The source SPDX file model to convert.
+     * @return The converted entity, or null if the file could not be read.
+     * @see #addFile(SpdxFileEntity, SpdxDocumentRoot, Map)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SpdxFileEntity convertFile(SpdxFile spdxFile) {
+        try {
             log.info("now converting SPDX-File {}", spdxFile.getId());
 
-            SpdxFileEntity spdxFileEntity = spdxDocumentRoot.getFiles().stream()
-                    .filter(f -> f.getSpdxId() != null && f.getSpdxId().equals(spdxFile.getId()))
-                    .findFirst()
-                    .orElse(null);
-
-            boolean isNew = false;
-            if (spdxFileEntity == null) {
-                spdxFileEntity = new SpdxFileEntity();
-                isNew = true;
-            }
-
+            SpdxFileEntity spdxFileEntity = new SpdxFileEntity();
             spdxFileEntity.setFileName(spdxFile.getName().orElse(""));
-            spdxFileEntity.setSpdxDocument(spdxDocumentRoot);
             spdxFileEntity.setSpdxId(spdxFile.getId());
             spdxFileEntity.setCopyrightText(spdxFile.getCopyrightText());
             spdxFileEntity.setLicenseConcluded(spdxFile.getLicenseConcluded().toString());
             log.debug("populated {}", spdxFileEntity);
 
-
-            if (spdxFileEntity.getChecksums() == null) {
-                spdxFileEntity.setChecksums(new ArrayList<>());
-            }
-            spdxFileEntity.getChecksums().clear();
+            spdxFileEntity.setChecksums(new ArrayList<>());
             for (Checksum checksum : spdxFile.getChecksums()) {
                 ChecksumEntity checksumEntity = new ChecksumEntity();
                 checksumEntity.setAlgorithm(checksum.getAlgorithm().toString());
@@ -440,17 +458,56 @@ public class SpdxConverter {
             }
             spdxFileEntity.setLicenseInfoInFiles(licenseInfoFromFiles);
 
-            if (isNew) {
-                spdxDocumentRoot.getFiles().add(spdxFileEntity);
-                log.debug("added new spdxFileEntity to documentRoot: {}", spdxFileEntity);
-            }
-
             return spdxFileEntity;
 
         } catch (InvalidSPDXAnalysisException e) {
             log.error("error while converting SPDX file to entity: {}", e.toString());
-            return new SpdxFileEntity();
+            return null;
+        }
+    }
+
+    /**
+     * Adds a file converted by {@link #convertFile(SpdxFile)} to the document.
+     * <p>
+     * <b>Upsert Logic:</b> If the document already has a file with the same SPDX ID, the values of the converted
+     * file are copied onto it and its checksums are replaced, otherwise the converted file is added.
+     * </p>
+     *
+     * @param spdxFileEntity   The converted file.
+     * @param spdxDocumentRoot The parent {@link SpdxDocumentRoot} entity to which this file belongs.
+     * @param fileLookupMap    The files of the document by SPDX ID, extended with added files.
+     * @return The file as part of the document (either the added or the updated one).
+     */
+    public SpdxFileEntity addFile(SpdxFileEntity spdxFileEntity, SpdxDocumentRoot spdxDocumentRoot,
+                                  Map<String, SpdxFileEntity> fileLookupMap) {
+        if (spdxDocumentRoot.getFiles() == null) {
+            spdxDocumentRoot.setFiles(new ArrayList<>());
+        }
+
+        SpdxFileEntity existing = fileLookupMap.get(spdxFileEntity.getSpdxId());
+        if (existing == null) {
+            spdxFileEntity.setSpdxDocument(spdxDocumentRoot);
+            spdxDocumentRoot.getFiles().add(spdxFileEntity);
+            fileLookupMap.put(spdxFileEntity.getSpdxId(), spdxFileEntity);
+            log.debug("added new spdxFileEntity to documentRoot: {}", spdxFileEntity);
+            return spdxFileEntity;
+        }
+
+        existing.setFileName(spdxFileEntity.getFileName());
+        existing.setSpdxDocument(spdxDocumentRoot);
+        existing.setCopyrightText(spdxFileEntity.getCopyrightText());
+        existing.setLicenseConcluded(spdxFileEntity.getLicenseConcluded());
+        if (existing.getChecksums() == null) {
+            existing.setChecksums(new ArrayList<>());
+        }
+        existing.getChecksums().clear();
+        for (ChecksumEntity checksumEntity : spdxFileEntity.getChecksums()) {
+            checksumEntity.setSpdxFile(existing);
+            existing.getChecksums().add(checksumEntity);
         }
+        existing.setFileTypes(spdxFileEntity.getFileTypes());
+        existing.setLicenseInfoInFiles(spdxFileEntity.getLicenseInfoInFiles());
+        return existing;
     }
 
     /**
@@ -60,36 +60,16 @@ public class CopyrightService {
     /**
      * Finds or creates a batch of {@link Copyright} entities based on the provided set of copyright texts.
      * If a {@link Copyright} entity corresponding to a text already exists in the repository, it is retrieved.
-     * Otherwise, a new transient entity is created, saved, and included in the result.
+     * Otherwise, a new entity is created, saved, and included in the result. Lookups go through the text hash
+     * index, all missing copyrights are inserted together.
      *
      * @param copyrightTexts the set of copyright text strings to look up or create in batch
      * @return a map where the keys are the copyright text strings and the values are the corresponding {@link Copyright} entities
      */
     @Transactional
     public Map<String, Copyright> findOrCreateBatch(Set<String> copyrightTexts, Organization organization){
-        Map<String, Copyright> cache = new HashMap<>();
-        List<String> textList = new ArrayList<>(copyrightTexts);
-
-        int batchSize = 1000;
-        for (int i = 0; i < textList.size(); i += batchSize) {
-            List<String> batch = textList.subList(i, Math.min(textList.size(), i + batchSize));
-            List<Copyright> found = copyrightRepository.findByCopyrightTextIn(batch);
-            found.forEach(c -> cache.put(c.getCopyrightText(), c));
-        }
-
-        Set<Copyright> toSave = new HashSet<>();
-        for (String text : copyrightTexts) {
-            if (!cache.containsKey(text)) {
-                Copyright newCopyright = copyrightFactory.createTransient(text, new HashSet<>(), organization);
-                toSave.add(newCopyright);
-                cache.put(text, newCopyright);
-            }
-        }
-
-        if (!toSave.isEmpty()) {
-            copyrightRepository.saveAll(toSave);
-        }
-        return cache;
+        if (copyrightTexts.isEmpty()) return new HashMap<>();
+        return copyrightRepository.findOrCreateAll(copyrightTexts, organization);
     }
 
 }
@@ -21,8 +21,11 @@ package eu.occtet.boc.spdx.service;
 
 
 import eu.occtet.boc.dao.FileRepository;
+import eu.occtet.boc.entity.Copyright;
 import eu.occtet.boc.entity.File;
 import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.Project;
+import eu.occtet.boc.spdx.context.SpdxImportContext;
 import eu.occtet.boc.spdx.factory.FileFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,6 +33,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -44,32 +51,36 @@ public class FileService {
     private FileFactory filefactory;
 
 
+    // matches the configured jdbc batch size, pending files are written in chunks of this size
+    static final int FILE_FLUSH_BATCH_SIZE = 1000;
+
     /**
      * Resolves existing file entities or instantiates new ones to persist the structural file tree.
      * Binds the original SPDX identifier to the domain entity to prevent metadata loss during downstream exports.
+     * Lookups go against the import-scoped file index of the context, which is loaded from the database on first
+     * use and extended with every created file. Touched files are written once enough of them are pending,
+     * call {@link #flushPendingFiles(SpdxImportContext)} before relying on all of them being persisted.
      *
      * @param fileToSpdxIdMap A mapping of the artifact path to its assigned SPDX document identifier.
      * @param inventoryItem   The audited inventory node grouping these files.
-     * @return A map correlating the artifact path to the fully persisted file entity.
+     * @param context         The import holding the file index and the pending files.
+     * @return A map correlating the artifact path to the file entity.
      */
     @Transactional
-    public Map<String, File> findOrCreateBatch(Map<String, String> fileToSpdxIdMap, InventoryItem inventoryItem) {
+    public Map<String, File> findOrCreateBatch(Map<String, String> fileToSpdxIdMap, InventoryItem inventoryItem,
+                                               SpdxImportContext context) {
         log.debug("Create Batch of File entities for InventoryItem id={} with {} paths",
                 inventoryItem.getId(), fileToSpdxIdMap.size());
 
-        List<File> toSave = new ArrayList<>();
+        Map<String, File> fileIndex = getFileIndex(context, inventoryItem.getProject());
+        List<File> pendingFiles = context.getPendingFiles();
         Map<String, File> cache = new HashMap<>();
 
-        List<File> existingFiles = fileRepository.findAllByProject(inventoryItem.getProject());
-        Map<String, File> existingMap = existingFiles.stream()
-                .filter(f -> f.getArtifactPath() != null)
-                .collect(Collectors.toMap(File::getArtifactPath, f -> f, (f1, f2) -> f1));
-
         for (Map.Entry<String, String> entry : fileToSpdxIdMap.entrySet()) {
             String path = entry.getKey();
             String spdxId = entry.getValue();
 
-            File fileEntity = existingMap.get(path);
+            File fileEntity = fileIndex.get(path);
 
             if (fileEntity != null) {
                 log.debug("Linking existing File entity {} to InventoryItem {}", path, inventoryItem.getInventoryName());
@@ -78,9 +89,6 @@ public class FileService {
                 if (fileEntity.getDocumentId() == null) {
                     fileEntity.setDocumentId(spdxId);
                 }
-
-                toSave.add(fileEntity);
-                cache.put(path, fileEntity);
             } else {
                 int p = path.lastIndexOf("/");
                 if (p == -1) {
@@ -91,17 +99,133 @@ public class FileService {
                 log.debug("Creating new File entity for path {} with name {} for InventoryItem id={}",
                         path, name, inventoryItem.getInventoryName());
 
-                File newLoc = filefactory.create(path, name, inventoryItem.getProject(), inventoryItem);
-                newLoc.setDocumentId(spdxId);
-                toSave.add(newLoc);
-                cache.put(path, newLoc);
+                fileEntity = filefactory.create(path, name, inventoryItem.getProject(), inventoryItem);
+                fileEntity.setDocumentId(spdxId);
+                fileIndex.put(path, fileEntity);
             }
+            pendingFiles.add(fileEntity);
+            cache.put(path, fileEntity);
         }
 
-        if (!toSave.isEmpty()) {
-            fileRepository.saveAll(toSave);
-            fileRepository.flush();
+        if (pendingFiles.size() >= FILE_FLUSH_BATCH_SIZE) {
+            flushPendingFiles(context);
         }
         return cache;
     }
+
+    /**
+     * Writes all files collected by {@link #findOrCreateBatch} which have not been saved yet.
+     * @param context the running import
+     */
+    @Transactional
+    public void flushPendingFiles(SpdxImportContext context) {
+        List<File> pendingFiles = context.getPendingFiles();
+        if (pendingFiles.isEmpty()) return;
+
+        log.debug("Flushing {} pending File entities", pendingFiles.size());
+        // a file linked to several inventory items is only written once
+        List<File> saved = fileRepository.saveAll(new LinkedHashSet<>(pendingFiles));
+        fileRepository.flush();
+        pendingFiles.clear();
+
+        // saveAll may hand back merged copies, keep the index pointing at the managed instances
+        Map<String, File> fileIndex = context.getFileIndex();
+        if (fileIndex == null) return;
+        for (File file : saved) {
+            if (file.getArtifactPath() != null) fileIndex.put(file.getArtifactPath(), file);
+        }
+    }
+
+    /**
+     * Unlinks all files of an inventory item, used by an incremental import for packages which changed or
+     * disappeared. The files stay in the file index, so a package that still contains a path links it again.
+     * Files nobody links anymore are deleted by {@link #removeDetachedFiles(SpdxImportContext)}.
+     */
+    @Transactional
+    public void detachFiles(InventoryItem inventoryItem, SpdxImportContext context) {
+        List<File> files = fileRepository.findByInventoryItemsContaining(inventoryItem);
+        log.debug("Detaching {} files from InventoryItem {}", files.size(), inventoryItem.getInventoryName());
+        for (File file : files) {
+            file.getInventoryItems().remove(inventoryItem);
+            context.getDetachedFileIds().add(file.getId());
+        }
+        context.getPendingFiles().addAll(files);
+    }
+
+    /**
+     * Deletes the detached files which were not linked again during the import, together with their downloaded
+     * content. Directories still holding a remaining file are kept.
+     */
+    @Transactional
+    public void removeDetachedFiles(SpdxImportContext context) {
+        flushPendingFiles(context);
+        if (context.getDetachedFileIds().isEmpty()) return;
+
+        Set<File> stale = new HashSet<>();
+        List<Long> ids = new ArrayList<>(context.getDetachedFileIds());
+        for (int from = 0; from < ids.size(); from += FILE_FLUSH_BATCH_SIZE) {
+            fileRepository.findAllById(ids.subList(from, Math.min(from + FILE_FLUSH_BATCH_SIZE, ids.size())))
+                    .stream()
+                    .filter(f -> f.getInventoryItems().isEmpty())
+                    .forEach(stale::add);
+        }
+
+        // a kept child keeps its parent, repeated until no further directory has to be kept
+        boolean changed = true;
+        while (changed && !stale.isEmpty()) {
+            List<File> keptParents = new ArrayList<>();
+            List<File> candidates = new ArrayList<>(stale);
+            for (int from = 0; from < candidates.size(); from += FILE_FLUSH_BATCH_SIZE) {
+                fileRepository.findAllByParentIn(candidates.subList(from, Math.min(from + FILE_FLUSH_BATCH_SIZE, candidates.size())))
+                        .stream()
+                        .filter(child -> !stale.contains(child))
+                        .map(File::getParent)
+                        .forEach(keptParents::add);
+            }
+            changed = stale.removeAll(keptParents);
+        }
+        log.info("Removing {} files of changed or removed packages", stale.size());
+
+        List<File> ordered = new ArrayList<>(stale);
+        // children before their directories, on disk and in the table
+        ordered.sort(Comparator.comparing((File f) -> f.getProjectPath() == null ? 0 : f.getProjectPath().length()).reversed());
+        for (File file : ordered) {
+            for (Copyright copyright : file.getCopyrights()) {
+                copyright.getFiles().remove(file);
+            }
+            file.getCopyrights().clear();
+            file.setParent(null);
+            deletePhysicalFile(file);
+            if (context.getFileIndex() != null && file.getArtifactPath() != null) {
+                context.getFileIndex().remove(file.getArtifactPath());
+            }
+        }
+        context.getProject().getFiles().removeAll(stale);
+        fileRepository.deleteAll(ordered);
+        fileRepository.flush();
+        context.getDetachedFileIds().clear();
+    }
+
+    private void deletePhysicalFile(File file) {
+        if (file.getPhysicalPath() == null) return;
+        Path path = Paths.get(file.getPhysicalPath());
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // a directory with leftovers which are no file entities is left in place
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Map<String, File> getFileIndex(SpdxImportContext context, Project project) {
+        if (context.getFileIndex() == null) {
+            List<File> existingFiles = fileRepository.findAllByProject(project);
+            log.debug("Loaded {} existing files of project {} into the file index", existingFiles.size(),
+                    project.getProjectName());
+            context.setFileIndex(existingFiles.stream()
+                    .filter(f -> f.getArtifactPath() != null)
+                    .collect(Collectors.toMap(File::getArtifactPath, f -> f, (f1, f2) -> f1, HashMap::new)));
+        }
+        return context.getFileIndex();
+    }
 }
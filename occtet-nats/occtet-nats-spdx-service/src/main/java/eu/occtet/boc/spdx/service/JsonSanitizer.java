@@ -18,137 +18,171 @@
 
 package eu.occtet.boc.spdx.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Removes duplicate element definitions and references to undefined SPDXIDs from an SPDX JSON document.
+ * The document is streamed twice, never held as a whole tree: the first pass collects the defined ids,
+ * the second copies the document and filters the elements one by one. Memory use of the sanitizer is bounded by
+ * the largest single element instead of the document size. Unless spdx.import.streaming is set, the import still
+ * deserializes the whole cleaned document into the SPDX model store, see {@link SpdxJsonIndex}.
+ */
 @Service
 public class JsonSanitizer {
 
     private static final Logger log = LogManager.getLogger(JsonSanitizer.class);
 
-    /**
-     * Scans the JSON tree for defined SPDXIDs and removes references (like relationships)
-     * pointing to IDs that do not exist.
-     */
-    public byte[] sanitizeSpdxJson(JsonNode rootNode, ObjectMapper mapper, byte[] originalBytes) {
-        try {
+    private static final String EXTRACTED_LICENSES = "hasExtractedLicensingInfos";
+    // element arrays in the order in which they claim their SPDXIDs, earlier arrays win on duplicates
+    private static final List<String> ELEMENT_ARRAYS = List.of("packages", "files", "snippets");
 
-            Set<String> validIds = new java.util.TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final ObjectMapper mapper = new ObjectMapper();
 
-            if (rootNode.has("SPDXID")) {
-                validIds.add(rootNode.get("SPDXID").asText());
-            }
+    /**
+     * Scans the JSON for defined SPDXIDs and writes a copy to the given stream without duplicate definitions
+     * and without references (like relationships) pointing to IDs that do not exist.
+     *
+     * @param source the SPDX JSON, opened twice
+     * @param out    receives the sanitized JSON, the stream is not closed
+     * @throws IOException if the source is not valid JSON or cannot be read
+     */
+    public void sanitizeSpdxJson(InputStreamSource source, OutputStream out) throws IOException {
+        DefinedIds definedIds;
+        try (InputStream in = source.getInputStream()) {
+            definedIds = collectDefinedIds(in);
+        }
+        try (InputStream in = source.getInputStream();
+             JsonParser parser = mapper.getFactory().createParser(in);
+             JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writeSanitized(parser, generator, definedIds);
+        }
+    }
 
-            if (rootNode.has("hasExtractedLicensingInfos") && rootNode.get("hasExtractedLicensingInfos").isArray()) {
-                ArrayNode licenses = (ArrayNode) rootNode.get("hasExtractedLicensingInfos");
-                ArrayNode deduplicatedLicenses = mapper.createArrayNode();
-
-                for (JsonNode license : licenses) {
-                    if (license.has("licenseId")) {
-                        String licenseId = license.get("licenseId").asText();
-                        if (!validIds.contains(licenseId)) {
-                            validIds.add(licenseId);
-                            deduplicatedLicenses.add(license);
-                        } else {
-                            log.warn("Scrubbing duplicate extracted license definition: {}", licenseId);
+    private DefinedIds collectDefinedIds(InputStream in) throws IOException {
+        DefinedIds definedIds = new DefinedIds();
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("SPDXID".equals(field) && value.isScalarValue()) {
+                    definedIds.documentId = parser.getText();
+                } else if (value == JsonToken.START_ARRAY
+                        && (EXTRACTED_LICENSES.equals(field) || ELEMENT_ARRAYS.contains(field))) {
+                    String idField = EXTRACTED_LICENSES.equals(field) ? "licenseId" : "SPDXID";
+                    Map<String, Integer> firstIndex = definedIds.firstIndexByArray
+                            .computeIfAbsent(field, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+                    int index = 0;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        JsonNode element = mapper.readTree(parser);
+                        if (element.has(idField)) {
+                            firstIndex.putIfAbsent(element.get(idField).asText(), index);
                         }
+                        index++;
                     }
+                } else {
+                    parser.skipChildren();
                 }
-                ((ObjectNode) rootNode).set("hasExtractedLicensingInfos", deduplicatedLicenses);
             }
+        }
+        definedIds.resolveOwners();
+        return definedIds;
+    }
 
-            String[] elementArrays = {"packages", "files", "snippets"};
-            for (String arrayName : elementArrays) {
-                if (rootNode.has(arrayName) && rootNode.get(arrayName).isArray()) {
-                    ArrayNode elements = (ArrayNode) rootNode.get(arrayName);
-                    ArrayNode deduplicatedElements = mapper.createArrayNode();
-
-                    for (JsonNode element : elements) {
-                        if (element.has("SPDXID")) {
-                            String spdxId = element.get("SPDXID").asText();
-                            if (!validIds.contains(spdxId)) {
-                                validIds.add(spdxId);
-                                deduplicatedElements.add(element);
-                            } else {
-                                log.warn("Scrubbing duplicate {} definition: {}", arrayName, spdxId);
-                            }
-                        }
-                    }
-                    ((ObjectNode) rootNode).set(arrayName, deduplicatedElements);
-                }
+    private void writeSanitized(JsonParser parser, JsonGenerator generator, DefinedIds definedIds) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        generator.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            generator.writeFieldName(field);
+            if (value != JsonToken.START_ARRAY) {
+                generator.copyCurrentStructure(parser);
+                continue;
             }
-
-            if (rootNode.has("relationships") && rootNode.get("relationships").isArray()) {
-                ArrayNode relationships = (ArrayNode) rootNode.get("relationships");
-                ArrayNode validRelationships = mapper.createArrayNode();
-
-                for (JsonNode rel : relationships) {
-                    String sourceId = rel.path("spdxElementId").asText();
-                    String targetId = rel.path("relatedSpdxElement").asText();
-
-                    if (isValidReference(sourceId, validIds) && isValidReference(targetId, validIds)) {
-                        validRelationships.add(rel);
-                    } else {
-                        log.warn("Scrubbing invalid relationship in JSON: {} -> {}", sourceId, targetId);
-                    }
+            generator.writeStartArray();
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                JsonNode element = mapper.readTree(parser);
+                if (keepElement(field, index++, element, definedIds)) {
+                    mapper.writeTree(generator, element);
                 }
-                ((ObjectNode) rootNode).set("relationships", validRelationships);
             }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
 
-            if (rootNode.has("packages") && rootNode.get("packages").isArray()) {
-                for (JsonNode pkg : rootNode.get("packages")) {
-                    if (pkg.has("hasFiles") && pkg.get("hasFiles").isArray()) {
-                        ArrayNode files = (ArrayNode) pkg.get("hasFiles");
-                        ArrayNode validFiles = mapper.createArrayNode();
-                        for (JsonNode fileId : files) {
-                            if (isValidReference(fileId.asText(), validIds)) {
-                                validFiles.add(fileId);
-                            } else {
-                                log.warn("Scrubbing missing file reference {} from package {}", fileId.asText(), pkg.path("SPDXID").asText());
-                            }
-                        }
-                        ((ObjectNode) pkg).set("hasFiles", validFiles);
-                    }
-                }
+    /**
+     * Decides for one entry of a top level array whether it is written, and scrubs invalid references inside it.
+     */
+    private boolean keepElement(String arrayName, int index, JsonNode element, DefinedIds definedIds) {
+        if (EXTRACTED_LICENSES.equals(arrayName) || ELEMENT_ARRAYS.contains(arrayName)) {
+            String idField = EXTRACTED_LICENSES.equals(arrayName) ? "licenseId" : "SPDXID";
+            if (!element.has(idField)) return false;
+            String id = element.get(idField).asText();
+            if (!definedIds.isOwner(arrayName, index, id)) {
+                log.warn("Scrubbing duplicate {} definition: {}", arrayName, id);
+                return false;
             }
-
-            if (rootNode.has("documentDescribes") && rootNode.get("documentDescribes").isArray()) {
-                ArrayNode describes = (ArrayNode) rootNode.get("documentDescribes");
-                ArrayNode validDescribes = mapper.createArrayNode();
-                for (JsonNode descId : describes) {
-                    if (isValidReference(descId.asText(), validIds)) {
-                        validDescribes.add(descId);
-                    } else {
-                        log.warn("Scrubbing missing documentDescribes reference: {}", descId.asText());
-                    }
+            if ("packages".equals(arrayName)) {
+                scrubReferenceArray((ObjectNode) element, "hasFiles", definedIds, element.path("SPDXID").asText());
+            } else if ("snippets".equals(arrayName) && element.has("snippetFromFile")) {
+                String fileRef = element.get("snippetFromFile").asText();
+                if (!isValidReference(fileRef, definedIds.validIds)) {
+                    log.warn("Scrubbing invalid snippetFromFile reference {} from snippet {}", fileRef, id);
+                    ((ObjectNode) element).remove("snippetFromFile");
                 }
-                ((ObjectNode) rootNode).set("documentDescribes", validDescribes);
             }
+            return true;
+        }
+        if ("relationships".equals(arrayName)) {
+            String sourceId = element.path("spdxElementId").asText();
+            String targetId = element.path("relatedSpdxElement").asText();
+            if (isValidReference(sourceId, definedIds.validIds) && isValidReference(targetId, definedIds.validIds)) {
+                return true;
+            }
+            log.warn("Scrubbing invalid relationship in JSON: {} -> {}", sourceId, targetId);
+            return false;
+        }
+        if ("documentDescribes".equals(arrayName)) {
+            if (isValidReference(element.asText(), definedIds.validIds)) return true;
+            log.warn("Scrubbing missing documentDescribes reference: {}", element.asText());
+            return false;
+        }
+        return true;
+    }
 
-            if (rootNode.has("snippets") && rootNode.get("snippets").isArray()) {
-                for (JsonNode snippet : rootNode.get("snippets")) {
-                    if (snippet.has("snippetFromFile")) {
-                        String fileRef = snippet.get("snippetFromFile").asText();
-                        if (!isValidReference(fileRef, validIds)) {
-                            log.warn("Scrubbing invalid snippetFromFile reference {} from snippet {}",
-                                    fileRef, snippet.path("SPDXID").asText());
-                            ((ObjectNode) snippet).remove("snippetFromFile");
-                        }
-                    }
-                }
+    private void scrubReferenceArray(ObjectNode element, String field, DefinedIds definedIds, String ownerId) {
+        if (!element.has(field) || !element.get(field).isArray()) return;
+        Iterator<JsonNode> refs = element.get(field).iterator();
+        while (refs.hasNext()) {
+            String ref = refs.next().asText();
+            if (!isValidReference(ref, definedIds.validIds)) {
+                log.warn("Scrubbing missing file reference {} from package {}", ref, ownerId);
+                refs.remove();
             }
+        }
+    }
 
-            return mapper.writeValueAsBytes(rootNode);
-        } catch (Exception e) {
-            log.warn("Failed to sanitize SPDX JSON, falling back to original payload", e);
-            return originalBytes;
+    private void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected JSON token " + actual + ", expected " + expected);
         }
     }
 
@@ -160,4 +194,38 @@ public class JsonSanitizer {
 
         return validIds.contains(id) || id.contains(":") || "NONE".equals(id) || "NOASSERTION".equals(id);
     }
+
+    /**
+     * SPDXIDs found in the first pass. An id belongs to the first entry defining it, checked in the order
+     * document, extracted licenses, packages, files, snippets.
+     */
+    private static class DefinedIds {
+        String documentId;
+        final Map<String, Map<String, Integer>> firstIndexByArray = new HashMap<>();
+        final Set<String> validIds = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        // id -> "arrayName#index" of the entry which is kept
+        private final Map<String, String> owners = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        void resolveOwners() {
+            if (documentId != null) {
+                validIds.add(documentId);
+                owners.put(documentId, "");
+            }
+            List<String> order = new ArrayList<>();
+            order.add(EXTRACTED_LICENSES);
+            order.addAll(ELEMENT_ARRAYS);
+            for (String arrayName : order) {
+                Map<String, Integer> firstIndex = firstIndexByArray.getOrDefault(arrayName, Map.of());
+                for (Map.Entry<String, Integer> entry : firstIndex.entrySet()) {
+                    if (validIds.add(entry.getKey())) {
+                        owners.put(entry.getKey(), arrayName + "#" + entry.getValue());
+                    }
+                }
+            }
+        }
+
+        boolean isOwner(String arrayName, int index, String id) {
+            return (arrayName + "#" + index).equals(owners.get(id));
+        }
+    }
 }
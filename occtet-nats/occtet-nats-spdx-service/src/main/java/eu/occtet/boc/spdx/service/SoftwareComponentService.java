@@ -28,7 +28,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.*;
 
 
 @Service
@@ -54,6 +54,35 @@ public class SoftwareComponentService {
         }
     }
 
+    /**
+     * Batch variant of {@link #getOrCreateSoftwareComponent}, looks all components up with one query and inserts
+     * the missing ones together.
+     *
+     * @param versionsByName the versions of the components by their name
+     * @return the components by "name:version"
+     */
+    public Map<String, SoftwareComponent> getOrCreateSoftwareComponents(Map<String, Set<String>> versionsByName,
+                                                                        Organization organization, String originType){
+        Map<String, SoftwareComponent> components = new HashMap<>();
+        if (versionsByName.isEmpty()) return components;
+        for (SoftwareComponent component : softwareComponentRepository.findByNameIn(versionsByName.keySet())) {
+            if (versionsByName.get(component.getName()).contains(component.getVersion())) {
+                components.putIfAbsent(component.getName() + ":" + component.getVersion(), component);
+            }
+        }
+        List<SoftwareComponent> created = new ArrayList<>();
+        versionsByName.forEach((name, versions) -> versions.forEach(version -> {
+            if (!components.containsKey(name + ":" + version)) {
+                created.add(new SoftwareComponent(name, version, organization, originType));
+            }
+        }));
+        for (SoftwareComponent component : softwareComponentRepository.saveAll(created)) {
+            components.put(component.getName() + ":" + component.getVersion(), component);
+        }
+        log.debug("resolved {} software components, {} created", components.size(), created.size());
+        return components;
+    }
+
 
 
 }
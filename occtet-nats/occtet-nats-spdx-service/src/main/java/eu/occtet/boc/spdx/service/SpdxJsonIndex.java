@@ -0,0 +1,368 @@
+/*
+ *  Copyright (C) 2025 Bitsea GmbH
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and limitations under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.spdx.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.jacksonstore.MultiFormatStore;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.storage.simple.InMemSpdxStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Index of an SPDX JSON file for the streaming import. The file is read once with the Jackson streaming parser,
+ * which records the byte range of every package, file, snippet and relationship. The read methods then assemble a
+ * small SPDX document for one chunk of elements from these ranges and deserialize it into its own in-memory store.
+ * Only the document header, the SPDXIDs and the ranges stay on the heap, the elements are read again per chunk.
+ * <p>
+ * A chunk document carries the header of the document, so extracted licenses and external document references
+ * resolve in every chunk. Packages outside of a chunk which are the target of a relationship are replaced by a stub
+ * holding only their SPDXID and name.
+ * </p>
+ */
+public class SpdxJsonIndex implements Closeable {
+
+    private static final Set<String> ELEMENT_ARRAYS =
+            Set.of("packages", "files", "snippets", "relationships", "documentDescribes");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FileChannel channel;
+
+    // top level fields apart from the element arrays, copied into every chunk document
+    private final Map<String, JsonNode> header = new LinkedHashMap<>();
+    private final List<String> documentDescribes = new ArrayList<>();
+    private final Map<String, PackageEntry> packages = new LinkedHashMap<>();
+    private final Map<String, ByteRange> files = new LinkedHashMap<>();
+    private final Map<String, SnippetEntry> snippets = new LinkedHashMap<>();
+    // relationships by the package they start from, in document order
+    private final Map<String, List<RelationshipEntry>> relationshipsBySource = new LinkedHashMap<>();
+
+    private record ByteRange(long start, int length) {
+    }
+
+    private record PackageEntry(ByteRange range, String name) {
+    }
+
+    private record SnippetEntry(ByteRange range, Set<String> fileIds) {
+    }
+
+    private record RelationshipEntry(ByteRange range, String targetId, boolean contains) {
+    }
+
+    private SpdxJsonIndex(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Indexes the given SPDX JSON file, which stays open until the index is closed.
+     *
+     * @throws IOException if the file is not valid JSON or cannot be read
+     */
+    public static SpdxJsonIndex open(Path json) throws IOException {
+        SpdxJsonIndex index = new SpdxJsonIndex(FileChannel.open(json, StandardOpenOption.READ));
+        try (InputStream in = Files.newInputStream(json)) {
+            index.scan(in);
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+        return index;
+    }
+
+    private void scan(InputStream in) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("SPDX JSON does not start with an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_ARRAY || !ELEMENT_ARRAYS.contains(field)) {
+                    header.put(field, mapper.readTree(parser));
+                    continue;
+                }
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    long start = parser.currentTokenLocation().getByteOffset();
+                    JsonNode element = mapper.readTree(parser);
+                    if ("documentDescribes".equals(field)) {
+                        documentDescribes.add(element.asText());
+                    } else if (element.isObject()) {
+                        long end = parser.currentTokenLocation().getByteOffset() + 1;
+                        addElement(field, element, new ByteRange(start, Math.toIntExact(end - start)));
+                    }
+                }
+            }
+        }
+        // only relationships of packages are imported, the others are not needed anymore
+        relationshipsBySource.keySet().retainAll(packages.keySet());
+    }
+
+    private void addElement(String arrayName, JsonNode element, ByteRange range) {
+        String id = element.path("SPDXID").asText(null);
+        switch (arrayName) {
+            case "packages" -> {
+                if (id != null) packages.putIfAbsent(id, new PackageEntry(range, element.path("name").asText(id)));
+            }
+            case "files" -> {
+                if (id != null) files.putIfAbsent(id, range);
+            }
+            case "snippets" -> {
+                if (id != null) snippets.putIfAbsent(id, new SnippetEntry(range, snippetFileIds(element)));
+            }
+            case "relationships" -> {
+                String sourceId = element.path("spdxElementId").asText(null);
+                String targetId = element.path("relatedSpdxElement").asText(null);
+                if (sourceId == null || targetId == null) return;
+                boolean contains = "CONTAINS".equals(element.path("relationshipType").asText());
+                relationshipsBySource.computeIfAbsent(sourceId, k -> new ArrayList<>())
+                        .add(new RelationshipEntry(range, targetId, contains));
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static Set<String> snippetFileIds(JsonNode snippet) {
+        Set<String> fileIds = new LinkedHashSet<>();
+        if (snippet.hasNonNull("snippetFromFile")) fileIds.add(snippet.get("snippetFromFile").asText());
+        for (JsonNode range : snippet.path("ranges")) {
+            for (JsonNode pointer : List.of(range.path("startPointer"), range.path("endPointer"))) {
+                if (pointer.hasNonNull("reference")) fileIds.add(pointer.get("reference").asText());
+            }
+        }
+        return fileIds;
+    }
+
+    /**
+     * @return the SPDXIDs of the packages in document order
+     */
+    public List<String> packageIds() {
+        return List.copyOf(packages.keySet());
+    }
+
+    /**
+     * @return the SPDXIDs of the files in document order
+     */
+    public List<String> fileIds() {
+        return List.copyOf(files.keySet());
+    }
+
+    /**
+     * @return the SPDXIDs of the snippets in document order
+     */
+    public List<String> snippetIds() {
+        return List.copyOf(snippets.keySet());
+    }
+
+    /**
+     * @return the SPDXIDs of the packages with relationships, in document order
+     */
+    public List<String> relationshipSourceIds() {
+        return List.copyOf(relationshipsBySource.keySet());
+    }
+
+    /**
+     * The document information without elements, apart from the described ones. Packages named in documentDescribes
+     * are only present as stubs.
+     */
+    public SpdxDocument readHeader() throws IOException, InvalidSPDXAnalysisException {
+        Chunk chunk = new Chunk();
+        for (String id : documentDescribes) {
+            if (chunk.addReference(id)) chunk.describes.add(id);
+        }
+        return chunk.deserialize();
+    }
+
+    /**
+     * The given packages with their files, as listed in hasFiles or by CONTAINS relationships. Relationships to
+     * other elements are left out, see {@link #readRelationships(Collection)}.
+     */
+    public SpdxDocument readPackages(Collection<String> packageIds) throws IOException, InvalidSPDXAnalysisException {
+        Chunk chunk = new Chunk();
+        for (String id : packageIds) {
+            PackageEntry entry = packages.get(id);
+            if (entry == null) continue;
+            ObjectNode pkg = (ObjectNode) read(entry.range());
+            if (pkg.path("hasFiles").isArray()) {
+                Iterator<JsonNode> refs = pkg.get("hasFiles").iterator();
+                while (refs.hasNext()) {
+                    String fileId = refs.next().asText();
+                    if (!chunk.addFile(fileId)) refs.remove();
+                }
+            }
+            chunk.packages.put(id, pkg);
+            for (RelationshipEntry relationship : relationshipsBySource.getOrDefault(id, List.of())) {
+                if (relationship.contains() && chunk.addFile(relationship.targetId())) {
+                    chunk.relationships.add(read(relationship.range()));
+                }
+            }
+        }
+        return chunk.deserialize();
+    }
+
+    /**
+     * The given files without the packages they belong to.
+     */
+    public SpdxDocument readFiles(Collection<String> fileIds) throws IOException, InvalidSPDXAnalysisException {
+        Chunk chunk = new Chunk();
+        for (String id : fileIds) {
+            chunk.addFile(id);
+        }
+        return chunk.deserialize();
+    }
+
+    /**
+     * All relationships starting from the given packages. Source and target packages are stubs, target files and
+     * snippets are complete. Relationships to elements the index does not know are left out.
+     */
+    public SpdxDocument readRelationships(Collection<String> packageIds) throws IOException, InvalidSPDXAnalysisException {
+        Chunk chunk = new Chunk();
+        for (String id : packageIds) {
+            List<RelationshipEntry> relationships = relationshipsBySource.get(id);
+            if (relationships == null) continue;
+            chunk.addReference(id);
+            for (RelationshipEntry relationship : relationships) {
+                if (chunk.addReference(relationship.targetId())) {
+                    chunk.relationships.add(read(relationship.range()));
+                }
+            }
+        }
+        return chunk.deserialize();
+    }
+
+    /**
+     * The given snippets together with the files they point to.
+     */
+    public SpdxDocument readSnippets(Collection<String> snippetIds) throws IOException, InvalidSPDXAnalysisException {
+        Chunk chunk = new Chunk();
+        for (String id : snippetIds) {
+            chunk.addSnippet(id);
+        }
+        return chunk.deserialize();
+    }
+
+    private JsonNode read(ByteRange range) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(range.length());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, range.start() + buffer.position()) < 0) {
+                throw new EOFException("SPDX JSON ended inside an indexed element");
+            }
+        }
+        return mapper.readTree(buffer.array());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The elements of one chunk document, each added once.
+     */
+    private class Chunk {
+        final List<String> describes = new ArrayList<>();
+        final Map<String, JsonNode> packages = new LinkedHashMap<>();
+        final Map<String, JsonNode> files = new LinkedHashMap<>();
+        final Map<String, JsonNode> snippets = new LinkedHashMap<>();
+        final List<JsonNode> relationships = new ArrayList<>();
+
+        /**
+         * Adds the element with the given id in the form a reference to it needs.
+         *
+         * @return false if the id cannot be referenced in the chunk document
+         */
+        boolean addReference(String id) throws IOException {
+            if (SpdxJsonIndex.this.packages.containsKey(id)) {
+                addStub(id);
+                return true;
+            }
+            return addFile(id) || addSnippet(id) || isKnownReference(id);
+        }
+
+        private void addStub(String id) {
+            if (packages.containsKey(id)) return;
+            ObjectNode stub = mapper.createObjectNode();
+            stub.put("SPDXID", id);
+            stub.put("name", SpdxJsonIndex.this.packages.get(id).name());
+            stub.put("downloadLocation", "NOASSERTION");
+            stub.put("filesAnalyzed", false);
+            packages.put(id, stub);
+        }
+
+        boolean addFile(String id) throws IOException {
+            if (files.containsKey(id)) return true;
+            ByteRange range = SpdxJsonIndex.this.files.get(id);
+            if (range == null) return false;
+            files.put(id, read(range));
+            return true;
+        }
+
+        boolean addSnippet(String id) throws IOException {
+            if (snippets.containsKey(id)) return true;
+            SnippetEntry entry = SpdxJsonIndex.this.snippets.get(id);
+            if (entry == null) return false;
+            if (!SpdxJsonIndex.this.files.keySet().containsAll(entry.fileIds())) return false;
+            for (String fileId : entry.fileIds()) {
+                addFile(fileId);
+            }
+            snippets.put(id, read(entry.range()));
+            return true;
+        }
+
+        /**
+         * The document itself, NONE, NOASSERTION and elements of external documents need no element in the chunk.
+         */
+        private boolean isKnownReference(String id) {
+            return id.equals(header.getOrDefault("SPDXID", mapper.missingNode()).asText())
+                    || "NONE".equals(id) || "NOASSERTION".equals(id) || id.contains(":");
+        }
+
+        SpdxDocument deserialize() throws IOException, InvalidSPDXAnalysisException {
+            ObjectNode document = mapper.createObjectNode();
+            document.setAll(header);
+            if (!describes.isEmpty()) {
+                ArrayNode describesNode = document.putArray("documentDescribes");
+                describes.forEach(describesNode::add);
+            }
+            document.putArray("packages").addAll(packages.values());
+            document.putArray("files").addAll(files.values());
+            document.putArray("snippets").addAll(snippets.values());
+            document.putArray("relationships").addAll(relationships);
+
+            MultiFormatStore store = new MultiFormatStore(new InMemSpdxStore(), MultiFormatStore.Format.JSON);
+            return store.deSerialize(new ByteArrayInputStream(mapper.writeValueAsBytes(document)), false);
+        }
+    }
+}
@@ -20,17 +20,18 @@
 package eu.occtet.boc.spdx.service;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.dao.*;
 import eu.occtet.boc.entity.*;
 import eu.occtet.boc.entity.spdxV2.SpdxDocumentRoot;
+import eu.occtet.boc.entity.spdxV2.SpdxFileEntity;
 import eu.occtet.boc.model.SpdxWorkData;
 import eu.occtet.boc.service.ProgressReportingService;
 import eu.occtet.boc.spdx.context.SpdxImportContext;
 import eu.occtet.boc.spdx.converter.SpdxConverter;
 import eu.occtet.boc.spdx.exception.SpdxImportException;
 import eu.occtet.boc.spdx.service.handler.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.spdx.core.InvalidSPDXAnalysisException;
@@ -40,22 +41,33 @@ import org.spdx.library.model.v2.*;
 import org.spdx.library.model.v2.license.*;
 import org.spdx.storage.simple.InMemSpdxStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
-@Transactional
 public class SpdxService extends ProgressReportingService {
 
     private static final Logger log = LogManager.getLogger(SpdxService.class);
 
+    // elements per chunk of a streaming import when no chunk size is configured
+    private static final int STREAMING_CHUNK_SIZE = 100;
+
     @Autowired
     private SpdxConverter spdxConverter;
     @Autowired
@@ -78,78 +90,500 @@ public class SpdxService extends ProgressReportingService {
     private CleanUpService cleanUpService;
     @Autowired
     private JsonSanitizer sanitizer;
+    @Autowired
+    private ImportCheckpointDao importCheckpointDao;
+    @Autowired
+    private FileService fileService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private SpdxPackageRepository spdxPackageRepository;
+    @Autowired
+    private SpdxFileRepository spdxFileRepository;
+    @Autowired
+    private RelationshipRepository relationshipRepository;
+    @Autowired
+    private SnippetRepository snippetRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // packages per transaction, 0 imports the whole document in one transaction
+    @Value("${spdx.import.chunk-size:0}")
+    private int importChunkSize;
+    // keep the file tree of the previous import and only rework packages whose fingerprint changed
+    @Value("${spdx.import.incremental:false}")
+    private boolean incrementalImport;
+    // read the document chunk by chunk instead of deserializing it as a whole
+    @Value("${spdx.import.streaming:false}")
+    private boolean streamingImport;
 
     public boolean process(SpdxWorkData workData) throws SpdxImportException {
+        return process(workData, null);
+    }
+
+    /**
+     * @param taskId the id of the work task, an import in chunks keeps its checkpoint under it
+     */
+    public boolean process(SpdxWorkData workData, String taskId) throws SpdxImportException {
         log.debug("SpdxService: reads SPDX and creates entities to curate {}", workData.toString());
-        return parseDocument(workData);
+        return parseDocument(workData, taskId);
     }
 
     /**
      * Takes spdxWorkData, extracts contained JSON and creates entities based on the deserialized spdxDocument created from the JSON.
      * If the entities are already present then no new ones will be created, however some of their attributes may change.
+     * With spdx.import.chunk-size set, packages are committed in chunks and an interrupted import of the same task
+     * continues after the last committed chunk. With spdx.import.streaming set, the document is never deserialized
+     * as a whole, see {@link #importStreaming}.
      *
      * @param spdxWorkData
+     * @param taskId the id of the work task, null if the import cannot be resumed
      * @return true if the entities where created successfully, false is any error occurred
      */
-    public boolean parseDocument(SpdxWorkData spdxWorkData) throws SpdxImportException {
+    public boolean parseDocument(SpdxWorkData spdxWorkData, String taskId) throws SpdxImportException {
+        log.info("now processing SPDX for project id: {}", spdxWorkData.getProjectId());
+        notifyProgress(1, "init");
+        // setup for spdx library need to be called once before any spdx model objects are accessed
+        SpdxModelFactory.init();
+        Path cleanedJson = spoolSanitized(documentSource(spdxWorkData));
         try {
-            log.info("now processing SPDX for project id: {}", spdxWorkData.getProjectId());
-            notifyProgress(1, "init");
-            // setup for spdx library need to be called once before any spdx model objects are accessed
+            if (streamingImport) {
+                return importStreaming(cleanedJson, spdxWorkData, taskId);
+            }
+            SpdxDocument spdxDocument = loadSpdxDocument(cleanedJson);
+            if (importChunkSize > 0) {
+                return importInChunks(spdxDocument, spdxWorkData, taskId);
+            }
+            return inTransaction(() -> {
+                SpdxImportContext context = prepareImport(spdxDocument, spdxWorkData, true);
+                if (context == null) {
+                    return false;
+                }
+                notifyProgress(10, "converting SPDX");
 
-            SpdxDocument spdxDocument = loadSpdxDocument(spdxWorkData.getJsonBytes());
-            Project project = loadProject(spdxWorkData.getProjectId(), spdxDocument);
-            if (project == null) {
+                packageHandler.processAllPackages(context, (percent) -> notifyProgress(20 + percent, "processing packages"));
+
+                finishImport(context, spdxWorkData);
+                return true;
+            });
+        } finally {
+            deleteQuietly(cleanedJson);
+        }
+    }
+
+    private boolean importInChunks(SpdxDocument spdxDocument, SpdxWorkData spdxWorkData, String taskId)
+            throws SpdxImportException {
+        Integer checkpoint = importCheckpointDao.findCheckpoint(taskId);
+        int resumeFrom = checkpoint != null ? checkpoint : 0;
+
+        try {
+            // a resumed import keeps what the earlier run committed, so the file tree is only cleaned on a fresh start
+            SpdxImportContext context = inTransaction(() -> prepareImport(spdxDocument, spdxWorkData, resumeFrom == 0));
+            if (context == null) {
+                importCheckpointDao.clearCheckpoint(taskId);
                 return false;
             }
+            notifyProgress(10, "converting SPDX");
 
-            cleanUpService.cleanUpFileTree(project);
-            SpdxDocumentRoot spdxDocumentRoot = spdxConverter.convertSpdxV2DocumentInformation(spdxDocument);
+            List<SpdxPackage> packages;
+            try {
+                packages = packageHandler.collectPackages(spdxDocument);
+            } catch (InvalidSPDXAnalysisException e) {
+                throw new SpdxImportException("The SPDX file could not be analyzed by a handler. It may contain invalid fields or unsupported versions.", e);
+            }
 
+            int start = Math.min(resumeFrom, packages.size());
+            if (start > 0) {
+                log.info("resuming import of task {} after {} of {} packages", taskId, start, packages.size());
+                inTransaction(() -> {
+                    refreshInventoryCache(context);
+                    packageHandler.restorePackages(context, packages.subList(0, start));
+                    return null;
+                });
+            }
 
-            SpdxImportContext context = new SpdxImportContext(project, spdxDocument, spdxDocumentRoot);
-            context.setExtractedLicenseInfos(spdxDocument.getExtractedLicenseInfos());
-            initDocumentDescribes(context);
+            for (int from = start; from < packages.size(); from += importChunkSize) {
+                int to = Math.min(from + importChunkSize, packages.size());
+                List<SpdxPackage> chunk = packages.subList(from, to);
+                inTransaction(() -> {
+                    startChunk(context);
+                    packageHandler.processPackages(context, chunk, (percent) -> {});
+                    return null;
+                });
+                // written after the commit: a crash in between repeats the chunk, which only finds existing entities
+                importCheckpointDao.saveCheckpoint(taskId, to);
+                notifyProgress(20 + (int) ((40.0 * to) / packages.size()), "processing packages");
+            }
 
+            inTransaction(() -> {
+                startChunk(context);
+                finishImport(context, spdxWorkData);
+                return null;
+            });
+        } catch (SpdxImportException | RuntimeException e) {
+            // the task fails for good, only a crash of the service leaves the checkpoint for the redelivered message
+            importCheckpointDao.clearCheckpoint(taskId);
+            throw e;
+        }
+        importCheckpointDao.clearCheckpoint(taskId);
+        return true;
+    }
+
+    /**
+     * Imports the document from an index of the JSON file instead of one model store. Every chunk of packages,
+     * orphan files, relationships and snippets is read into its own small store and imported in its own transaction.
+     * The handlers convert into a transient root per chunk, whose entities are saved under the document root right
+     * away, so neither the SPDX model nor the SPDX entities of the whole document are held on the heap. Relationships
+     * are converted once all packages exist, each chunk only loads the inventory items it links. Interrupted package
+     * chunks are resumed like with {@link #importInChunks}.
+     */
+    private boolean importStreaming(Path json, SpdxWorkData spdxWorkData, String taskId) throws SpdxImportException {
+        int chunkSize = importChunkSize > 0 ? importChunkSize : STREAMING_CHUNK_SIZE;
+        Integer checkpoint = importCheckpointDao.findCheckpoint(taskId);
+        int resumeFrom = checkpoint != null ? checkpoint : 0;
+
+        try (SpdxJsonIndex index = openIndex(json)) {
+            SpdxDocument header = readChunk(index::readHeader);
+            SpdxImportContext context = inTransaction(() -> {
+                SpdxImportContext prepared = prepareImport(header, spdxWorkData, resumeFrom == 0);
+                if (prepared != null) persistDocumentRoot(prepared, resumeFrom == 0);
+                return prepared;
+            });
+            if (context == null) {
+                importCheckpointDao.clearCheckpoint(taskId);
+                return false;
+            }
+            Long rootId = context.getSpdxDocumentRoot().getId();
+            // a file belonging to several packages is saved with the first one
+            Set<String> persistedFileIds = new HashSet<>();
             notifyProgress(10, "converting SPDX");
 
-            packageHandler.processAllPackages(context, (percent) -> notifyProgress(20 + percent, "processing packages"));
+            List<String> packageIds = index.packageIds();
+            int start = Math.min(resumeFrom, packageIds.size());
+            if (start > 0) log.info("resuming import of task {} after {} of {} packages", taskId, start, packageIds.size());
+            for (int from = 0; from < start; from += chunkSize) {
+                List<String> ids = packageIds.subList(from, Math.min(from + chunkSize, start));
+                SpdxDocument chunk = readChunk(() -> index.readPackages(ids));
+                inTransaction(() -> {
+                    startChunk(context, chunk);
+                    loadInventoryCache(context, ids);
+                    packageHandler.restorePackages(context, packageHandler.collectPackages(chunk));
+                    // committed by the earlier run, only the file ids are needed
+                    context.getSpdxDocumentRoot().getFiles().forEach(f -> persistedFileIds.add(f.getSpdxId()));
+                    context.getPackageRelationships().clear();
+                    return null;
+                });
+            }
 
-            orphanHandler.processOrphanFiles(context);
+            for (int from = start; from < packageIds.size(); from += chunkSize) {
+                int to = Math.min(from + chunkSize, packageIds.size());
+                List<String> ids = packageIds.subList(from, to);
+                SpdxDocument chunk = readChunk(() -> index.readPackages(ids));
+                inTransaction(() -> {
+                    startChunk(context, chunk);
+                    packageHandler.processPackages(context, packageHandler.collectPackages(chunk), (percent) -> {});
+                    // relationships are read from their own chunks once all packages exist
+                    context.getPackageRelationships().clear();
+                    persistChunk(context, rootId, persistedFileIds);
+                    return null;
+                });
+                importCheckpointDao.saveCheckpoint(taskId, to);
+                notifyProgress(20 + (int) ((30.0 * to) / packageIds.size()), "processing packages");
+            }
 
-            refreshInventoryCache(context);
-            relationshipHandler.processAllRelationships(context, (percent) -> notifyProgress(60 + percent, "converting relationships"));
+            List<String> orphanIds = index.fileIds().stream()
+                    .filter(id -> !context.getProcessedFileIds().contains(id))
+                    .toList();
+            for (List<String> ids : partition(orphanIds, chunkSize)) {
+                SpdxDocument chunk = readChunk(() -> index.readFiles(ids));
+                inTransaction(() -> {
+                    startChunk(context, chunk);
+                    orphanHandler.processOrphanFiles(context);
+                    persistChunk(context, rootId, persistedFileIds);
+                    return null;
+                });
+            }
 
-            snippetHandler.processAllSnippets(context);
+            if (context.isIncremental()) {
+                inTransaction(() -> {
+                    startChunk(context, header);
+                    packageHandler.retireRemovedPackages(context);
+                    fileService.removeDetachedFiles(context);
+                    return null;
+                });
+            }
 
-            spdxDocumentRootRepository.save(spdxDocumentRoot);
-            scheduleAnswerService(context, spdxWorkData);
+            List<List<String>> sourceChunks = partition(index.relationshipSourceIds(), chunkSize);
+            for (int i = 0; i < sourceChunks.size(); i++) {
+                List<String> ids = sourceChunks.get(i);
+                SpdxDocument chunk = readChunk(() -> index.readRelationships(ids));
+                inTransaction(() -> {
+                    startChunk(context, chunk);
+                    collectRelationships(context, chunk, ids);
+                    relationshipHandler.processAllRelationships(context, (percent) -> {});
+                    persistChunk(context, rootId, persistedFileIds);
+                    return null;
+                });
+                notifyProgress(60 + (int) ((30.0 * (i + 1)) / sourceChunks.size()), "converting relationships");
+            }
 
-            notifyProgress(100, "completed");
-            return true;
+            for (List<String> ids : partition(index.snippetIds(), chunkSize)) {
+                SpdxDocument chunk = readChunk(() -> index.readSnippets(ids));
+                inTransaction(() -> {
+                    startChunk(context, chunk);
+                    snippetHandler.processAllSnippets(context);
+                    persistChunk(context, rootId, persistedFileIds);
+                    return null;
+                });
+            }
 
-        } catch (InvalidSPDXAnalysisException e) {
-            log.error("Handler caused SPDX Analysis to fail: {}", e.getMessage());
-            throw new SpdxImportException("The SPDX file could not be analyzed by a handler. It may contain invalid fields or unsupported versions.", e);
+            inTransaction(() -> {
+                scheduleAnswerService(context, spdxWorkData);
+                return null;
+            });
+            // the elements were saved without the root, its cached lists are stale
+            if (rootId != null) entityManager.getEntityManagerFactory().getCache().evict(SpdxDocumentRoot.class, rootId);
+            notifyProgress(100, "completed");
+        } catch (SpdxImportException | RuntimeException e) {
+            importCheckpointDao.clearCheckpoint(taskId);
+            throw e;
+        } catch (IOException e) {
+            importCheckpointDao.clearCheckpoint(taskId);
+            throw new SpdxImportException("I/O Error processing SPDX stream.", e);
         }
+        importCheckpointDao.clearCheckpoint(taskId);
+        return true;
     }
 
-    private SpdxDocument loadSpdxDocument(byte[] jsonBytes) throws SpdxImportException {
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode rootNode;
+    private SpdxJsonIndex openIndex(Path json) throws SpdxImportException {
         try {
-            rootNode = mapper.readTree(new ByteArrayInputStream(jsonBytes));
+            return SpdxJsonIndex.open(json);
         } catch (IOException e) {
             throw new SpdxImportException("The provided file is not valid JSON. Please check the file format.", e);
         }
+    }
+
+    private SpdxDocument readChunk(ChunkRead read) throws SpdxImportException {
+        try {
+            return read.run();
+        } catch (InvalidSPDXAnalysisException e) {
+            log.error("SPDX Analysis failed: {}", e.getMessage());
+            throw new SpdxImportException("The SPDX file could not be deserialized. It may contain invalid fields or unsupported versions. Error detail: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new SpdxImportException("I/O Error processing SPDX stream.", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkRead {
+        SpdxDocument run() throws IOException, InvalidSPDXAnalysisException;
+    }
+
+    private static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += size) {
+            chunks.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Saves the document information. A fresh import replaces the elements an earlier import of the same document
+     * stored, the chunks add them again. The elements are deleted by query, the cached lists of the root do not
+     * know the elements saved by chunks.
+     */
+    private void persistDocumentRoot(SpdxImportContext context, boolean freshStart) {
+        SpdxDocumentRoot root = context.getSpdxDocumentRoot();
+        if (freshStart && root.getId() != null) {
+            root.getPackages().clear();
+            root.getFiles().clear();
+            root.getRelationships().clear();
+            root.getSnippets().clear();
+            spdxPackageRepository.deleteBySpdxDocument(root);
+            spdxFileRepository.deleteBySpdxDocument(root);
+            relationshipRepository.deleteBySpdxDocument(root);
+            snippetRepository.deleteBySpdxDocument(root);
+        }
+        context.setSpdxDocumentRoot(spdxDocumentRootRepository.save(root));
+    }
+
+    /**
+     * Saves the entities the handlers added to the transient root of the chunk under the persisted document root.
+     */
+    private void persistChunk(SpdxImportContext context, Long rootId, Set<String> persistedFileIds) {
+        SpdxDocumentRoot chunkRoot = context.getSpdxDocumentRoot();
+        SpdxDocumentRoot root = rootId != null ? spdxDocumentRootRepository.getReferenceById(rootId) : null;
+
+        chunkRoot.getPackages().forEach(p -> p.setSpdxDocument(root));
+        spdxPackageRepository.saveAll(chunkRoot.getPackages());
+        List<SpdxFileEntity> files = chunkRoot.getFiles().stream()
+                .filter(f -> persistedFileIds.add(f.getSpdxId()))
+                .toList();
+        files.forEach(f -> f.setSpdxDocument(root));
+        spdxFileRepository.saveAll(files);
+        chunkRoot.getRelationships().forEach(r -> r.setSpdxDocument(root));
+        relationshipRepository.saveAll(chunkRoot.getRelationships());
+        chunkRoot.getSnippets().forEach(s -> s.setSpdxDocument(root));
+        snippetRepository.saveAll(chunkRoot.getSnippets());
+    }
+
+    /**
+     * Puts the relationships of the source packages of a relationship chunk into the context and loads the
+     * inventory items of all packages they link.
+     */
+    private void collectRelationships(SpdxImportContext context, SpdxDocument chunk, List<String> sourceIds)
+            throws InvalidSPDXAnalysisException {
+        Set<String> sources = new HashSet<>(sourceIds);
+        Set<String> linkedIds = new HashSet<>();
+        for (SpdxPackage spdxPackage : packageHandler.collectPackages(chunk)) {
+            linkedIds.add(spdxPackage.getId());
+            if (sources.contains(spdxPackage.getId())) {
+                context.getPackageRelationships().put(spdxPackage.getId(), spdxPackage.getRelationships().stream().toList());
+            }
+        }
+        loadInventoryCache(context, linkedIds);
+    }
+
+    private void loadInventoryCache(SpdxImportContext context, Collection<String> spdxIds) {
+        Map<String, InventoryItem> inventoryCache = new HashMap<>();
+        if (!spdxIds.isEmpty()) {
+            inventoryItemRepository.findByProjectAndSpdxIdIn(context.getProject(), spdxIds)
+                    .forEach(item -> inventoryCache.putIfAbsent(item.getSpdxId(), item));
+        }
+        context.setInventoryCache(inventoryCache);
+    }
+
+    private SpdxImportContext prepareImport(SpdxDocument spdxDocument, SpdxWorkData spdxWorkData, boolean cleanUp)
+            throws InvalidSPDXAnalysisException {
+        Project project = loadProject(spdxWorkData.getProjectId(), spdxDocument);
+        if (project == null) {
+            return null;
+        }
+
+        if (cleanUp && !incrementalImport) cleanUpService.cleanUpFileTree(project);
+        SpdxDocumentRoot spdxDocumentRoot = spdxConverter.convertSpdxV2DocumentInformation(spdxDocument);
+
 
+        SpdxImportContext context = new SpdxImportContext(project, spdxDocument, spdxDocumentRoot);
+        if (incrementalImport) {
+            context.setPreviousPackages(loadPreviousPackages(project));
+        }
+        context.setExtractedLicenseInfos(spdxDocument.getExtractedLicenseInfos());
+        initDocumentDescribes(context);
+        return context;
+    }
+
+    private void finishImport(SpdxImportContext context, SpdxWorkData spdxWorkData) {
+        orphanHandler.processOrphanFiles(context);
+        if (context.isIncremental()) {
+            packageHandler.retireRemovedPackages(context);
+            fileService.removeDetachedFiles(context);
+        }
+
+        refreshInventoryCache(context);
+        relationshipHandler.processAllRelationships(context, (percent) -> notifyProgress(60 + percent, "converting relationships"));
+
+        snippetHandler.processAllSnippets(context);
+
+        spdxDocumentRootRepository.save(context.getSpdxDocumentRoot());
+        scheduleAnswerService(context, spdxWorkData);
+
+        notifyProgress(100, "completed");
+    }
+
+    /**
+     * Entities cached by the previous chunk are detached after its commit, the next chunk loads them again.
+     */
+    private void startChunk(SpdxImportContext context) {
+        context.setProject(projectRepository.findById(context.getProject().getId()).orElseThrow());
+        context.getComponentCache().clear();
+        context.getLicenseCache().clear();
+        context.setFileIndex(null);
+    }
+
+    /**
+     * Starts a chunk of a streaming import, the handlers read the given chunk document and convert into a new root.
+     */
+    private void startChunk(SpdxImportContext context, SpdxDocument chunk) {
+        startChunk(context);
+        context.setSpdxDocument(chunk);
+        context.setSpdxDocumentRoot(new SpdxDocumentRoot());
+        context.setPackageLookupMap(new HashMap<>());
+        context.setFileLookupMap(null);
+    }
+
+    private <T> T inTransaction(ImportStep<T> step) throws SpdxImportException {
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                try {
+                    return step.run();
+                } catch (InvalidSPDXAnalysisException e) {
+                    throw new ImportStepException(e);
+                }
+            });
+        } catch (ImportStepException e) {
+            log.error("Handler caused SPDX Analysis to fail: {}", e.getCause().getMessage());
+            throw new SpdxImportException("The SPDX file could not be analyzed by a handler. It may contain invalid fields or unsupported versions.", e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ImportStep<T> {
+        T run() throws InvalidSPDXAnalysisException;
+    }
+
+    private static class ImportStepException extends RuntimeException {
+        ImportStepException(InvalidSPDXAnalysisException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * The consumer spools the upload to a file, callers handing over the document directly still use the bytes.
+     */
+    private InputStreamSource documentSource(SpdxWorkData spdxWorkData) throws SpdxImportException {
+        if (spdxWorkData.getJsonFile() != null) return new FileSystemResource(spdxWorkData.getJsonFile());
+        if (spdxWorkData.getJsonBytes() != null) return new ByteArrayResource(spdxWorkData.getJsonBytes());
+        throw new SpdxImportException("No SPDX document was provided.", null);
+    }
+
+    /**
+     * Sanitizes the document as a stream into a temporary file, the sanitized copy is not kept as a byte array.
+     * If the sanitizer fails, the original payload is spooled instead and left to the SPDX parser.
+     *
+     * @return the temporary file, to be deleted by the caller
+     */
+    private Path spoolSanitized(InputStreamSource document) throws SpdxImportException {
         log.info("cleaning json");
-        byte[] cleanedJsonBytes = sanitizer.sanitizeSpdxJson(rootNode, mapper, jsonBytes);
+        Path cleanedJson = null;
+        try {
+            cleanedJson = Files.createTempFile("spdx-import-", ".json");
+            try (OutputStream out = Files.newOutputStream(cleanedJson)) {
+                sanitizer.sanitizeSpdxJson(document, out);
+                return cleanedJson;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to sanitize SPDX JSON, falling back to original payload", e);
+            }
+            try (InputStream in = document.getInputStream()) {
+                Files.copy(in, cleanedJson, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return cleanedJson;
+        } catch (IOException e) {
+            deleteQuietly(cleanedJson);
+            throw new SpdxImportException("I/O Error processing SPDX stream.", e);
+        }
+    }
 
-        SpdxModelFactory.init();
+    /**
+     * Deserializes the spooled document into one in-memory SPDX store. The handlers read packages, files and
+     * relationships from that store, so the whole document is held on the heap once.
+     */
+    private SpdxDocument loadSpdxDocument(Path json) throws SpdxImportException {
         try {
             MultiFormatStore inputStore = new MultiFormatStore(new InMemSpdxStore(), MultiFormatStore.Format.JSON);
-            return inputStore.deSerialize(new ByteArrayInputStream(cleanedJsonBytes), false);
+            try (InputStream in = Files.newInputStream(json)) {
+                return inputStore.deSerialize(in, false);
+            }
         } catch (InvalidSPDXAnalysisException e) {
             log.error("SPDX Analysis failed: {}", e.getMessage());
             throw new SpdxImportException("The SPDX file could not be deserialized. It may contain invalid fields or unsupported versions. Error detail: " + e.getMessage(), e);
@@ -159,7 +593,15 @@ public class SpdxService extends ProgressReportingService {
             log.error("Unexpected error in SPDX library", e);
             throw new SpdxImportException("The SPDX file caused an unexpected error in the parser.", e);
         }
+    }
 
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
     }
 
     private Project loadProject(long projectId, SpdxDocument spdxDocument) {
@@ -184,6 +626,18 @@ public class SpdxService extends ProgressReportingService {
         }
     }
 
+    private Map<String, SpdxImportContext.PreviousPackage> loadPreviousPackages(Project project) {
+        Map<String, SpdxImportContext.PreviousPackage> previousPackages = new HashMap<>();
+        for (InventoryItem item : inventoryItemRepository.findAllByProject(project)) {
+            if (item.getSpdxId() != null) {
+                previousPackages.putIfAbsent(item.getSpdxId(),
+                        new SpdxImportContext.PreviousPackage(item.getId(), item.getImportFingerprint()));
+            }
+        }
+        log.debug("Incremental import, {} packages known from the previous import", previousPackages.size());
+        return previousPackages;
+    }
+
     private void refreshInventoryCache(SpdxImportContext context) {
         log.debug("Refreshing inventory cache for project {}", context.getProject().getId());
         List<InventoryItem> allItems = inventoryItemRepository.findAllByProject(context.getProject());
@@ -27,6 +27,8 @@ import eu.occtet.boc.model.SpdxWorkData;
 import eu.occtet.boc.model.WorkTask;
 import eu.occtet.boc.model.WorkTaskStatus;
 import eu.occtet.boc.service.BaseWorkDataProcessor;
+import eu.occtet.boc.service.ObjectStoreStreams;
+import eu.occtet.boc.service.SpooledObject;
 import eu.occtet.boc.service.WorkConsumer;
 import io.nats.client.Connection;
 import io.nats.client.Message;
@@ -36,7 +38,6 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 
 @Service
@@ -69,20 +70,21 @@ public class SpdxWorkConsumer extends WorkConsumer {
                     log.debug("extract from SPDX json");
                     try{
                         ObjectStore objectStore = natsConnection.objectStore(spdxWorkData.getBucketName());
-                        ByteArrayOutputStream out = new ByteArrayOutputStream();
-                        objectStore.get(spdxWorkData.getJsonSpdx(), out);
-                        byte[] spdxBytes = out.toByteArray();
-                        //delete the object after we are done
-                        objectStore.delete(spdxWorkData.getJsonSpdx());
-                        spdxWorkData.setJsonBytes(spdxBytes);
-                        spdxService.setOnProgress((p,d)->{
-                            log.debug("progress callback: {} {}", p, d);
-                            notifyProgress(workTask.taskId(), workTask.name(), WorkTaskStatus.IN_PROGRESS, p, d);
-                        });
-                        boolean res= spdxService.process(spdxWorkData);
-                        if(!res) notifyError(workTask.taskId(),workTask.name(), "error during processing");
-                        else notifyCompleted(workTask.taskId(),workTask.name());
-                        return res;
+                        try (SpooledObject spooled = ObjectStoreStreams.download(objectStore, spdxWorkData.getJsonSpdx())) {
+                            spdxWorkData.setJsonFile(spooled.getPath());
+                            spdxService.setOnProgress((p,d)->{
+                                log.debug("progress callback: {} {}", p, d);
+                                notifyProgress(workTask.taskId(), workTask.name(), WorkTaskStatus.IN_PROGRESS, p, d);
+                            });
+                            boolean res= spdxService.process(spdxWorkData, workTask.taskId());
+                            if(!res) notifyError(workTask.taskId(),workTask.name(), "error during processing");
+                            else notifyCompleted(workTask.taskId(),workTask.name());
+                            return res;
+                        } finally {
+                            // the import has committed or cleared its checkpoint by now. If the service dies before,
+                            // the redelivered message resumes the import from the same upload
+                            deleteUpload(objectStore, spdxWorkData.getJsonSpdx());
+                        }
 
                     } catch (SpdxImportException e) {
                         log.error("Validation failed for SPDX import: {}", e.getMessage());
@@ -107,4 +109,12 @@ public class SpdxWorkConsumer extends WorkConsumer {
 
 
     }
+
+    private void deleteUpload(ObjectStore objectStore, String name) {
+        try {
+            objectStore.delete(name);
+        } catch (Exception e) {
+            log.warn("Could not delete SPDX upload {}: {}", name, e.getMessage());
+        }
+    }
 }
@@ -43,17 +43,32 @@ public class LicenseHandler {
     private static final Logger log = LogManager.getLogger(LicenseHandler.class);
 
 
+    /**
+     * A license of a license expression with the text the license list or the document gives for it.
+     */
+    public record ResolvedLicense(String licenseId, String licenseText) {
+    }
+
     public Set<SoftwareComponentLicenseUsage> createUsageLicenses(AnyLicenseInfo spdxLicenseInfo,
                                                                   SpdxImportContext context,
                                                                   Collection<ExtractedLicenseInfo> licenseInfosExtractedSpdxDoc,
                                                                   SoftwareComponent softwareComponent, Organization organization)
             throws InvalidSPDXAnalysisException {
+        return createUsageLicenses(resolveLicenses(spdxLicenseInfo, licenseInfosExtractedSpdxDoc), context,
+                softwareComponent, organization);
+    }
 
-        Map<String, License> licenseCache= context.getLicenseCache();
-        Set<SoftwareComponentLicenseUsage> generatedUsages = new HashSet<>();
+    /**
+     * Reads the licenses of an expression from the model and the SPDX license list. Does not access the database
+     * or the import context, so it is safe to run for several packages at once.
+     */
+    public List<ResolvedLicense> resolveLicenses(AnyLicenseInfo spdxLicenseInfo,
+                                                 Collection<ExtractedLicenseInfo> licenseInfosExtractedSpdxDoc)
+            throws InvalidSPDXAnalysisException {
         List<AnyLicenseInfo> allLicenseInfo = new ArrayList<>();
         parseLicenseText(spdxLicenseInfo, allLicenseInfo);
 
+        List<ResolvedLicense> resolved = new ArrayList<>(allLicenseInfo.size());
         for (AnyLicenseInfo individualLicenseInfo : allLicenseInfo) {
             String licenseId = "";
             String licenseText;
@@ -76,7 +91,25 @@ public class LicenseHandler {
             }
 
             if (licenseId.isEmpty()) licenseId = "Unknown";
+            resolved.add(new ResolvedLicense(licenseId, licenseText));
+        }
+        return resolved;
+    }
+
+    /**
+     * Creates the usages of already resolved licenses, the license entities are looked up or created through the
+     * license cache of the import.
+     */
+    public Set<SoftwareComponentLicenseUsage> createUsageLicenses(List<ResolvedLicense> licenses,
+                                                                  SpdxImportContext context,
+                                                                  SoftwareComponent softwareComponent, Organization organization) {
+
+        Map<String, License> licenseCache= context.getLicenseCache();
+        Set<SoftwareComponentLicenseUsage> generatedUsages = new HashSet<>();
 
+        for (ResolvedLicense resolved : licenses) {
+            String licenseId = resolved.licenseId();
+            String licenseText = resolved.licenseText();
 
             License licenseEntity = licenseCache.get(licenseId);
 
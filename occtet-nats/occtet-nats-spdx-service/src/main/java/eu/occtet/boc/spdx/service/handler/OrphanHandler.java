@@ -56,10 +56,6 @@ public class OrphanHandler {
     @Autowired
     private InventoryItemService inventoryItemService;
     @Autowired
-    private OrtIssueRepository ortIssueRepository;
-    @Autowired
-    private OrtViolationRepository ortViolationRepository;
-    @Autowired
     private ProjectRepository projectRepository;
     @Autowired
     private SoftwareComponentRepository softwareComponentRepository;
@@ -69,8 +65,10 @@ public class OrphanHandler {
     public void processOrphanFiles(SpdxImportContext context) {
         log.info("Processing orphan files");
         SpdxDocument spdxDocument = context.getSpdxDocument();
-        List<OrtIssue> ortIssues = ortIssueRepository.findByProject(context.getProject());
-        List<OrtViolation> ortViolations = ortViolationRepository.findByProject(context.getProject());
+        if (context.getOrtFindings() == null) {
+            context.setOrtFindings(inventoryItemService.loadOrtFindings(context.getProject()));
+        }
+        OrtFindingIndex ortFindings = context.getOrtFindings();
 
         try {
             List<TypedValue> allFileUris = spdxDocument.getModelStore().getAllItems(null, "File").toList();
@@ -119,11 +117,11 @@ public class OrphanHandler {
                 inventoryItem.setCurated(false);
                 inventoryItem.setSize(1);
 
-                inventoryItemService.sortViolationsAndIssues(ortIssues, ortViolations, inventoryItem);
+                inventoryItemService.sortViolationsAndIssues(ortFindings, inventoryItem);
                 spdxConverter.convertFile(file, context.getSpdxDocumentRoot());
                 context.getFileToInventoryItemMap().put(file.getId(), inventoryItem);
 
-                Map<String, File> locationMap = fileService.findOrCreateBatch(Collections.singletonMap(filePath, file.getId()), inventoryItem);
+                Map<String, File> locationMap = fileService.findOrCreateBatch(Collections.singletonMap(filePath, file.getId()), inventoryItem, context);
 
                 Project project = inventoryItem.getProject();
                 project.addFiles(locationMap.values());
@@ -163,6 +161,7 @@ public class OrphanHandler {
                 context.getInventoryItems().add(inventoryItem);
             }
 
+            fileService.flushPendingFiles(context);
             if (!copyrightsToSave.isEmpty()) copyrightRepository.saveAll(copyrightsToSave);
             if(!softwareComponentsToSave.isEmpty()) softwareComponentRepository.saveAll(softwareComponentsToSave);
             projectRepository.save(context.getProject());
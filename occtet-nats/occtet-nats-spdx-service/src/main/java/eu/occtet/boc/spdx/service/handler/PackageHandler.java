@@ -21,6 +21,8 @@ package eu.occtet.boc.spdx.service.handler;
 
 import eu.occtet.boc.dao.*;
 import eu.occtet.boc.entity.*;
+import eu.occtet.boc.entity.spdxV2.SpdxFileEntity;
+import eu.occtet.boc.entity.spdxV2.SpdxPackageEntity;
 import eu.occtet.boc.spdx.context.SpdxImportContext;
 import eu.occtet.boc.spdx.converter.SpdxConverter;
 import eu.occtet.boc.spdx.service.CopyrightService;
@@ -35,9 +37,13 @@ import org.spdx.library.SpdxModelFactory;
 import org.spdx.library.model.v2.*;
 import org.spdx.library.model.v2.enumerations.RelationshipType;
 import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -61,14 +67,31 @@ public class PackageHandler {
     @Autowired
     private CopyrightRepository copyrightRepository;
     @Autowired
-    private OrtIssueRepository ortIssueRepository;
-    @Autowired
-    private OrtViolationRepository ortViolationRepository;
-    @Autowired
     private ProjectRepository projectRepository;
     @Autowired
     private InventoryItemRepository inventoryItemRepository;
 
+    // packages converted in parallel before the persistence stage writes them
+    static final int PACKAGE_CHUNK_SIZE = 64;
+
+    /**
+     * Everything the persistence stage needs from one SPDX package, converted and resolved up front.
+     */
+    record PackageData(SpdxPackageEntity packageEntity, String id, String name, String version,
+                       List<LicenseHandler.ResolvedLicense> licenses, String licenseString, String inventoryBaseName,
+                       List<FileData> files, String downloadLocation, String purl, List<Relationship> relationships,
+                       String fingerprint) {
+    }
+
+    record FileData(SpdxFileEntity fileEntity, String id, String path, String copyrightText) {
+    }
+
+    /**
+     * The entities of a chunk of packages, looked up or created together before the packages are written.
+     */
+    record ChunkEntities(Map<String, InventoryItem> inventoryItems, Map<String, Copyright> copyrights) {
+    }
+
     public void processAllPackages(SpdxImportContext context, Consumer<Integer> progressCallback) {
         SpdxDocument doc = context.getSpdxDocument();
         if (doc == null || doc.getModelStore() == null) {
@@ -76,101 +99,246 @@ public class PackageHandler {
             return;
         }
         try {
-            List<TypedValue> packageUris = doc.getModelStore().getAllItems(null, "Package").toList();
+            processPackages(context, collectPackages(doc), progressCallback);
+        } catch (InvalidSPDXAnalysisException e) {
+            log.error("Error retrieving SPDX object for URI: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Imports the given packages and saves the touched entities, used directly for one chunk of a chunked import.
+     */
+    public void processPackages(SpdxImportContext context, List<SpdxPackage> packages, Consumer<Integer> progressCallback) {
+        if (context.getOrtFindings() == null) {
+            context.setOrtFindings(inventoryItemService.loadOrtFindings(context.getProject()));
+        }
 
-            int count = 0;
-            Set<String> seenPackages = new HashSet<>();
-            Set<InventoryItem> inventoryItemsToSave = new HashSet<>();
-            Set<Copyright> copyrightsToSave = new HashSet<>();
+        Set<InventoryItem> inventoryItemsToSave = new HashSet<>();
+        Set<Copyright> copyrightsToSave = new HashSet<>();
+        packages.forEach(p -> context.getDocumentPackageIds().add(p.getId()));
 
-            for (TypedValue uri : packageUris) {
+        int count = 0;
+        int unchanged = 0;
+        for (int from = 0; from < packages.size(); from += PACKAGE_CHUNK_SIZE) {
+            List<SpdxPackage> chunk = packages.subList(from, Math.min(from + PACKAGE_CHUNK_SIZE, packages.size()));
+
+            // stage 1: convert the model objects and resolve their licenses on all cores, nothing here touches
+            // the database
+            List<PackageData> converted = convertPackages(chunk, context);
+
+            Map<Long, InventoryItem> unchangedItems = context.isIncremental()
+                    ? loadUnchangedItems(converted, context)
+                    : Map.of();
+
+            List<PackageData> changed = new ArrayList<>();
+            for (PackageData data : converted) {
+                count++;
+                if (data == null) continue;
                 try {
-                    SpdxModelFactory.getSpdxObjects(doc.getModelStore(), null, "Package", uri.getObjectUri(), null)
-                            .forEach(obj -> {
-                                if (obj instanceof SpdxPackage pkg && !seenPackages.contains(pkg.getId())) {
-                                    try {
-                                        InventoryItem item = parseSinglePackage(pkg, context, copyrightsToSave);
-                                        context.getInventoryItems().add(item);
-                                        inventoryItemsToSave.add(item);
-                                        seenPackages.add(pkg.getId());
-
-                                        List<Relationship> relationships = pkg.getRelationships().stream().toList();
-                                        context.getPackageRelationships().put(pkg.getId(), relationships);
-                                    } catch (Exception e) {
-                                        log.error("Failed to import package {}: {}. Skipping...", pkg.getId(), e.getMessage());
-                                    }
-                                }
-                            });
+                    SpdxImportContext.PreviousPackage previous = context.isIncremental()
+                            ? context.getPreviousPackages().get(data.id())
+                            : null;
+                    InventoryItem unchangedItem = previous != null ? unchangedItems.get(previous.inventoryItemId()) : null;
+                    if (unchangedItem != null) {
+                        restorePackage(data, unchangedItem, context);
+                        unchanged++;
+                        continue;
+                    }
+                    if (previous != null) {
+                        retirePreviousItem(previous, context, inventoryItemsToSave);
+                    }
+                    changed.add(data);
                 } catch (Exception e) {
-                    log.error("Error retrieving SPDX object for URI: {}", uri.getObjectUri(), e);
+                    log.error("Failed to import package {}: {}. Skipping...", data.id(), e.getMessage());
                 }
+            }
 
-                count++;
-                int percent = (int) ((40.0 * count) / packageUris.size());
-                if (percent % 5 == 0) progressCallback.accept(percent);
+            // stage 2: a single writer looks up and inserts the entities of the chunk in bulk, then links them
+            // in document order
+            ChunkEntities entities = resolveEntities(changed, context);
+            for (PackageData data : changed) {
+                try {
+                    InventoryItem item = persistPackage(data, entities, context, copyrightsToSave);
+                    context.getInventoryItems().add(item);
+                    inventoryItemsToSave.add(item);
+                    context.getPackageRelationships().put(data.id(), data.relationships());
+                } catch (Exception e) {
+                    log.error("Failed to import package {}: {}. Skipping...", data.id(), e.getMessage());
+                }
             }
+            progressCallback.accept((int) ((40.0 * count) / packages.size()));
+        }
+        if (context.isIncremental()) {
+            log.info("{} of {} packages unchanged since the previous import", unchanged, packages.size());
+        }
+
+        fileService.flushPendingFiles(context);
+        projectRepository.save(context.getProject());
+        if (!copyrightsToSave.isEmpty()) {
+            copyrightRepository.saveAll(copyrightsToSave);
+        }
+        if (!inventoryItemsToSave.isEmpty()) {
+            inventoryItemRepository.saveAll(inventoryItemsToSave);
+        }
+    }
 
-            projectRepository.save(context.getProject());
-            if (!copyrightsToSave.isEmpty()) {
-                copyrightRepository.saveAll(copyrightsToSave);
+    /**
+     * Rebuilds the context state of packages committed by an earlier, interrupted run without writing them again.
+     * Expects the inventory cache of the context to be loaded.
+     */
+    public void restorePackages(SpdxImportContext context, List<SpdxPackage> packages) {
+        List<PackageData> converted = convertPackages(packages, context);
+        packages.forEach(p -> context.getDocumentPackageIds().add(p.getId()));
+        for (PackageData data : converted) {
+            if (data == null) continue;
+            InventoryItem inventoryItem = context.getInventoryCache().get(data.id());
+            restorePackage(data, inventoryItem, context);
+            if (inventoryItem == null) {
+                log.warn("No inventory item found for already imported package {}", data.id());
+                continue;
             }
-            if (!inventoryItemsToSave.isEmpty()) {
-                inventoryItemRepository.saveAll(inventoryItemsToSave);
+            context.getInventoryItems().add(inventoryItem);
+        }
+    }
+
+    /**
+     * Unlinks the files of inventory items whose package is not part of the document anymore, only used by an
+     * incremental import. Call after all packages were processed.
+     */
+    public void retireRemovedPackages(SpdxImportContext context) {
+        if (!context.isIncremental()) return;
+        Set<InventoryItem> inventoryItemsToSave = new HashSet<>();
+        context.getPreviousPackages().forEach((spdxId, previous) -> {
+            if (!context.getDocumentPackageIds().contains(spdxId)) {
+                log.debug("Package {} was removed from the document", spdxId);
+                retirePreviousItem(previous, context, inventoryItemsToSave);
             }
+        });
+        if (!inventoryItemsToSave.isEmpty()) {
+            log.info("{} packages were removed since the previous import", inventoryItemsToSave.size());
+            inventoryItemRepository.saveAll(inventoryItemsToSave);
+        }
+    }
 
-        } catch (InvalidSPDXAnalysisException e) {
-            log.error("Error retrieving SPDX object for URI: {}", e.getMessage(), e);
+    /**
+     * Adds a package that is already in the database to the document root and the lookups of the context,
+     * without touching its entities.
+     */
+    private void restorePackage(PackageData data, InventoryItem inventoryItem, SpdxImportContext context) {
+        addToDocument(data, context);
+        data.files().forEach(f -> {
+            context.getProcessedFileIds().add(f.id());
+            if (inventoryItem != null) context.getFileToInventoryItemMap().put(f.id(), inventoryItem);
+        });
+        context.getPackageRelationships().put(data.id(), data.relationships());
+        if (inventoryItem != null && context.getMainPackageIds().contains(data.id())) {
+            context.getMainInventoryItems().add(inventoryItem.getId());
+        }
+    }
+
+    /**
+     * @return the inventory items of the converted packages whose fingerprint matches the previous import, by id
+     */
+    private Map<Long, InventoryItem> loadUnchangedItems(List<PackageData> converted, SpdxImportContext context) {
+        List<Long> ids = new ArrayList<>();
+        for (PackageData data : converted) {
+            if (data == null) continue;
+            SpdxImportContext.PreviousPackage previous = context.getPreviousPackages().get(data.id());
+            if (previous != null && data.fingerprint().equals(previous.fingerprint())) {
+                ids.add(previous.inventoryItemId());
+            }
+        }
+        Map<Long, InventoryItem> items = new HashMap<>();
+        if (!ids.isEmpty()) {
+            inventoryItemRepository.findAllById(ids).forEach(item -> items.put(item.getId(), item));
         }
+        return items;
+    }
+
+    /**
+     * Takes the files away from the item of a changed or removed package. The item itself stays for its curation
+     * history, it just no longer stands for the SPDX package.
+     */
+    private void retirePreviousItem(SpdxImportContext.PreviousPackage previous, SpdxImportContext context,
+                                    Set<InventoryItem> inventoryItemsToSave) {
+        inventoryItemRepository.findById(previous.inventoryItemId()).ifPresent(item -> {
+            fileService.detachFiles(item, context);
+            item.setSpdxId(null);
+            item.setImportFingerprint(null);
+            inventoryItemsToSave.add(item);
+        });
     }
 
     public InventoryItem parseSinglePackage(SpdxPackage spdxPackage, SpdxImportContext context, Set<Copyright> copyrightsToSave)
             throws Exception {
+        List<PackageData> data = List.of(extractPackage(spdxPackage, context.getExtractedLicenseInfos()));
+        return persistPackage(data.getFirst(), resolveEntities(data, context), context, copyrightsToSave);
+    }
+
+    /**
+     * @return the packages of the document ordered by SPDXID, each package once
+     */
+    public List<SpdxPackage> collectPackages(SpdxDocument doc) throws InvalidSPDXAnalysisException {
+        List<TypedValue> packageUris = doc.getModelStore().getAllItems(null, "Package").toList();
+        Map<String, SpdxPackage> packages = new LinkedHashMap<>();
+        for (TypedValue uri : packageUris) {
+            try {
+                SpdxModelFactory.getSpdxObjects(doc.getModelStore(), null, "Package", uri.getObjectUri(), null)
+                        .forEach(obj -> {
+                            if (obj instanceof SpdxPackage pkg) packages.putIfAbsent(pkg.getId(), pkg);
+                        });
+            } catch (Exception e) {
+                log.error("Error retrieving SPDX object for URI: {}", uri.getObjectUri(), e);
+            }
+        }
+        // the store does not guarantee an order, a resumed import has to see the packages in the same sequence
+        List<SpdxPackage> ordered = new ArrayList<>(packages.values());
+        ordered.sort(Comparator.comparing(SpdxPackage::getId));
+        return ordered;
+    }
 
-        List<OrtIssue> ortIssues= ortIssueRepository.findByProject(context.getProject());
-        List<OrtViolation> ortViolations = ortViolationRepository.findByProject(context.getProject());
+    /**
+     * @return the converted packages in the given order, null for a package that could not be read
+     */
+    private List<PackageData> convertPackages(List<SpdxPackage> packages, SpdxImportContext context) {
+        Collection<ExtractedLicenseInfo> extractedLicenseInfos = context.getExtractedLicenseInfos();
+        return packages.parallelStream()
+                .map(p -> extractPackageOrNull(p, extractedLicenseInfos))
+                .toList();
+    }
 
-        log.info("Looking at package: {}", spdxPackage.getId());
-        spdxConverter.convertPackage(spdxPackage, context.getSpdxDocumentRoot(), context.getPackageLookupMap());
+    private PackageData extractPackageOrNull(SpdxPackage spdxPackage, Collection<ExtractedLicenseInfo> extractedLicenseInfos) {
+        try {
+            return extractPackage(spdxPackage, extractedLicenseInfos);
+        } catch (Exception e) {
+            log.error("Failed to import package {}: {}. Skipping...", spdxPackage.getId(), e.getMessage());
+            return null;
+        }
+    }
 
+    /**
+     * Reads all values of a package from the model store, converts the package and its files to detached SPDX
+     * entities and resolves its licenses. Does not access the database or the import context, so it is safe to
+     * run for several packages at once.
+     */
+    PackageData extractPackage(SpdxPackage spdxPackage, Collection<ExtractedLicenseInfo> extractedLicenseInfos)
+            throws InvalidSPDXAnalysisException {
         String packageName = spdxPackage.getName().orElse(spdxPackage.getId());
         String version = spdxPackage.getVersionInfo().orElse("");
-        List<Copyright> copyrights = new ArrayList<>();
-
-        String componentKey = packageName + ":" + version;
-        SoftwareComponent component = context.getComponentCache().get(componentKey);
-
-        if (component == null) {
-            component = softwareComponentService.getOrCreateSoftwareComponent(packageName, version, context.getProject().getOrganization(), "library");
-            context.getComponentCache().put(componentKey, component);
-        }
 
         //get License from package
         AnyLicenseInfo spdxPkgLicense = spdxPackage.getLicenseConcluded();
         if (spdxPkgLicense == null || spdxPkgLicense.isNoAssertion(spdxPkgLicense)) {
             spdxPkgLicense = spdxPackage.getLicenseDeclared();
         }
-
-        licenseHandler.createUsageLicenses(spdxPkgLicense, context,
-                context.getExtractedLicenseInfos(),component, context.getProject().getOrganization());
-
         String packageLicenseString = spdxPkgLicense != null ? spdxPkgLicense.toString() : "";
 
-        String inventoryName = spdxPackage.getId().replaceAll("(?i)^SPDXRef-[^-]+-[^-]+-", "");
-        if (!inventoryName.contains(component.getVersion())) inventoryName += component.getVersion();
-        inventoryName += " (" + packageLicenseString + ")";
-
-        InventoryItem inventoryItem = inventoryItemService.getOrCreateInventoryItem(inventoryName, component,
-                context.getProject(),
-                context.getProject().getOrganization());
-        inventoryItem.setSpdxId(spdxPackage.getId());
-        inventoryItem.setCurated(false);
-
-        inventoryItemService.sortViolationsAndIssues(ortIssues, ortViolations, inventoryItem);
+        String inventoryBaseName = spdxPackage.getId().replaceAll("(?i)^SPDXRef-[^-]+-[^-]+-", "");
 
+        List<Relationship> relationships = spdxPackage.getRelationships().stream().toList();
         Set<SpdxFile> packageFiles = new HashSet<>(spdxPackage.getFiles());
-
         try {
-            spdxPackage.getRelationships().stream()
+            relationships.stream()
                     .filter(this::isContainsRelationship)
                     .map(this::getRelatedElementOrNull)
                     .filter(element -> element instanceof SpdxFile)
@@ -180,22 +348,145 @@ public class PackageHandler {
             log.warn("Error resolving relationships for package {}", spdxPackage.getId(), e);
         }
 
-        inventoryItem.setSize(packageFiles.size());
-        log.info("Converting {} files ({} explicit, {} total)",
-                spdxPackage.getFiles().size(), spdxPackage.getFiles().size(), packageFiles.size());
+        List<FileData> files = new ArrayList<>(packageFiles.size());
+        List<String> fileChecksums = new ArrayList<>(packageFiles.size());
+        for (SpdxFile f : packageFiles) {
+            String path = f.getName().orElse(null);
+            files.add(new FileData(spdxConverter.convertFile(f), f.getId(), path, f.getCopyrightText()));
+            fileChecksums.add(path + "=" + checksums(f.getChecksums()));
+        }
 
-        packageFiles.forEach(f -> {
-            spdxConverter.convertFile(f, context.getSpdxDocumentRoot());
-            context.getFileToInventoryItemMap().put(f.getId(), inventoryItem);
-            context.getProcessedFileIds().add(f.getId());
-        });
+        String purl = null;
+        for (ExternalRef externalRef : spdxPackage.getExternalRefs()) {
+            if (externalRef.getReferenceType().getIndividualURI().endsWith("purl")) {
+                purl = externalRef.getReferenceLocator();
+            }
+        }
+
+        String downloadLocation = spdxPackage.getDownloadLocation().orElse("");
+        String verificationCode = spdxPackage.getPackageVerificationCode().isPresent()
+                ? spdxPackage.getPackageVerificationCode().get().getValue()
+                : "";
+        Collections.sort(fileChecksums);
+        String fingerprint = fingerprint(purl, packageName, version, packageLicenseString, downloadLocation,
+                checksums(spdxPackage.getChecksums()), verificationCode, String.join("\n", fileChecksums));
+
+        return new PackageData(spdxConverter.convertPackage(spdxPackage), spdxPackage.getId(), packageName, version,
+                licenseHandler.resolveLicenses(spdxPkgLicense, extractedLicenseInfos), packageLicenseString,
+                inventoryBaseName, files, downloadLocation, purl, relationships, fingerprint);
+    }
 
+    private static String checksums(Collection<Checksum> checksums) throws InvalidSPDXAnalysisException {
+        List<String> values = new ArrayList<>(checksums.size());
+        for (Checksum checksum : checksums) {
+            values.add(checksum.getAlgorithm() + ":" + checksum.getValue());
+        }
+        Collections.sort(values);
+        return String.join(",", values);
+    }
+
+    /**
+     * Hashes everything of a package that ends up in its entities, an equal hash means the package is unchanged.
+     */
+    static String fingerprint(String... parts) {
         try {
-            copyrights = parseFiles(packageFiles, inventoryItem, context, copyrightsToSave);
-        } catch (InvalidSPDXAnalysisException e) {
-            log.error("Error batch processing files", e);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
+    }
 
+    /**
+     * Looks up the software components, inventory items and copyrights of all given packages with one query each
+     * and inserts the missing ones together.
+     */
+    private ChunkEntities resolveEntities(List<PackageData> packages, SpdxImportContext context) {
+        Organization organization = context.getProject().getOrganization();
+
+        Map<String, Set<String>> missingComponents = new HashMap<>();
+        for (PackageData data : packages) {
+            if (!context.getComponentCache().containsKey(componentKey(data))) {
+                missingComponents.computeIfAbsent(data.name(), name -> new HashSet<>()).add(data.version());
+            }
+        }
+        context.getComponentCache().putAll(softwareComponentService.getOrCreateSoftwareComponents(missingComponents,
+                organization, "library"));
+
+        Map<String, SoftwareComponent> componentsByInventoryName = new LinkedHashMap<>();
+        Set<String> copyrightTexts = new HashSet<>();
+        for (PackageData data : packages) {
+            SoftwareComponent component = context.getComponentCache().get(componentKey(data));
+            componentsByInventoryName.putIfAbsent(inventoryName(data, component), component);
+            for (FileData f : data.files()) {
+                if (f.path() != null && isCopyright(f.copyrightText())) copyrightTexts.add(f.copyrightText());
+            }
+        }
+        Map<String, InventoryItem> inventoryItems = inventoryItemService.getOrCreateInventoryItems(
+                componentsByInventoryName, context.getProject(), organization);
+        Map<String, Copyright> copyrights = copyrightService.findOrCreateBatch(copyrightTexts, organization);
+        return new ChunkEntities(inventoryItems, copyrights);
+    }
+
+    private static String componentKey(PackageData data) {
+        return data.name() + ":" + data.version();
+    }
+
+    private static String inventoryName(PackageData data, SoftwareComponent component) {
+        String inventoryName = data.inventoryBaseName();
+        if (!inventoryName.contains(component.getVersion())) inventoryName += component.getVersion();
+        return inventoryName + " (" + data.licenseString() + ")";
+    }
+
+    private static boolean isCopyright(String copyrightText) {
+        return !"NONE".equals(copyrightText) && !"NOASSERTION".equals(copyrightText);
+    }
+
+    /**
+     * Adds the converted SPDX entities of a package and its files to the document root.
+     */
+    private void addToDocument(PackageData data, SpdxImportContext context) {
+        if (data.packageEntity() != null) {
+            spdxConverter.addPackage(data.packageEntity(), context.getSpdxDocumentRoot(), context.getPackageLookupMap());
+        }
+        for (FileData f : data.files()) {
+            if (f.fileEntity() != null) {
+                spdxConverter.addFile(f.fileEntity(), context.getSpdxDocumentRoot(), context.getFileLookupMap());
+            }
+        }
+    }
+
+    private InventoryItem persistPackage(PackageData data, ChunkEntities entities, SpdxImportContext context,
+                                         Set<Copyright> copyrightsToSave) {
+        log.info("Looking at package: {}", data.id());
+        addToDocument(data, context);
+
+        List<Copyright> copyrights = new ArrayList<>();
+
+        SoftwareComponent component = context.getComponentCache().get(componentKey(data));
+
+        licenseHandler.createUsageLicenses(data.licenses(), context, component, context.getProject().getOrganization());
+
+        String inventoryName = inventoryName(data, component);
+
+        InventoryItem inventoryItem = entities.inventoryItems().get(inventoryName);
+        inventoryItem.setSpdxId(data.id());
+        inventoryItem.setImportFingerprint(data.fingerprint());
+        inventoryItem.setCurated(false);
+
+        inventoryItem.setSize(data.files().size());
+        log.info("Converting {} files", data.files().size());
+
+        data.files().forEach(f -> {
+            context.getFileToInventoryItemMap().put(f.id(), inventoryItem);
+            context.getProcessedFileIds().add(f.id());
+        });
+
+        copyrights = parseFiles(data.files(), inventoryItem, entities.copyrights(), context, copyrightsToSave);
 
         if (component.getCopyrights() == null){
             component.setCopyrights(new ArrayList<>(copyrights)); // Copy to new list
@@ -206,41 +497,43 @@ public class PackageHandler {
         }
 
 
-        String downloadLocation = spdxPackage.getDownloadLocation().orElse("");
-        component.setDetailsUrl(downloadLocation);
+        component.setDetailsUrl(data.downloadLocation());
 
-        List<ExternalRef> externalRefs = spdxPackage.getExternalRefs().stream().toList();
-        for(ExternalRef externalRef: externalRefs){
-            if(externalRef.getReferenceType().getIndividualURI().endsWith("purl")){
-                component.setPurl(externalRef.getReferenceLocator());
-                log.info("Found purl: {} for Component: {}", externalRef.getReferenceLocator(), component.getName());
-            }
+        if (data.purl() != null) {
+            component.setPurl(data.purl());
+            log.info("Found purl: {} for Component: {}", data.purl(), component.getName());
+        }
+        // after the purl is known, the findings are matched by it
+        if (context.getOrtFindings() != null) {
+            inventoryItemService.sortViolationsAndIssues(context.getOrtFindings(), inventoryItem);
         }
 
         //inventoryItemService.update(inventoryItem);
         log.info("created inventoryItem: {}", inventoryName);
         log.info("created softwareComponent: {}", component.getName());
 
-        if (context.getMainPackageIds().contains(spdxPackage.getId())) {
+        if (context.getMainPackageIds().contains(data.id())) {
             context.getMainInventoryItems().add(inventoryItem.getId());
         }
 
         return inventoryItem;
     }
 
-    private List<Copyright> parseFiles(Set<SpdxFile> packageFiles, InventoryItem inventoryItem, SpdxImportContext context, Set<Copyright> copyrightsToSave) throws InvalidSPDXAnalysisException {
+    private List<Copyright> parseFiles(List<FileData> packageFiles, InventoryItem inventoryItem,
+                                       Map<String, Copyright> chunkCopyrights, SpdxImportContext context,
+                                       Set<Copyright> copyrightsToSave) {
         Set<String> allCopyrightsTexts = new HashSet<>();
         Map<String, String> fileToCopyrightMap = new HashMap<>();
         Map<String, String> fileToSpdxIdMap = new HashMap<>();
 
-        for (SpdxFile f : packageFiles) {
-            context.getProcessedFileIds().add(f.getId());
-            if (f.getName().isPresent()){
-                String path = f.getName().get();
-                fileToSpdxIdMap.put(path, f.getId());
+        for (FileData f : packageFiles) {
+            context.getProcessedFileIds().add(f.id());
+            if (f.path() != null){
+                String path = f.path();
+                fileToSpdxIdMap.put(path, f.id());
 
-                String copyright = f.getCopyrightText();
-                if (!"NONE".equals(copyright) && !"NOASSERTION".equals(copyright)){
+                String copyright = f.copyrightText();
+                if (isCopyright(copyright)){
                     allCopyrightsTexts.add(copyright);
                     fileToCopyrightMap.put(path, copyright);
                 }
@@ -248,13 +541,17 @@ public class PackageHandler {
         }
 
 
-        Map<String, File> locationMap = fileService.findOrCreateBatch(fileToSpdxIdMap, inventoryItem);
+        Map<String, File> locationMap = fileService.findOrCreateBatch(fileToSpdxIdMap, inventoryItem, context);
 
         Project project= inventoryItem.getProject();
         project.addFiles(new HashSet<>(locationMap.values()));
 
-        Map<String, Copyright> copyrightMap = copyrightService.findOrCreateBatch(allCopyrightsTexts,
-                context.getProject().getOrganization());
+        // resolved for the whole chunk before
+        Map<String, Copyright> copyrightMap = new HashMap<>();
+        for (String copyrightText : allCopyrightsTexts) {
+            Copyright copyright = chunkCopyrights.get(copyrightText);
+            if (copyright != null) copyrightMap.put(copyrightText, copyright);
+        }
 
         for (Map.Entry<String, String> entry : fileToCopyrightMap.entrySet()) {
             String path = entry.getKey();
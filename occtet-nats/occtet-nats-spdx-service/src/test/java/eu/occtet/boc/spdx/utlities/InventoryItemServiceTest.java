@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.spdx.utlities;
+
+import eu.occtet.boc.dao.OrtFindingIndex;
+import eu.occtet.boc.dao.OrtIssueRepository;
+import eu.occtet.boc.dao.OrtViolationRepository;
+import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.OrtIssue;
+import eu.occtet.boc.entity.OrtViolation;
+import eu.occtet.boc.entity.SoftwareComponent;
+import eu.occtet.boc.spdx.service.InventoryItemService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryItemServiceTest {
+
+    private static final String PURL = "pkg:maven/org.example/lib@1.0";
+
+    @Mock
+    private OrtIssueRepository ortIssueRepository;
+    @Mock
+    private OrtViolationRepository ortViolationRepository;
+
+    @InjectMocks
+    private InventoryItemService inventoryItemService;
+
+    @Test
+    void sortViolationsAndIssues_LastItemOfAPurlKeepsTheFindings() {
+        OrtIssue issue = new OrtIssue();
+        issue.setPurl(PURL);
+        OrtIssue otherIssue = new OrtIssue();
+        otherIssue.setPurl("pkg:maven/org.example/other@1.0");
+        OrtViolation violation = new OrtViolation();
+        violation.setPurl(PURL);
+        OrtFindingIndex index = new OrtFindingIndex(List.of(issue, otherIssue), List.of(violation));
+
+        InventoryItem first = inventoryItem("first");
+        InventoryItem second = inventoryItem("second");
+        inventoryItemService.sortViolationsAndIssues(index, first);
+        inventoryItemService.sortViolationsAndIssues(index, second);
+
+        assertSame(second, issue.getInventoryItem());
+        assertSame(second, violation.getInventoryItem());
+        assertNull(otherIssue.getInventoryItem());
+    }
+
+    private InventoryItem inventoryItem(String name) {
+        SoftwareComponent softwareComponent = new SoftwareComponent();
+        softwareComponent.setPurl(PURL);
+        InventoryItem inventoryItem = new InventoryItem();
+        inventoryItem.setInventoryName(name);
+        inventoryItem.setSoftwareComponent(softwareComponent);
+        return inventoryItem;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (C) 2025 Bitsea GmbH
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and limitations under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.spdx.utlities;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.occtet.boc.spdx.service.JsonSanitizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class JsonSanitizerTest {
+
+    private static final String DOCUMENT = """
+            {
+              "SPDXID": "SPDXRef-DOCUMENT",
+              "name": "test",
+              "documentDescribes": ["SPDXRef-Package-a", "SPDXRef-Package-missing"],
+              "packages": [
+                {"SPDXID": "SPDXRef-Package-a", "hasFiles": ["SPDXRef-File-1", "SPDXRef-File-missing"]},
+                {"SPDXID": "SPDXRef-Package-A", "name": "duplicate"},
+                {"name": "no id"}
+              ],
+              "files": [
+                {"SPDXID": "SPDXRef-File-1"},
+                {"SPDXID": "SPDXRef-Package-a"}
+              ],
+              "snippets": [
+                {"SPDXID": "SPDXRef-Snippet-1", "snippetFromFile": "SPDXRef-File-missing"}
+              ],
+              "relationships": [
+                {"spdxElementId": "SPDXRef-DOCUMENT", "relatedSpdxElement": "SPDXRef-Package-a"},
+                {"spdxElementId": "SPDXRef-Package-a", "relatedSpdxElement": "SPDXRef-File-missing"},
+                {"spdxElementId": "SPDXRef-Package-a", "relatedSpdxElement": "NOASSERTION"}
+              ]
+            }
+            """;
+
+    @Test
+    public void sanitizeSpdxJsonTest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonSanitizer().sanitizeSpdxJson(new ByteArrayResource(DOCUMENT.getBytes(StandardCharsets.UTF_8)), out);
+
+        JsonNode root = new ObjectMapper().readTree(out.toByteArray());
+
+        Assertions.assertEquals("test", root.get("name").asText());
+        Assertions.assertEquals(1, root.get("documentDescribes").size());
+        Assertions.assertEquals(1, root.get("packages").size());
+        Assertions.assertEquals(1, root.get("packages").get(0).get("hasFiles").size());
+        Assertions.assertEquals(1, root.get("files").size());
+        Assertions.assertEquals("SPDXRef-File-1", root.get("files").get(0).get("SPDXID").asText());
+        Assertions.assertFalse(root.get("snippets").get(0).has("snippetFromFile"));
+        Assertions.assertEquals(2, root.get("relationships").size());
+    }
+
+    @Test
+    public void sanitizeSpdxJsonInvalidTest() {
+        Assertions.assertThrows(Exception.class, () -> new JsonSanitizer()
+                .sanitizeSpdxJson(new ByteArrayResource("{\"packages\": [".getBytes(StandardCharsets.UTF_8)),
+                        new ByteArrayOutputStream()));
+    }
+}
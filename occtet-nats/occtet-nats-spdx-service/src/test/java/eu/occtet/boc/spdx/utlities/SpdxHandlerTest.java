@@ -65,7 +65,7 @@ import java.util.*;
         CopyrightService.class, InventoryItemService.class, LicenseService.class, FileService.class,
         ProjectRepository.class, InventoryItemRepository.class, SoftwareComponentFactory.class, FileRepository.class,
         CopyrightFactory.class, FileFactory.class, InventoryItemFactory.class, CleanUpService.class, SpdxConverter.class, TestEclipseLinkJpaConfiguration.class,
-        LicenseHandler.class, PackageHandler.class, OrphanHandler.class, RelationshipHandler.class, SnippetHandler.class, JsonSanitizer.class,
+        LicenseHandler.class, PackageHandler.class, OrphanHandler.class, RelationshipHandler.class, SnippetHandler.class, JsonSanitizer.class, ImportCheckpointDao.class,
         LicenseRepository.class, License.class
 })
 @EnableJpaRepositories(basePackages = {"eu.occtet.boc.dao"})
@@ -92,6 +92,10 @@ public class SpdxHandlerTest {
     private InventoryItemRepository inventoryItemRepository;
     @Autowired
     private LicenseRepository licenseRepository;
+    @Autowired
+    private FileRepository fileRepository;
+    @Autowired
+    private FileService fileService;
 
     @Autowired
     private LicenseHandler licenseHandler;
@@ -186,6 +190,46 @@ public class SpdxHandlerTest {
     }
 
 
+    @Test
+    public void testPackageHandler_IncrementalReimportSkipsUnchangedPackages() {
+        packageHandler.processAllPackages(context, (p) -> {});
+        int importedItems = context.getInventoryItems().size();
+        long importedFiles = fileRepository.count();
+
+        InventoryItem removedItem = new InventoryItem();
+        removedItem.setProject(project);
+        removedItem.setOrganization(organization);
+        removedItem.setInventoryName("removed package");
+        removedItem.setSpdxId("SPDXRef-Package-Removed");
+        removedItem = inventoryItemRepository.save(removedItem);
+        File removedFile = new File("removed/file.txt", project, "file.txt", removedItem);
+        removedFile.setProjectPath("removed/file.txt");
+        removedFile = fileRepository.save(removedFile);
+
+        Map<String, SpdxImportContext.PreviousPackage> previousPackages = new HashMap<>();
+        for (InventoryItem item : inventoryItemRepository.findAllByProject(project)) {
+            if (item.getSpdxId() != null) {
+                previousPackages.put(item.getSpdxId(),
+                        new SpdxImportContext.PreviousPackage(item.getId(), item.getImportFingerprint()));
+            }
+        }
+        SpdxImportContext reimport = new SpdxImportContext(project, context.getSpdxDocument(), new SpdxDocumentRoot());
+        reimport.setExtractedLicenseInfos(context.getExtractedLicenseInfos());
+        reimport.setPreviousPackages(previousPackages);
+
+        packageHandler.processAllPackages(reimport, (p) -> {});
+        packageHandler.retireRemovedPackages(reimport);
+        fileService.removeDetachedFiles(reimport);
+
+        Assertions.assertTrue(importedItems > 0);
+        Assertions.assertTrue(reimport.getInventoryItems().isEmpty(), "Unchanged packages should not be sent again");
+        Assertions.assertNotNull(reimport.getFileToInventoryItemMap().get("SPDXRef-File-1"),
+                "Unchanged packages should still be known to the later handlers");
+        Assertions.assertEquals(importedFiles, fileRepository.count(), "Only the file of the removed package should be deleted");
+        Assertions.assertFalse(fileRepository.existsById(removedFile.getId()));
+        Assertions.assertNull(inventoryItemRepository.findById(removedItem.getId()).orElseThrow().getSpdxId());
+    }
+
     @Test
     public void testOrphanHandler_ShouldFindSpecificOrphanFile() {
         packageHandler.processAllPackages(context, (p) -> {});
@@ -0,0 +1,138 @@
+/*
+ *  Copyright (C) 2025 Bitsea GmbH
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and limitations under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.spdx.utlities;
+
+import eu.occtet.boc.spdx.service.SpdxJsonIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.*;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class SpdxJsonIndexTest {
+
+    private static final String TEST_FILE = "synthetic-scan-result-expected-output.spdx.json";
+    private static final String PKG1 = "SPDXRef-Package-Maven-pkg1-grp-pkg1-0.0.1";
+
+    private Path json;
+    private SpdxJsonIndex index;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        SpdxModelFactory.init();
+        json = Files.createTempFile("spdx-index-test-", ".json");
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(TEST_FILE)) {
+            Files.write(json, in.readAllBytes());
+        }
+        index = SpdxJsonIndex.open(json);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        index.close();
+        Files.deleteIfExists(json);
+    }
+
+    @Test
+    public void indexTest() {
+        Assertions.assertEquals(12, index.packageIds().size());
+        Assertions.assertEquals("SPDXRef-Project-Maven-proj1-grp-proj1-0.0.1", index.packageIds().getFirst());
+        Assertions.assertEquals(6, index.fileIds().size());
+        Assertions.assertEquals(List.of("SPDXRef-Snippet"), index.snippetIds());
+        Assertions.assertEquals(6, index.relationshipSourceIds().size());
+    }
+
+    @Test
+    public void readHeaderTest() throws Exception {
+        SpdxDocument header = index.readHeader();
+
+        Assertions.assertEquals(List.of("SPDXRef-Project-Maven-proj1-grp-proj1-0.0.1"),
+                header.getDocumentDescribes().stream().map(SpdxElement::getId).toList());
+        Assertions.assertEquals(2, header.getExtractedLicenseInfos().size());
+        Assertions.assertEquals(1, elements(header, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE).size());
+        Assertions.assertTrue(elements(header, SpdxConstantsCompatV2.CLASS_SPDX_FILE).isEmpty());
+    }
+
+    @Test
+    public void readPackagesTest() throws Exception {
+        SpdxDocument chunk = index.readPackages(List.of("SPDXRef-Package-Go-gopkg.in.yaml.v3-3.0.1-vcs",
+                "SPDXRef-Package-Maven-pkg1-grp-pkg1-0.0.1-vcs"));
+
+        Map<String, SpdxPackage> packages = new HashMap<>();
+        elements(chunk, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE).forEach(e -> packages.put(e.getId(), (SpdxPackage) e));
+        Assertions.assertEquals(2, packages.size());
+        Set<String> files = new HashSet<>();
+        for (SpdxFile file : packages.get("SPDXRef-Package-Go-gopkg.in.yaml.v3-3.0.1-vcs").getFiles()) {
+            files.add(file.getId());
+        }
+        Assertions.assertEquals(Set.of("SPDXRef-File-1", "SPDXRef-File-2"), files);
+        Assertions.assertEquals(3, elements(chunk, SpdxConstantsCompatV2.CLASS_SPDX_FILE).size());
+    }
+
+    @Test
+    public void readRelationshipsTest() throws Exception {
+        SpdxDocument chunk = index.readRelationships(List.of(PKG1));
+
+        Map<String, SpdxElement> packages = new HashMap<>();
+        elements(chunk, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE).forEach(e -> packages.put(e.getId(), e));
+        Assertions.assertEquals(5, packages.size(), "the source and its four targets");
+
+        List<Relationship> relationships = new ArrayList<>(packages.get(PKG1).getRelationships());
+        Assertions.assertEquals(4, relationships.size());
+        for (Relationship relationship : relationships) {
+            Assertions.assertInstanceOf(SpdxPackage.class, relationship.getRelatedSpdxElement().orElseThrow());
+        }
+        Assertions.assertTrue(packages.get("SPDXRef-Package-Maven-pkg2-grp-pkg2-0.0.1").getRelationships().isEmpty(),
+                "relationships of other packages belong to their own chunk");
+    }
+
+    @Test
+    public void readSnippetsTest() throws Exception {
+        SpdxDocument chunk = index.readSnippets(index.snippetIds());
+
+        List<SpdxElement> snippets = elements(chunk, SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET);
+        Assertions.assertEquals(1, snippets.size());
+        Assertions.assertEquals("SPDXRef-File-1", ((SpdxSnippet) snippets.getFirst()).getSnippetFromFile().getId());
+    }
+
+    @Test
+    public void readFilesTest() throws Exception {
+        SpdxDocument chunk = index.readFiles(List.of("SPDXRef-OrphanedFile1"));
+
+        List<SpdxElement> files = elements(chunk, SpdxConstantsCompatV2.CLASS_SPDX_FILE);
+        Assertions.assertEquals(1, files.size());
+        Assertions.assertTrue(elements(chunk, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE).isEmpty());
+    }
+
+    private static List<SpdxElement> elements(SpdxDocument document, String type) throws InvalidSPDXAnalysisException {
+        return SpdxModelFactory.getSpdxObjects(document.getModelStore(), document.getCopyManager(), type,
+                        document.getDocumentUri(), null)
+                .filter(SpdxElement.class::isInstance)
+                .map(SpdxElement.class::cast)
+                .toList();
+    }
+}
@@ -36,6 +36,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.spdx.library.model.v2.SpdxPackage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -44,13 +45,24 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -60,7 +72,7 @@ import static org.mockito.ArgumentMatchers.any;
         ProjectRepository.class, LicenseRepository.class, InventoryItemRepository.class, SoftwareComponentFactory.class, FileRepository.class,
         CopyrightFactory.class, FileFactory.class, InventoryItemFactory.class, CleanUpService.class,
         SpdxConverter.class, TestEclipseLinkJpaConfiguration.class, LicenseHandler.class, PackageHandler.class, OrphanHandler.class,
-        RelationshipHandler.class, SnippetHandler.class, JsonSanitizer.class
+        RelationshipHandler.class, SnippetHandler.class, JsonSanitizer.class, ImportCheckpointDao.class
 })
 @EnableJpaRepositories(basePackages = {
         "eu.occtet.boc.dao"})
@@ -104,6 +116,8 @@ public class SpdxServiceTest {
     private CleanUpService cleanUpService;
     @MockitoBean
     private JsonSanitizer  jsonSanitizer;
+    @MockitoBean
+    private ImportCheckpointDao importCheckpointDao;
 
     private Organization org;
     private Project project;
@@ -128,8 +142,10 @@ public class SpdxServiceTest {
                 .thenReturn(new SpdxDocumentRoot());
         Mockito.lenient().when(spdxDocumentRootRepository.save(any()))
                 .thenReturn(new SpdxDocumentRoot());
-        Mockito.lenient().when(jsonSanitizer.sanitizeSpdxJson(any(), any(), any()))
-                .thenReturn(jsonBytes);
+        Mockito.lenient().doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(jsonBytes);
+            return null;
+        }).when(jsonSanitizer).sanitizeSpdxJson(any(), any());
     }
 
     @Test
@@ -217,4 +233,108 @@ public class SpdxServiceTest {
             Assertions.fail("Mock verification failed");
         }
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testParseDocument_ResumesAfterKilledChunk() throws Exception {
+        SpdxWorkData workData = new SpdxWorkData();
+        workData.setProjectId(project.getId());
+        workData.setJsonBytes(jsonBytes);
+
+        List<SpdxPackage> packages = IntStream.range(0, 5).mapToObj(i -> Mockito.mock(SpdxPackage.class)).toList();
+        Mockito.when(packageHandler.collectPackages(any())).thenReturn(packages);
+        Map<String, Integer> checkpoints = new HashMap<>();
+        Mockito.when(importCheckpointDao.findCheckpoint(anyString()))
+                .thenAnswer(invocation -> checkpoints.get(invocation.getArgument(0, String.class)));
+        Mockito.doAnswer(invocation -> checkpoints.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(importCheckpointDao).saveCheckpoint(anyString(), anyInt());
+        Mockito.doAnswer(invocation -> checkpoints.remove(invocation.getArgument(0, String.class)))
+                .when(importCheckpointDao).clearCheckpoint(anyString());
+        // the service dies in the second chunk, nothing after the last commit runs
+        Mockito.doNothing().doThrow(new ServiceKilled()).doNothing()
+                .when(packageHandler).processPackages(any(), any(), any());
+
+        ReflectionTestUtils.setField(spdxService, "importChunkSize", 2);
+        try {
+            Assertions.assertThrows(ServiceKilled.class, () -> spdxService.process(workData, "42"));
+            Assertions.assertEquals(2, checkpoints.get("42"), "The first chunk should be checkpointed");
+            Mockito.verify(relationshipHandler, Mockito.never()).processAllRelationships(any(), any());
+
+            Assertions.assertTrue(spdxService.process(workData, "42"));
+        } finally {
+            ReflectionTestUtils.setField(spdxService, "importChunkSize", 0);
+        }
+
+        Mockito.verify(cleanUpService, Mockito.times(1)).cleanUpFileTree(any(Project.class));
+        Mockito.verify(packageHandler).restorePackages(any(SpdxImportContext.class), eq(packages.subList(0, 2)));
+        ArgumentCaptor<List<SpdxPackage>> chunks = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(packageHandler, Mockito.times(4)).processPackages(any(), chunks.capture(), any());
+        Assertions.assertEquals(List.of(packages.subList(0, 2), packages.subList(2, 4), packages.subList(2, 4),
+                packages.subList(4, 5)), chunks.getAllValues());
+        Mockito.verify(relationshipHandler).processAllRelationships(any(SpdxImportContext.class), any());
+        Assertions.assertFalse(checkpoints.containsKey("42"), "The checkpoint should be cleared after the import");
+    }
+
+    @Test
+    public void testParseDocument_SanitizerFailureFallsBack() throws Exception {
+        Mockito.doThrow(new IOException("Unexpected JSON token")).when(jsonSanitizer).sanitizeSpdxJson(any(), any());
+        SpdxWorkData workData = new SpdxWorkData();
+        workData.setProjectId(project.getId());
+        workData.setJsonBytes(jsonBytes);
+
+        Assertions.assertTrue(spdxService.process(workData), "The original payload should be imported");
+        Mockito.verify(packageHandler).processAllPackages(any(SpdxImportContext.class), any());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testParseDocument_Streaming() throws Exception {
+        SpdxWorkData workData = new SpdxWorkData();
+        workData.setProjectId(project.getId());
+        workData.setJsonBytes(jsonBytes);
+
+        InventoryItem linkedItem = new InventoryItem();
+        linkedItem.setProject(project);
+        linkedItem.setSpdxId("SPDXRef-Package-Maven-pkg7-grp-pkg7-0.0.1-source-artifact");
+        linkedItem.setInventoryName("Linked Item");
+        linkedItem.setOrganization(org);
+        inventoryItemRepository.save(linkedItem);
+
+        Mockito.when(packageHandler.collectPackages(any())).thenCallRealMethod();
+        Map<String, Integer> relationshipsBySource = new HashMap<>();
+        Set<String> cachedIds = new HashSet<>();
+        Mockito.doAnswer(invocation -> {
+            SpdxImportContext context = invocation.getArgument(0);
+            context.getPackageRelationships().forEach((id, relationships) -> relationshipsBySource.put(id, relationships.size()));
+            cachedIds.addAll(context.getInventoryCache().keySet());
+            context.getPackageRelationships().clear();
+            return null;
+        }).when(relationshipHandler).processAllRelationships(any(), any());
+
+        ReflectionTestUtils.setField(spdxService, "streamingImport", true);
+        ReflectionTestUtils.setField(spdxService, "importChunkSize", 5);
+        try {
+            Assertions.assertTrue(spdxService.process(workData, "7"));
+        } finally {
+            ReflectionTestUtils.setField(spdxService, "streamingImport", false);
+            ReflectionTestUtils.setField(spdxService, "importChunkSize", 0);
+        }
+
+        Mockito.verify(packageHandler, Mockito.never()).processAllPackages(any(), any());
+        ArgumentCaptor<List<SpdxPackage>> chunks = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(packageHandler, Mockito.times(3)).processPackages(any(), chunks.capture(), any());
+        Assertions.assertEquals(List.of(5, 5, 2), chunks.getAllValues().stream().map(List::size).toList());
+        // the mocked package handler processes no files, so all six files are orphans
+        Mockito.verify(orphanHandler, Mockito.times(2)).processOrphanFiles(any(SpdxImportContext.class));
+        Mockito.verify(relationshipHandler, Mockito.times(2)).processAllRelationships(any(SpdxImportContext.class), any());
+        Mockito.verify(snippetHandler).processAllSnippets(any(SpdxImportContext.class));
+
+        Assertions.assertEquals(6, relationshipsBySource.size());
+        Assertions.assertEquals(4, relationshipsBySource.get("SPDXRef-Package-Maven-pkg1-grp-pkg1-0.0.1"));
+        Assertions.assertTrue(cachedIds.contains("SPDXRef-Package-Maven-pkg7-grp-pkg7-0.0.1-source-artifact"),
+                "The inventory items linked by a relationship chunk should be loaded for it");
+    }
+
+    private static class ServiceKilled extends Error {
+    }
 }
@@ -67,6 +67,15 @@ public class VulnerabilityServiceApp {
     @Value("${nats.work-subject}")
     private String workSubject;
 
+    @Value("${nats.max-concurrent-tasks:1}")
+    private int maxConcurrentTasks;
+
+    @Value("${nats.fetch-batch-size:1}")
+    private int fetchBatchSize;
+
+    @Value("${nats.virtual-threads:false}")
+    private boolean useVirtualThreads;
+
     @Value("${app.nats.listener.enabled}")
     private boolean listenerEnabled;
 
@@ -90,6 +99,7 @@ public class VulnerabilityServiceApp {
         if (listenerEnabled) {
             log.info("Starting listener for work messages on subject: {}", workSubject);
             log.info("Listening on NATS stream: {}", streamName);
+            vulnerabilityServiceWorkConsumer.setConcurrency(maxConcurrentTasks, fetchBatchSize, useVirtualThreads);
             vulnerabilityServiceWorkConsumer.startHandlingMessages(natsConnection, microserviceDescriptor.getName(),
                     streamName, workSubject);
         }
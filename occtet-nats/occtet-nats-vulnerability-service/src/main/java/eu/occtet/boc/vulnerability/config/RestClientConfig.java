@@ -20,6 +20,7 @@
 package eu.occtet.boc.vulnerability.config;
 
 import eu.occtet.boc.vulnerability.service.TokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
@@ -28,13 +29,16 @@ import org.springframework.web.client.RestClient;
 @Configuration
 public class RestClientConfig {
 
+    @Value("${vulnerablecode.url:https://public.vulnerablecode.io}")
+    private String vulnerableCodeUrl;
+
     /**
-     * Client for the VulnerableCode API.
+     * Client for the VulnerableCode API. The url can point to a local instance for offline runs.
      * @return
      */
     @Bean(name = "vulnerableCodeRestClient")
     public RestClient vulnerableCodeRestClient(RestClient.Builder builder, TokenService tokenService){
-        return builder.baseUrl("https://public.vulnerablecode.io")
+        return builder.baseUrl(vulnerableCodeUrl)
                 .defaultHeader(HttpHeaders.USER_AGENT, "VCIO_API_AGENT")
                 .requestInterceptor(new BearerTokenInterceptor(tokenService))
                 .build();
@@ -44,8 +44,19 @@ public class VulnerabilityFactory {
         log.info("Creating vulnerability with id:{}, summary:{}, aliases:{}, severity:{}, exploitability:{}," +
                         "riskScore:{}, fixedPackages:{}, sourceUrl:{}, references:{}",
                 vulnerabilityId, summary, aliases.size(), severity, exploitability, riskScore, fixedPackages.size(), sourceUrl, references.size());
-        return vulnerabilityRepository.save(new Vulnerability(vulnerabilityId, summary, aliases,
+        return vulnerabilityRepository.save(instantiate(vulnerabilityId, summary, aliases,
                 severity, exploitability, riskScore, fixedPackages, sourceUrl, references, organization));
 
     }
+
+    /**
+     * Creates a vulnerability without saving it, for callers that save many vulnerabilities at once.
+     */
+    public Vulnerability instantiate(String vulnerabilityId, String summary, List<String> aliases,
+                                     String severity, Double exploitability, Double riskScore,
+                                     List<String> fixedPackages, String sourceUrl, List<String> references,
+                                     Organization organization) {
+        return new Vulnerability(vulnerabilityId, summary, aliases,
+                severity, exploitability, riskScore, fixedPackages, sourceUrl, references, organization);
+    }
 }
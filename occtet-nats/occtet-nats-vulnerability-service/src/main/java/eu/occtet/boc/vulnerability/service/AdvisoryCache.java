@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.occtet.boc.dao.AdvisoryCacheEntryRepository;
+import eu.occtet.boc.entity.AdvisoryCacheEntry;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageResultDto;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.VulnerabilityDto;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Advisories of package URLs, kept in the ADVISORY_CACHE_ENTRY table for vulnerability.cache.ttl. Unknown purls and
+ * expired entries are fetched from VulnerableCode with bulk requests. A purl whose lookup failed is missing from the
+ * result and is fetched again by the next lookup.
+ */
+@Service
+public class AdvisoryCache {
+
+    private static final Logger log = LogManager.getLogger(AdvisoryCache.class);
+
+    // stays below the bind parameter limits of the databases
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    private static final TypeReference<List<VulnerabilityDto>> ADVISORY_LIST = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Autowired
+    private AdvisoryCacheEntryRepository advisoryCacheEntryRepository;
+
+    @Autowired
+    private VulnerableCodeApiClient vulnerableCodeApiClient;
+
+    @Value("${vulnerability.cache.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${vulnerability.bulk-size:100}")
+    private int bulkSize;
+
+    /**
+     * @return the advisories affecting each of the purls, empty for packages VulnerableCode does not know
+     */
+    public Map<String, List<VulnerabilityDto>> lookup(Collection<String> purls) {
+        List<String> distinctPurls = new ArrayList<>(new LinkedHashSet<>(purls));
+        Map<String, AdvisoryCacheEntry> entries = new HashMap<>();
+        for (List<String> chunk : chunks(distinctPurls, QUERY_CHUNK_SIZE)) {
+            advisoryCacheEntryRepository.findByPurlIn(chunk).forEach(entry -> entries.put(entry.getPurl(), entry));
+        }
+
+        Map<String, List<VulnerabilityDto>> advisories = new HashMap<>();
+        List<AdvisoryCacheEntry> changed = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        LocalDateTime expiry = LocalDateTime.now().minus(ttl);
+        for (String purl : distinctPurls) {
+            AdvisoryCacheEntry entry = entries.get(purl);
+            if (entry != null && entry.getFetchedAt().isAfter(expiry)) {
+                advisories.put(purl, decode(entry));
+            } else {
+                missing.add(purl);
+            }
+        }
+        log.debug("{} of {} purls answered from the advisory cache, {} to fetch", advisories.size(),
+                distinctPurls.size(), missing.size());
+
+        for (List<String> chunk : chunks(missing, bulkSize)) {
+            Optional<List<PackageResultDto>> packages = vulnerableCodeApiClient.bulkLookup(chunk);
+            if (packages.isEmpty()) continue;
+            Map<String, PackageResultDto> packagesByPurl = new HashMap<>();
+            for (PackageResultDto packageResultDto : packages.get()) {
+                if (packageResultDto.purl() != null) packagesByPurl.putIfAbsent(plainPurl(packageResultDto.purl()), packageResultDto);
+            }
+            for (String purl : chunk) {
+                PackageResultDto packageResultDto = packagesByPurl.get(plainPurl(purl));
+                List<VulnerabilityDto> found = packageResultDto == null || packageResultDto.affectedByVulnerabilities() == null ?
+                        List.of() : packageResultDto.affectedByVulnerabilities();
+                AdvisoryCacheEntry entry = entries.computeIfAbsent(purl, AdvisoryCacheEntry::new);
+                update(entry, found);
+                changed.add(entry);
+                advisories.put(purl, found);
+            }
+        }
+        save(changed);
+        return advisories;
+    }
+
+    private void update(AdvisoryCacheEntry entry, List<VulnerabilityDto> advisories) {
+        entry.setAdvisoryIds(advisories.stream().map(VulnerabilityDto::vulnerabilityId).collect(Collectors.joining(",")));
+        try {
+            entry.setAdvisories(objectMapper.writeValueAsString(advisories));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize advisories of " + entry.getPurl(), e);
+        }
+        entry.setFetchedAt(LocalDateTime.now());
+    }
+
+    private List<VulnerabilityDto> decode(AdvisoryCacheEntry entry) {
+        if (entry.getAdvisories() == null || entry.getAdvisories().isBlank()) return List.of();
+        try {
+            return objectMapper.readValue(entry.getAdvisories(), ADVISORY_LIST);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read cached advisories of {}: {}", entry.getPurl(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void save(List<AdvisoryCacheEntry> entries) {
+        if (entries.isEmpty()) return;
+        try {
+            advisoryCacheEntryRepository.saveAll(entries);
+        } catch (DataAccessException | TransactionException e) {
+            // another consumer stored some of the purls in the meantime, they are read from the table next time
+            log.debug("could not store {} advisory cache entries: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * VulnerableCode may answer with the purl it stored, without the qualifiers and subpath of the requested one.
+     */
+    static String plainPurl(String purl) {
+        int end = purl.length();
+        int qualifiers = purl.indexOf('?');
+        int subpath = purl.indexOf('#');
+        if (qualifiers >= 0) end = qualifiers;
+        if (subpath >= 0 && subpath < end) end = subpath;
+        return purl.substring(0, end);
+    }
+
+    private static <T> List<List<T>> chunks(List<T> list, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            chunks.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return chunks;
+    }
+}
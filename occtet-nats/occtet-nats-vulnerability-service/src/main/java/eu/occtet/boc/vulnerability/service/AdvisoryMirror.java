@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import eu.occtet.boc.dao.AdvisoryMirrorDao;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.FixedPackageDto;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.ReferenceDto;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.VulnerabilityDto;
+import eu.occtet.boc.vulnerability.utils.PackageCoordinates;
+import eu.occtet.boc.vulnerability.utils.Versions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Matches package URLs against the advisories imported into the local mirror, without any network access. The
+ * ranges of all packages of an ecosystem are read with one query per chunk of package names and evaluated in
+ * memory.
+ */
+@Service
+public class AdvisoryMirror {
+
+    private static final Logger log = LogManager.getLogger(AdvisoryMirror.class);
+
+    private static final String OSV_URL = "https://osv.dev/vulnerability/";
+
+    @Autowired
+    private AdvisoryMirrorDao advisoryMirrorDao;
+
+    /**
+     * @return the advisories affecting each of the purls, empty for purls without a version or of an ecosystem
+     * the mirror does not cover
+     */
+    public Map<String, List<VulnerabilityDto>> lookup(Collection<String> purls) {
+        Map<String, List<VulnerabilityDto>> advisories = new HashMap<>();
+        Map<String, PackageCoordinates.Coordinates> coordinatesByPurl = new LinkedHashMap<>();
+        Map<String, Set<String>> namesByEcosystem = new HashMap<>();
+        for (String purl : new LinkedHashSet<>(purls)) {
+            Optional<PackageCoordinates.Coordinates> coordinates = PackageCoordinates.ofPurl(purl);
+            if (coordinates.isEmpty()) {
+                advisories.put(purl, List.of());
+                continue;
+            }
+            coordinatesByPurl.put(purl, coordinates.get());
+            namesByEcosystem.computeIfAbsent(coordinates.get().ecosystem(), e -> new HashSet<>()).add(coordinates.get().name());
+        }
+
+        Map<String, List<AdvisoryMirrorDao.RangeRow>> rangesByPackage = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : namesByEcosystem.entrySet()) {
+            for (AdvisoryMirrorDao.RangeRow range : advisoryMirrorDao.findRanges(entry.getKey(), entry.getValue())) {
+                rangesByPackage.computeIfAbsent(keyOf(range.ecosystem(), range.packageName()), k -> new ArrayList<>()).add(range);
+            }
+        }
+
+        // advisory ids affecting each purl, with the versions fixing them
+        Map<String, Map<String, Set<String>>> matches = new HashMap<>();
+        Set<String> advisoryIds = new HashSet<>();
+        for (Map.Entry<String, PackageCoordinates.Coordinates> entry : coordinatesByPurl.entrySet()) {
+            PackageCoordinates.Coordinates coordinates = entry.getValue();
+            Map<String, Set<String>> affecting = new LinkedHashMap<>();
+            for (AdvisoryMirrorDao.RangeRow range : rangesByPackage.getOrDefault(keyOf(coordinates.ecosystem(), coordinates.name()), List.of())) {
+                if (!Versions.isInRange(coordinates.version(), range.introduced(), range.fixed(), range.lastAffected())) continue;
+                Set<String> fixedVersions = affecting.computeIfAbsent(range.advisoryId(), id -> new LinkedHashSet<>());
+                if (range.fixed() != null) fixedVersions.add(range.fixed());
+            }
+            matches.put(entry.getKey(), affecting);
+            advisoryIds.addAll(affecting.keySet());
+        }
+
+        Map<String, AdvisoryMirrorDao.AdvisoryRow> advisoriesById = new HashMap<>();
+        advisoryMirrorDao.findAdvisories(advisoryIds).forEach(advisory -> advisoriesById.put(advisory.advisoryId(), advisory));
+        for (Map.Entry<String, Map<String, Set<String>>> entry : matches.entrySet()) {
+            PackageCoordinates.Coordinates coordinates = coordinatesByPurl.get(entry.getKey());
+            List<VulnerabilityDto> found = new ArrayList<>();
+            entry.getValue().forEach((advisoryId, fixedVersions) -> {
+                AdvisoryMirrorDao.AdvisoryRow advisory = advisoriesById.get(advisoryId);
+                if (advisory != null) found.add(toDto(advisory, fixedVersions, coordinates));
+            });
+            advisories.put(entry.getKey(), found);
+        }
+        log.info("matched {} purls against {} advisories of the mirror", coordinatesByPurl.size(), advisoriesById.size());
+        return advisories;
+    }
+
+    private static VulnerabilityDto toDto(AdvisoryMirrorDao.AdvisoryRow advisory, Set<String> fixedVersions,
+                                          PackageCoordinates.Coordinates coordinates) {
+        List<ReferenceDto> references = split(advisory.references()).stream()
+                .map(url -> new ReferenceDto(url, null, null, List.of(), null))
+                .toList();
+        List<FixedPackageDto> fixedPackages = fixedVersions.stream()
+                .map(coordinates::withVersion)
+                .map(purl -> new FixedPackageDto(null, purl, false, List.of(), purl))
+                .toList();
+        return new VulnerabilityDto(null, advisory.advisoryId(), advisory.summary(), references, fixedPackages,
+                split(advisory.aliases()), null, null, advisory.severity(), OSV_URL + advisory.advisoryId());
+    }
+
+    private static List<String> split(String values) {
+        if (values == null || values.isBlank()) return List.of();
+        return Arrays.asList(values.split(","));
+    }
+
+    private static String keyOf(String ecosystem, String packageName) {
+        return ecosystem + "|" + packageName;
+    }
+}
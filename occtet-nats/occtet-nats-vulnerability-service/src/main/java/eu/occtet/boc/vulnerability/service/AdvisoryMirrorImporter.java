@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.occtet.boc.dao.AdvisoryMirrorDao;
+import eu.occtet.boc.vulnerability.utils.PackageCoordinates;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports advisories in the OSV format into the local mirror. A dump can be a single advisory, a JSON array of
+ * advisories, a ZIP archive of advisory files as published by osv.dev, or a directory of those. Advisories are
+ * written in batches, advisories that did not change since the last import are skipped.
+ */
+@Service
+public class AdvisoryMirrorImporter {
+
+    private static final Logger log = LogManager.getLogger(AdvisoryMirrorImporter.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final Map<String, String> SEVERITIES = Map.of(
+            "LOW", "Low",
+            "MODERATE", "Medium",
+            "MEDIUM", "Medium",
+            "HIGH", "High",
+            "CRITICAL", "Critical");
+
+    /**
+     * Counts of one import.
+     */
+    public record ImportResult(int read, int imported, int unchanged) {
+
+        /**
+         * Advisories that were added, updated or withdrawn.
+         */
+        public int changed() {return read - unchanged;}
+    }
+
+    private record ParsedAdvisory(String advisoryId, LocalDateTime modified, boolean withdrawn,
+                                  AdvisoryMirrorDao.AdvisoryRow advisory, List<AdvisoryMirrorDao.RangeRow> ranges) {}
+
+    // the ZIP stream stays open while the entries are parsed one after the other
+    private final ObjectMapper objectMapper = new ObjectMapper().configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    @Autowired
+    private AdvisoryMirrorDao advisoryMirrorDao;
+
+    @Autowired
+    private VulnerabilityRescanPublisher vulnerabilityRescanPublisher;
+
+    @Value("${vulnerability.mirror.import-path:}")
+    private String importPath;
+
+    @Value("${vulnerability.mirror.enabled:false}")
+    private boolean mirrorEnabled;
+
+    /**
+     * Imports the configured dump. If the mirror is used for matching and advisories changed, all projects are
+     * rescanned.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void importOnStartup() {
+        if (importPath == null || importPath.isBlank()) return;
+        Thread.ofVirtual().name("advisory-mirror-import").start(() -> {
+            try {
+                ImportResult result = importDump(Path.of(importPath));
+                if (mirrorEnabled && result.changed() > 0) vulnerabilityRescanPublisher.publishRescans();
+            } catch (Exception e) {
+                log.error("Could not import advisories from {}", importPath, e);
+            }
+        });
+    }
+
+    public ImportResult importDump(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        Batch batch = new Batch();
+        if (Files.isDirectory(path)) {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) importFile(file, batch);
+        } else {
+            importFile(path, batch);
+        }
+        batch.flush();
+        log.info("imported {} of {} advisories from {} in {} ms, {} unchanged", batch.imported, batch.read, path,
+                System.currentTimeMillis() - start, batch.unchanged);
+        return new ImportResult(batch.read, batch.imported, batch.unchanged);
+    }
+
+    private void importFile(Path file, Batch batch) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".zip")) {
+            try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                        readAdvisories(zip, entry.getName(), batch);
+                    }
+                }
+            }
+        } else if (fileName.endsWith(".json")) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                readAdvisories(in, file.toString(), batch);
+            }
+        }
+    }
+
+    private void readAdvisories(InputStream in, String source, Batch batch) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) add(parser.readValueAsTree(), source, batch);
+            } else if (token == JsonToken.START_OBJECT) {
+                add(parser.readValueAsTree(), source, batch);
+            }
+        }
+    }
+
+    private void add(JsonNode node, String source, Batch batch) {
+        String advisoryId = node.path("id").asText(null);
+        if (advisoryId == null || advisoryId.isBlank()) {
+            log.debug("skipping advisory without id in {}", source);
+            return;
+        }
+        batch.add(parse(advisoryId, node));
+    }
+
+    private ParsedAdvisory parse(String advisoryId, JsonNode node) {
+        LocalDateTime modified = parseTime(node.path("modified").asText(null));
+        boolean withdrawn = node.hasNonNull("withdrawn");
+
+        String summary = node.path("summary").asText(null);
+        if (summary == null || summary.isBlank()) summary = node.path("details").asText(null);
+        List<String> aliases = new ArrayList<>();
+        node.path("aliases").forEach(alias -> aliases.add(alias.asText()));
+        List<String> references = new ArrayList<>();
+        node.path("references").forEach(reference -> {
+            if (reference.hasNonNull("url")) references.add(reference.get("url").asText());
+        });
+        String severity = SEVERITIES.get(node.path("database_specific").path("severity").asText("").toUpperCase(Locale.ROOT));
+        AdvisoryMirrorDao.AdvisoryRow advisory = new AdvisoryMirrorDao.AdvisoryRow(advisoryId, summary,
+                String.join(",", aliases), severity, String.join(",", references), modified);
+
+        List<AdvisoryMirrorDao.RangeRow> ranges = new ArrayList<>();
+        for (JsonNode affected : node.path("affected")) {
+            // ecosystems of distributions carry a release, e.g. Debian:12
+            String ecosystem = affected.path("package").path("ecosystem").asText("").split(":")[0];
+            String packageName = affected.path("package").path("name").asText(null);
+            if (packageName == null || !PackageCoordinates.isSupported(ecosystem)) continue;
+            packageName = PackageCoordinates.normalizeName(ecosystem, packageName);
+
+            boolean hasRange = false;
+            for (JsonNode range : affected.path("ranges")) {
+                String type = range.path("type").asText();
+                // git ranges name commits, components are only known by version
+                if (!"SEMVER".equals(type) && !"ECOSYSTEM".equals(type)) continue;
+                String introduced = null;
+                boolean open = false;
+                for (JsonNode event : range.path("events")) {
+                    if (event.hasNonNull("introduced")) {
+                        if (open) ranges.add(range(advisoryId, ranges.size(), ecosystem, packageName, introduced, null, null));
+                        introduced = event.get("introduced").asText();
+                        open = true;
+                    } else if (event.hasNonNull("fixed") && open) {
+                        ranges.add(range(advisoryId, ranges.size(), ecosystem, packageName, introduced, event.get("fixed").asText(), null));
+                        open = false;
+                    } else if (event.hasNonNull("last_affected") && open) {
+                        ranges.add(range(advisoryId, ranges.size(), ecosystem, packageName, introduced, null, event.get("last_affected").asText()));
+                        open = false;
+                    }
+                }
+                if (open) ranges.add(range(advisoryId, ranges.size(), ecosystem, packageName, introduced, null, null));
+                hasRange = true;
+            }
+            if (!hasRange) {
+                // only the affected versions are listed
+                for (JsonNode version : affected.path("versions")) {
+                    ranges.add(range(advisoryId, ranges.size(), ecosystem, packageName, version.asText(), null, version.asText()));
+                }
+            }
+        }
+        return new ParsedAdvisory(advisoryId, modified, withdrawn, advisory, ranges);
+    }
+
+    private static AdvisoryMirrorDao.RangeRow range(String advisoryId, int index, String ecosystem, String packageName,
+                                                    String introduced, String fixed, String lastAffected) {
+        return new AdvisoryMirrorDao.RangeRow(advisoryId, index, ecosystem, packageName, introduced, fixed, lastAffected);
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        if (value == null) return null;
+        try {
+            return OffsetDateTime.parse(value).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private class Batch {
+        private final Map<String, ParsedAdvisory> advisories = new LinkedHashMap<>();
+        private int read;
+        private int imported;
+        private int unchanged;
+
+        void add(ParsedAdvisory advisory) {
+            read++;
+            advisories.put(advisory.advisoryId(), advisory);
+            if (advisories.size() >= BATCH_SIZE) flush();
+        }
+
+        void flush() {
+            if (advisories.isEmpty()) return;
+            Map<String, LocalDateTime> stored = advisoryMirrorDao.findModified(advisories.keySet());
+            List<String> replaced = new ArrayList<>();
+            List<AdvisoryMirrorDao.AdvisoryRow> rows = new ArrayList<>();
+            List<AdvisoryMirrorDao.RangeRow> ranges = new ArrayList<>();
+            for (ParsedAdvisory advisory : advisories.values()) {
+                LocalDateTime storedModified = stored.get(advisory.advisoryId());
+                if (stored.containsKey(advisory.advisoryId()) && storedModified != null && advisory.modified() != null
+                        && !advisory.modified().isAfter(storedModified)) {
+                    unchanged++;
+                    continue;
+                }
+                replaced.add(advisory.advisoryId());
+                if (advisory.withdrawn() || advisory.ranges().isEmpty()) {
+                    // kept without ranges so the next import of the same dump finds it unchanged
+                    rows.add(new AdvisoryMirrorDao.AdvisoryRow(advisory.advisoryId(), null, null, null, null, advisory.modified()));
+                    continue;
+                }
+                rows.add(advisory.advisory());
+                ranges.addAll(advisory.ranges());
+                imported++;
+            }
+            advisoryMirrorDao.replace(replaced, rows, ranges);
+            advisories.clear();
+        }
+    }
+}
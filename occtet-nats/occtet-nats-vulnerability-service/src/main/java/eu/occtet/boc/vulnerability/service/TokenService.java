@@ -24,8 +24,11 @@ import eu.occtet.boc.entity.appconfigurations.AppConfigKey;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 public class TokenService {
 
@@ -38,7 +41,25 @@ public class TokenService {
     private final org.springframework.security.crypto.encrypt.TextEncryptor textEncryptor =
             org.springframework.security.crypto.encrypt.Encryptors.text("secretPassword", "deadbeef12345678");
 
+    private record CachedToken(String token, long loadedAt) {}
+
+    // the token is decrypted once and read again after this time, so a changed token is picked up
+    @Value("${vulnerability.token-cache-ttl:PT5M}")
+    private Duration tokenCacheTtl;
+
+    private volatile CachedToken cachedToken;
+
     public String getCurrentToken() {
+        CachedToken cached = cachedToken;
+        if (cached != null && System.nanoTime() - cached.loadedAt() < tokenCacheTtl.toNanos()) {
+            return cached.token();
+        }
+        String token = loadToken();
+        cachedToken = new CachedToken(token, System.nanoTime());
+        return token;
+    }
+
+    private String loadToken() {
         return repository.findByConfigKey(AppConfigKey.GENERAL_VULNERABILITY_DB_TOKEN)
                 .map(config -> {
                     String val = config.getValue();
@@ -19,17 +19,21 @@
 
 package eu.occtet.boc.vulnerability.service;
 
+import eu.occtet.boc.entity.Organization;
 import eu.occtet.boc.entity.SoftwareComponent;
 import eu.occtet.boc.entity.Vulnerability;
+import eu.occtet.boc.dao.InventoryItemRepository;
 import eu.occtet.boc.dao.SoftwareComponentRepository;
 import eu.occtet.boc.vulnerability.model.vulnerablecode.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Service class to interact with the VulnerableCode API and process vulnerability data.
@@ -41,6 +45,9 @@ public class VulnerabilityDataService {
 
     private static final Logger log = LogManager.getLogger(VulnerabilityDataService.class);
 
+    // stays below the bind parameter limits of the databases
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
     @Autowired
     private VulnerabilityService vulnerabilityService;
 
@@ -50,78 +57,164 @@ public class VulnerabilityDataService {
     @Autowired
     private VulnerableCodeApiClient vulnerableCodeApiClient;
 
+    @Autowired
+    private AdvisoryCache advisoryCache;
+
+    @Autowired
+    private AdvisoryMirror advisoryMirror;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    // matches against the local advisory mirror instead of asking VulnerableCode
+    @Value("${vulnerability.mirror.enabled:false}")
+    private boolean mirrorEnabled;
+
     public List<Vulnerability> generateVulnerabilities(long scId) {
-        try {
-            SoftwareComponent softwareComponent = softwareComponentRepository.findById(scId)
-                    .orElse(null);
-            if (softwareComponent == null) {
-                log.error("Software component not found for id {}", scId);
-                return Collections.emptyList();
-            }
+        return generateVulnerabilities(List.of(scId)).getOrDefault(scId, Collections.emptyList());
+    }
 
-            Optional<PackageApiResponseDto> packageApiResponseDtoOptional = vulnerableCodeApiClient.getPackageData(softwareComponent);
+    /**
+     * Matches all software components of a project in one pass. The vulnerabilities found replace those of each
+     * component, so advisories that were withdrawn or no longer match are removed. Manually created vulnerabilities
+     * are kept, as are those of components whose advisories could not be fetched.
+     *
+     * @return the vulnerabilities of each software component of the project by its id
+     */
+    public Map<Long, List<Vulnerability>> rescanProject(long projectId) {
+        List<Long> scIds = inventoryItemRepository.findSoftwareComponentIdsByProjectId(projectId);
+        log.info("Rescanning {} software components of project {}", scIds.size(), projectId);
+        return generateVulnerabilities(scIds, true);
+    }
 
-            List<Vulnerability> vulnerabilityList = softwareComponent.getVulnerabilities() == null ?
-                    new ArrayList<>() : softwareComponent.getVulnerabilities();
+    /**
+     * Looks up the vulnerabilities of many software components at once. The advisories of components with a purl
+     * come from the local mirror if it is enabled, otherwise from the advisory cache, which fetches unknown purls
+     * in bulk. The vulnerabilities of an organization are saved together. A failure to store them is passed on,
+     * so the work message is handled again.
+     *
+     * @return the vulnerabilities of each found software component by its id
+     */
+    public Map<Long, List<Vulnerability>> generateVulnerabilities(Collection<Long> scIds) {
+        return generateVulnerabilities(scIds, false);
+    }
 
-            if (packageApiResponseDtoOptional.isEmpty()) {
-                return vulnerabilityList;
-            }
+    /**
+     * @param replace whether the vulnerabilities found replace those of a component instead of being added to them
+     */
+    private Map<Long, List<Vulnerability>> generateVulnerabilities(Collection<Long> scIds, boolean replace) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(scIds));
+        List<SoftwareComponent> softwareComponents = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i += QUERY_CHUNK_SIZE) {
+            softwareComponents.addAll(softwareComponentRepository.findAllById(
+                    distinctIds.subList(i, Math.min(i + QUERY_CHUNK_SIZE, distinctIds.size()))));
+        }
+        if (softwareComponents.size() < distinctIds.size()) {
+            log.error("{} of {} software components not found", distinctIds.size() - softwareComponents.size(),
+                    distinctIds.size());
+        }
 
-            PackageApiResponseDto packageApiResponseDto = packageApiResponseDtoOptional.get();
-            if (packageApiResponseDto.count() == 0) {
-                log.warn("No packages found in DB for name: {}, version: {}, purl: {}", softwareComponent.getName(), softwareComponent.getVersion(),
-                        softwareComponent.getPurl());
-                return vulnerabilityList;
+        List<String> purls = softwareComponents.stream()
+                .map(SoftwareComponent::getPurl)
+                .filter(purl -> purl != null && !purl.isBlank())
+                .toList();
+        Map<String, List<VulnerabilityDto>> advisoriesByPurl = mirrorEnabled ?
+                advisoryMirror.lookup(purls) : advisoryCache.lookup(purls);
+
+        Map<SoftwareComponent, List<VulnerabilityDto>> advisoriesByComponent = new LinkedHashMap<>();
+        for (SoftwareComponent softwareComponent : softwareComponents) {
+            String purl = softwareComponent.getPurl();
+            // without a purl only VulnerableCode can be asked, by name and version
+            List<VulnerabilityDto> advisories = purl != null && !purl.isBlank() ? advisoriesByPurl.get(purl) :
+                    mirrorEnabled ? null : findByNameAndVersion(softwareComponent);
+            if (advisories == null) continue;
+            if (advisories.isEmpty()) {
+                log.debug("No vulnerabilities found for software component {}", softwareComponent.getName());
+                // an empty result still clears the vulnerabilities of the component on a rescan
+                if (replace) advisoriesByComponent.put(softwareComponent, advisories);
+                continue;
             }
-            if (packageApiResponseDto.count() > 1) {
-                log.warn("Multiple packages found in DB for for name: {}, version: {}, purl: {}, using first result " +
-                                "only!",
-                        softwareComponent.getName(),
-                        softwareComponent.getVersion(), softwareComponent.getPurl());
+            log.info("Found {} vulnerabilities for software component: {}", advisories.size(), softwareComponent.getName());
+            advisoriesByComponent.put(softwareComponent, advisories);
+        }
+
+        // one upsert per organization, the vulnerabilities are stored per organization
+        Map<Organization, List<SoftwareComponent>> componentsByOrganization = advisoriesByComponent.keySet().stream()
+                .collect(Collectors.groupingBy(SoftwareComponent::getOrganization, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, List<Vulnerability>> result = new HashMap<>();
+        List<SoftwareComponent> changed = new ArrayList<>();
+        for (Map.Entry<Organization, List<SoftwareComponent>> entry : componentsByOrganization.entrySet()) {
+            List<VulnerabilityService.VulnerabilityData> data = entry.getValue().stream()
+                    .flatMap(softwareComponent -> advisoriesByComponent.get(softwareComponent).stream())
+                    .map(this::toData)
+                    .toList();
+            Map<String, Vulnerability> vulnerabilities = vulnerabilityService.upsertAll(data, entry.getKey());
+
+            for (SoftwareComponent softwareComponent : entry.getValue()) {
+                List<Vulnerability> vulnerabilityList = softwareComponent.getVulnerabilities() == null ?
+                        new ArrayList<>() : new ArrayList<>(softwareComponent.getVulnerabilities());
+                if (replace) vulnerabilityList.removeIf(vulnerability -> !Boolean.TRUE.equals(vulnerability.isManuallyCreated()));
+                for (VulnerabilityDto vulnerabilityDto : advisoriesByComponent.get(softwareComponent)) {
+                    Vulnerability vulnerability = vulnerabilities.get(vulnerabilityDto.vulnerabilityId());
+                    if (vulnerability != null && !vulnerabilityList.contains(vulnerability)) vulnerabilityList.add(vulnerability);
+                }
+                softwareComponent.setVulnerabilities(vulnerabilityList);
+                changed.add(softwareComponent);
+                result.put(softwareComponent.getId(), vulnerabilityList);
             }
+        }
+        softwareComponentRepository.saveAll(changed);
 
-            PackageResultDto packageResultDto = packageApiResponseDto.results().getFirst();
-            List<VulnerabilityDto> vulnerabilityDtoList = packageResultDto.affectedByVulnerabilities();
+        for (SoftwareComponent softwareComponent : softwareComponents) {
+            result.computeIfAbsent(softwareComponent.getId(), id -> softwareComponent.getVulnerabilities() == null ?
+                    new ArrayList<>() : softwareComponent.getVulnerabilities());
+        }
+        log.info("Finished generating vulnerabilities for {} software components", softwareComponents.size());
+        return result;
+    }
 
-            if (vulnerabilityDtoList == null || vulnerabilityDtoList.isEmpty()) {
-                log.warn("No vulnerabilities found for package {}", packageResultDto.purl());
-                return vulnerabilityList;
-            }
+    /**
+     * Components without a purl are looked up one by one by their name and version, their results are not cached.
+     *
+     * @return the advisories of the first package found, null if the request failed
+     */
+    private List<VulnerabilityDto> findByNameAndVersion(SoftwareComponent softwareComponent) {
+        Optional<PackageApiResponseDto> packageApiResponseDtoOptional = vulnerableCodeApiClient.getPackageData(softwareComponent);
+        if (packageApiResponseDtoOptional.isEmpty()) {
+            return null;
+        }
 
-            log.info("Found {} vulnerabilities for package: {}", vulnerabilityDtoList.size(), packageResultDto.purl());
-            for (VulnerabilityDto vulnerabilityDto : vulnerabilityDtoList) {
-                log.info("Proceed with vulnerability: {}", vulnerabilityDto.vulnerabilityId());
-                List<String> fixedPackages = vulnerabilityDto.fixedPackages().stream()
-                        .map(FixedPackageDto::resourceUrl)
-                        .toList();
-
-                List<String> references = vulnerabilityDto.references().stream()
-                        .map(ReferenceDto::referenceUrl)
-                        .toList();
-
-                vulnerabilityList.add(vulnerabilityService.getOrCreate(
-                        vulnerabilityDto.vulnerabilityId(),
-                        vulnerabilityDto.summary(),
-                        vulnerabilityDto.aliases(),
-                        getSeverity(vulnerabilityDto.riskScore()),
-                        Double.valueOf(vulnerabilityDto.exploitability()),
-                        vulnerabilityDto.riskScore(),
-                        fixedPackages,
-                        vulnerabilityDto.resourceUrl(),
-                        references,
-                        softwareComponent.getOrganization()
-                ));
-            }
-            softwareComponent.setVulnerabilities(vulnerabilityList);
-            softwareComponentRepository.save(softwareComponent);
-            log.info("Finished generating vulnerabilities for software component: {}", softwareComponent.getName());
-
-            return vulnerabilityList;
-        } catch (Exception e) {
-            log.error("Exception when getting response from VulnerableCode: ", e);
-            return Collections.emptyList();
+        PackageApiResponseDto packageApiResponseDto = packageApiResponseDtoOptional.get();
+        if (packageApiResponseDto.count() == 0) {
+            log.warn("No packages found in DB for name: {}, version: {}", softwareComponent.getName(), softwareComponent.getVersion());
+            return List.of();
         }
+        if (packageApiResponseDto.count() > 1) {
+            log.warn("Multiple packages found in DB for for name: {}, version: {}, using first result only!",
+                    softwareComponent.getName(), softwareComponent.getVersion());
+        }
+        List<VulnerabilityDto> vulnerabilityDtoList = packageApiResponseDto.results().getFirst().affectedByVulnerabilities();
+        return vulnerabilityDtoList == null ? List.of() : vulnerabilityDtoList;
+    }
+
+    private VulnerabilityService.VulnerabilityData toData(VulnerabilityDto vulnerabilityDto) {
+        List<String> fixedPackages = vulnerabilityDto.fixedPackages() == null ? List.of() :
+                vulnerabilityDto.fixedPackages().stream().map(FixedPackageDto::resourceUrl).toList();
+        List<String> references = vulnerabilityDto.references() == null ? List.of() :
+                vulnerabilityDto.references().stream().map(ReferenceDto::referenceUrl).toList();
+        // advisories of the mirror have a severity but no risk score
+        String severity = vulnerabilityDto.riskScore() == null && vulnerabilityDto.severity() != null ?
+                vulnerabilityDto.severity() : getSeverity(vulnerabilityDto.riskScore() == null ? 0.0 : vulnerabilityDto.riskScore());
+        return new VulnerabilityService.VulnerabilityData(
+                vulnerabilityDto.vulnerabilityId(),
+                vulnerabilityDto.summary(),
+                vulnerabilityDto.aliases() == null ? List.of() : vulnerabilityDto.aliases(),
+                severity,
+                vulnerabilityDto.exploitability() == null ? null : Double.valueOf(vulnerabilityDto.exploitability()),
+                vulnerabilityDto.riskScore(),
+                fixedPackages,
+                vulnerabilityDto.resourceUrl(),
+                references);
     }
 
     private String getSeverity(double riskScore){
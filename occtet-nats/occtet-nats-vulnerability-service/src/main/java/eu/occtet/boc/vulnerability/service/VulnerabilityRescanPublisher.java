@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import eu.occtet.boc.dao.InventoryItemRepository;
+import eu.occtet.boc.model.VulnerabilityRescanWorkData;
+import eu.occtet.boc.model.WorkTask;
+import eu.occtet.boc.service.NatsStreamSender;
+import io.nats.client.Connection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sends a VulnerabilityRescanWorkData for every project with software components to the work subject of this
+ * service, so the projects are matched against advisories that changed.
+ */
+@Service
+public class VulnerabilityRescanPublisher {
+
+    private static final Logger log = LogManager.getLogger(VulnerabilityRescanPublisher.class);
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private Connection natsConnection;
+
+    @Value("${nats.work-subject}")
+    private String workSubject;
+
+    /**
+     * @return the number of projects a rescan was sent for
+     * @throws IOException if a message was not acknowledged
+     */
+    public int publishRescans() throws IOException {
+        List<Long> projectIds = inventoryItemRepository.findProjectIdsWithSoftwareComponents();
+        NatsStreamSender natsStreamSender = new NatsStreamSender(natsConnection, workSubject);
+        for (Long projectId : projectIds) {
+            WorkTask workTask = new WorkTask(
+                    UUID.randomUUID().toString(), "vulnerability-service",
+                    "rescanning project " + projectId + " after an advisory update",
+                    LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant().getEpochSecond(),
+                    new VulnerabilityRescanWorkData(projectId));
+            natsStreamSender.sendWorkTaskToStreamAsync(workTask);
+        }
+        natsStreamSender.flush();
+        log.info("Sent a vulnerability rescan for {} projects", projectIds.size());
+        return projectIds.size();
+    }
+}
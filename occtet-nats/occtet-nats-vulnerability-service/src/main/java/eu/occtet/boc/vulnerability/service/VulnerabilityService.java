@@ -21,6 +21,7 @@ package eu.occtet.boc.vulnerability.service;
 
 import eu.occtet.boc.entity.Organization;
 import eu.occtet.boc.entity.Vulnerability;
+import eu.occtet.boc.dao.VulnerabilityBulkDao;
 import eu.occtet.boc.dao.VulnerabilityRepository;
 import eu.occtet.boc.vulnerability.factory.VulnerabilityFactory;
 import org.apache.logging.log4j.LogManager;
@@ -35,10 +36,23 @@ public class VulnerabilityService {
 
     private static final Logger log = LogManager.getLogger(VulnerabilityService.class);
 
+    // stays below the bind parameter limits of the databases
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    /**
+     * Values of one vulnerability as reported by the vulnerability database.
+     */
+    public record VulnerabilityData(String vulnerabilityId, String summary, List<String> aliases, String severity,
+                                    Double exploitability, Double riskScore, List<String> fixedPackages,
+                                    String sourceUrl, List<String> references) {
+    }
+
     @Autowired
     private VulnerabilityFactory vulnerabilityFactory;
     @Autowired
     private VulnerabilityRepository vulnerabilityRepository;
+    @Autowired
+    private VulnerabilityBulkDao vulnerabilityBulkDao;
 
     public Vulnerability getOrCreate(String vulnerabilityId, String summary, List<String> aliases,
                                      String severity, Double exploitability, Double riskScore,
@@ -50,9 +64,77 @@ public class VulnerabilityService {
                 .orElseGet(() -> vulnerabilityFactory.create(vulnerabilityId, summary, aliases, severity, exploitability, riskScore, fixedPackages, sourceUrl, references, organization));
     }
 
+    /**
+     * Creates or updates the vulnerabilities with the ids of the given ones and saves them together. An existing
+     * vulnerability of the same organization is preferred over one of another organization.
+     * <p>
+     * Batches handled in parallel often share vulnerabilities. New ones are therefore inserted with a statement
+     * that skips rows another batch inserted in the meantime, and are read back before they are updated.
+     *
+     * @return the saved vulnerabilities by their vulnerability id
+     */
+    public Map<String, Vulnerability> upsertAll(Collection<VulnerabilityData> vulnerabilities, Organization organization) {
+        Map<String, VulnerabilityData> byId = new LinkedHashMap<>();
+        vulnerabilities.forEach(data -> byId.putIfAbsent(data.vulnerabilityId(), data));
+        if (byId.isEmpty()) return Collections.emptyMap();
+
+        Map<String, Vulnerability> existing = findByVulnerabilityIds(byId.keySet(), organization);
+        List<Vulnerability> missing = new ArrayList<>();
+        for (VulnerabilityData data : byId.values()) {
+            if (existing.containsKey(data.vulnerabilityId())) continue;
+            missing.add(vulnerabilityFactory.instantiate(data.vulnerabilityId(), data.summary(), data.aliases(),
+                    data.severity(), data.exploitability(), data.riskScore(), data.fixedPackages(),
+                    data.sourceUrl(), data.references(), organization));
+        }
+        if (!missing.isEmpty()) {
+            int inserted = vulnerabilityBulkDao.insertMissing(missing);
+            log.debug("inserted {} of {} new vulnerabilities", inserted, missing.size());
+            existing.putAll(findByVulnerabilityIds(missing.stream().map(Vulnerability::getVulnerabilityId).toList(), organization));
+        }
+
+        List<Vulnerability> toSave = new ArrayList<>();
+        for (VulnerabilityData data : byId.values()) {
+            Vulnerability vulnerability = existing.get(data.vulnerabilityId());
+            if (vulnerability == null) {
+                throw new IllegalStateException("Vulnerability " + data.vulnerabilityId() + " was not stored");
+            }
+            toSave.add(apply(vulnerability, data.summary(), data.aliases(), data.severity(), data.exploitability(),
+                    data.riskScore(), data.fixedPackages(), data.sourceUrl(), data.references(), organization));
+        }
+        Map<String, Vulnerability> saved = new LinkedHashMap<>();
+        vulnerabilityRepository.saveAll(toSave).forEach(vulnerability -> saved.put(vulnerability.getVulnerabilityId(), vulnerability));
+        log.debug("saved {} vulnerabilities, {} of them new", saved.size(), missing.size());
+        return saved;
+    }
+
+    private Map<String, Vulnerability> findByVulnerabilityIds(Collection<String> vulnerabilityIds, Organization organization) {
+        Map<String, Vulnerability> found = new HashMap<>();
+        List<String> ids = new ArrayList<>(vulnerabilityIds);
+        for (int i = 0; i < ids.size(); i += QUERY_CHUNK_SIZE) {
+            for (Vulnerability vulnerability : vulnerabilityRepository.findByVulnerabilityIdIn(
+                    ids.subList(i, Math.min(i + QUERY_CHUNK_SIZE, ids.size())))) {
+                found.merge(vulnerability.getVulnerabilityId(), vulnerability,
+                        (known, other) -> isOf(other, organization) && !isOf(known, organization) ? other : known);
+            }
+        }
+        return found;
+    }
+
+    private static boolean isOf(Vulnerability vulnerability, Organization organization) {
+        return organization != null && vulnerability.getOrganization() != null
+                && Objects.equals(vulnerability.getOrganization().getId(), organization.getId());
+    }
+
     private Vulnerability update(Vulnerability old ,String summary, List<String> aliases,
                                  String severity, Double exploitability, Double riskScore,
                                  List<String> fixedPackages, String sourceUrl, List<String> references, Organization organization){
+        return vulnerabilityRepository.save(apply(old, summary, aliases, severity, exploitability, riskScore,
+                fixedPackages, sourceUrl, references, organization));
+    }
+
+    private Vulnerability apply(Vulnerability old ,String summary, List<String> aliases,
+                                String severity, Double exploitability, Double riskScore,
+                                List<String> fixedPackages, String sourceUrl, List<String> references, Organization organization){
         old.setSummary(summary);
         old.setAliases(new ArrayList<>(aliases));
         old.setSeverity(severity);
@@ -63,6 +145,6 @@ public class VulnerabilityService {
         old.setReferences(new ArrayList<>(references));
         old.setOrganization(organization);
         log.debug("updated vulnerability {}", old);
-        return vulnerabilityRepository.save(old);
+        return old;
     }
 }
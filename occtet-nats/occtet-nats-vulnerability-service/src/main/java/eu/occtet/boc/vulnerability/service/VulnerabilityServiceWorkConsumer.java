@@ -21,6 +21,7 @@ package eu.occtet.boc.vulnerability.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.occtet.boc.model.BaseWorkData;
+import eu.occtet.boc.model.VulnerabilityRescanWorkData;
 import eu.occtet.boc.model.VulnerabilityServiceWorkData;
 import eu.occtet.boc.model.WorkTask;
 import eu.occtet.boc.service.BaseWorkDataProcessor;
@@ -53,18 +54,18 @@ public class VulnerabilityServiceWorkConsumer extends WorkConsumer {
             log.debug("workTask: {}", workTask);
             BaseWorkData workData = workTask.workData();
             log.debug("workData: {}", workData);
+            // a failure is passed on, so the message is nak'ed and delivered again
             boolean result = workData.process(new BaseWorkDataProcessor() {
                 @Override
                 public boolean process(VulnerabilityServiceWorkData workData) {
-                    try {
-                        // if not empty then its successful, otherwise it failed
-                        vulnerabilityDataService.generateVulnerabilities(workData.getSoftwareComponentId());
-                        return true;
-                    } catch (Exception e) {
-                        log.error("Could not process workData of type {} with error message: ",
-                                workData.getClass().getName(), e);
-                        return false;
-                    }
+                    vulnerabilityDataService.generateVulnerabilities(workData.allSoftwareComponentIds());
+                    return true;
+                }
+
+                @Override
+                public boolean process(VulnerabilityRescanWorkData workData) {
+                    vulnerabilityDataService.rescanProject(workData.getProjectId());
+                    return true;
                 }
             });
             if (!result) {
@@ -21,14 +21,19 @@ package eu.occtet.boc.vulnerability.service;
 
 import eu.occtet.boc.entity.SoftwareComponent;
 import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageApiResponseDto;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageResultDto;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -71,6 +76,26 @@ public class VulnerableCodeApiClient {
         return Optional.empty();
     }
 
+    /**
+     * Retrieves the packages of many purls with one request. Purls unknown to VulnerableCode have no package in
+     * the result, the packages are not in the order of the purls.
+     */
+    public Optional<List<PackageResultDto>> bulkLookup(List<String> purls){
+        try {
+            log.info("Fetching package data for {} purls", purls.size());
+            List<PackageResultDto> packages = restClient.post()
+                    .uri("/api/packages/bulk_lookup")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("purls", purls))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<PackageResultDto>>() {});
+            return Optional.ofNullable(packages);
+        } catch (Exception e){
+            log.error("Exception when getting bulk response from VulnerableCode: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     private ResponseEntity<PackageApiResponseDto> getPackageDataResponse(String purl){
         log.info("Fetching package data for purl: {}", purl);
         return restClient.get()
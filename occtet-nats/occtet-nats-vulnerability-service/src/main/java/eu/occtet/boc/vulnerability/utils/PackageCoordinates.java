@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.utils;
+
+import com.github.packageurl.MalformedPackageURLException;
+import com.github.packageurl.PackageURL;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps package URLs to the ecosystem and package name used by OSV advisories. Names are normalized the same way on
+ * import and lookup, so they compare as stored.
+ */
+public final class PackageCoordinates {
+
+    // purl type to OSV ecosystem
+    private static final Map<String, String> ECOSYSTEMS = Map.of(
+            "maven", "Maven",
+            "npm", "npm",
+            "pypi", "PyPI",
+            "golang", "Go",
+            "cargo", "crates.io",
+            "gem", "RubyGems",
+            "nuget", "NuGet",
+            "composer", "Packagist",
+            "hex", "Hex",
+            "pub", "Pub");
+
+    /**
+     * A package version of an ecosystem, the purl it was read from is kept to name fixed versions.
+     */
+    public record Coordinates(String ecosystem, String name, String version, PackageURL purl) {
+
+        /**
+         * @return the purl of the same package with another version
+         */
+        public String withVersion(String otherVersion) {
+            try {
+                return new PackageURL(purl.getType(), purl.getNamespace(), purl.getName(), otherVersion, null, null)
+                        .canonicalize();
+            } catch (MalformedPackageURLException e) {
+                return purl.getType() + ":" + name + "@" + otherVersion;
+            }
+        }
+    }
+
+    private PackageCoordinates() {
+    }
+
+    /**
+     * @return the coordinates of a versioned purl of a supported ecosystem
+     */
+    public static Optional<Coordinates> ofPurl(String purl) {
+        PackageURL packageURL;
+        try {
+            packageURL = new PackageURL(purl);
+        } catch (MalformedPackageURLException e) {
+            return Optional.empty();
+        }
+        String ecosystem = ECOSYSTEMS.get(packageURL.getType());
+        if (ecosystem == null || packageURL.getVersion() == null || packageURL.getVersion().isBlank()) return Optional.empty();
+
+        String namespace = packageURL.getNamespace();
+        String name = switch (packageURL.getType()) {
+            case "maven" -> namespace + ":" + packageURL.getName();
+            case "npm", "golang", "composer" -> namespace == null ? packageURL.getName() : namespace + "/" + packageURL.getName();
+            default -> packageURL.getName();
+        };
+        return Optional.of(new Coordinates(ecosystem, normalizeName(ecosystem, name), packageURL.getVersion(), packageURL));
+    }
+
+    /**
+     * @return true for the ecosystems components can be matched in, the ecosystem without a release suffix
+     */
+    public static boolean isSupported(String ecosystem) {
+        return ECOSYSTEMS.containsValue(ecosystem);
+    }
+
+    public static String normalizeName(String ecosystem, String name) {
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        // PEP 503, runs of '-', '_' and '.' are equal
+        if ("PyPI".equals(ecosystem)) normalized = normalized.replaceAll("[-_.]+", "-");
+        return normalized;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.utils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares version strings of the common package ecosystems without knowing the ecosystem. Versions are split into
+ * numeric and alphabetic parts, numbers compare numerically and qualifiers in the order of Maven, so
+ * 1.0-alpha &lt; 1.0-beta &lt; 1.0-rc1 &lt; 1.0 = 1.0.0 &lt; 1.0-sp1 &lt; 1.0.1. Unknown qualifiers count as pre-releases,
+ * as in semantic versioning, and compare alphabetically among each other.
+ */
+public final class Versions {
+
+    private static final int RELEASE = 6;
+    private static final int UNKNOWN_PRE_RELEASE = 5;
+
+    private static final Map<String, Integer> QUALIFIERS = Map.ofEntries(
+            Map.entry("dev", 0),
+            Map.entry("alpha", 1), Map.entry("a", 1),
+            Map.entry("beta", 2), Map.entry("b", 2),
+            Map.entry("milestone", 3), Map.entry("m", 3),
+            Map.entry("rc", 4), Map.entry("cr", 4), Map.entry("pre", 4), Map.entry("preview", 4),
+            Map.entry("snapshot", 5),
+            Map.entry("final", RELEASE), Map.entry("ga", RELEASE), Map.entry("release", RELEASE),
+            Map.entry("sp", 7), Map.entry("post", 7));
+
+    private Versions() {
+    }
+
+    public static int compare(String left, String right) {
+        List<String> leftParts = parts(left);
+        List<String> rightParts = parts(right);
+        for (int i = 0; i < Math.max(leftParts.size(), rightParts.size()); i++) {
+            String leftPart = i < leftParts.size() ? leftParts.get(i) : null;
+            String rightPart = i < rightParts.size() ? rightParts.get(i) : null;
+            int result = compareParts(leftPart, rightPart);
+            if (result != 0) return result;
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if the version lies within the range, bounds that are null do not limit it and an introduced
+     * version of "0" stands for all versions
+     */
+    public static boolean isInRange(String version, String introduced, String fixed, String lastAffected) {
+        if (introduced != null && !"0".equals(introduced) && compare(version, introduced) < 0) return false;
+        if (fixed != null && compare(version, fixed) >= 0) return false;
+        return lastAffected == null || compare(version, lastAffected) <= 0;
+    }
+
+    private static int compareParts(String left, String right) {
+        if (left == null && right == null) return 0;
+        if (left == null) return -compareParts(right, null);
+        boolean leftNumeric = isNumeric(left);
+        if (right == null) {
+            // a missing part equals zero or a release, 1.0 = 1.0.0 = 1.0-final
+            if (leftNumeric) return new BigInteger(left).signum();
+            return Integer.compare(rank(left), RELEASE);
+        }
+        boolean rightNumeric = isNumeric(right);
+        if (leftNumeric && rightNumeric) return new BigInteger(left).compareTo(new BigInteger(right));
+        if (leftNumeric) return 1;
+        if (rightNumeric) return -1;
+        int result = Integer.compare(rank(left), rank(right));
+        if (result == 0 && !QUALIFIERS.containsKey(left)) result = left.compareTo(right);
+        return result;
+    }
+
+    private static int rank(String qualifier) {
+        return QUALIFIERS.getOrDefault(qualifier, UNKNOWN_PRE_RELEASE);
+    }
+
+    private static boolean isNumeric(String part) {
+        return Character.isDigit(part.charAt(0));
+    }
+
+    private static List<String> parts(String version) {
+        String value = version.trim().toLowerCase(Locale.ROOT);
+        // build metadata does not take part in the order
+        int build = value.indexOf('+');
+        if (build >= 0) value = value.substring(0, build);
+        if (value.length() > 1 && value.charAt(0) == 'v' && Character.isDigit(value.charAt(1))) value = value.substring(1);
+
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean separator = !Character.isLetterOrDigit(c);
+            if (separator || (!part.isEmpty() && Character.isDigit(c) != Character.isDigit(part.charAt(0)))) {
+                if (!part.isEmpty()) parts.add(part.toString());
+                part.setLength(0);
+            }
+            if (!separator) part.append(c);
+        }
+        if (!part.isEmpty()) parts.add(part.toString());
+        return parts;
+    }
+}
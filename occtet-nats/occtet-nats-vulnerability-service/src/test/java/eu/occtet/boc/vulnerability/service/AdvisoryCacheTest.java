@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import eu.occtet.boc.config.TestEclipseLinkJpaConfiguration;
+import eu.occtet.boc.dao.AdvisoryCacheEntryRepository;
+import eu.occtet.boc.entity.AdvisoryCacheEntry;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageResultDto;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.VulnerabilityDto;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = {AdvisoryCache.class, TestEclipseLinkJpaConfiguration.class})
+@EnableJpaRepositories(basePackages = "eu.occtet.boc.dao")
+@EntityScan(basePackages = "eu.occtet.boc.entity")
+class AdvisoryCacheTest {
+
+    private static final String PURL = "pkg:npm/lodash@4.17.20";
+
+    @MockitoBean
+    private VulnerableCodeApiClient vulnerableCodeApiClient;
+
+    @Autowired
+    private AdvisoryCache advisoryCache;
+    @Autowired
+    private AdvisoryCacheEntryRepository advisoryCacheEntryRepository;
+
+    @Test
+    void lookup_AnswersFromTheCacheWithinTtl() {
+        Mockito.when(vulnerableCodeApiClient.bulkLookup(List.of(PURL))).thenReturn(answer("VCID-1"));
+
+        assertEquals("VCID-1", advisoryCache.lookup(List.of(PURL)).get(PURL).getFirst().vulnerabilityId());
+        assertEquals("VCID-1", advisoryCache.lookup(List.of(PURL)).get(PURL).getFirst().vulnerabilityId());
+
+        Mockito.verify(vulnerableCodeApiClient, Mockito.times(1)).bulkLookup(Mockito.anyList());
+    }
+
+    @Test
+    void lookup_FetchesExpiredEntriesAgain() {
+        Mockito.when(vulnerableCodeApiClient.bulkLookup(List.of(PURL))).thenReturn(answer("VCID-1"), answer("VCID-2"));
+        advisoryCache.lookup(List.of(PURL));
+
+        // older than the default ttl of a day
+        AdvisoryCacheEntry entry = advisoryCacheEntryRepository.findByPurlIn(List.of(PURL)).getFirst();
+        entry.setFetchedAt(LocalDateTime.now().minusHours(25));
+        advisoryCacheEntryRepository.save(entry);
+
+        Map<String, List<VulnerabilityDto>> advisories = advisoryCache.lookup(List.of(PURL));
+
+        assertEquals("VCID-2", advisories.get(PURL).getFirst().vulnerabilityId());
+        Mockito.verify(vulnerableCodeApiClient, Mockito.times(2)).bulkLookup(Mockito.anyList());
+        List<AdvisoryCacheEntry> entries = advisoryCacheEntryRepository.findByPurlIn(List.of(PURL));
+        assertEquals(1, entries.size());
+        assertEquals("VCID-2", entries.getFirst().getAdvisoryIds());
+        assertTrue(entries.getFirst().getFetchedAt().isAfter(LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void lookup_LeavesOutPurlsWhoseFetchFailed() {
+        Mockito.when(vulnerableCodeApiClient.bulkLookup(List.of(PURL))).thenReturn(Optional.empty(), answer("VCID-1"));
+
+        assertFalse(advisoryCache.lookup(List.of(PURL)).containsKey(PURL));
+        assertTrue(advisoryCacheEntryRepository.findByPurlIn(List.of(PURL)).isEmpty());
+        assertEquals("VCID-1", advisoryCache.lookup(List.of(PURL)).get(PURL).getFirst().vulnerabilityId());
+    }
+
+    private static Optional<List<PackageResultDto>> answer(String vulnerabilityId) {
+        VulnerabilityDto vulnerabilityDto = new VulnerabilityDto("", vulnerabilityId, "Prototype Pollution in lodash",
+                Collections.emptyList(), Collections.emptyList(), List.of("CVE-2021-23337"), 7.0, "0.5", "7.2",
+                "https://public.vulnerablecode.io/vulnerabilities/" + vulnerabilityId);
+        return Optional.of(List.of(new PackageResultDto("", PURL, "", "", "", "", "", true, "", "",
+                List.of(vulnerabilityDto), Collections.emptyList(), 0.0, "")));
+    }
+}
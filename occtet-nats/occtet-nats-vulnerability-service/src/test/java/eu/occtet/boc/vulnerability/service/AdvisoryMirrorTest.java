@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import eu.occtet.boc.config.TestEclipseLinkJpaConfiguration;
+import eu.occtet.boc.dao.AdvisoryMirrorDao;
+import eu.occtet.boc.dao.InventoryItemRepository;
+import eu.occtet.boc.dao.OrganizationRepository;
+import eu.occtet.boc.dao.ProjectRepository;
+import eu.occtet.boc.dao.SoftwareComponentRepository;
+import eu.occtet.boc.dao.VulnerabilityBulkDao;
+import eu.occtet.boc.dao.VulnerabilityRepository;
+import eu.occtet.boc.entity.InventoryItem;
+import eu.occtet.boc.entity.Organization;
+import eu.occtet.boc.entity.Project;
+import eu.occtet.boc.entity.SoftwareComponent;
+import eu.occtet.boc.entity.Vulnerability;
+import eu.occtet.boc.vulnerability.factory.VulnerabilityFactory;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.FixedPackageDto;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.VulnerabilityDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@ContextConfiguration(classes = {AdvisoryMirror.class, AdvisoryMirrorImporter.class, AdvisoryMirrorDao.class,
+        VulnerabilityDataService.class, VulnerabilityService.class, VulnerabilityBulkDao.class, VulnerabilityFactory.class, AdvisoryCache.class,
+        TestEclipseLinkJpaConfiguration.class})
+@EnableJpaRepositories(basePackages = "eu.occtet.boc.dao")
+@EntityScan(basePackages = "eu.occtet.boc.entity")
+class AdvisoryMirrorTest {
+
+    private static final String JACKSON = """
+            {"id": "GHSA-jjjh-jjxp-wpff", "modified": "2024-03-15T10:00:00Z", "aliases": ["CVE-2022-42003"],
+             "summary": "Uncontrolled Resource Consumption in Jackson-databind",
+             "references": [{"type": "ADVISORY", "url": "https://nvd.nist.gov/vuln/detail/CVE-2022-42003"}],
+             "database_specific": {"severity": "HIGH"},
+             "affected": [{"package": {"ecosystem": "Maven", "name": "com.fasterxml.jackson.core:jackson-databind"},
+                           "ranges": [{"type": "ECOSYSTEM", "events": [{"introduced": "0"}, {"fixed": "2.12.7.1"},
+                                                                      {"introduced": "2.13.0"}, {"fixed": "2.13.4.1"}]}]}]}
+            """;
+
+    private static final String BABEL = """
+            {"id": "GHSA-67hx-6x53-jw92", "modified": "2024-01-10T08:00:00Z", "aliases": ["CVE-2023-45133"],
+             "summary": "Babel vulnerable to arbitrary code execution", "database_specific": {"severity": "CRITICAL"},
+             "affected": [{"package": {"ecosystem": "npm", "name": "@babel/traverse"},
+                           "ranges": [{"type": "SEMVER", "events": [{"introduced": "0"}, {"fixed": "7.23.2"}]}]}]}
+            """;
+
+    private static final String DJANGO = """
+            {"id": "PYSEC-2021-98", "modified": "2023-11-01T00:00:00Z", "details": "Django directory traversal",
+             "affected": [{"package": {"ecosystem": "PyPI", "name": "Django"}, "versions": ["3.2.0", "3.2.1"]}]}
+            """;
+
+    private static final String WITHDRAWN = """
+            {"id": "GHSA-withdrawn", "modified": "2024-02-01T00:00:00Z", "withdrawn": "2024-02-01T00:00:00Z",
+             "affected": [{"package": {"ecosystem": "Maven", "name": "com.fasterxml.jackson.core:jackson-databind"},
+                           "ranges": [{"type": "ECOSYSTEM", "events": [{"introduced": "0"}]}]}]}
+            """;
+
+    private static final String GIT_ONLY = """
+            {"id": "OSV-2020-1", "modified": "2021-01-01T00:00:00Z",
+             "affected": [{"package": {"ecosystem": "OSS-Fuzz", "name": "libxml2"},
+                           "ranges": [{"type": "GIT", "events": [{"introduced": "abc"}, {"fixed": "def"}]}]}]}
+            """;
+
+    private static final String JACKSON_PURL = "pkg:maven/com.fasterxml.jackson.core/jackson-databind@";
+
+    @MockitoBean
+    private VulnerableCodeApiClient vulnerableCodeApiClient;
+    @MockitoBean
+    private VulnerabilityRescanPublisher vulnerabilityRescanPublisher;
+
+    @Autowired
+    private AdvisoryMirror advisoryMirror;
+    @Autowired
+    private AdvisoryMirrorImporter advisoryMirrorImporter;
+    @Autowired
+    private VulnerabilityDataService vulnerabilityDataService;
+    @Autowired
+    private OrganizationRepository organizationRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+    @Autowired
+    private SoftwareComponentRepository softwareComponentRepository;
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+    @Autowired
+    private VulnerabilityRepository vulnerabilityRepository;
+    @Autowired
+    private VulnerabilityFactory vulnerabilityFactory;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        // a ZIP archive as published by osv.dev and a JSON array next to it
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(tempDir.resolve("all.zip")))) {
+            for (String advisory : List.of(JACKSON, BABEL, GIT_ONLY)) {
+                zip.putNextEntry(new ZipEntry(advisory.substring(advisory.indexOf("\"id\": \"") + 7, advisory.indexOf("\",")) + ".json"));
+                zip.write(advisory.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(tempDir.resolve("pypi.json"))) {
+            out.write(("[" + DJANGO + "," + WITHDRAWN + "]").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void importDump_MatchesVersionRanges() throws IOException {
+        AdvisoryMirrorImporter.ImportResult result = advisoryMirrorImporter.importDump(tempDir);
+        assertEquals(5, result.read());
+        assertEquals(3, result.imported());
+
+        Map<String, List<VulnerabilityDto>> advisories = advisoryMirror.lookup(List.of(
+                JACKSON_PURL + "2.12.1", JACKSON_PURL + "2.13.4.1", JACKSON_PURL + "2.13.2",
+                "pkg:npm/%40babel/traverse@7.20.0", "pkg:pypi/django@3.2.1", "pkg:pypi/django@3.2.2",
+                "pkg:deb/debian/libxml2@2.9.10", "pkg:maven/org.example/unversioned"));
+
+        List<VulnerabilityDto> jackson = advisories.get(JACKSON_PURL + "2.12.1");
+        assertEquals(1, jackson.size());
+        assertEquals("GHSA-jjjh-jjxp-wpff", jackson.getFirst().vulnerabilityId());
+        assertEquals("High", jackson.getFirst().severity());
+        assertEquals(List.of("CVE-2022-42003"), jackson.getFirst().aliases());
+        assertEquals(List.of(JACKSON_PURL + "2.12.7.1"),
+                jackson.getFirst().fixedPackages().stream().map(FixedPackageDto::resourceUrl).toList());
+        assertTrue(advisories.get(JACKSON_PURL + "2.13.4.1").isEmpty());
+        assertEquals(1, advisories.get(JACKSON_PURL + "2.13.2").size());
+        assertEquals("GHSA-67hx-6x53-jw92", advisories.get("pkg:npm/%40babel/traverse@7.20.0").getFirst().vulnerabilityId());
+        assertEquals("PYSEC-2021-98", advisories.get("pkg:pypi/django@3.2.1").getFirst().vulnerabilityId());
+        assertTrue(advisories.get("pkg:pypi/django@3.2.2").isEmpty());
+        assertTrue(advisories.get("pkg:deb/debian/libxml2@2.9.10").isEmpty());
+        assertTrue(advisories.get("pkg:maven/org.example/unversioned").isEmpty());
+
+        // nothing changed since the first import
+        AdvisoryMirrorImporter.ImportResult again = advisoryMirrorImporter.importDump(tempDir);
+        assertEquals(0, again.imported());
+        assertEquals(5, again.unchanged());
+        assertEquals(0, again.changed());
+    }
+
+    @Test
+    void rescanProject_MatchesAllComponentsWithoutNetwork() throws IOException {
+        advisoryMirrorImporter.importDump(tempDir);
+        ReflectionTestUtils.setField(vulnerabilityDataService, "mirrorEnabled", true);
+
+        Organization organization = new Organization();
+        organization.setOrganizationName("Bitsea GmbH");
+        organizationRepository.save(organization);
+        Project project = new Project();
+        project.setProjectName("Mirror");
+        project.setVersion("1.0.0");
+        project.setProjectContact("test");
+        project.setOrganization(organization);
+        projectRepository.save(project);
+
+        // every other component uses a vulnerable version
+        int components = 1000;
+        List<SoftwareComponent> softwareComponents = new ArrayList<>();
+        for (int i = 0; i < components; i++) {
+            SoftwareComponent softwareComponent = new SoftwareComponent("jackson-databind-" + i, "", organization, null);
+            softwareComponent.setPurl(JACKSON_PURL + (i % 2 == 0 ? "2.12." + (i % 7) : "2.14." + (i % 7)));
+            softwareComponents.add(softwareComponent);
+        }
+        softwareComponentRepository.saveAll(softwareComponents);
+        List<InventoryItem> inventoryItems = new ArrayList<>();
+        for (SoftwareComponent softwareComponent : softwareComponents) {
+            inventoryItems.add(new InventoryItem(softwareComponent.getName(), project, softwareComponent, organization));
+        }
+        inventoryItemRepository.saveAll(inventoryItems);
+
+        Map<Long, List<Vulnerability>> vulnerabilities = vulnerabilityDataService.rescanProject(project.getId());
+
+        assertEquals(components, vulnerabilities.size());
+        assertEquals(components / 2, vulnerabilities.values().stream().filter(list -> !list.isEmpty()).count());
+        Vulnerability vulnerability = vulnerabilities.get(softwareComponents.getFirst().getId()).getFirst();
+        assertEquals("GHSA-jjjh-jjxp-wpff", vulnerability.getVulnerabilityId());
+        assertEquals("High", vulnerability.getSeverity());
+        // all components share the one vulnerability of the organization
+        assertEquals(1, vulnerabilities.values().stream().flatMap(List::stream).distinct().count());
+        Mockito.verifyNoInteractions(vulnerableCodeApiClient);
+    }
+
+    @Test
+    void rescanProject_ReplacesTheVulnerabilitiesOfEachComponent() throws IOException {
+        advisoryMirrorImporter.importDump(tempDir);
+        ReflectionTestUtils.setField(vulnerabilityDataService, "mirrorEnabled", true);
+
+        Organization organization = new Organization();
+        organization.setOrganizationName("Bitsea GmbH");
+        organizationRepository.save(organization);
+        Project project = new Project();
+        project.setProjectName("Mirror");
+        project.setVersion("1.0.0");
+        project.setProjectContact("test");
+        project.setOrganization(organization);
+        projectRepository.save(project);
+
+        Vulnerability stale = vulnerabilityRepository.save(vulnerabilityFactory.instantiate("GHSA-stale", "Stale",
+                List.of(), "Low", null, null, List.of(), null, List.of(), organization));
+        Vulnerability manual = vulnerabilityFactory.instantiate("MANUAL-1", "Found by the auditor",
+                List.of(), "High", null, null, List.of(), null, List.of(), organization);
+        manual.setIsManuallyCreated(true);
+        vulnerabilityRepository.save(manual);
+        SoftwareComponent softwareComponent = new SoftwareComponent("jackson-databind", "2.12.1", organization, null);
+        softwareComponent.setPurl(JACKSON_PURL + "2.12.1");
+        softwareComponent.setVulnerabilities(new ArrayList<>(List.of(stale, manual)));
+        softwareComponentRepository.save(softwareComponent);
+        inventoryItemRepository.save(new InventoryItem(softwareComponent.getName(), project, softwareComponent, organization));
+
+        List<String> found = vulnerabilityDataService.rescanProject(project.getId()).get(softwareComponent.getId())
+                .stream().map(Vulnerability::getVulnerabilityId).sorted().toList();
+        assertEquals(List.of("GHSA-jjjh-jjxp-wpff", "MANUAL-1"), found);
+
+        // the advisory is withdrawn upstream
+        Path update = Files.createDirectory(tempDir.resolve("update"));
+        Files.writeString(update.resolve("jackson.json"), JACKSON
+                .replace("\"modified\": \"2024-03-15T10:00:00Z\"",
+                        "\"modified\": \"2024-06-01T10:00:00Z\", \"withdrawn\": \"2024-06-01T10:00:00Z\""));
+        assertEquals(1, advisoryMirrorImporter.importDump(update).changed());
+        assertEquals(0, advisoryMirrorImporter.importDump(update).changed());
+
+        found = vulnerabilityDataService.rescanProject(project.getId()).get(softwareComponent.getId())
+                .stream().map(Vulnerability::getVulnerabilityId).toList();
+        assertEquals(List.of("MANUAL-1"), found);
+    }
+
+    @Test
+    void importOnStartup_SendsRescansWhenAdvisoriesChanged() throws IOException {
+        // the import runs outside of the test transaction, an advisory no other test uses keeps it from leaking
+        Path startup = Files.createDirectory(tempDir.resolve("startup"));
+        Files.writeString(startup.resolve("startup.json"), DJANGO.replace("PYSEC-2021-98", "PYSEC-startup").replace("Django", "startup-only"));
+        ReflectionTestUtils.setField(advisoryMirrorImporter, "importPath", startup.toString());
+        ReflectionTestUtils.setField(advisoryMirrorImporter, "mirrorEnabled", true);
+
+        advisoryMirrorImporter.importOnStartup();
+
+        verify(vulnerabilityRescanPublisher, timeout(10_000)).publishRescans();
+    }
+}
@@ -20,14 +20,15 @@
 package eu.occtet.boc.vulnerability.service;
 
 import eu.occtet.boc.config.TestEclipseLinkJpaConfiguration;
+import eu.occtet.boc.dao.AdvisoryMirrorDao;
 import eu.occtet.boc.dao.OrganizationRepository;
 import eu.occtet.boc.entity.Organization;
 import eu.occtet.boc.entity.SoftwareComponent;
 import eu.occtet.boc.entity.Vulnerability;
 import eu.occtet.boc.dao.SoftwareComponentRepository;
+import eu.occtet.boc.dao.VulnerabilityBulkDao;
 import eu.occtet.boc.dao.VulnerabilityRepository;
 import eu.occtet.boc.vulnerability.factory.VulnerabilityFactory;
-import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageApiResponseDto;
 import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageResultDto;
 import eu.occtet.boc.vulnerability.model.vulnerablecode.VulnerabilityDto;
 import org.junit.jupiter.api.Test;
@@ -45,16 +46,19 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
-@ContextConfiguration(classes = {VulnerabilityDataService.class, VulnerabilityService.class, SoftwareComponentRepository.class,
-        VulnerabilityRepository.class, VulnerabilityFactory.class, TestEclipseLinkJpaConfiguration.class})
+@ContextConfiguration(classes = {VulnerabilityDataService.class, VulnerabilityService.class, VulnerabilityBulkDao.class, SoftwareComponentRepository.class,
+        VulnerabilityRepository.class, VulnerabilityFactory.class, AdvisoryCache.class, AdvisoryMirror.class, AdvisoryMirrorDao.class,
+        TestEclipseLinkJpaConfiguration.class})
 @EnableJpaRepositories(basePackages = "eu.occtet.boc.dao")
 @EntityScan(basePackages = "eu.occtet.boc.entity")
 @ExtendWith(MockitoExtension.class)
@@ -73,15 +77,14 @@ public class VulnerabilityDataServiceTest {
     @Test
     void testGenerateVulnerabilitiesOfVulnerablePackageUsingPurl(){
 
-        Mockito.when(vulnerableCodeApiClient.getPackageData(Mockito.any()))
-                .thenReturn(Optional.of(new PackageApiResponseDto(1,"","",
-                        List.of(new PackageResultDto("","","","","","","",
+        Mockito.when(vulnerableCodeApiClient.bulkLookup(Mockito.anyList()))
+                .thenReturn(Optional.of(List.of(new PackageResultDto("","pkg:maven/com.google.code.gson/gson@1.1","","","","","",
                                 true,"","",
                                 List.of(new VulnerabilityDto("","VCID-nze3-w2ta-aaas","Deserialization of Untrusted Data in Gson",
                                         Collections.emptyList(),Collections.emptyList(),
                                         List.of("CVE-2022-25647","GHSA-4jrv-ppp4-jm57"),
                                         4.0,"0.5","8.0","http://public.vulnerablecode.io/vulnerabilities/VCID-nze3-w2ta-aaas")),
-                                Collections.emptyList(),0.0,"")))));
+                                Collections.emptyList(),0.0,""))));
 
         Organization organization = new Organization();
         organization.setOrganizationName("Bitsea GmbH");
@@ -112,4 +115,46 @@ public class VulnerabilityDataServiceTest {
 
         assertEquals("http://public.vulnerablecode.io/vulnerabilities/VCID-nze3-w2ta-aaas", vulnerability.getSourceUrl());
     }
+
+    @Test
+    void testGenerateVulnerabilitiesOfBatchUsingAdvisoryCache(){
+        VulnerabilityDto vulnerabilityDto = new VulnerabilityDto("","VCID-3gpd-8n1x-aaap","Uncontrolled Resource Consumption",
+                Collections.emptyList(),Collections.emptyList(),List.of("CVE-2023-1370"),
+                7.5,"0.5","8.0","http://public.vulnerablecode.io/vulnerabilities/VCID-3gpd-8n1x-aaap");
+        // the package is answered with the purl stored by VulnerableCode, without qualifiers
+        Mockito.when(vulnerableCodeApiClient.bulkLookup(Mockito.anyList()))
+                .thenReturn(Optional.of(List.of(new PackageResultDto("","pkg:maven/net.minidev/json-smart@2.4.8","","","","","",
+                        true,"","",List.of(vulnerabilityDto),Collections.emptyList(),7.5,""))));
+
+        Organization organization = new Organization();
+        organization.setOrganizationName("Bitsea GmbH");
+        organizationRepository.save(organization);
+
+        SoftwareComponent vulnerable = component("json-smart", "pkg:maven/net.minidev/json-smart@2.4.8?type=jar", organization);
+        SoftwareComponent sameVulnerable = component("json-smart-shaded", "pkg:maven/net.minidev/json-smart@2.4.8?type=jar", organization);
+        SoftwareComponent unknown = component("internal-lib", "pkg:maven/eu.occtet/internal-lib@1.0", organization);
+        softwareComponentRepository.saveAll(List.of(vulnerable, sameVulnerable, unknown));
+
+        Map<Long, List<Vulnerability>> vulnerabilities = vulnerabilityDataService.generateVulnerabilities(
+                List.of(vulnerable.getId(), sameVulnerable.getId(), unknown.getId()));
+
+        assertEquals(1, vulnerabilities.get(vulnerable.getId()).size());
+        assertEquals("High", vulnerabilities.get(vulnerable.getId()).getFirst().getSeverity());
+        // both components share the one vulnerability of the organization
+        assertSame(vulnerabilities.get(vulnerable.getId()).getFirst(), vulnerabilities.get(sameVulnerable.getId()).getFirst());
+        assertTrue(vulnerabilities.get(unknown.getId()).isEmpty());
+        Mockito.verify(vulnerableCodeApiClient).bulkLookup(List.of("pkg:maven/net.minidev/json-smart@2.4.8?type=jar",
+                "pkg:maven/eu.occtet/internal-lib@1.0"));
+
+        // both purls are cached now, including the one VulnerableCode does not know
+        vulnerabilityDataService.generateVulnerabilities(List.of(vulnerable.getId(), unknown.getId()));
+        Mockito.verify(vulnerableCodeApiClient, Mockito.times(1)).bulkLookup(Mockito.anyList());
+        Mockito.verify(vulnerableCodeApiClient, Mockito.never()).getPackageData(Mockito.any(SoftwareComponent.class));
+    }
+
+    private static SoftwareComponent component(String name, String purl, Organization organization) {
+        SoftwareComponent softwareComponent = new SoftwareComponent(name, "", organization, null);
+        softwareComponent.setPurl(purl);
+        return softwareComponent;
+    }
 }
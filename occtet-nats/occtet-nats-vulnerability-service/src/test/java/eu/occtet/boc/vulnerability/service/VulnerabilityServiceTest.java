@@ -21,6 +21,7 @@ package eu.occtet.boc.vulnerability.service;
 
 import eu.occtet.boc.config.TestEclipseLinkJpaConfiguration;
 import eu.occtet.boc.dao.OrganizationRepository;
+import eu.occtet.boc.dao.VulnerabilityBulkDao;
 import eu.occtet.boc.dao.VulnerabilityRepository;
 import eu.occtet.boc.entity.Organization;
 import eu.occtet.boc.entity.Vulnerability;
@@ -34,26 +35,36 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
 @ContextConfiguration(classes = {VulnerabilityService.class, VulnerabilityRepository.class,
-        VulnerabilityFactory.class, TestEclipseLinkJpaConfiguration.class})
+        VulnerabilityFactory.class, VulnerabilityBulkDao.class, TestEclipseLinkJpaConfiguration.class})
 @EnableJpaRepositories(basePackages = "eu.occtet.boc.dao")
 @EntityScan(basePackages = "eu.occtet.boc.entity")
 public class VulnerabilityServiceTest {
 
     @Autowired
     private VulnerabilityService vulnerabilityService;
-    @Autowired
+    @MockitoSpyBean
     private VulnerabilityRepository vulnerabilityRepository;
     @Autowired
+    private VulnerabilityBulkDao vulnerabilityBulkDao;
+    @Autowired
+    private VulnerabilityFactory vulnerabilityFactory;
+    @Autowired
     private OrganizationRepository organizationRepository;
 
     private Organization organization;
@@ -62,7 +73,7 @@ public class VulnerabilityServiceTest {
     void setUp() {
         this.organization = new Organization();
         organization.setOrganizationName("Bitsea GmbH");
-        organizationRepository.save(organization);
+        organizationRepository.saveAndFlush(organization);
     }
 
 
@@ -134,4 +145,36 @@ public class VulnerabilityServiceTest {
         assertEquals("http://new-source", original.getSourceUrl());
         assertEquals(List.of("ref1", "ref2"), original.getReferences());
     }
+
+    @Test
+    void testInsertMissingSkipsExistingVulnerabilities() {
+        Vulnerability vulnerability = vulnerabilityFactory.instantiate("VCID-nze3-w2ta-aaas", "Summary",
+                List.of("CVE-2022-25647"), "High", 0.5, 8.0, List.of(), "http://source", List.of(), organization);
+
+        assertEquals(1, vulnerabilityBulkDao.insertMissing(List.of(vulnerability)));
+        assertEquals(0, vulnerabilityBulkDao.insertMissing(List.of(vulnerability)));
+        assertEquals(1, vulnerabilityRepository.count());
+    }
+
+    @Test
+    void testUpsertAllReadsBackVulnerabilityInsertedConcurrently() {
+        // another consumer inserts the vulnerability after this one looked for it
+        vulnerabilityBulkDao.insertMissing(List.of(vulnerabilityFactory.instantiate("VCID-nze3-w2ta-aaas", "Other summary",
+                List.of(), "Low", 0.1, 3.0, List.of(), "http://other-source", List.of(), organization)));
+        doReturn(List.of()).doAnswer(invocation -> vulnerabilityRepository.findAll().stream()
+                        .filter(vulnerability -> invocation.<Collection<?>>getArgument(0).contains(vulnerability.getVulnerabilityId()))
+                        .toList())
+                .when(vulnerabilityRepository).findByVulnerabilityIdIn(anyCollection());
+
+        Map<String, Vulnerability> vulnerabilities = vulnerabilityService.upsertAll(List.of(
+                new VulnerabilityService.VulnerabilityData("VCID-nze3-w2ta-aaas", "New summary",
+                        List.of("CVE-2022-25647"), "High", 0.5, 8.0, List.of(), "http://new-source", List.of())),
+                organization);
+
+        assertEquals(1, vulnerabilityRepository.count());
+        Vulnerability vulnerability = vulnerabilities.get("VCID-nze3-w2ta-aaas");
+        assertNotNull(vulnerability.getId());
+        assertEquals("New summary", vulnerability.getSummary());
+        assertEquals("High", vulnerability.getSeverity());
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.service;
+
+import com.sun.net.httpserver.HttpServer;
+import eu.occtet.boc.vulnerability.model.vulnerablecode.PackageResultDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the client against a local stand-in of the VulnerableCode API, which answers every purl with one advisory.
+ */
+class VulnerableCodeApiClientTest {
+
+    private static final Pattern PURL = Pattern.compile("\"(pkg:[^\"]+)\"");
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+
+    private VulnerableCodeApiClient client;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/packages/bulk_lookup", exchange -> {
+            requests.incrementAndGet();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            List<String> packages = new ArrayList<>();
+            Matcher matcher = PURL.matcher(body);
+            while (matcher.find()) packages.add(packageJson(matcher.group(1)));
+            send(exchange, 200, "[" + String.join(",", packages) + "]");
+        });
+        server.start();
+
+        client = new VulnerableCodeApiClient();
+        ReflectionTestUtils.setField(client, "restClient", RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort()).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void bulkLookup_AnswersAllPurlsWithOneRequest() {
+        List<String> purls = new ArrayList<>();
+        for (int i = 0; i < 500; i++) purls.add("pkg:npm/lib" + i + "@1.0.0");
+
+        Optional<List<PackageResultDto>> packages = client.bulkLookup(purls);
+
+        assertTrue(packages.isPresent());
+        assertEquals(500, packages.get().size());
+        assertEquals(1, requests.get());
+        assertEquals("VCID-" + "pkg:npm/lib42@1.0.0".hashCode(),
+                packages.get().get(42).affectedByVulnerabilities().getFirst().vulnerabilityId());
+    }
+
+    @Test
+    void bulkLookup_IsEmptyWhenServiceFails() {
+        server.removeContext("/api/packages/bulk_lookup");
+        server.createContext("/api/packages/bulk_lookup", exchange -> send(exchange, 503, "{}"));
+
+        assertTrue(client.bulkLookup(List.of("pkg:npm/lib@1.0.0")).isEmpty());
+    }
+
+    private static String packageJson(String purl) {
+        String id = "VCID-" + purl.hashCode();
+        return "{\"purl\":\"" + purl + "\",\"is_vulnerable\":true,\"affected_by_vulnerabilities\":[{\"vulnerability_id\":\""
+                + id + "\",\"summary\":\"advisory of " + purl + "\",\"aliases\":[],\"references\":[],\"fixed_packages\":[],"
+                + "\"risk_score\":4.0,\"exploitability\":\"0.5\"}]}";
+    }
+
+    private static void send(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2025 Bitsea GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https:www.apache.orglicensesLICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *  License-Filename: LICENSE
+ */
+
+package eu.occtet.boc.vulnerability.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionsTest {
+
+    @Test
+    void compare_OrdersQualifiersBeforeRelease() {
+        List<String> ordered = List.of("1.0-dev", "1.0-alpha1", "1.0-beta", "1.0-M2", "1.0-rc1", "1.0-SNAPSHOT",
+                "1.0", "1.0-sp1", "1.0.1", "1.1", "1.10", "2.0.0-next.1", "2.0.0");
+        for (int i = 1; i < ordered.size(); i++) {
+            assertTrue(Versions.compare(ordered.get(i - 1), ordered.get(i)) < 0,
+                    ordered.get(i - 1) + " < " + ordered.get(i));
+            assertTrue(Versions.compare(ordered.get(i), ordered.get(i - 1)) > 0);
+        }
+    }
+
+    @Test
+    void compare_IgnoresPrefixTrailingZerosAndBuildMetadata() {
+        assertEquals(0, Versions.compare("1.0", "1.0.0"));
+        assertEquals(0, Versions.compare("v1.2.3", "1.2.3"));
+        assertEquals(0, Versions.compare("1.2.3+build.5", "1.2.3"));
+        assertEquals(0, Versions.compare("2.4.Final", "2.4"));
+        assertTrue(Versions.compare("1.0.0-rc.10", "1.0.0-rc.9") > 0);
+        assertTrue(Versions.compare("20230101", "9.9") > 0);
+    }
+
+    @Test
+    void isInRange_EvaluatesBounds() {
+        assertTrue(Versions.isInRange("2.12.1", "0", "2.12.7", null));
+        assertFalse(Versions.isInRange("2.12.7", "0", "2.12.7", null));
+        assertFalse(Versions.isInRange("2.9", "2.10.0", "2.12.7", null));
+        assertTrue(Versions.isInRange("1.4", "1.0", null, "1.4"));
+        assertFalse(Versions.isInRange("1.4.1", "1.0", null, "1.4"));
+        assertTrue(Versions.isInRange("5.0", "1.0", null, null));
+    }
+}